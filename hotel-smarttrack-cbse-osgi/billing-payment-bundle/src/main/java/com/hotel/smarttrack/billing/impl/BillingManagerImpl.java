@@ -1,29 +1,83 @@
 package com.hotel.smarttrack.billing.impl;
 
+import com.hotel.smarttrack.entity.AgingReport;
+import com.hotel.smarttrack.entity.IncidentalCharge;
 import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
 import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.entity.PaymentAuthorization;
+import com.hotel.smarttrack.entity.ReconciliationReport;
+import com.hotel.smarttrack.entity.RoomType;
 import com.hotel.smarttrack.entity.Stay;
 import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestProfileService;
+import com.hotel.smarttrack.service.PaymentGateway;
 import com.hotel.smarttrack.service.StayService;
+import com.hotel.smarttrack.service.TaxService;
 
 import org.osgi.service.component.annotations.*;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 @Component(service = BillingService.class, immediate = true)
 public class BillingManagerImpl implements BillingService {
 
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    // Days from issue until an unpaid invoice becomes OVERDUE
+    private static final int PAYMENT_TERMS_DAYS = Integer.getInteger("hotel.smarttrack.billing.payment.terms.days", 30);
+
     private final InvoiceRepository repo = new InvoiceRepository();
+    private final OverdueScheduler overdueScheduler = new OverdueScheduler(repo);
+    private final SettlementReconciler settlementReconciler = new SettlementReconciler(repo);
 
     // ============ OSGi Service Reference ============
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private volatile StayService stayService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY)
+    private volatile TaxService taxService;
+
+    // Highest-ranked gateway; a real processor replaces the simulator on the fly
+    @Reference(cardinality = ReferenceCardinality.MANDATORY, policy = ReferencePolicy.DYNAMIC,
+            policyOption = ReferencePolicyOption.GREEDY)
+    private volatile PaymentGateway paymentGateway;
+
+    private volatile PaymentGatewayClient gatewayClient;
+
+    private volatile GuestProfileService guestProfileService;
+
+    // Lifetime revenue follows every payment and refund
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    void bindGuestProfileService(GuestProfileService service) {
+        this.guestProfileService = service;
+        repo.replayPaidAmounts(this::publishPaidAmount);
+    }
+
+    void unbindGuestProfileService(GuestProfileService service) {
+        if (guestProfileService == service) {
+            guestProfileService = null;
+        }
+    }
+
     @Activate
     public void activate() {
         System.out.println("==============================================");
@@ -36,22 +90,24 @@ public class BillingManagerImpl implements BillingService {
         System.out.println("  - UC20 Compute Total Charges");
         System.out.println("==============================================");
 
+        gatewayClient = new PaymentGatewayClient(() -> paymentGateway);
+        repo.setPaymentListener(this::publishPaidAmount);
         loadSeedData();
         System.out.println("[BillingManagerImpl] Loaded " + repo.findAll().size() + " invoices");
+
+        int tracked = overdueScheduler.rebuild();
+        System.out.println("[BillingManagerImpl] Tracking due dates for " + tracked + " open invoice(s)");
     }
 
     private void loadSeedData() {
         try {
-            stayService.getStayById(1L).orElseThrow(
+            Stay stay = stayService.getStayById(1L).orElseThrow(
                     () -> new RuntimeException("Stay ID 1 not found"));
 
-            BigDecimal roomCharges = stayService.calculateRoomCharges(1L);
-            BigDecimal incidentalCharges = stayService.getTotalIncidentalCharges(1L);
-            BigDecimal subtotal = roomCharges.add(incidentalCharges);
-            BigDecimal taxes = subtotal.multiply(new BigDecimal("0.10"));
-            BigDecimal totalAmount = subtotal.add(taxes);
-
-            Invoice invoice = new Invoice(null, null, 1L, totalAmount, "Issued", LocalDateTime.now());
+            Invoice invoice = new Invoice(null, null, 1L, null, "Issued", LocalDateTime.now());
+            invoice.setAmountMoney(computeStayTotal(stay, stayService.getChargesForStay(1L)));
+            invoice.setDueDate(invoice.getIssuedAt().toLocalDate().plusDays(PAYMENT_TERMS_DAYS));
+            invoice.setInterim(stay.getCheckOutTime() == null);
             repo.save(invoice);
 
         } catch (Exception e) {
@@ -61,30 +117,177 @@ public class BillingManagerImpl implements BillingService {
 
     @Deactivate
     public void deactivate() {
+        overdueScheduler.close();
+        gatewayClient.close();
         System.out.println("[BillingManagerImpl] Bundle DEACTIVATED");
     }
 
+    /**
+     * Pass an invoice's paid amount on to GuestProfileService, with the guest
+     * of the invoice's stay.
+     */
+    private void publishPaidAmount(Invoice invoice, BigDecimal amountPaid) {
+        GuestProfileService profiles = guestProfileService;
+        if (profiles == null || invoice.getStayId() == null) {
+            return;
+        }
+        stayService.getStayById(invoice.getStayId())
+                .filter(stay -> stay.getGuest() != null)
+                .ifPresent(stay -> profiles.invoicePaymentsChanged(invoice.getInvoiceId(),
+                        stay.getGuest().getGuestId(), amountPaid));
+    }
+
     // ===================== UC17 =====================
 
     @Override
     public Invoice generateInvoice(Long stayId) {
+        // One invoice per stay - return the final one, re-price an interim one
+        Optional<Invoice> existing = repo.findByStayId(stayId);
+        if (existing.isPresent() && !existing.get().isInterim()) {
+            return existing.get();
+        }
+
         Stay stay = stayService.getStayById(stayId)
                 .orElseThrow(() -> new IllegalArgumentException("Stay not found: " + stayId));
 
-        BigDecimal roomCharges = stayService.calculateRoomCharges(stayId);
-        BigDecimal incidentalCharges = stayService.getTotalIncidentalCharges(stayId);
-        BigDecimal subtotal = roomCharges.add(incidentalCharges);
-        BigDecimal taxes = subtotal.multiply(new BigDecimal("0.10"));
-        BigDecimal totalAmount = subtotal.add(taxes);
+        Invoice priced = newInvoice(stay, computeStayTotal(stay, stayService.getChargesForStay(stayId)),
+                LocalDateTime.now());
+        return existing.isPresent() ? reprice(existing.get(), priced) : saveOrGetExisting(priced);
+    }
 
+    /**
+     * Batch invoicing: incidentals for all stays are collected in one pass,
+     * stays are priced in parallel on a fork-join pool, then saved. Interim
+     * invoices are re-priced, as in generateInvoice.
+     */
+    @Override
+    public List<Invoice> generateInvoices(Collection<Long> stayIds) {
+        if (stayIds == null)
+            throw new IllegalArgumentException("Stay IDs cannot be null");
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(stayIds));
+        if (ids.contains(null))
+            throw new IllegalArgumentException("Stay IDs cannot contain null");
+
+        Map<Long, Invoice> byStay = new HashMap<>();
+        Map<Long, Invoice> interim = new HashMap<>();
+        List<Stay> toInvoice = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Optional<Invoice> existing = repo.findByStayId(id);
+            if (existing.isPresent() && !existing.get().isInterim()) {
+                byStay.put(id, existing.get());
+                continue;
+            }
+            existing.ifPresent(inv -> interim.put(id, inv));
+            Optional<Stay> stay = stayService.getStayById(id);
+            if (stay.isPresent()) {
+                toInvoice.add(stay.get());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty())
+            throw new IllegalArgumentException("Stay not found: " + missing);
+
+        if (!toInvoice.isEmpty()) {
+            Map<Long, List<IncidentalCharge>> incidentals = stayService.getChargesForStays(
+                    toInvoice.stream().map(Stay::getStayId).collect(Collectors.toList()));
+            LocalDateTime issuedAt = LocalDateTime.now();
+
+            ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+            try {
+                List<Invoice> priced = pool.submit(() -> toInvoice.parallelStream()
+                        .map(stay -> newInvoice(stay,
+                                computeStayTotal(stay, incidentals.getOrDefault(stay.getStayId(), List.of())),
+                                issuedAt))
+                        .collect(Collectors.toList()))
+                        .join();
+                for (Invoice inv : priced) {
+                    Invoice current = interim.get(inv.getStayId());
+                    byStay.put(inv.getStayId(), current != null ? reprice(current, inv) : saveOrGetExisting(inv));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        System.out.println("[BillingManagerImpl] Batch invoicing: " + (toInvoice.size() - interim.size())
+                + " generated, " + interim.size() + " interim re-priced, " + (ids.size() - toInvoice.size())
+                + " already invoiced");
+
+        List<Invoice> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(byStay.get(id));
+        }
+        return result;
+    }
+
+    private Invoice newInvoice(Stay stay, Money total, LocalDateTime issuedAt) {
         Invoice inv = new Invoice();
-        inv.setStayId(stayId);
+        inv.setStayId(stay.getStayId());
         inv.setReservationId(stay.getReservation() != null ? stay.getReservation().getReservationId() : null);
-        inv.setAmount(totalAmount);
+        inv.setAmountMoney(total);
         inv.setStatus("UNPAID");
-        inv.setIssuedAt(LocalDateTime.now());
+        inv.setIssuedAt(issuedAt);
+        inv.setDueDate(issuedAt.toLocalDate().plusDays(PAYMENT_TERMS_DAYS));
+        inv.setInterim(stay.getCheckOutTime() == null);
+        return inv;
+    }
+
+    private Invoice saveOrGetExisting(Invoice inv) {
+        try {
+            Invoice saved = repo.save(inv);
+            overdueScheduler.track(saved);
+            return saved;
+        } catch (IllegalStateException e) {
+            // Lost a race with a concurrent generateInvoice for the same stay
+            return repo.findByStayId(inv.getStayId()).orElseThrow(() -> e);
+        }
+    }
 
-        return repo.save(inv);
+    /**
+     * Re-price an interim invoice in place, keeping its payments; it is final
+     * once the stay has checked out.
+     */
+    private Invoice reprice(Invoice interim, Invoice priced) {
+        Invoice saved = repo.reprice(interim.getInvoiceId(), priced);
+        overdueScheduler.track(saved);
+        return saved;
+    }
+
+    /**
+     * Room charges + incidentals + tax, computed in minor units. Tax comes
+     * from TaxService: room charges taxed as one line for the nights stayed,
+     * each incidental by its service type.
+     */
+    private Money computeStayTotal(Stay stay, List<IncidentalCharge> charges) {
+        RoomType roomType = stay.getRoom() != null ? stay.getRoom().getRoomType() : null;
+        long room = Money.toMinorUnits(stayService.calculateRoomCharges(stay.getStayId()));
+        long incidentals = 0L;
+        long tax = roomType != null
+                ? taxService.computeTaxMinor(TaxService.CHARGE_ROOM, roomType, stay.getGuest(), room, nightsStayed(stay))
+                : 0L;
+        for (IncidentalCharge charge : charges) {
+            Money amount = charge.getAmountMoney();
+            if (amount != null) {
+                incidentals += amount.getMinorUnits();
+                tax += taxService.computeTaxMinor(charge.getServiceType(), roomType, stay.getGuest(),
+                        amount.getMinorUnits(), 0L);
+            }
+        }
+        return Money.ofMinor(room + incidentals + tax);
+    }
+
+    /**
+     * Nights charged by StayService.calculateRoomCharges: check-in to
+     * check-out (or now), minimum one.
+     */
+    private static long nightsStayed(Stay stay) {
+        if (stay.getCheckInTime() == null) {
+            return 1L;
+        }
+        LocalDateTime checkOut = stay.getCheckOutTime() != null ? stay.getCheckOutTime() : LocalDateTime.now();
+        return Math.max(ChronoUnit.DAYS.between(stay.getCheckInTime().toLocalDate(), checkOut.toLocalDate()), 1L);
     }
 
     @Override
@@ -97,9 +300,19 @@ public class BillingManagerImpl implements BillingService {
         return repo.findByStayId(stayId);
     }
 
+    /**
+     * Invoices carry no guest; they are found through the guest's stays.
+     */
     @Override
     public List<Invoice> getInvoicesByGuest(Long guestId) {
-        return List.of();
+        if (guestId == null) {
+            return List.of();
+        }
+        List<Invoice> invoices = new ArrayList<>();
+        for (Stay stay : stayService.getGuestStayHistory(guestId)) {
+            repo.findByStayId(stay.getStayId()).ifPresent(invoices::add);
+        }
+        return invoices;
     }
 
     @Override
@@ -131,16 +344,52 @@ public class BillingManagerImpl implements BillingService {
 
     @Override
     public BigDecimal computeTax(BigDecimal subtotal, BigDecimal taxRate) {
-        if (subtotal == null || taxRate == null)
-            return BigDecimal.ZERO;
-        return subtotal.multiply(taxRate);
+        return taxService.computeTax(subtotal, taxRate);
     }
 
     // ===================== UC18 =====================
 
     @Override
     public Payment processPayment(Long invoiceId, BigDecimal amount, String paymentMethod) {
-        return repo.addPayment(invoiceId, amount, paymentMethod, null);
+        try {
+            return processPaymentAsync(invoiceId, amount, paymentMethod).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Payment> processPaymentAsync(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Invalid payment amount");
+        }
+        if (amount.compareTo(repo.getOutstandingBalance(invoiceId)) > 0) {
+            throw new IllegalArgumentException("Payment exceeds outstanding balance");
+        }
+
+        String idempotencyKey = "PAY-" + UUID.randomUUID();
+        return gatewayClient.authorize(idempotencyKey, invoiceId, amount, paymentMethod)
+                .thenApply(authorization -> recordAuthorizedPayment(invoiceId, amount, paymentMethod, authorization));
+    }
+
+    /**
+     * Record an approved payment; void it with the gateway if the balance
+     * changed meanwhile and it can no longer be recorded.
+     */
+    private Payment recordAuthorizedPayment(Long invoiceId, BigDecimal amount, String paymentMethod,
+            PaymentAuthorization authorization) {
+        if (!authorization.isApproved()) {
+            throw new IllegalStateException("Payment declined: " + authorization.getMessage());
+        }
+        try {
+            return repo.addPayment(invoiceId, amount, paymentMethod, authorization.getTransactionReference());
+        } catch (RuntimeException e) {
+            gatewayClient.voidAuthorization(authorization.getTransactionReference());
+            throw e;
+        }
     }
 
     @Override
@@ -154,6 +403,14 @@ public class BillingManagerImpl implements BillingService {
         return repo.getPayments(invoiceId);
     }
 
+    @Override
+    public Map<Long, BigDecimal> getAmountsPaid() {
+        Map<Long, BigDecimal> paid = new HashMap<>();
+        repo.getPaidMinorUnitsByInvoice()
+                .forEach((invoiceId, minorUnits) -> paid.put(invoiceId, Money.ofMinor(minorUnits).toBigDecimal()));
+        return paid;
+    }
+
     @Override
     public void refundPayment(Long paymentId) {
         repo.refundPayment(paymentId);
@@ -183,7 +440,7 @@ public class BillingManagerImpl implements BillingService {
 
     @Override
     public List<Invoice> getOverdueInvoices() {
-        return List.of();
+        return repo.findByStatus("OVERDUE");
     }
 
     @Override
@@ -201,19 +458,53 @@ public class BillingManagerImpl implements BillingService {
     public void removeDiscount(Long invoiceId) {
     }
 
+    /**
+     * Net payments taken in the date range (payments on their payment date,
+     * refunds on their refund date). Blank dates leave the range open.
+     */
     @Override
     public BigDecimal getTotalRevenue(String startDate, String endDate) {
-        BigDecimal sum = BigDecimal.ZERO;
-        for (Invoice inv : repo.findAll()) {
-            if ("PAID".equalsIgnoreCase(inv.getStatus()) && inv.getAmount() != null) {
-                sum = sum.add(inv.getAmount());
-            }
+        return Money.ofMinor(repo.getRevenueMinorUnits(parseDate(startDate), parseDate(endDate))).toBigDecimal();
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null || date.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date (expected yyyy-MM-dd): " + date);
         }
-        return sum;
     }
 
     @Override
     public List<Invoice> getInvoicesByStatus(String status) {
         return new ArrayList<>(repo.findByStatus(status));
     }
+
+    // ===================== Settlement Reconciliation =====================
+
+    @Override
+    public ReconciliationReport reconcileSettlement(String filePath, LocalDate from, LocalDate to) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("Settlement file path is required");
+        }
+        return settlementReconciler.reconcile(Path.of(filePath.trim()), from, to);
+    }
+
+    // ===================== Receivables Aging =====================
+
+    @Override
+    public AgingReport getAgingReport() {
+        return repo.getAgingReport();
+    }
+
+    @Override
+    public List<Invoice> getInvoicesInAgingBucket(AgingReport.Bucket bucket) {
+        if (bucket == null) {
+            throw new IllegalArgumentException("Aging bucket is required");
+        }
+        return repo.findByAgingBucket(bucket);
+    }
 }
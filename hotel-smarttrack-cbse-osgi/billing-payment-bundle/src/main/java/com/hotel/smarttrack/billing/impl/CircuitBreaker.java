@@ -0,0 +1,90 @@
+package com.hotel.smarttrack.billing.impl;
+
+import java.time.Clock;
+
+/**
+ * Circuit breaker for the payment gateway.
+ * Thread-safe; all state changes are synchronized.
+ *
+ * CLOSED: calls pass; {@code failureThreshold} consecutive failures open it.
+ * OPEN: calls are rejected at once until {@code openMillis} have passed.
+ * HALF_OPEN: one trial call passes; success closes, failure re-opens.
+ *
+ * Failing fast while the processor is down keeps payment threads and the
+ * in-flight window free instead of waiting out a timeout per request.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis, Clock clock) {
+        if (failureThreshold < 1 || openMillis < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may go out now. In HALF_OPEN only one trial call is
+     * let through until its outcome is recorded.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.millis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            System.out.println("[CircuitBreaker] Payment gateway recovered - circuit CLOSED");
+        }
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clock.millis();
+            System.out.println("[CircuitBreaker] " + consecutiveFailures
+                    + " consecutive gateway failure(s) - circuit OPEN for " + openMillis + " ms");
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
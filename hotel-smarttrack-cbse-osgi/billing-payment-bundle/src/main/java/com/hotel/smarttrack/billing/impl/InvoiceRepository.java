@@ -1,32 +1,93 @@
 package com.hotel.smarttrack.billing.impl;
 
+import com.hotel.smarttrack.entity.AgingReport;
 import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
 import com.hotel.smarttrack.entity.Payment;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * In-memory repository for invoices and their payments.
+ * Thread-safe using ConcurrentHashMap.
+ */
 public class InvoiceRepository {
 
     private final Map<Long, Invoice> invoices = new ConcurrentHashMap<>();
 
+    // ============ Indexes ============
+
+    private final Map<Long, Long> invoiceIdByStay = new ConcurrentHashMap<>();
+    private final Map<Long, Long> invoiceIdByReservation = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> invoiceIdsByStatus = new ConcurrentHashMap<>();
+    // What each invoice is currently indexed under, so stale keys can be removed
+    private final Map<Long, IndexEntry> indexEntries = new ConcurrentHashMap<>();
+
     private final Map<Long, List<Payment>> paymentsByInvoice = new ConcurrentHashMap<>();
     private final Map<Long, Payment> paymentsById = new ConcurrentHashMap<>();
+    private final Map<String, List<Payment>> paymentsByReference = new ConcurrentHashMap<>();
+    private final RevenueIndex revenueIndex = new RevenueIndex();
+    private final ReceivablesAging aging = new ReceivablesAging();
+
+    // Power of two so the stripe is a mask of the spread invoice id
+    private static final int LOCK_STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
 
     private final AtomicLong invoiceIdGen = new AtomicLong(1);
     private final AtomicLong paymentIdGen = new AtomicLong(1);
 
+    private volatile PaymentListener paymentListener;
+
+    /**
+     * Receives an invoice's net paid amount (completed payments less refunds)
+     * whenever a payment or refund changes it.
+     */
+    public interface PaymentListener {
+        void paidAmountChanged(Invoice invoice, BigDecimal amountPaid);
+    }
+
+    public InvoiceRepository() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Save an invoice and update its indexes; status changes must be saved
+     * rather than set on a returned Invoice. Rejects a second invoice for the
+     * same stay or reservation.
+     */
     public Invoice save(Invoice invoice) {
         if (invoice == null)
             throw new IllegalArgumentException("Invoice is null");
 
-        if (invoice.getInvoiceId() == null) {
+        boolean isNew = invoice.getInvoiceId() == null;
+        if (isNew) {
             invoice.setInvoiceId(invoiceIdGen.getAndIncrement());
         }
-        invoices.put(invoice.getInvoiceId(), invoice);
+        Long id = invoice.getInvoiceId();
+        try {
+            // compute() serializes index updates for the same invoice
+            invoices.compute(id, (key, existing) -> {
+                reindex(id, IndexEntry.of(invoice));
+                aging.update(id, invoice.getIssuedAt() != null ? invoice.getIssuedAt().toLocalDate() : null,
+                        outstandingMinorUnits(invoice));
+                return invoice;
+            });
+        } catch (IllegalStateException e) {
+            if (isNew) {
+                invoice.setInvoiceId(null);
+            }
+            throw e;
+        }
         return invoice;
     }
 
@@ -43,34 +104,29 @@ public class InvoiceRepository {
     public Optional<Invoice> findByStayId(Long stayId) {
         if (stayId == null)
             return Optional.empty();
-        for (Invoice i : invoices.values()) {
-            if (Objects.equals(i.getStayId(), stayId)) {
-                return Optional.of(i);
-            }
-        }
-        return Optional.empty();
+        return findIndexed(invoiceIdByStay.get(stayId));
     }
 
     public Optional<Invoice> findByReservationId(Long reservationId) {
         if (reservationId == null)
             return Optional.empty();
-        for (Invoice i : invoices.values()) {
-            if (Objects.equals(i.getReservationId(), reservationId)) {
-                return Optional.of(i);
-            }
-        }
-        return Optional.empty();
+        return findIndexed(invoiceIdByReservation.get(reservationId));
     }
 
     public List<Invoice> findByStatus(String status) {
         if (status == null)
             return List.of();
-        List<Invoice> result = new ArrayList<>();
-        for (Invoice i : invoices.values()) {
-            if (i.getStatus() != null && status.equalsIgnoreCase(i.getStatus())) {
+        Set<Long> ids = invoiceIdsByStatus.get(statusKey(status));
+        if (ids == null)
+            return List.of();
+        List<Invoice> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Invoice i = invoices.get(id);
+            if (i != null && status.equalsIgnoreCase(i.getStatus())) {
                 result.add(i);
             }
         }
+        result.sort(Comparator.comparing(Invoice::getInvoiceId));
         return result;
     }
 
@@ -78,8 +134,39 @@ public class InvoiceRepository {
         Invoice inv = invoices.get(invoiceId);
         if (inv == null)
             throw new IllegalArgumentException("Invoice not found: " + invoiceId);
-        inv.setStatus(status);
-        save(inv);
+
+        ReentrantLock lock = lockFor(invoiceId);
+        lock.lock();
+        try {
+            inv.setStatus(status);
+            save(inv);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Carry a fresh pricing (amount, issue and due dates, interim flag) over
+     * to an invoice, keeping its payments; the status is recomputed from
+     * them under the invoice lock.
+     */
+    public Invoice reprice(Long invoiceId, Invoice priced) {
+        Invoice inv = invoices.get(invoiceId);
+        if (inv == null)
+            throw new IllegalArgumentException("Invoice not found: " + invoiceId);
+
+        ReentrantLock lock = lockFor(invoiceId);
+        lock.lock();
+        try {
+            inv.setAmountMoney(priced.getAmountMoney());
+            inv.setIssuedAt(priced.getIssuedAt());
+            inv.setDueDate(priced.getDueDate());
+            inv.setInterim(priced.isInterim());
+            refreshStatus(inv);
+            return save(inv);
+        } finally {
+            lock.unlock();
+        }
     }
 
     // ===== Payments =====
@@ -93,38 +180,40 @@ public class InvoiceRepository {
             throw new IllegalArgumentException("Invalid payment amount");
         }
 
-        BigDecimal outstanding = getOutstandingBalance(invoiceId);
-        if (amount.compareTo(outstanding) > 0) {
-            throw new IllegalArgumentException("Payment exceeds outstanding balance");
-        }
-
-        Payment p = new Payment();
-        long pid = paymentIdGen.getAndIncrement();
-
-        p.setPaymentId(pid);
-        p.setInvoiceId(invoiceId);
-        p.setAmount(amount);
-        p.setPaymentMethod(method == null ? "Unknown" : method);
-        p.setTransactionReference(txRef);
-        p.setPaymentTime(LocalDateTime.now());
-        p.setStatus("COMPLETED");
+        ReentrantLock lock = lockFor(invoiceId);
+        lock.lock();
+        try {
+            // Balance check and append must not interleave with another payment
+            if (Money.toMinorUnits(amount) > outstandingMinorUnits(inv)) {
+                throw new IllegalArgumentException("Payment exceeds outstanding balance");
+            }
 
-        paymentsById.put(pid, p);
-        paymentsByInvoice.computeIfAbsent(invoiceId, k -> new ArrayList<>()).add(p);
+            Payment p = new Payment();
+            long pid = paymentIdGen.getAndIncrement();
+
+            p.setPaymentId(pid);
+            p.setInvoiceId(invoiceId);
+            p.setAmount(amount);
+            p.setPaymentMethod(method == null ? "Unknown" : method);
+            p.setTransactionReference(txRef);
+            p.setPaymentTime(LocalDateTime.now());
+            p.setStatus("COMPLETED");
+
+            paymentsById.put(pid, p);
+            paymentsByInvoice.computeIfAbsent(invoiceId, k -> new CopyOnWriteArrayList<>()).add(p);
+            if (txRef != null) {
+                paymentsByReference.computeIfAbsent(txRef, k -> new CopyOnWriteArrayList<>()).add(p);
+            }
+            revenueIndex.add(p.getPaymentTime().toLocalDate(), p.getAmountMoney().getMinorUnits());
 
-        BigDecimal total = inv.getAmount() == null ? BigDecimal.ZERO : inv.getAmount();
-        BigDecimal paid = getPaidAmount(invoiceId);
+            refreshStatus(inv);
+            save(inv);
+            notifyPaidAmount(inv);
 
-        if (paid.compareTo(total) >= 0 && total.compareTo(BigDecimal.ZERO) > 0) {
-            inv.setStatus("PAID");
-        } else if (paid.compareTo(BigDecimal.ZERO) > 0) {
-            inv.setStatus("PARTIALLY_PAID");
-        } else {
-            inv.setStatus("UNPAID");
+            return p;
+        } finally {
+            lock.unlock();
         }
-        save(inv);
-
-        return p;
     }
 
     public List<Payment> getPayments(Long invoiceId) {
@@ -137,40 +226,169 @@ public class InvoiceRepository {
         return Optional.ofNullable(paymentsById.get(paymentId));
     }
 
+    /**
+     * Payments recorded with a processor transaction reference (normally one).
+     */
+    public List<Payment> findPaymentsByReference(String transactionReference) {
+        if (transactionReference == null)
+            return List.of();
+        return new ArrayList<>(paymentsByReference.getOrDefault(transactionReference, List.of()));
+    }
+
+    /**
+     * Payments with a transaction reference made in [from, to).
+     */
+    public List<Payment> findReferencedPaymentsBetween(LocalDateTime from, LocalDateTime to) {
+        List<Payment> result = new ArrayList<>();
+        for (List<Payment> payments : paymentsByReference.values()) {
+            for (Payment p : payments) {
+                LocalDateTime time = p.getPaymentTime();
+                if (time != null && !time.isBefore(from) && time.isBefore(to)) {
+                    result.add(p);
+                }
+            }
+        }
+        result.sort(Comparator.comparing(Payment::getPaymentId));
+        return result;
+    }
+
     public void refundPayment(Long paymentId) {
         Payment p = paymentsById.get(paymentId);
         if (p == null)
             throw new IllegalArgumentException("Payment not found: " + paymentId);
-        p.setStatus("REFUNDED");
 
         Long invoiceId = p.getInvoiceId();
-        if (invoiceId != null && invoices.containsKey(invoiceId)) {
+        if (invoiceId == null) {
+            p.setStatus("REFUNDED");
+            return;
+        }
+
+        ReentrantLock lock = lockFor(invoiceId);
+        lock.lock();
+        try {
+            if ("COMPLETED".equalsIgnoreCase(p.getStatus()) && p.getAmountMoney() != null) {
+                // Refunds reduce revenue on the day they post
+                revenueIndex.add(LocalDate.now(), -p.getAmountMoney().getMinorUnits());
+            }
+            p.setStatus("REFUNDED");
             Invoice inv = invoices.get(invoiceId);
-            BigDecimal total = inv.getAmount() == null ? BigDecimal.ZERO : inv.getAmount();
-            BigDecimal paid = getPaidAmount(invoiceId);
+            if (inv != null) {
+                refreshStatus(inv);
+                save(inv);
+                notifyPaidAmount(inv);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            if (paid.compareTo(total) >= 0 && total.compareTo(BigDecimal.ZERO) > 0) {
-                inv.setStatus("PAID");
-            } else if (paid.compareTo(BigDecimal.ZERO) > 0) {
-                inv.setStatus("PARTIALLY_PAID");
-            } else {
-                inv.setStatus("UNPAID");
+    // ===== Payment Listener =====
+
+    public void setPaymentListener(PaymentListener listener) {
+        this.paymentListener = listener;
+    }
+
+    /**
+     * Tell a listener every invoice's current paid amount, each under its
+     * invoice lock so it cannot overtake a payment being recorded.
+     */
+    public void replayPaidAmounts(PaymentListener listener) {
+        for (Invoice inv : invoices.values()) {
+            ReentrantLock lock = lockFor(inv.getInvoiceId());
+            lock.lock();
+            try {
+                listener.paidAmountChanged(inv, getPaidAmount(inv.getInvoiceId()));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void notifyPaidAmount(Invoice inv) {
+        PaymentListener listener = paymentListener;
+        if (listener != null) {
+            listener.paidAmountChanged(inv, getPaidAmount(inv.getInvoiceId()));
+        }
+    }
+
+    // ===== Overdue =====
+
+    /**
+     * Move an invoice to OVERDUE if its due date is before {@code today} and
+     * it still has a balance. Called by the OverdueScheduler when the due
+     * date lapses; re-checks under the invoice lock since a payment may
+     * have settled it in the meantime.
+     *
+     * @return true if the invoice was moved to OVERDUE
+     */
+    public boolean markOverdue(Long invoiceId, LocalDate today) {
+        if (invoiceId == null)
+            return false;
+
+        ReentrantLock lock = lockFor(invoiceId);
+        lock.lock();
+        try {
+            Invoice inv = invoices.get(invoiceId);
+            if (inv == null || "OVERDUE".equalsIgnoreCase(inv.getStatus()) || !isLapsed(inv, today)
+                    || outstandingMinorUnits(inv) == 0L) {
+                return false;
             }
+            inv.setStatus("OVERDUE");
             save(inv);
+            return true;
+        } finally {
+            lock.unlock();
         }
     }
 
+    private static boolean isLapsed(Invoice inv, LocalDate today) {
+        return inv.getDueDate() != null && inv.getDueDate().isBefore(today);
+    }
+
+    // ===== Aging =====
+
+    public AgingReport getAgingReport() {
+        return aging.report();
+    }
+
+    /**
+     * Open invoices in an aging bucket, by invoice id.
+     */
+    public List<Invoice> findByAgingBucket(AgingReport.Bucket bucket) {
+        List<Long> ids = aging.invoiceIds(bucket);
+        List<Invoice> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Invoice i = invoices.get(id);
+            if (i != null) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
     // ===== Balance helpers =====
 
+    /**
+     * Net payments taken between two business dates (inclusive), in minor units.
+     * A null date leaves that side of the range open.
+     */
+    public long getRevenueMinorUnits(LocalDate startDate, LocalDate endDate) {
+        return revenueIndex.sum(startDate, endDate);
+    }
+
     public BigDecimal getPaidAmount(Long invoiceId) {
-        List<Payment> list = paymentsByInvoice.getOrDefault(invoiceId, List.of());
-        BigDecimal sum = BigDecimal.ZERO;
-        for (Payment p : list) {
-            if (p.getAmount() != null && "COMPLETED".equalsIgnoreCase(p.getStatus())) {
-                sum = sum.add(p.getAmount());
-            }
+        return Money.ofMinor(paidMinorUnits(invoiceId)).toBigDecimal();
+    }
+
+    /**
+     * Net paid amount of every invoice, in minor units.
+     */
+    public Map<Long, Long> getPaidMinorUnitsByInvoice() {
+        Map<Long, Long> paid = new HashMap<>(invoices.size() * 2);
+        for (Long invoiceId : invoices.keySet()) {
+            paid.put(invoiceId, paidMinorUnits(invoiceId));
         }
-        return sum;
+        return paid;
     }
 
     public BigDecimal getOutstandingBalance(Long invoiceId) {
@@ -178,10 +396,134 @@ public class InvoiceRepository {
         if (inv == null)
             throw new IllegalArgumentException("Invoice not found: " + invoiceId);
 
-        BigDecimal amount = inv.getAmount() == null ? BigDecimal.ZERO : inv.getAmount();
-        BigDecimal paid = getPaidAmount(invoiceId);
+        return Money.ofMinor(outstandingMinorUnits(inv)).toBigDecimal();
+    }
+
+    private long paidMinorUnits(Long invoiceId) {
+        long sum = 0L;
+        for (Payment p : paymentsByInvoice.getOrDefault(invoiceId, List.of())) {
+            Money amount = p.getAmountMoney();
+            if (amount != null && "COMPLETED".equalsIgnoreCase(p.getStatus())) {
+                sum += amount.getMinorUnits();
+            }
+        }
+        return sum;
+    }
+
+    private long totalMinorUnits(Invoice inv) {
+        return inv.getAmountMoney() == null ? 0L : inv.getAmountMoney().getMinorUnits();
+    }
+
+    private long outstandingMinorUnits(Invoice inv) {
+        return Math.max(totalMinorUnits(inv) - paidMinorUnits(inv.getInvoiceId()), 0L);
+    }
+
+    private void refreshStatus(Invoice inv) {
+        long total = totalMinorUnits(inv);
+        long paid = paidMinorUnits(inv.getInvoiceId());
+
+        if (paid >= total && total > 0L) {
+            inv.setStatus("PAID");
+        } else if (total > paid && isLapsed(inv, LocalDate.now())) {
+            inv.setStatus("OVERDUE");
+        } else if (paid > 0L) {
+            inv.setStatus("PARTIALLY_PAID");
+        } else {
+            inv.setStatus("UNPAID");
+        }
+    }
+
+    private ReentrantLock lockFor(Long invoiceId) {
+        int h = invoiceId.hashCode();
+        h ^= (h >>> 16);
+        return locks[h & (LOCK_STRIPES - 1)];
+    }
+
+    // ===== Index helpers =====
+
+    private Optional<Invoice> findIndexed(Long invoiceId) {
+        return invoiceId == null ? Optional.empty() : Optional.ofNullable(invoices.get(invoiceId));
+    }
+
+    /**
+     * Move an invoice's index entries to {@code entry}. Called inside
+     * invoices.compute() for the invoice, so never concurrently for one id.
+     */
+    private void reindex(Long id, IndexEntry entry) {
+        IndexEntry previous = indexEntries.get(id);
+
+        boolean stayClaimed = claim(invoiceIdByStay, entry.stayId, id, "stay");
+        try {
+            claim(invoiceIdByReservation, entry.reservationId, id, "reservation");
+        } catch (IllegalStateException e) {
+            if (stayClaimed) {
+                invoiceIdByStay.remove(entry.stayId, id);
+            }
+            throw e;
+        }
+
+        if (previous != null) {
+            if (previous.stayId != null && !previous.stayId.equals(entry.stayId)) {
+                invoiceIdByStay.remove(previous.stayId, id);
+            }
+            if (previous.reservationId != null && !previous.reservationId.equals(entry.reservationId)) {
+                invoiceIdByReservation.remove(previous.reservationId, id);
+            }
+        }
 
-        BigDecimal outstanding = amount.subtract(paid);
-        return outstanding.compareTo(BigDecimal.ZERO) < 0 ? BigDecimal.ZERO : outstanding;
+        String oldStatus = previous != null ? previous.statusKey : null;
+        if (!Objects.equals(oldStatus, entry.statusKey)) {
+            if (oldStatus != null) {
+                invoiceIdsByStatus.computeIfPresent(oldStatus, (k, ids) -> {
+                    ids.remove(id);
+                    return ids;
+                });
+            }
+            if (entry.statusKey != null) {
+                invoiceIdsByStatus.computeIfAbsent(entry.statusKey, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        indexEntries.put(id, entry);
+    }
+
+    /**
+     * Point a unique key at the invoice.
+     *
+     * @return true if the key was newly claimed, false if already held or null
+     * @throws IllegalStateException if another invoice holds the key
+     */
+    private static boolean claim(Map<Long, Long> index, Long key, Long id, String keyName) {
+        if (key == null) {
+            return false;
+        }
+        Long owner = index.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id)) {
+            throw new IllegalStateException("Invoice " + owner + " already exists for " + keyName + ": " + key);
+        }
+        return owner == null;
+    }
+
+    private static String statusKey(String status) {
+        return status == null ? null : status.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Index keys an invoice was last saved with.
+     */
+    private static final class IndexEntry {
+        private final Long stayId;
+        private final Long reservationId;
+        private final String statusKey;
+
+        private IndexEntry(Long stayId, Long reservationId, String statusKey) {
+            this.stayId = stayId;
+            this.reservationId = reservationId;
+            this.statusKey = statusKey;
+        }
+
+        static IndexEntry of(Invoice invoice) {
+            return new IndexEntry(invoice.getStayId(), invoice.getReservationId(), statusKey(invoice.getStatus()));
+        }
     }
 }
@@ -0,0 +1,154 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.Invoice;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves invoices to OVERDUE when their due date lapses.
+ *
+ * Open invoices sit in a priority queue ordered by due date. A single
+ * daemon thread sleeps until the next midnight at which the earliest due
+ * date lapses, then pops only the lapsed entries - each transition costs
+ * one queue poll, and invoices not yet due are never looked at.
+ *
+ * Entries are not removed when an invoice is paid or its due date changes;
+ * InvoiceRepository.markOverdue re-checks the invoice when the entry fires.
+ * The queue is rebuilt from the repository on activation.
+ */
+public class OverdueScheduler implements Closeable {
+
+    private final InvoiceRepository repo;
+    private final Clock clock;
+    private final ScheduledExecutorService timer;
+
+    private final PriorityQueue<DueEntry> queue = new PriorityQueue<>();
+    private ScheduledFuture<?> pending;
+    private LocalDate pendingFor;
+
+    public OverdueScheduler(InvoiceRepository repo) {
+        this(repo, Clock.systemDefaultZone());
+    }
+
+    public OverdueScheduler(InvoiceRepository repo, Clock clock) {
+        this.repo = repo;
+        this.clock = clock;
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "invoice-overdue-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Track an invoice's due date. Invoices without a due date, or already
+     * paid, are ignored.
+     */
+    public synchronized void track(Invoice invoice) {
+        if (invoice == null || invoice.getInvoiceId() == null || invoice.getDueDate() == null
+                || "PAID".equalsIgnoreCase(invoice.getStatus())) {
+            return;
+        }
+        queue.add(new DueEntry(invoice.getDueDate(), invoice.getInvoiceId()));
+        arm();
+    }
+
+    /**
+     * Load every open invoice from the repository and fire anything that
+     * lapsed while the bundle was down.
+     */
+    public synchronized int rebuild() {
+        queue.clear();
+        for (Invoice invoice : repo.findAll()) {
+            if (invoice.getDueDate() != null && !"PAID".equalsIgnoreCase(invoice.getStatus())
+                    && !"OVERDUE".equalsIgnoreCase(invoice.getStatus())) {
+                queue.add(new DueEntry(invoice.getDueDate(), invoice.getInvoiceId()));
+            }
+        }
+        int tracked = queue.size();
+        runDue();
+        return tracked;
+    }
+
+    /**
+     * Fire every entry whose due date is before today.
+     *
+     * @return Number of invoices moved to OVERDUE
+     */
+    public synchronized int runDue() {
+        LocalDate today = LocalDate.now(clock);
+        int transitioned = 0;
+        while (!queue.isEmpty() && queue.peek().dueDate.isBefore(today)) {
+            if (repo.markOverdue(queue.poll().invoiceId, today)) {
+                transitioned++;
+            }
+        }
+        if (transitioned > 0) {
+            System.out.println("[OverdueScheduler] " + transitioned + " invoice(s) now OVERDUE");
+        }
+        if (pending != null && !pendingFor.isAfter(today)) {
+            // This run is the wake-up that was pending
+            pending = null;
+        }
+        arm();
+        return transitioned;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Schedule a wake-up for the midnight after the earliest due date,
+     * replacing a later wake-up if the queue head moved earlier.
+     */
+    private void arm() {
+        DueEntry head = queue.peek();
+        if (head == null || timer.isShutdown()) {
+            return;
+        }
+        LocalDate fireOn = head.dueDate.plusDays(1);
+        if (pending != null && !pending.isDone() && !fireOn.isBefore(pendingFor)) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        long delayMs = Math.max(Duration.between(now, fireOn.atStartOfDay(now.getZone())).toMillis(), 0L);
+        pendingFor = fireOn;
+        pending = timer.schedule(this::runDue, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static final class DueEntry implements Comparable<DueEntry> {
+        private final LocalDate dueDate;
+        private final Long invoiceId;
+
+        DueEntry(LocalDate dueDate, Long invoiceId) {
+            this.dueDate = dueDate;
+            this.invoiceId = invoiceId;
+        }
+
+        @Override
+        public int compareTo(DueEntry other) {
+            int byDate = dueDate.compareTo(other.dueDate);
+            return byDate != 0 ? byDate : invoiceId.compareTo(other.invoiceId);
+        }
+    }
+}
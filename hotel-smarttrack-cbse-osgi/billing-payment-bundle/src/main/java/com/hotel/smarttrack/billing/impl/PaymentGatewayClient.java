@@ -0,0 +1,242 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.PaymentAuthorization;
+import com.hotel.smarttrack.service.PaymentGateway;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * PaymentGatewayClient - pipelined, fault-tolerant calls to the PaymentGateway.
+ *
+ * - Pipelining: up to max-in-flight authorizations are outstanding at once;
+ *   further requests wait in a bounded queue and go out as responses arrive.
+ *   No thread is held while a request is in flight.
+ * - Timeout: a call without an answer after timeout-ms counts as failed and
+ *   frees its slot.
+ * - Retry: transport failures and timeouts are retried with exponential
+ *   backoff and jitter, reusing the idempotency key. Declines are answers
+ *   and are not retried.
+ * - Circuit breaker: after repeated failures requests fail fast instead of
+ *   queueing behind a processor that is down.
+ *
+ * A slow processor therefore costs queue time, not threads. The gateway is
+ * looked up per call, so a dynamically rebound PaymentGateway service is
+ * picked up without recreating the client.
+ *
+ * Settings (system properties, defaults in brackets):
+ * hotel.smarttrack.payment.max.in.flight (32), .max.queued (1000),
+ * .timeout.ms (2000), .max.attempts (3), .retry.backoff.ms (100),
+ * .breaker.failure.threshold (5), .breaker.open.ms (10000)
+ */
+public class PaymentGatewayClient implements Closeable {
+
+    private final Supplier<PaymentGateway> gateway;
+    private final int maxQueued;
+    private final long timeoutMillis;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final CircuitBreaker breaker;
+
+    private final Semaphore window;
+    private final Queue<Call> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final ScheduledExecutorService retryTimer;
+
+    public PaymentGatewayClient(Supplier<PaymentGateway> gateway) {
+        this(gateway,
+                Integer.getInteger("hotel.smarttrack.payment.max.in.flight", 32),
+                Integer.getInteger("hotel.smarttrack.payment.max.queued", 1000),
+                Long.getLong("hotel.smarttrack.payment.timeout.ms", 2000L),
+                Integer.getInteger("hotel.smarttrack.payment.max.attempts", 3),
+                Long.getLong("hotel.smarttrack.payment.retry.backoff.ms", 100L),
+                Integer.getInteger("hotel.smarttrack.payment.breaker.failure.threshold", 5),
+                Long.getLong("hotel.smarttrack.payment.breaker.open.ms", 10000L));
+    }
+
+    public PaymentGatewayClient(Supplier<PaymentGateway> gateway, int maxInFlight, int maxQueued,
+            long timeoutMillis, int maxAttempts, long retryBackoffMillis,
+            int breakerFailureThreshold, long breakerOpenMillis) {
+        if (maxInFlight < 1 || maxQueued < 0 || timeoutMillis < 1 || maxAttempts < 1 || retryBackoffMillis < 0) {
+            throw new IllegalArgumentException("Invalid payment gateway client settings");
+        }
+        this.gateway = gateway;
+        this.maxQueued = maxQueued;
+        this.timeoutMillis = timeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMillis);
+        this.window = new Semaphore(maxInFlight);
+        this.retryTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "payment-gateway-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Submit an authorization. Completes with the gateway's answer, or
+     * exceptionally with IllegalStateException when the gateway is busy,
+     * unavailable or still failing after the last attempt.
+     */
+    public CompletableFuture<PaymentAuthorization> authorize(String idempotencyKey, Long invoiceId,
+            BigDecimal amount, String paymentMethod) {
+        Call call = new Call(idempotencyKey, invoiceId, amount, paymentMethod);
+        enqueue(call);
+        return call.result;
+    }
+
+    public CompletableFuture<Void> voidAuthorization(String transactionReference) {
+        return currentGateway().voidAuthorization(transactionReference);
+    }
+
+    public CircuitBreaker.State getBreakerState() {
+        return breaker.getState();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public void close() {
+        retryTimer.shutdownNow();
+    }
+
+    // ============ Pipeline ============
+
+    private void enqueue(Call call) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            call.result.completeExceptionally(new IllegalStateException(
+                    "Payment gateway busy - " + maxQueued + " payment(s) already waiting"));
+            return;
+        }
+        waiting.add(call);
+        drain();
+    }
+
+    /**
+     * Send queued calls while the window has room. Re-entrant calls (a
+     * response completing inline) only flag another pass, so the stack
+     * does not grow with the queue.
+     */
+    private void drain() {
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Call call;
+            while ((call = nextCall()) != null) {
+                send(call);
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private Call nextCall() {
+        if (!window.tryAcquire()) {
+            return null;
+        }
+        Call call = waiting.poll();
+        if (call == null) {
+            window.release();
+            return null;
+        }
+        queued.decrementAndGet();
+        return call;
+    }
+
+    private void send(Call call) {
+        if (!breaker.tryAcquire()) {
+            window.release();
+            call.result.completeExceptionally(new IllegalStateException(
+                    "Payment gateway unavailable - circuit open, try again shortly"));
+            return;
+        }
+
+        call.attempts++;
+        CompletableFuture<PaymentAuthorization> response;
+        try {
+            response = currentGateway().authorize(call.idempotencyKey, call.invoiceId, call.amount, call.paymentMethod)
+                    .copy();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((authorization, error) -> {
+                    window.release();
+                    if (error == null) {
+                        breaker.recordSuccess();
+                        call.result.complete(authorization);
+                    } else {
+                        breaker.recordFailure();
+                        retryOrFail(call, unwrap(error));
+                    }
+                    drain();
+                });
+    }
+
+    private void retryOrFail(Call call, Throwable error) {
+        if (call.attempts >= maxAttempts || retryTimer.isShutdown()) {
+            call.result.completeExceptionally(new IllegalStateException("Payment gateway failed after "
+                    + call.attempts + " attempt(s): " + describe(error), error));
+            return;
+        }
+        // Exponential backoff with full jitter
+        long ceiling = retryBackoffMillis << Math.min(call.attempts - 1, 10);
+        long delay = ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0L;
+        retryTimer.schedule(() -> enqueue(call), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private PaymentGateway currentGateway() {
+        PaymentGateway current = gateway.get();
+        if (current == null) {
+            throw new IllegalStateException("No payment gateway available");
+        }
+        return current;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static String describe(Throwable error) {
+        return error instanceof TimeoutException ? "timed out" : String.valueOf(error.getMessage());
+    }
+
+    private static final class Call {
+        private final String idempotencyKey;
+        private final Long invoiceId;
+        private final BigDecimal amount;
+        private final String paymentMethod;
+        private final CompletableFuture<PaymentAuthorization> result = new CompletableFuture<>();
+        private volatile int attempts;
+
+        Call(String idempotencyKey, Long invoiceId, BigDecimal amount, String paymentMethod) {
+            this.idempotencyKey = idempotencyKey;
+            this.invoiceId = invoiceId;
+            this.amount = amount;
+            this.paymentMethod = paymentMethod;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.AgingReport;
+import com.hotel.smarttrack.entity.AgingReport.Bucket;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Accounts-receivable aging kept up to date as invoices are issued, paid
+ * and refunded, so the aging report is a copy of one total and one count
+ * per bucket instead of summing the payments of every open invoice.
+ * Thread-safe; every method is synchronized and O(1) apart from the roll.
+ *
+ * Open invoices are also indexed by issue date. Moving to the next bucket
+ * happens in a daily roll that looks up only the invoices issued exactly
+ * 31, 61 or 91 days earlier; invoices past 90 days leave the date index.
+ * The roll runs on the first read of each day and catches up any days
+ * without reads.
+ *
+ * Amounts are minor units. InvoiceRepository updates an invoice with its
+ * absolute balance while holding that invoice's lock, so updates for one
+ * invoice arrive in order.
+ */
+public class ReceivablesAging {
+
+    private static final Bucket[] BUCKETS = Bucket.values();
+    private static final int LAST = BUCKETS.length - 1;
+
+    private final Clock clock;
+
+    private final Map<Long, Entry> open = new HashMap<>();
+    // Issue date -> open invoices not yet in the last bucket
+    private final Map<LocalDate, Set<Long>> byIssueDate = new HashMap<>();
+    private final List<Set<Long>> members = new ArrayList<>(BUCKETS.length);
+    private final long[] totals = new long[BUCKETS.length];
+    private final long[] counts = new long[BUCKETS.length];
+    private LocalDate asOf;
+
+    public ReceivablesAging() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public ReceivablesAging(Clock clock) {
+        this.clock = clock;
+        this.asOf = LocalDate.now(clock);
+        for (int i = 0; i < BUCKETS.length; i++) {
+            members.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Set an invoice's outstanding balance; zero or less removes it.
+     *
+     * @param issuedOn Issue date, or null to age from today
+     */
+    public synchronized void update(Long invoiceId, LocalDate issuedOn, long outstandingMinorUnits) {
+        Entry entry = open.get(invoiceId);
+        if (outstandingMinorUnits <= 0L) {
+            if (entry != null) {
+                remove(invoiceId, entry);
+            }
+            return;
+        }
+
+        if (entry == null) {
+            if (issuedOn == null) {
+                issuedOn = asOf;
+            }
+            entry = new Entry(issuedOn, Bucket.forAge(ChronoUnit.DAYS.between(issuedOn, asOf)).ordinal());
+            open.put(invoiceId, entry);
+            members.get(entry.bucket).add(invoiceId);
+            counts[entry.bucket]++;
+            if (entry.bucket < LAST) {
+                byIssueDate.computeIfAbsent(issuedOn, d -> new HashSet<>()).add(invoiceId);
+            }
+        }
+        totals[entry.bucket] += outstandingMinorUnits - entry.outstanding;
+        entry.outstanding = outstandingMinorUnits;
+    }
+
+    /**
+     * Advance the aging date one day at a time up to {@code day}, moving the
+     * invoices that cross a bucket boundary on each day.
+     *
+     * @return Number of bucket moves
+     */
+    public synchronized int rollTo(LocalDate day) {
+        int moved = 0;
+        while (asOf.isBefore(day)) {
+            asOf = asOf.plusDays(1);
+            for (int bucket = 1; bucket <= LAST; bucket++) {
+                LocalDate issuedOn = asOf.minusDays(BUCKETS[bucket].getMinAgeDays());
+                Set<Long> ids = bucket == LAST ? byIssueDate.remove(issuedOn) : byIssueDate.get(issuedOn);
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Entry entry = open.get(id);
+                    if (entry != null && entry.bucket == bucket - 1) {
+                        move(id, entry, bucket);
+                        moved++;
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Totals and counts per bucket as of today.
+     */
+    public synchronized AgingReport report() {
+        rollTo(LocalDate.now(clock));
+        return new AgingReport(asOf, totals, counts);
+    }
+
+    /**
+     * IDs of the open invoices in a bucket as of today, ascending.
+     */
+    public synchronized List<Long> invoiceIds(Bucket bucket) {
+        rollTo(LocalDate.now(clock));
+        List<Long> ids = new ArrayList<>(members.get(bucket.ordinal()));
+        ids.sort(null);
+        return ids;
+    }
+
+    public synchronized int size() {
+        return open.size();
+    }
+
+    // ============ Helper Methods ============
+
+    private void move(Long id, Entry entry, int bucket) {
+        members.get(entry.bucket).remove(id);
+        counts[entry.bucket]--;
+        totals[entry.bucket] -= entry.outstanding;
+        entry.bucket = bucket;
+        members.get(bucket).add(id);
+        counts[bucket]++;
+        totals[bucket] += entry.outstanding;
+    }
+
+    private void remove(Long id, Entry entry) {
+        open.remove(id);
+        members.get(entry.bucket).remove(id);
+        counts[entry.bucket]--;
+        totals[entry.bucket] -= entry.outstanding;
+        if (entry.bucket < LAST) {
+            Set<Long> sameDay = byIssueDate.get(entry.issuedOn);
+            if (sameDay != null) {
+                sameDay.remove(id);
+                if (sameDay.isEmpty()) {
+                    byIssueDate.remove(entry.issuedOn);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final LocalDate issuedOn;
+        private int bucket;
+        private long outstanding;
+
+        Entry(LocalDate issuedOn, int bucket) {
+            this.issuedOn = issuedOn;
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.hotel.smarttrack.billing.impl;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Revenue per business date, kept in a Fenwick (binary indexed) tree so any
+ * date-range total is two prefix-sum lookups: O(log days) regardless of how
+ * many payments have been taken.
+ * Thread-safe using a read/write lock.
+ *
+ * Amounts are minor units. Completed payments post positive amounts on the
+ * payment date and refunds post negative amounts on the refund date.
+ * Days are counted from ORIGIN; the tree doubles when a later date arrives.
+ */
+public class RevenueIndex {
+
+    static final LocalDate ORIGIN = LocalDate.of(2000, 1, 1);
+
+    private static final int INITIAL_DAYS = 1 << 14; // ~44 years
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // daily[i] = revenue posted on ORIGIN + i; tree[] is 1-based over daily[]
+    private long[] daily = new long[INITIAL_DAYS];
+    private long[] tree = new long[INITIAL_DAYS + 1];
+
+    /**
+     * Post an amount (negative for refunds) to a business date.
+     */
+    public void add(LocalDate date, long minorUnits) {
+        if (minorUnits == 0L) {
+            return;
+        }
+        int day = dayIndex(date);
+        lock.writeLock().lock();
+        try {
+            if (day >= daily.length) {
+                grow(day);
+            }
+            daily[day] += minorUnits;
+            for (int i = day + 1; i < tree.length; i += i & -i) {
+                tree[i] += minorUnits;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Revenue posted from {@code start} to {@code end}, both inclusive.
+     * A null bound leaves that side of the range open.
+     */
+    public long sum(LocalDate start, LocalDate end) {
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("Start date " + start + " is after end date " + end);
+        }
+        long fromDay = start == null ? 0L : Math.max(ChronoUnit.DAYS.between(ORIGIN, start), 0L);
+        long toDay = end == null ? Long.MAX_VALUE : ChronoUnit.DAYS.between(ORIGIN, end);
+        lock.readLock().lock();
+        try {
+            // Days past the end of the tree have no revenue yet
+            long to = Math.min(toDay, daily.length - 1L);
+            if (fromDay > to) {
+                return 0L;
+            }
+            return prefix((int) to + 1) - prefix((int) fromDay);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Sum of daily[0 .. count-1]. Caller holds a lock.
+     */
+    private long prefix(int count) {
+        long sum = 0L;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Double capacity until {@code day} fits and rebuild the tree in O(n).
+     * Caller holds the write lock.
+     */
+    private void grow(int day) {
+        int size = daily.length;
+        while (size <= day) {
+            size <<= 1;
+        }
+        long[] newDaily = new long[size];
+        System.arraycopy(daily, 0, newDaily, 0, daily.length);
+
+        long[] newTree = new long[size + 1];
+        for (int i = 1; i <= size; i++) {
+            newTree[i] += newDaily[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                newTree[parent] += newTree[i];
+            }
+        }
+        daily = newDaily;
+        tree = newTree;
+    }
+
+    private static int dayIndex(LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Date cannot be null");
+        }
+        long day = ChronoUnit.DAYS.between(ORIGIN, date);
+        if (day < 0 || day > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Date out of range for revenue index: " + date);
+        }
+        return (int) day;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.PaymentAuthorization;
+import com.hotel.smarttrack.service.PaymentGateway;
+
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimulatedPaymentGateway - local stand-in for a card processor.
+ *
+ * Answers after a configurable latency (plus random jitter) from a timer
+ * thread, so it behaves like a remote call without holding a thread per
+ * request. A configurable share of calls fail (transport error) or are
+ * declined. Retries with a known idempotency key return the original
+ * approval.
+ *
+ * Registered with a low service ranking, so any real processor adapter
+ * published as a PaymentGateway service takes precedence.
+ *
+ * Settings (system properties, defaults in brackets):
+ * hotel.smarttrack.payment.simulator.latency.ms (50), .jitter.ms (50),
+ * .failure.rate (0.0), .decline.rate (0.0)
+ */
+@Component(service = PaymentGateway.class, immediate = true, property = "service.ranking:Integer=-100")
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final int MAX_REMEMBERED_KEYS = 10_000;
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double failureRate;
+    private volatile double declineRate;
+
+    // Idempotency key -> transaction reference, oldest evicted first
+    private final Map<String, String> approvals = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_REMEMBERED_KEYS;
+                }
+            });
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "simulated-payment-gateway");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public SimulatedPaymentGateway() {
+        this(Long.getLong("hotel.smarttrack.payment.simulator.latency.ms", 50L),
+                Long.getLong("hotel.smarttrack.payment.simulator.jitter.ms", 50L),
+                Double.parseDouble(System.getProperty("hotel.smarttrack.payment.simulator.failure.rate", "0.0")),
+                Double.parseDouble(System.getProperty("hotel.smarttrack.payment.simulator.decline.rate", "0.0")));
+    }
+
+    public SimulatedPaymentGateway(long latencyMillis, long jitterMillis, double failureRate, double declineRate) {
+        configure(latencyMillis, jitterMillis, failureRate, declineRate);
+    }
+
+    /**
+     * Change the injected latency and failure behaviour at runtime.
+     */
+    public void configure(long latencyMillis, long jitterMillis, double failureRate, double declineRate) {
+        if (latencyMillis < 0 || jitterMillis < 0 || failureRate < 0 || failureRate > 1
+                || declineRate < 0 || declineRate > 1) {
+            throw new IllegalArgumentException("Invalid simulator settings");
+        }
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public CompletableFuture<PaymentAuthorization> authorize(String idempotencyKey, Long invoiceId,
+            BigDecimal amount, String paymentMethod) {
+        CompletableFuture<PaymentAuthorization> response = new CompletableFuture<>();
+        long jitter = jitterMillis;
+        long delay = latencyMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0L);
+        timer.schedule(() -> respond(response, idempotencyKey), delay, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Void> voidAuthorization(String transactionReference) {
+        approvals.values().remove(transactionReference);
+        System.out.println("[SimulatedPaymentGateway] Voided " + transactionReference);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Deactivate
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private void respond(CompletableFuture<PaymentAuthorization> response, String idempotencyKey) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < failureRate) {
+            response.completeExceptionally(new IllegalStateException("Simulated processor error"));
+            return;
+        }
+        String existing = approvals.get(idempotencyKey);
+        if (existing != null) {
+            response.complete(PaymentAuthorization.approved(existing));
+            return;
+        }
+        if (random.nextDouble() < declineRate) {
+            response.complete(PaymentAuthorization.declined("Card declined (simulated)"));
+            return;
+        }
+        String reference = approvals.computeIfAbsent(idempotencyKey,
+                k -> "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        response.complete(PaymentAuthorization.approved(reference));
+    }
+}
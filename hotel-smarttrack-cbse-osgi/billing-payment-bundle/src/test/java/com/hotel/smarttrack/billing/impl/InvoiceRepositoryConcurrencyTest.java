@@ -0,0 +1,139 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for concurrent payments against InvoiceRepository.
+ * 32 threads race payments and refunds; no payment may be lost and no
+ * invoice may be paid past its total.
+ */
+class InvoiceRepositoryConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int INVOICES = 8;
+    private static final BigDecimal INVOICE_TOTAL = new BigDecimal("100.00");
+    private static final BigDecimal PAYMENT = new BigDecimal("1.00");
+
+    @Test
+    void concurrentPaymentsNeverOverpayOrLoseUpdates() throws Exception {
+        InvoiceRepository repo = new InvoiceRepository();
+        List<Long> invoiceIds = createInvoices(repo);
+        Map<Long, AtomicInteger> accepted = new ConcurrentHashMap<>();
+        invoiceIds.forEach(id -> accepted.put(id, new AtomicInteger()));
+
+        // 32 threads x 50 attempts = 1600 attempts for 800 payable dollars
+        runConcurrently(() -> {
+            for (int i = 0; i < 50; i++) {
+                Long id = invoiceIds.get(ThreadLocalRandom.current().nextInt(INVOICES));
+                try {
+                    repo.addPayment(id, PAYMENT, "Cash", null);
+                    accepted.get(id).incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    // Invoice already settled
+                }
+            }
+        });
+
+        for (Long id : invoiceIds) {
+            List<Payment> payments = repo.getPayments(id);
+            assertEquals(accepted.get(id).get(), payments.size(), "lost payment on invoice " + id);
+            assertEquals(0, INVOICE_TOTAL.compareTo(repo.getPaidAmount(id)), "invoice " + id + " paid amount");
+            assertEquals(0, BigDecimal.ZERO.compareTo(repo.getOutstandingBalance(id)));
+            assertEquals("PAID", repo.findById(id).orElseThrow().getStatus());
+        }
+        assertEquals(INVOICES, repo.findByStatus("PAID").size());
+    }
+
+    @Test
+    void concurrentPaymentsAndRefundsKeepBalanceConsistent() throws Exception {
+        InvoiceRepository repo = new InvoiceRepository();
+        List<Long> invoiceIds = createInvoices(repo);
+
+        runConcurrently(() -> {
+            List<Payment> mine = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Long id = invoiceIds.get(ThreadLocalRandom.current().nextInt(INVOICES));
+                try {
+                    mine.add(repo.addPayment(id, PAYMENT, "Card", null));
+                } catch (IllegalArgumentException e) {
+                    // Invoice already settled
+                }
+                if (!mine.isEmpty() && ThreadLocalRandom.current().nextInt(3) == 0) {
+                    repo.refundPayment(mine.remove(mine.size() - 1).getPaymentId());
+                }
+            }
+        });
+
+        for (Long id : invoiceIds) {
+            BigDecimal completed = BigDecimal.ZERO;
+            for (Payment p : repo.getPayments(id)) {
+                if ("COMPLETED".equals(p.getStatus())) {
+                    completed = completed.add(p.getAmount());
+                }
+            }
+            BigDecimal paid = repo.getPaidAmount(id);
+            assertEquals(0, completed.compareTo(paid), "invoice " + id + " paid amount");
+            assertTrue(paid.compareTo(INVOICE_TOTAL) <= 0, "invoice " + id + " overpaid: " + paid);
+            assertEquals(0, INVOICE_TOTAL.subtract(paid).compareTo(repo.getOutstandingBalance(id)));
+
+            String expected = paid.compareTo(INVOICE_TOTAL) == 0 ? "PAID"
+                    : paid.signum() > 0 ? "PARTIALLY_PAID" : "UNPAID";
+            assertEquals(expected, repo.findById(id).orElseThrow().getStatus());
+            assertTrue(repo.findByStatus(expected).stream().anyMatch(i -> i.getInvoiceId().equals(id)));
+        }
+    }
+
+    // ============ Helper Methods ============
+
+    private static List<Long> createInvoices(InvoiceRepository repo) {
+        List<Long> ids = new ArrayList<>();
+        for (long stayId = 1; stayId <= INVOICES; stayId++) {
+            Invoice invoice = new Invoice(null, null, stayId, INVOICE_TOTAL, "UNPAID", LocalDateTime.now());
+            ids.add(repo.save(invoice).getInvoiceId());
+        }
+        return ids;
+    }
+
+    /**
+     * Start {@code task} on THREADS threads at once and wait for all of them.
+     */
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hotel.smarttrack.billing.impl;
+
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Payment;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revenue for a date range counts only payments and refunds posted inside
+ * it, and stays a couple of prefix-sum lookups however much history there is.
+ */
+class RevenueIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 15);
+
+    @Test
+    void sumCoversOnlyTheRequestedDays() {
+        RevenueIndex index = new RevenueIndex();
+        index.add(DAY.minusDays(1), 1_000L);
+        index.add(DAY, 2_500L);
+        index.add(DAY, -500L);
+        index.add(DAY.plusDays(30), 4_000L);
+
+        assertEquals(2_000L, index.sum(DAY, DAY));
+        assertEquals(3_000L, index.sum(DAY.minusDays(1), DAY.plusDays(29)));
+        assertEquals(7_000L, index.sum(null, null));
+        assertEquals(1_000L, index.sum(null, DAY.minusDays(1)));
+        assertEquals(6_000L, index.sum(DAY, null));
+        assertEquals(0L, index.sum(DAY.plusDays(1), DAY.plusDays(29)));
+        assertEquals(0L, index.sum(LocalDate.of(1990, 1, 1), LocalDate.of(1999, 12, 31)));
+        assertThrows(IllegalArgumentException.class, () -> index.sum(DAY, DAY.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> index.add(LocalDate.of(1999, 12, 31), 1L));
+    }
+
+    @Test
+    void growingPastTheInitialRangeKeepsEarlierRevenue() {
+        RevenueIndex index = new RevenueIndex();
+        Random random = new Random(42);
+        long[] daily = new long[40_000];
+        for (int i = 0; i < 5_000; i++) {
+            // Dates up to ~2109, past the ~44 years the tree starts with
+            int day = random.nextInt(daily.length);
+            long amount = random.nextInt(20_000) - 2_000;
+            daily[day] += amount;
+            index.add(RevenueIndex.ORIGIN.plusDays(day), amount);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(daily.length);
+            int to = from + random.nextInt(daily.length - from);
+            long expected = 0L;
+            for (int d = from; d <= to; d++) {
+                expected += daily[d];
+            }
+            assertEquals(expected, index.sum(RevenueIndex.ORIGIN.plusDays(from), RevenueIndex.ORIGIN.plusDays(to)));
+        }
+    }
+
+    @Test
+    void repositoryRevenueFollowsPaymentAndRefundDates() {
+        InvoiceRepository repo = new InvoiceRepository();
+        Invoice invoice = new Invoice(null, null, 1L, new BigDecimal("100.00"), "UNPAID", LocalDateTime.now());
+        Long id = repo.save(invoice).getInvoiceId();
+
+        Payment payment = repo.addPayment(id, new BigDecimal("60.00"), "Cash", null);
+        LocalDate today = LocalDate.now();
+        assertEquals(6_000L, repo.getRevenueMinorUnits(today, today));
+        assertEquals(0L, repo.getRevenueMinorUnits(today.minusDays(7), today.minusDays(1)));
+
+        repo.refundPayment(payment.getPaymentId());
+        assertEquals(0L, repo.getRevenueMinorUnits(today, today));
+    }
+
+    @Test
+    @Tag("performance")
+    void rangeQueriesDoNotScaleWithPaymentHistory() {
+        RevenueIndex index = new RevenueIndex();
+        Random random = new Random(7);
+        // Ten years of history, one million payments
+        for (int i = 0; i < 1_000_000; i++) {
+            index.add(DAY.minusDays(random.nextInt(3_650)), 100L + random.nextInt(50_000));
+        }
+
+        int queries = 200_000;
+        long checksum = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            LocalDate from = DAY.minusDays(random.nextInt(3_650));
+            checksum += index.sum(from, from.plusDays(30));
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / queries;
+
+        System.out.printf("[RevenueIndexTest] %d month ranges over 1M payments: %.2f us each (checksum %d)%n",
+                queries, micros, checksum);
+        assertTrue(micros < 20.0, "range query took " + micros + " us");
+    }
+}
@@ -0,0 +1,78 @@
+package com.hotel.smarttrack.cache;
+
+/**
+ * CacheStats - snapshot of a ReadThroughCache's counters.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class CacheStats {
+
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+
+    public CacheStats(String name, int size, int maxSize, long hits, long misses,
+            long evictions, long expirations, long invalidations) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Share of lookups served from the cache, 0.0 before the first lookup.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f%% hit rate (%d hits, %d misses), %d/%d entries, "
+                + "%d evicted, %d expired, %d invalidated",
+                name, getHitRate() * 100.0, hits, misses, size, maxSize, evictions, expirations, invalidations);
+    }
+}
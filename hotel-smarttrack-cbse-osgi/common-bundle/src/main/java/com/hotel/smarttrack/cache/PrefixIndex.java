@@ -0,0 +1,179 @@
+package com.hotel.smarttrack.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * PrefixIndex - in-memory prefix completion over short texts such as room
+ * numbers and guest names, keyed by entity ID.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * Texts are normalized to lowercase letter/digit words separated by single
+ * spaces. Each text is held in a ConcurrentSkipListMap under its whole
+ * normalized form and under the suffix starting at each later word, so
+ * "smi" completes "John Smith". A query is one ordered range scan from the
+ * normalized prefix, stopping at the first key it is not a prefix of:
+ * O(log n) plus the matches read, without locking readers.
+ *
+ * Matches on the whole text come first, then matches on a later word, each
+ * in alphabetical order. put() and remove() are serialized per ID
+ * (ConcurrentHashMap.compute); a reader may briefly see an entry under
+ * both its old and new text, but never loses one that is not being written.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class PrefixIndex {
+
+    // Words after the first that an entry is also completed from
+    private static final int MAX_WORD_SUFFIXES = 7;
+    // Sorts whole-text keys before word-suffix keys
+    private static final char WHOLE = '0';
+    private static final char WORD = '1';
+    // Separates the term from the ID; below every normalized character
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Index an ID under its current text, replacing what it was indexed
+     * under. A blank text removes it.
+     */
+    public void put(Long id, String text) {
+        if (id == null) {
+            throw new IllegalArgumentException("ID is required.");
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            remove(id);
+            return;
+        }
+        entries.compute(id, (key, previous) -> {
+            if (previous != null && previous.text.equals(text)) {
+                return previous;
+            }
+            Entry entry = new Entry(text, keysFor(normalized, id));
+            for (String k : entry.keys) {
+                keys.put(k, id);
+            }
+            if (previous != null) {
+                for (String k : previous.keys) {
+                    if (!entry.keys.contains(k)) {
+                        keys.remove(k);
+                    }
+                }
+            }
+            return entry;
+        });
+    }
+
+    public void remove(Long id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            for (String k : previous.keys) {
+                keys.remove(k);
+            }
+            return null;
+        });
+    }
+
+    public void clear() {
+        entries.clear();
+        keys.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Texts starting with {@code prefix}, or with a later word starting with
+     * it, by ID: whole-text matches first, then alphabetically, at most
+     * {@code limit}.
+     */
+    public Map<Long, String> complete(String prefix, int limit) {
+        Map<Long, String> found = new LinkedHashMap<>();
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return found;
+        }
+        scan(WHOLE + normalized, limit, found);
+        if (found.size() < limit) {
+            scan(WORD + normalized, limit, found);
+        }
+        return found;
+    }
+
+    // ============ Helper Methods ============
+
+    private void scan(String from, int limit, Map<Long, String> found) {
+        for (Map.Entry<String, Long> key : keys.tailMap(from).entrySet()) {
+            if (!key.getKey().startsWith(from)) {
+                return;
+            }
+            Entry entry = entries.get(key.getValue());
+            if (entry != null && !found.containsKey(key.getValue())) {
+                found.put(key.getValue(), entry.text);
+                if (found.size() >= limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static List<String> keysFor(String normalized, Long id) {
+        List<String> keys = new ArrayList<>(2);
+        String suffix = SEPARATOR + id.toString();
+        keys.add(WHOLE + normalized + suffix);
+        int from = normalized.indexOf(' ');
+        for (int i = 0; from >= 0 && i < MAX_WORD_SUFFIXES; i++) {
+            keys.add(WORD + normalized.substring(from + 1) + suffix);
+            from = normalized.indexOf(' ', from + 1);
+        }
+        return keys;
+    }
+
+    /**
+     * Lowercase letter/digit runs of the text, separated by single spaces.
+     * A trailing separator in a query is dropped, so "smith " matches as
+     * "smith".
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An ID's display text and the keys it is indexed under; replaced, never
+     * mutated.
+     */
+    private static final class Entry {
+        private final String text;
+        private final List<String> keys;
+
+        Entry(String text, List<String> keys) {
+            this.text = text;
+            this.keys = keys;
+        }
+    }
+}
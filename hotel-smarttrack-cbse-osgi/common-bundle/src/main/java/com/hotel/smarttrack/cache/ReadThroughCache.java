@@ -0,0 +1,195 @@
+package com.hotel.smarttrack.cache;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * ReadThroughCache - bounded, expiring cache in front of a lookup.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * A hit is one ConcurrentHashMap read, so concurrent readers never block.
+ * A miss calls the loader given by the caller and keeps a present result;
+ * empty results are not cached. Entries expire {@code ttl} after loading.
+ *
+ * Past {@code maxSize} entries the oldest are evicted, except that an entry
+ * read since it was last passed over gets a second chance (the CLOCK
+ * approximation of least-recently-used, without a lock on reads).
+ *
+ * invalidate() bumps a generation counter for the key's stripe before
+ * removing it; a load that started before the bump is returned to its
+ * caller but not cached, so a reader racing with an update cannot put the
+ * old value back.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class ReadThroughCache<K, V> {
+
+    private static final int STRIPES = 64;
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    // Entries in load order; may hold replaced or removed entries until polled
+    private final ConcurrentLinkedQueue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ReadThroughCache(String name, int maxSize, long ttlMillis) {
+        this(name, maxSize, ttlMillis, System::nanoTime);
+    }
+
+    public ReadThroughCache(String name, int maxSize, long ttlMillis, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + ttlMillis);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Cached value for the key, or the loader's result on a miss.
+     */
+    public Optional<V> get(K key, Function<? super K, Optional<V>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Entry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            if (nanoClock.getAsLong() - entry.loadedAt < ttlNanos) {
+                entry.referenced = true;
+                hits.increment();
+                return Optional.of(entry.value);
+            }
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        int stripe = stripe(key);
+        long generation = generations.get(stripe);
+        Optional<V> loaded = loader.apply(key);
+        if (loaded != null && loaded.isPresent()) {
+            Entry<K, V> fresh = new Entry<>(key, loaded.get(), nanoClock.getAsLong());
+            entries.put(key, fresh);
+            // Undo if invalidated while loading
+            if (generations.get(stripe) != generation) {
+                entries.remove(key, fresh);
+            } else {
+                clock.add(fresh);
+                queued.incrementAndGet();
+                trim();
+            }
+        }
+        return loaded == null ? Optional.empty() : loaded;
+    }
+
+    /**
+     * Drop a key; loads already under way for it are not cached.
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        generations.incrementAndGet(stripe(key));
+        if (entries.remove(key) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Drop every key.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        int size = entries.size();
+        entries.clear();
+        invalidations.add(size);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counters since the cache was created.
+     */
+    public CacheStats stats() {
+        return new CacheStats(name, entries.size(), maxSize, hits.sum(), misses.sum(),
+                evictions.sum(), expirations.sum(), invalidations.sum());
+    }
+
+    // ============ Eviction ============
+
+    /**
+     * Advance the clock hand while the cache is over size, or while the
+     * queue holds many replaced or removed entries. Referenced entries are
+     * cleared and requeued; others are evicted if the cache is over size.
+     */
+    private void trim() {
+        int budget = 2 * queued.get() + 1;
+        while (budget-- > 0 && (entries.size() > maxSize || queued.get() > 2 * maxSize)) {
+            Entry<K, V> entry = clock.poll();
+            if (entry == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.get(entry.key) != entry) {
+                continue;
+            }
+            if (!entry.referenced && entries.size() > maxSize) {
+                if (entries.remove(entry.key, entry)) {
+                    evictions.increment();
+                }
+                continue;
+            }
+            entry.referenced = false;
+            clock.add(entry);
+            queued.incrementAndGet();
+        }
+    }
+
+    private static int stripe(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long loadedAt;
+        private volatile boolean referenced;
+
+        Entry(K key, V value, long loadedAt) {
+            this.key = key;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hotel.smarttrack.cache;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.RoomType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * ReferenceDataCache - guests and room types looked up by ID from other
+ * bundles, e.g. on every booking, so each lookup is a local map read
+ * instead of a cross-bundle service call.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * One instance lives in the common bundle, which every bundle wires to,
+ * so the bundle that owns guests or room types can invalidate the entries
+ * other bundles read. Callers pass the owning service's lookup as the
+ * loader; the owner invalidates an entry on every write, and everything
+ * when it is deactivated.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class ReferenceDataCache {
+
+    private static final ReferenceDataCache SHARED = new ReferenceDataCache(10_000, 300_000L, 1_000, 600_000L);
+
+    private final ReadThroughCache<Long, Guest> guests;
+    private final ReadThroughCache<Long, RoomType> roomTypes;
+
+    public ReferenceDataCache(int guestMaxSize, long guestTtlMillis, int roomTypeMaxSize, long roomTypeTtlMillis) {
+        this.guests = new ReadThroughCache<>("guests", guestMaxSize, guestTtlMillis);
+        this.roomTypes = new ReadThroughCache<>("roomTypes", roomTypeMaxSize, roomTypeTtlMillis);
+    }
+
+    /**
+     * The instance shared by all bundles.
+     */
+    public static ReferenceDataCache shared() {
+        return SHARED;
+    }
+
+    public Optional<Guest> getGuest(Long guestId, Function<Long, Optional<Guest>> loader) {
+        return guests.get(guestId, loader);
+    }
+
+    public Optional<RoomType> getRoomType(Long roomTypeId, Function<Long, Optional<RoomType>> loader) {
+        return roomTypes.get(roomTypeId, loader);
+    }
+
+    public void invalidateGuest(Long guestId) {
+        guests.invalidate(guestId);
+    }
+
+    public void invalidateRoomType(Long roomTypeId) {
+        roomTypes.invalidate(roomTypeId);
+    }
+
+    public void invalidateAllGuests() {
+        guests.invalidateAll();
+    }
+
+    public void invalidateAllRoomTypes() {
+        roomTypes.invalidateAll();
+    }
+
+    /**
+     * Hit rate and counters of each cache.
+     */
+    public List<CacheStats> stats() {
+        return List.of(guests.stats(), roomTypes.stats());
+    }
+}
@@ -0,0 +1,114 @@
+package com.hotel.smarttrack.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * AgingReport - accounts-receivable aging: outstanding balances of open
+ * invoices grouped by days since issue.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * Buckets are 0-30, 31-60, 61-90 and over 90 days; an invoice issued on
+ * day D moves to the next bucket on D+31, D+61 and D+91.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class AgingReport {
+
+    public enum Bucket {
+        DAYS_0_30(0, "0-30"),
+        DAYS_31_60(31, "31-60"),
+        DAYS_61_90(61, "61-90"),
+        DAYS_OVER_90(91, "90+");
+
+        private final int minAgeDays;
+        private final String label;
+
+        Bucket(int minAgeDays, String label) {
+            this.minAgeDays = minAgeDays;
+            this.label = label;
+        }
+
+        /**
+         * First age (days since issue) that falls in this bucket.
+         */
+        public int getMinAgeDays() {
+            return minAgeDays;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Bucket for an invoice this many days old. Negative ages (issued
+         * in the future) count as current.
+         */
+        public static Bucket forAge(long ageDays) {
+            Bucket[] buckets = values();
+            for (int i = buckets.length - 1; i > 0; i--) {
+                if (ageDays >= buckets[i].minAgeDays) {
+                    return buckets[i];
+                }
+            }
+            return buckets[0];
+        }
+    }
+
+    private final LocalDate asOf;
+    private final long[] outstandingMinorUnits;
+    private final long[] invoiceCounts;
+
+    /**
+     * @param asOf                  Date the ages are counted to
+     * @param outstandingMinorUnits Outstanding total per bucket, in Bucket order
+     * @param invoiceCounts         Open invoices per bucket, in Bucket order
+     */
+    public AgingReport(LocalDate asOf, long[] outstandingMinorUnits, long[] invoiceCounts) {
+        int buckets = Bucket.values().length;
+        if (outstandingMinorUnits.length != buckets || invoiceCounts.length != buckets) {
+            throw new IllegalArgumentException("Expected " + buckets + " buckets");
+        }
+        this.asOf = asOf;
+        this.outstandingMinorUnits = outstandingMinorUnits.clone();
+        this.invoiceCounts = invoiceCounts.clone();
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public BigDecimal getOutstanding(Bucket bucket) {
+        return Money.ofMinor(outstandingMinorUnits[bucket.ordinal()]).toBigDecimal();
+    }
+
+    public long getInvoiceCount(Bucket bucket) {
+        return invoiceCounts[bucket.ordinal()];
+    }
+
+    public BigDecimal getTotalOutstanding() {
+        long total = 0L;
+        for (long amount : outstandingMinorUnits) {
+            total += amount;
+        }
+        return Money.ofMinor(total).toBigDecimal();
+    }
+
+    public long getTotalInvoiceCount() {
+        long total = 0L;
+        for (long count : invoiceCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("AgingReport{asOf=").append(asOf);
+        for (Bucket bucket : Bucket.values()) {
+            sb.append(", ").append(bucket.getLabel()).append('=').append(getOutstanding(bucket))
+                    .append(" (").append(getInvoiceCount(bucket)).append(')');
+        }
+        return sb.append('}').toString();
+    }
+}
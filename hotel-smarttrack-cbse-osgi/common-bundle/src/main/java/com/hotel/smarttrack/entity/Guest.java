@@ -31,6 +31,11 @@ public class Guest {
      */
     private String statusJustification;
 
+    /**
+     * Tax exemption category (e.g. DIPLOMATIC), null if none
+     */
+    private String taxExemption;
+
     // ============ Constructors ============
 
     public Guest() {
@@ -47,6 +52,15 @@ public class Guest {
         this.statusJustification = statusJustification;
     }
 
+    /**
+     * Copy of another guest, every field included.
+     */
+    public Guest(Guest other) {
+        this(other.guestId, other.name, other.email, other.phone, other.identificationNumber,
+                other.status, other.statusJustification);
+        this.taxExemption = other.taxExemption;
+    }
+
     // ============ Getters and Setters ============
 
     public Long getGuestId() {
@@ -105,6 +119,14 @@ public class Guest {
         this.statusJustification = statusJustification;
     }
 
+    public String getTaxExemption() {
+        return taxExemption;
+    }
+
+    public void setTaxExemption(String taxExemption) {
+        this.taxExemption = taxExemption;
+    }
+
     // ============ Object Methods ============
 
     @Override
@@ -0,0 +1,57 @@
+package com.hotel.smarttrack.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * GuestProfile - a guest's value to the hotel: completed stays, nights
+ * stayed and lifetime revenue (payments received less refunds), with the
+ * VIP flag derived from them.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * A snapshot read from GuestProfileService; it does not change afterwards.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class GuestProfile {
+
+    private final Long guestId;
+    private final long completedStays;
+    private final long totalNights;
+    private final BigDecimal lifetimeRevenue;
+    private final boolean vip;
+
+    public GuestProfile(Long guestId, long completedStays, long totalNights, BigDecimal lifetimeRevenue,
+            boolean vip) {
+        this.guestId = guestId;
+        this.completedStays = completedStays;
+        this.totalNights = totalNights;
+        this.lifetimeRevenue = lifetimeRevenue;
+        this.vip = vip;
+    }
+
+    public Long getGuestId() {
+        return guestId;
+    }
+
+    public long getCompletedStays() {
+        return completedStays;
+    }
+
+    public long getTotalNights() {
+        return totalNights;
+    }
+
+    public BigDecimal getLifetimeRevenue() {
+        return lifetimeRevenue;
+    }
+
+    public boolean isVip() {
+        return vip;
+    }
+
+    @Override
+    public String toString() {
+        return "GuestProfile{guestId=" + guestId + ", stays=" + completedStays + ", nights=" + totalNights
+                + ", lifetimeRevenue=" + lifetimeRevenue + (vip ? ", VIP" : "") + "}";
+    }
+}
@@ -25,7 +25,7 @@ public class IncidentalCharge {
     private String serviceType;
 
     private String description;
-    private BigDecimal amount;
+    private Money amount;
     private LocalDateTime chargeTime;
 
     // ============ Constructors ============
@@ -39,7 +39,7 @@ public class IncidentalCharge {
         this.stay = stay;
         this.serviceType = serviceType;
         this.description = description;
-        this.amount = amount;
+        this.amount = Money.of(amount);
         this.chargeTime = chargeTime;
     }
 
@@ -78,10 +78,18 @@ public class IncidentalCharge {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -112,6 +120,6 @@ public class IncidentalCharge {
 
     @Override
     public String toString() {
-        return "IncidentalCharge{chargeId=" + chargeId + ", serviceType='" + serviceType + "', amount=" + amount + "}";
+        return "IncidentalCharge{chargeId=" + chargeId + ", serviceType='" + serviceType + "', amount=" + getAmount() + "}";
     }
 }
@@ -1,6 +1,7 @@
 package com.hotel.smarttrack.entity;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public class Invoice {
@@ -9,9 +10,11 @@ public class Invoice {
     private Long reservationId;
     private Long stayId;
 
-    private BigDecimal amount;
-    private String status;          // UNPAID / PAID
+    private Money amount;
+    private String status;          // UNPAID / PARTIALLY_PAID / PAID / OVERDUE
     private LocalDateTime issuedAt; // 开票时间
+    private LocalDate dueDate;      // OVERDUE once this date has passed unpaid
+    private boolean interim;        // stay still in house; made final at check-out
 
     public Invoice() {}
 
@@ -20,7 +23,7 @@ public class Invoice {
         this.invoiceId = invoiceId;
         this.reservationId = reservationId;
         this.stayId = stayId;
-        this.amount = amount;
+        this.amount = Money.of(amount);
         this.status = status;
         this.issuedAt = issuedAt;
     }
@@ -50,10 +53,18 @@ public class Invoice {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -72,4 +83,20 @@ public class Invoice {
     public void setIssuedAt(LocalDateTime issuedAt) {
         this.issuedAt = issuedAt;
     }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public boolean isInterim() {
+        return interim;
+    }
+
+    public void setInterim(boolean interim) {
+        this.interim = interim;
+    }
 }
\ No newline at end of file
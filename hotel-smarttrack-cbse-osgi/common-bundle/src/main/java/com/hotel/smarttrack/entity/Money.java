@@ -0,0 +1,195 @@
+package com.hotel.smarttrack.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Money value type backed by long minor units (e.g. cents) and a currency.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * Charge, tax and balance calculations work on the long minor units so that
+ * summing folio lines does not allocate a BigDecimal per step. BigDecimal is
+ * only produced at the service boundary via {@link #toBigDecimal()}.
+ *
+ * Rates (tax, discounts) are expressed in basis points: 0.10 = 1000 bp.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Hotel operating currency; all persisted amounts are in this currency.
+     */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    public static final Money ZERO = new Money(0L, DEFAULT_CURRENCY);
+
+    private static final long BASIS_POINTS = 10_000L;
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    // ============ Factories ============
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        Objects.requireNonNull(currency, "currency");
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Convert a decimal amount to Money, rounding half-up to the currency's
+     * fraction digits. Returns null for a null amount.
+     */
+    public static Money of(BigDecimal amount) {
+        return amount == null ? null : ofMinor(toMinorUnits(amount, DEFAULT_CURRENCY));
+    }
+
+    /**
+     * Convert a decimal amount to minor units of the default currency.
+     * A null amount is treated as zero.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return toMinorUnits(amount, DEFAULT_CURRENCY);
+    }
+
+    public static long toMinorUnits(BigDecimal amount, Currency currency) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.movePointRight(fractionDigits(currency))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+
+    /**
+     * Convert a decimal rate (0.10 = 10%) to basis points (1000).
+     * A null rate is treated as zero.
+     */
+    public static long toBasisPoints(BigDecimal rate) {
+        if (rate == null) {
+            return 0L;
+        }
+        return rate.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // ============ Primitive Arithmetic (allocation-free) ============
+
+    /**
+     * Apply a rate in basis points to an amount in minor units, rounding
+     * half-up (away from zero) to the nearest minor unit.
+     */
+    public static long applyRate(long minorUnits, long basisPoints) {
+        long product = Math.multiplyExact(minorUnits, basisPoints);
+        long half = BASIS_POINTS / 2;
+        return product >= 0
+                ? (product + half) / BASIS_POINTS
+                : -((-product + half) / BASIS_POINTS);
+    }
+
+    // ============ Value Arithmetic ============
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return other.minorUnits == 0L ? this : new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return other.minorUnits == 0L ? this : new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long multiplier) {
+        return multiplier == 1L ? this : new Money(Math.multiplyExact(minorUnits, multiplier), currency);
+    }
+
+    public Money applyRate(long basisPoints) {
+        return new Money(applyRate(minorUnits, basisPoints), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    // ============ Accessors ============
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0L;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0L;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    // ============ Helpers ============
+
+    private static int fractionDigits(Currency currency) {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+
+    private void requireSameCurrency(Money other) {
+        Objects.requireNonNull(other, "other");
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && currency.equals(money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -18,7 +18,7 @@ public class Payment {
 
     private Long paymentId;
     private Long invoiceId; // Reference to Invoice by ID
-    private BigDecimal amount;
+    private Money amount;
 
     /**
      * Payment method: Cash, Credit Card, Debit Card, Digital Wallet
@@ -42,7 +42,7 @@ public class Payment {
             String status, String transactionReference, LocalDateTime paymentTime) {
         this.paymentId = paymentId;
         this.invoiceId = invoiceId;
-        this.amount = amount;
+        this.amount = Money.of(amount);
         this.paymentMethod = paymentMethod;
         this.status = status;
         this.transactionReference = transactionReference;
@@ -68,10 +68,18 @@ public class Payment {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -126,6 +134,6 @@ public class Payment {
 
     @Override
     public String toString() {
-        return "Payment{paymentId=" + paymentId + ", amount=" + amount + ", status='" + status + "'}";
+        return "Payment{paymentId=" + paymentId + ", amount=" + getAmount() + ", status='" + status + "'}";
     }
 }
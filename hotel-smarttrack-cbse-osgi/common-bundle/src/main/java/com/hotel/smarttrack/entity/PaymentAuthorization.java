@@ -0,0 +1,53 @@
+package com.hotel.smarttrack.entity;
+
+/**
+ * PaymentAuthorization - a payment gateway's answer to an authorization.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * A decline is a normal answer, not an error: the gateway is healthy and
+ * retrying will not help. Transport failures are reported by completing the
+ * PaymentGateway future exceptionally instead.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public final class PaymentAuthorization {
+
+    private final boolean approved;
+    private final String transactionReference;
+    private final String message;
+
+    private PaymentAuthorization(boolean approved, String transactionReference, String message) {
+        this.approved = approved;
+        this.transactionReference = transactionReference;
+        this.message = message;
+    }
+
+    public static PaymentAuthorization approved(String transactionReference) {
+        if (transactionReference == null || transactionReference.isBlank()) {
+            throw new IllegalArgumentException("Approved authorization needs a transaction reference");
+        }
+        return new PaymentAuthorization(true, transactionReference, "Approved");
+    }
+
+    public static PaymentAuthorization declined(String message) {
+        return new PaymentAuthorization(false, null, message);
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public String getTransactionReference() {
+        return transactionReference;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentAuthorization{approved=" + approved + ", transactionReference='" + transactionReference
+                + "', message='" + message + "'}";
+    }
+}
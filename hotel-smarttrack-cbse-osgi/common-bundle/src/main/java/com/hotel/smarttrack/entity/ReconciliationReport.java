@@ -0,0 +1,202 @@
+package com.hotel.smarttrack.entity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReconciliationReport - outcome of matching a processor settlement file
+ * against recorded payments by transaction reference.
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * Buckets:
+ * - MATCHED: reference found, amounts agree (counted, not itemized)
+ * - AMOUNT_MISMATCH: reference found, amounts differ
+ * - MISSING_IN_LEDGER: settled by the processor, no payment recorded
+ * - MISSING_IN_SETTLEMENT: payment in the window the processor did not settle
+ * - DUPLICATE: reference settled more than once, or recorded on several payments
+ *
+ * Counts and totals are exact; items are kept up to a limit per bucket so a
+ * badly broken file cannot exhaust memory.
+ *
+ * @author Hotel SmartTrack Team
+ */
+public class ReconciliationReport {
+
+    public enum Bucket {
+        MATCHED, AMOUNT_MISMATCH, MISSING_IN_LEDGER, MISSING_IN_SETTLEMENT, DUPLICATE
+    }
+
+    private final String source;
+    private final int itemLimit;
+    private final Map<Bucket, Long> counts = new EnumMap<>(Bucket.class);
+    private final Map<Bucket, List<Item>> items = new EnumMap<>(Bucket.class);
+    private long matchedMinorUnits;
+    private long linesRead;
+    private long malformedLines;
+    private long elapsedMillis;
+
+    public ReconciliationReport(String source, int itemLimit) {
+        if (itemLimit < 0) {
+            throw new IllegalArgumentException("Item limit cannot be negative");
+        }
+        this.source = source;
+        this.itemLimit = itemLimit;
+        for (Bucket bucket : Bucket.values()) {
+            counts.put(bucket, 0L);
+            items.put(bucket, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Count a matched settlement line.
+     */
+    public void recordMatch(long amountMinorUnits) {
+        counts.merge(Bucket.MATCHED, 1L, Long::sum);
+        matchedMinorUnits += amountMinorUnits;
+    }
+
+    /**
+     * Count an exception and keep it as an item while under the limit.
+     */
+    public void record(Item item) {
+        counts.merge(item.getBucket(), 1L, Long::sum);
+        List<Item> bucketItems = items.get(item.getBucket());
+        if (bucketItems.size() < itemLimit) {
+            bucketItems.add(item);
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getCount(Bucket bucket) {
+        return counts.get(bucket);
+    }
+
+    public List<Item> getItems(Bucket bucket) {
+        return Collections.unmodifiableList(items.get(bucket));
+    }
+
+    /**
+     * Whether some items of the bucket were counted but not kept.
+     */
+    public boolean isTruncated(Bucket bucket) {
+        return counts.get(bucket) > items.get(bucket).size();
+    }
+
+    public BigDecimal getMatchedAmount() {
+        return Money.ofMinor(matchedMinorUnits).toBigDecimal();
+    }
+
+    /**
+     * Every line matched, every payment settled, nothing malformed.
+     */
+    public boolean isClean() {
+        if (malformedLines > 0) {
+            return false;
+        }
+        for (Bucket bucket : Bucket.values()) {
+            if (bucket != Bucket.MATCHED && counts.get(bucket) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    public void setMalformedLines(long malformedLines) {
+        this.malformedLines = malformedLines;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ReconciliationReport{source='" + source + "', lines=" + linesRead + ", counts=" + counts
+                + ", matchedAmount=" + getMatchedAmount() + ", malformed=" + malformedLines
+                + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+
+    /**
+     * One settlement line or payment that did not reconcile cleanly.
+     * Amounts are null on the side that has no record; lineNumber is 0 for
+     * items that come from the ledger only.
+     */
+    public static final class Item {
+        private final Bucket bucket;
+        private final String transactionReference;
+        private final Long paymentId;
+        private final Long invoiceId;
+        private final BigDecimal ledgerAmount;
+        private final BigDecimal settledAmount;
+        private final long lineNumber;
+
+        public Item(Bucket bucket, String transactionReference, Long paymentId, Long invoiceId,
+                BigDecimal ledgerAmount, BigDecimal settledAmount, long lineNumber) {
+            this.bucket = bucket;
+            this.transactionReference = transactionReference;
+            this.paymentId = paymentId;
+            this.invoiceId = invoiceId;
+            this.ledgerAmount = ledgerAmount;
+            this.settledAmount = settledAmount;
+            this.lineNumber = lineNumber;
+        }
+
+        public Bucket getBucket() {
+            return bucket;
+        }
+
+        public String getTransactionReference() {
+            return transactionReference;
+        }
+
+        public Long getPaymentId() {
+            return paymentId;
+        }
+
+        public Long getInvoiceId() {
+            return invoiceId;
+        }
+
+        public BigDecimal getLedgerAmount() {
+            return ledgerAmount;
+        }
+
+        public BigDecimal getSettledAmount() {
+            return settledAmount;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public String toString() {
+            return bucket + " " + transactionReference + " payment=" + paymentId + " invoice=" + invoiceId
+                    + " ledger=" + ledgerAmount + " settled=" + settledAmount
+                    + (lineNumber > 0 ? " line=" + lineNumber : "");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.hotel.smarttrack.entity;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
@@ -31,6 +32,12 @@ public class Reservation {
 
     private String specialRequests;
 
+    /**
+     * When the reservation was made, for booking lead times. Null for
+     * reservations loaded without one.
+     */
+    private LocalDateTime bookedTime;
+
     // ============ Constructors ============
 
     public Reservation() {
@@ -124,6 +131,14 @@ public class Reservation {
         this.specialRequests = specialRequests;
     }
 
+    public LocalDateTime getBookedTime() {
+        return bookedTime;
+    }
+
+    public void setBookedTime(LocalDateTime bookedTime) {
+        this.bookedTime = bookedTime;
+    }
+
     // ============ Object Methods ============
 
     @Override
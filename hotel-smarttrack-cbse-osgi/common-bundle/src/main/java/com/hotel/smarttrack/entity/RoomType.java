@@ -19,7 +19,7 @@ public class RoomType {
     private String typeName;
     private String description;
     private int maxOccupancy;
-    private BigDecimal basePrice;
+    private Money basePrice;
     private BigDecimal taxRate;
 
     // ============ Constructors ============
@@ -33,7 +33,7 @@ public class RoomType {
         this.typeName = typeName;
         this.description = description;
         this.maxOccupancy = maxOccupancy;
-        this.basePrice = basePrice;
+        this.basePrice = Money.of(basePrice);
         this.taxRate = taxRate;
     }
 
@@ -72,10 +72,18 @@ public class RoomType {
     }
 
     public BigDecimal getBasePrice() {
-        return basePrice;
+        return basePrice == null ? null : basePrice.toBigDecimal();
     }
 
     public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = Money.of(basePrice);
+    }
+
+    public Money getBasePriceMoney() {
+        return basePrice;
+    }
+
+    public void setBasePriceMoney(Money basePrice) {
         this.basePrice = basePrice;
     }
 
@@ -106,6 +114,6 @@ public class RoomType {
 
     @Override
     public String toString() {
-        return "RoomType{roomTypeId=" + roomTypeId + ", typeName='" + typeName + "', basePrice=" + basePrice + "}";
+        return "RoomType{roomTypeId=" + roomTypeId + ", typeName='" + typeName + "', basePrice=" + getBasePrice() + "}";
     }
 }
@@ -0,0 +1,186 @@
+package com.hotel.smarttrack.entity;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * StayEvent - one immutable entry in a stay's timeline (check-in, room move,
+ * key card, charge, void, check-out).
+ * Part of Base Library (CBSE Rule 1) - shared across all OSGi bundles.
+ *
+ * <p>
+ * Events are appended to the stay event log by the stay-management-bundle
+ * and replayed to audit a stay or rebuild its state. Fields that do not apply
+ * to an event type are null (or 0 for amounts).
+ * </p>
+ *
+ * @author Hotel SmartTrack Team
+ */
+public final class StayEvent {
+
+    /**
+     * Event type. The ordinal is part of the on-disk format - append only.
+     */
+    public enum Type {
+        CHECK_IN, ROOM_MOVE, KEY_CARD, CHARGE, VOID, CHECK_OUT
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final Long stayId;
+    private final LocalDateTime eventTime;
+    private final Long guestId;
+    private final Long roomId;
+    private final Long reservationId;
+    private final Long chargeId;
+    private final long amountMinorUnits;
+    private final String keyCardNumber;
+    private final String serviceType;
+    private final String description;
+
+    public StayEvent(long sequence, Type type, Long stayId, LocalDateTime eventTime,
+            Long guestId, Long roomId, Long reservationId, Long chargeId, long amountMinorUnits,
+            String keyCardNumber, String serviceType, String description) {
+        this.sequence = sequence;
+        this.type = Objects.requireNonNull(type, "type");
+        this.stayId = Objects.requireNonNull(stayId, "stayId");
+        this.eventTime = Objects.requireNonNull(eventTime, "eventTime");
+        this.guestId = guestId;
+        this.roomId = roomId;
+        this.reservationId = reservationId;
+        this.chargeId = chargeId;
+        this.amountMinorUnits = amountMinorUnits;
+        this.keyCardNumber = keyCardNumber;
+        this.serviceType = serviceType;
+        this.description = description;
+    }
+
+    // ============ Factories ============
+
+    public static StayEvent checkIn(Stay stay) {
+        return new StayEvent(0L, Type.CHECK_IN, stay.getStayId(), stay.getCheckInTime(),
+                stay.getGuest() != null ? stay.getGuest().getGuestId() : null,
+                stay.getRoom() != null ? stay.getRoom().getRoomId() : null,
+                stay.getReservation() != null ? stay.getReservation().getReservationId() : null,
+                null, 0L, stay.getKeyCardNumber(), null, null);
+    }
+
+    public static StayEvent roomMove(Long stayId, Long roomId, String keyCardNumber) {
+        return new StayEvent(0L, Type.ROOM_MOVE, stayId, LocalDateTime.now(),
+                null, roomId, null, null, 0L, keyCardNumber, null, null);
+    }
+
+    public static StayEvent keyCard(Long stayId, String keyCardNumber) {
+        return new StayEvent(0L, Type.KEY_CARD, stayId, LocalDateTime.now(),
+                null, null, null, null, 0L, keyCardNumber, null, null);
+    }
+
+    public static StayEvent charge(IncidentalCharge charge) {
+        Money amount = charge.getAmountMoney();
+        return new StayEvent(0L, Type.CHARGE, charge.getStay().getStayId(), charge.getChargeTime(),
+                null, null, null, charge.getChargeId(), amount != null ? amount.getMinorUnits() : 0L,
+                null, charge.getServiceType(), charge.getDescription());
+    }
+
+    public static StayEvent voidCharge(Long stayId, Long chargeId) {
+        return new StayEvent(0L, Type.VOID, stayId, LocalDateTime.now(),
+                null, null, null, chargeId, 0L, null, null, null);
+    }
+
+    public static StayEvent checkOut(Stay stay) {
+        return new StayEvent(0L, Type.CHECK_OUT, stay.getStayId(), stay.getCheckOutTime(),
+                null, null, null, null, 0L, null, null, null);
+    }
+
+    /**
+     * Copy of this event with the sequence number assigned by the log.
+     */
+    public StayEvent withSequence(long sequence) {
+        return new StayEvent(sequence, type, stayId, eventTime, guestId, roomId, reservationId,
+                chargeId, amountMinorUnits, keyCardNumber, serviceType, description);
+    }
+
+    // ============ Getters ============
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getStayId() {
+        return stayId;
+    }
+
+    public LocalDateTime getEventTime() {
+        return eventTime;
+    }
+
+    public Long getGuestId() {
+        return guestId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    public Long getChargeId() {
+        return chargeId;
+    }
+
+    public long getAmountMinorUnits() {
+        return amountMinorUnits;
+    }
+
+    public Money getAmount() {
+        return Money.ofMinor(amountMinorUnits);
+    }
+
+    public String getKeyCardNumber() {
+        return keyCardNumber;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("#").append(sequence).append(' ').append(eventTime).append(' ').append(type);
+        switch (type) {
+            case CHECK_IN:
+                sb.append(" guest=").append(guestId).append(" room=").append(roomId);
+                if (reservationId != null) {
+                    sb.append(" reservation=").append(reservationId);
+                }
+                break;
+            case ROOM_MOVE:
+                sb.append(" room=").append(roomId).append(" keyCard=").append(keyCardNumber);
+                break;
+            case KEY_CARD:
+                sb.append(" keyCard=").append(keyCardNumber);
+                break;
+            case CHARGE:
+                sb.append(" charge=").append(chargeId).append(' ').append(serviceType)
+                        .append(" $").append(getAmount().toBigDecimal());
+                break;
+            case VOID:
+                sb.append(" charge=").append(chargeId);
+                break;
+            default:
+                break;
+        }
+        return sb.toString();
+    }
+}
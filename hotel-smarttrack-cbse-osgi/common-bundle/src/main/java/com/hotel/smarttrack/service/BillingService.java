@@ -1,10 +1,16 @@
 package com.hotel.smarttrack.service;
 
+import com.hotel.smarttrack.entity.AgingReport;
 import com.hotel.smarttrack.entity.Invoice;
 import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.entity.ReconciliationReport;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * BillingService interface - exposes Billing & Payment functionality.
@@ -31,7 +37,9 @@ public interface BillingService {
     // ============ Invoice Generation (UC17) ============
 
     /**
-     * Generate an invoice for a stay.
+     * Generate an invoice for a stay: an interim invoice while it is in house,
+     * the final one once it has checked out. An existing interim invoice is
+     * re-priced; a final invoice is returned unchanged.
      * 
      * @param stayId Stay ID
      * @return Generated invoice
@@ -39,6 +47,17 @@ public interface BillingService {
      */
     Invoice generateInvoice(Long stayId);
 
+    /**
+     * Generate invoices for many stays at once (e.g. month-end interim
+     * invoices). Interim invoices are re-priced and final ones returned
+     * unchanged, as with generateInvoice.
+     * 
+     * @param stayIds Stay IDs
+     * @return Invoices in the order of the given stay IDs (duplicates removed)
+     * @throws IllegalArgumentException if any stay is not found
+     */
+    List<Invoice> generateInvoices(Collection<Long> stayIds);
+
     /**
      * Get invoice by ID.
      * 
@@ -110,7 +129,7 @@ public interface BillingService {
     // ============ Payment Processing (UC18) ============
 
     /**
-     * Process a payment for an invoice.
+     * Process a payment for an invoice, authorized through the PaymentGateway.
      * 
      * @param invoiceId     Invoice ID
      * @param amount        Payment amount
@@ -118,11 +137,25 @@ public interface BillingService {
      *                      Wallet)
      * @return Processed payment record
      * @throws IllegalArgumentException if invoice not found or invalid amount
+     * @throws IllegalStateException    if declined or the gateway is unavailable
      */
     Payment processPayment(Long invoiceId, BigDecimal amount, String paymentMethod);
 
     /**
-     * Record a payment with transaction reference.
+     * Process a payment without waiting for the payment gateway.
+     * 
+     * @param invoiceId     Invoice ID
+     * @param amount        Payment amount
+     * @param paymentMethod Payment method
+     * @return Future completing with the payment record, or exceptionally if
+     *         the payment is declined or the gateway is unavailable
+     * @throws IllegalArgumentException if invoice not found or invalid amount
+     */
+    CompletableFuture<Payment> processPaymentAsync(Long invoiceId, BigDecimal amount, String paymentMethod);
+
+    /**
+     * Record a payment with transaction reference (already authorized
+     * elsewhere, so the payment gateway is not called).
      * 
      * @param invoiceId            Invoice ID
      * @param amount               Payment amount
@@ -141,6 +174,15 @@ public interface BillingService {
      */
     List<Payment> getPaymentsForInvoice(Long invoiceId);
 
+    /**
+     * Net amount paid (completed payments less refunds) on every invoice, in
+     * one pass - for batch jobs that would otherwise read payments one
+     * invoice at a time.
+     * 
+     * @return Amount paid by invoice ID
+     */
+    Map<Long, BigDecimal> getAmountsPaid();
+
     /**
      * Refund a payment.
      * 
@@ -236,4 +278,37 @@ public interface BillingService {
      * @return List of invoices with the specified status
      */
     List<Invoice> getInvoicesByStatus(String status);
+
+    // ============ Settlement Reconciliation ============
+
+    /**
+     * Match a processor settlement file (CSV with header, or fixed width)
+     * against recorded payments by transaction reference.
+     * 
+     * @param filePath Settlement file
+     * @param from     First payment date the settlement covers
+     * @param to       Last payment date the settlement covers (inclusive)
+     * @return Matched, amount-mismatch, missing and duplicate buckets
+     * @throws IllegalArgumentException if the file cannot be read or parsed
+     */
+    ReconciliationReport reconcileSettlement(String filePath, LocalDate from, LocalDate to);
+
+    // ============ Receivables Aging ============
+
+    /**
+     * Outstanding totals and invoice counts per aging bucket (0-30, 31-60,
+     * 61-90, 90+ days since issue). Read from an aggregate maintained as
+     * invoices are issued, paid and refunded.
+     * 
+     * @return Aging report as of today
+     */
+    AgingReport getAgingReport();
+
+    /**
+     * Get the open invoices in one aging bucket.
+     * 
+     * @param bucket Aging bucket
+     * @return Invoices in the bucket, by invoice ID
+     */
+    List<Invoice> getInvoicesInAgingBucket(AgingReport.Bucket bucket);
 }
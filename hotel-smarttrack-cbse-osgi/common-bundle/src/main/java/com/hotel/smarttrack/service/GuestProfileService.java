@@ -0,0 +1,63 @@
+package com.hotel.smarttrack.service;
+
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.entity.Stay;
+
+import java.math.BigDecimal;
+
+/**
+ * GuestProfileService interface - per-guest value aggregates (completed
+ * stays, nights, lifetime revenue) and the VIP indicator.
+ * Part of Base Library (CBSE Rule 5) - interface in common library.
+ * Implemented by GuestProfileManagerImpl in guest-management-bundle.
+ *
+ * Aggregates are maintained incrementally from check-outs, payments and
+ * refunds, so reading a profile or the VIP flag is a constant-time lookup
+ * instead of summing the guest's stay and invoice history.
+ */
+public interface GuestProfileService {
+
+    // ============ Profile Reads ============
+
+    /**
+     * Get a guest's aggregates; all zero for a guest with no completed stays
+     * or payments.
+     *
+     * @param guestId Guest ID
+     */
+    GuestProfile getGuestProfile(Long guestId);
+
+    /**
+     * Whether a guest meets the VIP thresholds (completed stays or lifetime
+     * revenue).
+     *
+     * @param guestId Guest ID
+     */
+    boolean isVip(Long guestId);
+
+    // ============ Change Notifications ============
+
+    /**
+     * Record the current state of a stay; it counts once checked out.
+     */
+    void stayChanged(Stay stay);
+
+    /**
+     * Record the current net amount paid on an invoice (completed payments
+     * less refunds).
+     *
+     * @param invoiceId  Invoice ID
+     * @param guestId    Guest of the invoice's stay
+     * @param amountPaid Net amount paid
+     */
+    void invoicePaymentsChanged(Long invoiceId, Long guestId, BigDecimal amountPaid);
+
+    // ============ Rebuild ============
+
+    /**
+     * Recompute every guest's aggregates from StayService and BillingService.
+     *
+     * @return Number of guests with a profile
+     */
+    int rebuildProfiles();
+}
@@ -0,0 +1,57 @@
+package com.hotel.smarttrack.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GuestSegmentationService interface - marketing segments (frequent
+ * business traveler, weekend leisure, lapsed, high spend) derived from each
+ * guest's stays, booking lead times and spend.
+ * Part of Base Library (CBSE Rule 5) - interface in common library.
+ * Implemented by GuestSegmentationManagerImpl in guest-management-bundle.
+ *
+ * Segments are computed by a batch job that reads the whole history once,
+ * partitioned by guest; reads return the tags of the last run. The job is
+ * run from the Karaf shell with "hotel:segment".
+ */
+public interface GuestSegmentationService {
+
+    /** At least a few short, weekday, short-notice stays in the window. */
+    String FREQUENT_BUSINESS = "FREQUENT_BUSINESS";
+    /** Mostly short stays starting on a Friday or Saturday in the window. */
+    String WEEKEND_LEISURE = "WEEKEND_LEISURE";
+    /** Stayed before, but not within the window. */
+    String LAPSED = "LAPSED";
+    /** Paid at least the high-spend amount on invoices issued in the window. */
+    String HIGH_SPEND = "HIGH_SPEND";
+
+    // ============ Segment Reads ============
+
+    /**
+     * A guest's segments from the last run, alphabetically; empty if none.
+     *
+     * @param guestId Guest ID
+     */
+    List<String> getSegments(Long guestId);
+
+    /**
+     * IDs of the guests in a segment, ascending.
+     *
+     * @param segment Segment name
+     */
+    List<Long> getGuestIdsInSegment(String segment);
+
+    /**
+     * Number of guests in each segment after the last run.
+     */
+    Map<String, Long> getSegmentCounts();
+
+    // ============ Batch ============
+
+    /**
+     * Recompute every guest's segments and replace the stored tags.
+     *
+     * @return Number of guests in each segment
+     */
+    Map<String, Long> runSegmentation();
+}
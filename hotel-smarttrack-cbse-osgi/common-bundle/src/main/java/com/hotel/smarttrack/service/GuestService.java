@@ -2,6 +2,7 @@ package com.hotel.smarttrack.service;
 
 import com.hotel.smarttrack.entity.Guest;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -40,7 +41,8 @@ public interface GuestService {
     Guest createGuest(String name, String email, String phone, String identificationNumber);
 
     /**
-     * Update an existing guest profile.
+     * Update an existing guest profile, including its tax exemption category
+     * (stored upper-case; blank clears it).
      * 
      * @param guest Guest with updated information
      * @return Updated guest
@@ -73,6 +75,24 @@ public interface GuestService {
      */
     List<Guest> searchGuests(String searchTerm);
 
+    /**
+     * Find guests by a name that may be misspelt or spelt differently
+     * ("Jon Smyth" for "John Smith"), closest first.
+     * 
+     * @param name Name as heard or typed
+     * @return Similar guests, at most 100
+     */
+    List<Guest> findSimilarGuests(String name);
+
+    /**
+     * Complete a partly typed guest name from its start or the start of a
+     * later word ("smi" gives "John Smith").
+     * 
+     * @param prefix Start of the name or of one of its words
+     * @return Guest ID to name, best match first, at most 10
+     */
+    Map<Long, String> completeGuestNames(String prefix);
+
     /**
      * Find guest by email address.
      * 
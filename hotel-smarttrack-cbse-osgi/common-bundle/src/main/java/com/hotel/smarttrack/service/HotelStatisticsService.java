@@ -0,0 +1,94 @@
+package com.hotel.smarttrack.service;
+
+import com.hotel.smarttrack.entity.Reservation;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.Stay;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * HotelStatisticsService interface - live occupancy counters for the
+ * front-desk dashboard.
+ * Part of Base Library (CBSE Rule 5) - interface in common library.
+ * Implemented by HotelStatisticsManagerImpl in room-management-bundle.
+ *
+ * Counters are maintained incrementally from room, stay and reservation
+ * changes, so every read is a constant-time lookup instead of a repository
+ * scan and is safe to poll frequently from many terminals.
+ */
+public interface HotelStatisticsService {
+
+    // ============ Room Counters ============
+
+    /**
+     * Get the total number of rooms.
+     */
+    long getTotalRooms();
+
+    /**
+     * Count rooms in a status.
+     *
+     * @param status Room status (AVAILABLE, OCCUPIED, UNDER_CLEANING, OUT_OF_SERVICE)
+     */
+    long countRoomsByStatus(String status);
+
+    /**
+     * Count rooms on a floor in a status.
+     */
+    long countRoomsByFloorAndStatus(int floorNumber, String status);
+
+    /**
+     * Count rooms of a room type in a status.
+     */
+    long countRoomsByTypeAndStatus(Long roomTypeId, String status);
+
+    /**
+     * Get a snapshot of room counts keyed by status.
+     */
+    Map<String, Long> getRoomStatusCounts();
+
+    // ============ Stay / Reservation Counters ============
+
+    /**
+     * Count stays currently checked in.
+     */
+    long countActiveStays();
+
+    /**
+     * Count guests currently in-house (reservation party size, or 1 for a
+     * walk-in).
+     */
+    long countInHouseGuests();
+
+    /**
+     * Count reservations arriving on a date.
+     */
+    long countArrivals(LocalDate date);
+
+    /**
+     * Count reservations departing on a date.
+     */
+    long countDepartures(LocalDate date);
+
+    // ============ Change Notifications ============
+
+    /**
+     * Record the current state of a created or updated room.
+     */
+    void roomChanged(Room room);
+
+    /**
+     * Record that a room was deleted.
+     */
+    void roomRemoved(Long roomId);
+
+    /**
+     * Record the current state of a created or updated stay.
+     */
+    void stayChanged(Stay stay);
+
+    /**
+     * Record the current state of a created or updated reservation.
+     */
+    void reservationChanged(Reservation reservation);
+}
@@ -131,6 +131,14 @@ public interface RoomService {
      */
     List<Room> getAllRooms();
 
+    /**
+     * Complete a partly typed room number, e.g. "10" gives "101", "102", ...
+     * 
+     * @param prefix Start of the room number
+     * @return Matching room numbers in order, at most 10
+     */
+    List<String> completeRoomNumbers(String prefix);
+
     /**
      * Get rooms by floor.
      * 
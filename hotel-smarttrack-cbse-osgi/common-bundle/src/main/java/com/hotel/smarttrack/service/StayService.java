@@ -2,8 +2,11 @@ package com.hotel.smarttrack.service;
 
 import com.hotel.smarttrack.entity.IncidentalCharge;
 import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.entity.StayEvent;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -97,6 +100,14 @@ public interface StayService {
      */
     List<IncidentalCharge> getChargesForStay(Long stayId);
 
+    /**
+     * Get the charges of many stays in one pass.
+     * 
+     * @param stayIds Stay IDs
+     * @return Charges per stay ID; stays without charges are absent
+     */
+    Map<Long, List<IncidentalCharge>> getChargesForStays(Collection<Long> stayIds);
+
     /**
      * Get total incidental charges for a stay.
      * 
@@ -105,6 +116,14 @@ public interface StayService {
      */
     BigDecimal getTotalIncidentalCharges(Long stayId);
 
+    /**
+     * Get total incidental charges for many stays in one pass.
+     * 
+     * @param stayIds Stay IDs
+     * @return Total per stay ID; stays without charges map to zero
+     */
+    Map<Long, BigDecimal> getTotalIncidentalCharges(Collection<Long> stayIds);
+
     /**
      * Void/cancel an incidental charge.
      * 
@@ -203,4 +222,15 @@ public interface StayService {
      * @return Active stay if found
      */
     Optional<Stay> getActiveStayByGuest(Long guestId);
+
+    // ============ Stay Timeline ============
+
+    /**
+     * Get the recorded timeline of a stay (check-in, room moves, key cards,
+     * charges, voids, check-out) from the append-only stay event log.
+     * 
+     * @param stayId Stay ID
+     * @return Events in the order they were recorded (empty if none)
+     */
+    List<StayEvent> getStayTimeline(Long stayId);
 }
@@ -0,0 +1,61 @@
+package com.hotel.smarttrack.service;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.TaxRule;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * TaxService interface - rules-based tax on folio lines.
+ * Part of Base Library (CBSE Rule 5) - interface in common library.
+ * Implemented by TaxEngine in billing-payment-bundle.
+ *
+ * Rules are compiled into immutable per room type / charge type plans that
+ * are cached until the rules are replaced, so taxing a folio line is a few
+ * array reads and multiplications.
+ */
+public interface TaxService {
+
+    /**
+     * Charge type of room-night lines.
+     */
+    String CHARGE_ROOM = TaxRule.ROOM;
+
+    /**
+     * Tax on one folio line.
+     *
+     * @param chargeType  CHARGE_ROOM or the incidental service type
+     * @param roomType    Room type of the stay (null if unknown)
+     * @param guest       Guest billed, for exemptions (may be null)
+     * @param amountMinor Line amount in minor units
+     * @param nights      Room-nights the line covers (0 for incidentals)
+     * @return Tax in minor units
+     */
+    long computeTaxMinor(String chargeType, RoomType roomType, Guest guest, long amountMinor, long nights);
+
+    /**
+     * Tax on an amount at one flat rate, rounded half-up to minor units as
+     * rule-based tax is (BillingService.computeTax).
+     *
+     * @param taxRate Tax rate (e.g., 0.10 for 10%)
+     */
+    BigDecimal computeTax(BigDecimal amount, BigDecimal taxRate);
+
+    /**
+     * Rules currently in force.
+     */
+    List<TaxRule> getRules();
+
+    /**
+     * Replace the rule set. Plans compiled from the old rules are dropped
+     * atomically; in-flight calculations finish on the old rules.
+     */
+    void updateRules(List<TaxRule> rules);
+
+    /**
+     * Incremented on every updateRules; lets callers drop cached totals.
+     */
+    long getRulesVersion();
+}
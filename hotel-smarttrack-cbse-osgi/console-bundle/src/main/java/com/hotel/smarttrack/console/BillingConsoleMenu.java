@@ -1,10 +1,14 @@
 package com.hotel.smarttrack.console;
 
+import com.hotel.smarttrack.entity.AgingReport;
 import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.ReconciliationReport;
 import com.hotel.smarttrack.service.BillingService;
 import com.hotel.smarttrack.service.StayService;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -41,6 +45,8 @@ public class BillingConsoleMenu {
             input.println("4. Process Payment");
             input.println("5. View Invoice Details");
             input.println("6. View Stays Ready for Invoicing");
+            input.println("7. Reconcile Settlement File");
+            input.println("8. Receivables Aging Report");
             input.println("0. Back to Main Menu");
 
             String choice = input.readLine("Choose: ");
@@ -52,6 +58,8 @@ public class BillingConsoleMenu {
                     case "4" -> processPayment();
                     case "5" -> viewInvoiceDetails();
                     case "6" -> viewStaysReadyForInvoicing();
+                    case "7" -> reconcileSettlement();
+                    case "8" -> showAgingReport();
                     case "0" -> running = false;
                     default -> input.println("Invalid option.");
                 }
@@ -132,6 +140,41 @@ public class BillingConsoleMenu {
                 s.getStatus())));
     }
 
+    private void reconcileSettlement() {
+        String path = input.readLine("Settlement file path: ");
+        LocalDate from = readDate("Payments from (YYYY-MM-DD): ");
+        LocalDate to = readDate("Payments to (YYYY-MM-DD): ");
+
+        ReconciliationReport report = billingService.reconcileSettlement(path, from, to);
+
+        input.println("\n--- Settlement Reconciliation ---");
+        input.println("File:     " + report.getSource());
+        input.println("Lines:    " + report.getLinesRead() + " (" + report.getMalformedLines() + " malformed)");
+        input.println("Matched:  " + report.getCount(ReconciliationReport.Bucket.MATCHED)
+            + " ($" + report.getMatchedAmount() + ")");
+        for (ReconciliationReport.Bucket bucket : ReconciliationReport.Bucket.values()) {
+            if (bucket == ReconciliationReport.Bucket.MATCHED || report.getCount(bucket) == 0) {
+                continue;
+            }
+            input.println("\n" + bucket + ": " + report.getCount(bucket)
+                + (report.isTruncated(bucket) ? " (first " + report.getItems(bucket).size() + " shown)" : ""));
+            report.getItems(bucket).forEach(item -> input.println("  " + item));
+        }
+        input.println(report.isClean() ? "\n✅ Settlement reconciles." : "\n[!] Settlement has exceptions.");
+    }
+
+    private void showAgingReport() {
+        AgingReport report = billingService.getAgingReport();
+
+        input.println("\n--- Receivables Aging as of " + report.getAsOf() + " ---");
+        for (AgingReport.Bucket bucket : AgingReport.Bucket.values()) {
+            input.println(String.format("%-6s days | %5d invoice(s) | $%s", bucket.getLabel(),
+                report.getInvoiceCount(bucket), report.getOutstanding(bucket)));
+        }
+        input.println(String.format("%-11s | %5d invoice(s) | $%s", "Total",
+            report.getTotalInvoiceCount(), report.getTotalOutstanding()));
+    }
+
     private void printInvoiceSummary(Invoice inv) {
         input.println(String.format("ID=%d | Stay=%s | Amount=$%s | Status=%s",
             inv.getInvoiceId(),
@@ -146,12 +189,23 @@ public class BillingConsoleMenu {
         input.println("Stay ID:        " + (inv.getStayId() != null ? inv.getStayId() : "N/A"));
         input.println("Reservation ID: " + (inv.getReservationId() != null ? inv.getReservationId() : "N/A"));
         input.println("Amount:         $" + (inv.getAmount() != null ? inv.getAmount() : "0"));
-        input.println("Status:         " + inv.getStatus());
+        input.println("Status:         " + inv.getStatus() + (inv.isInterim() ? " (interim)" : ""));
         input.println("Issued At:      " + inv.getIssuedAt());
     }
 
     // ============ Utility Methods ============
 
+    private LocalDate readDate(String prompt) {
+        while (true) {
+            String s = input.readLine(prompt);
+            try {
+                return LocalDate.parse(s);
+            } catch (DateTimeParseException e) {
+                input.println("Please enter date in YYYY-MM-DD format.");
+            }
+        }
+    }
+
     private BigDecimal readBigDecimal(String prompt) {
         while (true) {
             String s = input.readLine(prompt);
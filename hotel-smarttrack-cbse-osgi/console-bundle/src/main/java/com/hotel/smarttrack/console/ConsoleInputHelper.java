@@ -7,6 +7,8 @@ import java.io.Console;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Console Input Helper - Provides Karaf-aware input handling with proper echo.
@@ -133,6 +135,31 @@ public class ConsoleInputHelper {
         }
     }
 
+    /**
+     * Read an entity ID. Anything that is not a number is passed to the
+     * completer as a prefix (e.g. the start of a guest name) and the
+     * matching IDs are listed before prompting again, so staff need not
+     * know the ID up front.
+     * 
+     * @param prompt    The prompt to display
+     * @param completer Prefix to matching ID and label, best first
+     * @return The parsed ID
+     */
+    public Long readId(String prompt, Function<String, Map<Long, String>> completer) {
+        while (true) {
+            String s = readLine(prompt);
+            try {
+                return Long.parseLong(s);
+            } catch (NumberFormatException e) {
+                Map<Long, String> matches = notBlank(s) ? completer.apply(s) : Map.of();
+                if (matches.isEmpty()) {
+                    println("Please enter an ID, or the start of a name.");
+                }
+                matches.forEach((id, label) -> println(String.format("  ID=%d | %s", id, label)));
+            }
+        }
+    }
+
     /**
      * Read an Integer value with retry on invalid input.
      * 
@@ -1,6 +1,8 @@
 package com.hotel.smarttrack.console;
 
 import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.service.GuestProfileService;
 import com.hotel.smarttrack.service.GuestService;
 
 import java.util.List;
@@ -13,10 +15,13 @@ import java.util.Optional;
 public class GuestConsoleMenu {
 
     private final GuestService guestService;
+    private final GuestProfileService guestProfileService; // optional, may be null
     private final ConsoleInputHelper input;
 
-    public GuestConsoleMenu(GuestService guestService, ConsoleInputHelper input) {
+    public GuestConsoleMenu(GuestService guestService, GuestProfileService guestProfileService,
+            ConsoleInputHelper input) {
         this.guestService = guestService;
+        this.guestProfileService = guestProfileService;
         this.input = input;
     }
 
@@ -34,6 +39,8 @@ public class GuestConsoleMenu {
             input.println("6. Deactivate Guest");
             input.println("7. Blacklist Guest");
             input.println("8. Reactivate Guest");
+            input.println("9. View Guest Profile");
+            input.println("10. Find Guests by Similar Name");
             input.println("0. Back to Main Menu");
 
             String choice = input.readLine("Choose: ");
@@ -47,10 +54,12 @@ public class GuestConsoleMenu {
                     case "6" -> deactivateGuest();
                     case "7" -> blacklistGuest();
                     case "8" -> reactivateGuest();
+                    case "9" -> viewGuestProfile();
+                    case "10" -> findSimilarGuests();
                     case "0" -> running = false;
                     default -> input.println("Invalid option.");
                 }
-            } catch (IllegalArgumentException ex) {
+            } catch (IllegalArgumentException | IllegalStateException ex) {
                 input.println("[ERROR] Error: " + ex.getMessage());
             } catch (Exception ex) {
                 input.println("[ERROR] Unexpected error: " + ex.getMessage());
@@ -69,7 +78,7 @@ public class GuestConsoleMenu {
     }
 
     private void updateGuest() {
-        Long id = input.readLong("Guest ID to update: ");
+        Long id = input.readId("Guest ID to update: ", guestService::completeGuestNames);
 
         Optional<Guest> opt = guestService.getGuestById(id);
         if (opt.isEmpty()) {
@@ -77,26 +86,34 @@ public class GuestConsoleMenu {
             return;
         }
 
-        Guest existing = opt.get();
+        // Edit a copy: a rejected update must not change the stored guest
+        Guest existing = new Guest(opt.get());
         input.println("Current: " + existing);
+        input.println("Tax exemption: " + (existing.getTaxExemption() != null ? existing.getTaxExemption() : "none"));
         input.println("Leave blank to keep current value.");
 
         String name = input.readLine("New Name: ");
         String email = input.readLine("New Email: ");
         String phone = input.readLine("New Phone: ");
         String idNo = input.readLine("New Identification Number: ");
+        String exemption = input.readLine("New Tax Exemption (e.g. DIPLOMATIC, '-' to clear): ");
 
         if (ConsoleInputHelper.notBlank(name)) existing.setName(name.trim());
         if (ConsoleInputHelper.notBlank(email)) existing.setEmail(email.trim());
         if (ConsoleInputHelper.notBlank(phone)) existing.setPhone(phone.trim());
         if (ConsoleInputHelper.notBlank(idNo)) existing.setIdentificationNumber(idNo.trim());
+        if ("-".equals(exemption == null ? null : exemption.trim())) {
+            existing.setTaxExemption(null);
+        } else if (ConsoleInputHelper.notBlank(exemption)) {
+            existing.setTaxExemption(exemption.trim());
+        }
 
         Guest saved = guestService.updateGuest(existing);
         input.println("✅ Updated: " + saved);
     }
 
     private void viewGuestById() {
-        Long id = input.readLong("Guest ID: ");
+        Long id = input.readId("Guest ID: ", guestService::completeGuestNames);
         Optional<Guest> guest = guestService.getGuestById(id);
         input.println(guest.map(Object::toString).orElse("Guest Not Found"));
     }
@@ -121,23 +138,46 @@ public class GuestConsoleMenu {
         results.forEach(g -> input.println(g.toString()));
     }
 
+    private void findSimilarGuests() {
+        String name = input.readLine("Name (spelling may be approximate): ");
+        List<Guest> results = guestService.findSimilarGuests(name);
+        if (results.isEmpty()) {
+            input.println("No similar guests found.");
+            return;
+        }
+        results.forEach(g -> input.println(g.toString()));
+    }
+
     private void deactivateGuest() {
-        Long id = input.readLong("Guest ID to deactivate: ");
+        Long id = input.readId("Guest ID to deactivate: ", guestService::completeGuestNames);
         String reason = input.readLine("Reason/Justification: ");
         guestService.deactivateGuest(id, reason);
         input.println("✅ Guest deactivated.");
     }
 
     private void blacklistGuest() {
-        Long id = input.readLong("Guest ID to blacklist: ");
+        Long id = input.readId("Guest ID to blacklist: ", guestService::completeGuestNames);
         String reason = input.readLine("Reason/Justification: ");
         guestService.blacklistGuest(id, reason);
         input.println("✅ Guest blacklisted.");
     }
 
     private void reactivateGuest() {
-        Long id = input.readLong("Guest ID to reactivate: ");
+        Long id = input.readId("Guest ID to reactivate: ", guestService::completeGuestNames);
         guestService.reactivateGuest(id);
         input.println("✅ Guest reactivated.");
     }
+
+    private void viewGuestProfile() {
+        if (guestProfileService == null) {
+            input.println("[!] Guest Profile Service is not available.");
+            return;
+        }
+        Long id = input.readId("Guest ID: ", guestService::completeGuestNames);
+        GuestProfile profile = guestProfileService.getGuestProfile(id);
+        input.println("Completed stays: " + profile.getCompletedStays());
+        input.println("Nights stayed: " + profile.getTotalNights());
+        input.println("Lifetime revenue: $" + profile.getLifetimeRevenue());
+        input.println("VIP: " + (profile.isVip() ? "Yes" : "No"));
+    }
 }
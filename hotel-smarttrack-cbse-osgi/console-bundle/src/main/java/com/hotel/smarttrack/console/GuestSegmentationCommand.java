@@ -0,0 +1,70 @@
+package com.hotel.smarttrack.console;
+
+import com.hotel.smarttrack.service.GuestSegmentationService;
+import org.osgi.service.component.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GuestSegmentationCommand - Karaf shell commands for the guest segmentation
+ * batch job.
+ * 
+ * Usage: In Karaf, run "hotel:segment" to recompute every guest's segments,
+ * and "hotel:segments &lt;guestId&gt;" to show one guest's.
+ */
+@Component(
+    service = GuestSegmentationCommand.class,
+    immediate = true,
+    property = {
+        "osgi.command.scope=hotel",
+        "osgi.command.function=segment",
+        "osgi.command.function=segments"
+    }
+)
+public class GuestSegmentationCommand {
+
+    // ============ OSGi Service References ============
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile GuestSegmentationService guestSegmentationService;
+
+    // ============ Gogo Shell Commands ============
+
+    /**
+     * Runs the segmentation job and prints the guests per segment.
+     * Called via: hotel:segment
+     */
+    public void segment() {
+        GuestSegmentationService service = requireService();
+        if (service == null) {
+            return;
+        }
+        Map<String, Long> counts = service.runSegmentation();
+        if (counts.isEmpty()) {
+            System.out.println("No guest matched any segment.");
+            return;
+        }
+        counts.forEach((segment, guests) -> System.out.println(segment + ": " + guests + " guest(s)"));
+    }
+
+    /**
+     * Prints a guest's segments from the last run.
+     * Called via: hotel:segments &lt;guestId&gt;
+     */
+    public void segments(long guestId) {
+        GuestSegmentationService service = requireService();
+        if (service == null) {
+            return;
+        }
+        List<String> segments = service.getSegments(guestId);
+        System.out.println("Guest " + guestId + ": " + (segments.isEmpty() ? "-" : String.join(", ", segments)));
+    }
+
+    private GuestSegmentationService requireService() {
+        GuestSegmentationService service = guestSegmentationService;
+        if (service == null) {
+            System.out.println("[!] Guest segmentation service is not available.");
+        }
+        return service;
+    }
+}
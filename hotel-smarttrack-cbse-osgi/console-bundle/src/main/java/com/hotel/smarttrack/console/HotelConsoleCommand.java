@@ -43,6 +43,9 @@ public class HotelConsoleCommand {
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
     private volatile BillingService billingService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile GuestProfileService guestProfileService;
+
     // Console menus (lazy initialized)
     private GuestConsoleMenu guestConsoleMenu;
     private RoomConsoleMenu roomConsoleMenu;
@@ -76,7 +79,7 @@ public class HotelConsoleCommand {
         ConsoleInputHelper input = new ConsoleInputHelper(session);
 
         // Initialize menus with injected services  
-        guestConsoleMenu = new GuestConsoleMenu(guestService, input);
+        guestConsoleMenu = new GuestConsoleMenu(guestService, guestProfileService, input);
         roomConsoleMenu = new RoomConsoleMenu(roomService, input);
         reservationConsoleMenu = new ReservationConsoleMenu(reservationService, guestService, roomService, input);
         stayConsoleMenu = new StayConsoleMenu(stayService, guestService, roomService, reservationService, input);
@@ -116,7 +119,7 @@ public class HotelConsoleCommand {
         ConsoleInputHelper input = new ConsoleInputHelper(null);
 
         // Initialize menus with injected services  
-        guestConsoleMenu = new GuestConsoleMenu(guestService, input);
+        guestConsoleMenu = new GuestConsoleMenu(guestService, guestProfileService, input);
         roomConsoleMenu = new RoomConsoleMenu(roomService, input);
         reservationConsoleMenu = new ReservationConsoleMenu(reservationService, guestService, roomService, input);
         stayConsoleMenu = new StayConsoleMenu(stayService, guestService, roomService, reservationService, input);
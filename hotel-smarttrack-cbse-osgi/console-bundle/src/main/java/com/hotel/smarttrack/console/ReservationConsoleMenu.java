@@ -90,12 +90,7 @@ public class ReservationConsoleMenu {
     }
 
     private void createReservation() {
-        // Show available guests
-        input.println("\n--- Available Guests ---");
-        guestService.getAllGuests().forEach(g -> 
-            input.println(String.format("ID=%d | %s | %s", g.getGuestId(), g.getName(), g.getEmail())));
-        
-        Long guestId = input.readLong("Guest ID: ");
+        Long guestId = input.readId("Guest ID (or start of name): ", guestService::completeGuestNames);
         
         // Show room types
         input.println("\n--- Room Types ---");
@@ -158,7 +153,7 @@ public class ReservationConsoleMenu {
     }
 
     private void viewGuestReservations() {
-        Long guestId = input.readLong("Guest ID: ");
+        Long guestId = input.readId("Guest ID (or start of name): ", guestService::completeGuestNames);
         List<Reservation> reservations = reservationService.getReservationsByGuest(guestId);
         if (reservations.isEmpty()) {
             input.println("No reservations for this guest.");
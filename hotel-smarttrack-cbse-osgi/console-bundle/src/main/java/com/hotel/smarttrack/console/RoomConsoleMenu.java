@@ -35,6 +35,7 @@ public class RoomConsoleMenu {
             input.println("  3. Create Room");
             input.println("  4. View All Room Types");
             input.println("  5. Create Room Type");
+            input.println(" 11. Find Room by Number");
             input.println("");
             input.println("UC6 - Manage Room Status:");
             input.println("  6. View Rooms by Status");
@@ -62,6 +63,7 @@ public class RoomConsoleMenu {
                     case "8" -> viewRoomTypePricing();
                     case "9" -> updateRoomTypePricing();
                     case "10" -> viewAvailableRooms();
+                    case "11" -> findRoomByNumber();
                     case "0" -> running = false;
                     default -> input.println("Invalid option.");
                 }
@@ -92,6 +94,29 @@ public class RoomConsoleMenu {
         );
     }
 
+    /**
+     * Show a room by its number; a partial number lists the room numbers it
+     * completes to.
+     */
+    private void findRoomByNumber() {
+        String number = input.readLine("Room Number (or its start): ");
+        if (!ConsoleInputHelper.notBlank(number)) {
+            return;
+        }
+        Optional<Room> room = roomService.getRoomByNumber(number);
+        List<String> matches = room.isPresent() ? List.of() : roomService.completeRoomNumbers(number);
+        if (room.isEmpty() && matches.size() == 1) {
+            room = roomService.getRoomByNumber(matches.get(0));
+        }
+        if (room.isPresent()) {
+            printRoom(room.get());
+        } else if (matches.isEmpty()) {
+            input.println("No room number starts with '" + number + "'.");
+        } else {
+            input.println("Matching rooms: " + String.join(", ", matches));
+        }
+    }
+
     private void viewAvailableRooms() {
         LocalDate checkIn = readDate("Check-in Date (YYYY-MM-DD): ");
         LocalDate checkOut = readDate("Check-out Date (YYYY-MM-DD): ");
@@ -115,12 +115,7 @@ public class StayConsoleMenu {
     }
 
     private void checkInWalkIn() {
-        // Show available guests
-        input.println("\n--- Guests ---");
-        guestService.getAllGuests().forEach(g ->
-            input.println(String.format("ID=%d | %s | %s", g.getGuestId(), g.getName(), g.getEmail())));
-        
-        Long guestId = input.readLong("Guest ID: ");
+        Long guestId = input.readId("Guest ID (or start of name): ", guestService::completeGuestNames);
         
         // Show available rooms for today
         LocalDate today = LocalDate.now();
@@ -194,7 +189,7 @@ public class StayConsoleMenu {
     }
 
     private void viewGuestStayHistory() {
-        Long guestId = input.readLong("Guest ID: ");
+        Long guestId = input.readId("Guest ID (or start of name): ", guestService::completeGuestNames);
         List<Stay> stays = stayService.getGuestStayHistory(guestId);
         if (stays.isEmpty()) {
             input.println("No stay history for this guest.");
@@ -1,15 +1,20 @@
 package com.hotel.smarttrack.guest.impl;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.service.GuestService;
 import org.osgi.service.component.annotations.*;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Component(service = GuestService.class, immediate = true)
 public class GuestManagerImpl implements GuestService {
 
+    private static final int MAX_COMPLETIONS = 10;
+
     private final GuestRepository repo = new GuestRepository();
 
     @Activate
@@ -40,6 +45,7 @@ public class GuestManagerImpl implements GuestService {
 
     @Deactivate
     public void deactivate() {
+        ReferenceDataCache.shared().invalidateAllGuests();
         System.out.println("[GuestManagerImpl] Deactivated");
     }
 
@@ -69,7 +75,15 @@ public class GuestManagerImpl implements GuestService {
         repo.findById(guest.getGuestId())
                 .orElseThrow(() -> new IllegalArgumentException("Guest not found: " + guest.getGuestId()));
 
-        return repo.save(guest);
+        // Matched against TaxRule exemption categories, which are upper-case
+        String exemption = guest.getTaxExemption();
+        guest.setTaxExemption(exemption == null || exemption.isBlank()
+                ? null
+                : exemption.trim().toUpperCase(Locale.ROOT));
+
+        Guest saved = repo.save(guest);
+        ReferenceDataCache.shared().invalidateGuest(saved.getGuestId());
+        return saved;
     }
 
     @Override
@@ -89,6 +103,16 @@ public class GuestManagerImpl implements GuestService {
         return repo.search(searchTerm);
     }
 
+    @Override
+    public List<Guest> findSimilarGuests(String name) {
+        return repo.findSimilarByName(name);
+    }
+
+    @Override
+    public Map<Long, String> completeGuestNames(String prefix) {
+        return repo.completeNames(prefix, MAX_COMPLETIONS);
+    }
+
     @Override
     public Optional<Guest> findByEmail(String email) {
         return repo.findByEmail(email);
@@ -113,6 +137,7 @@ public class GuestManagerImpl implements GuestService {
 
         g.setStatus("INACTIVE");
         repo.save(g);
+        ReferenceDataCache.shared().invalidateGuest(guestId);
     }
 
     @Override
@@ -122,6 +147,7 @@ public class GuestManagerImpl implements GuestService {
 
         g.setStatus("BLACKLISTED");
         repo.save(g);
+        ReferenceDataCache.shared().invalidateGuest(guestId);
     }
 
     @Override
@@ -131,6 +157,7 @@ public class GuestManagerImpl implements GuestService {
 
         g.setStatus("ACTIVE");
         repo.save(g);
+        ReferenceDataCache.shared().invalidateGuest(guestId);
     }
 
     @Override
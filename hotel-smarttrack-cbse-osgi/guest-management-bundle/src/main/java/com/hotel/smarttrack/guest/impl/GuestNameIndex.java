@@ -0,0 +1,152 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.Guest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typo-tolerant and sound-alike guest name lookup ("Jon Smyth" finds "John
+ * Smith").
+ * Thread-safe using ConcurrentHashMap.
+ *
+ * Each distinct name token has a posting set of the guests whose name
+ * contains it; the tokens themselves are held in a NameDictionary, which
+ * expands a query token to close or sound-alike tokens. Every query token
+ * must match some name token of a guest: a guest scores the similarity of
+ * its best-matching token per query token, summed, and is ranked by that
+ * score, then by id.
+ *
+ * put() and remove() are called by GuestRepository inside guests.compute()
+ * for the guest, so never concurrently for one guest.
+ */
+public class GuestNameIndex {
+
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int MAX_RESULTS = 100;
+
+    private final NameDictionary names = new NameDictionary();
+    private final Map<String, Set<Long>> guestsByToken = new ConcurrentHashMap<>();
+    // Name tokens each guest is indexed under, so stale ones can be removed
+    private final Map<Long, Set<String>> tokensByGuest = new ConcurrentHashMap<>();
+
+    /**
+     * Index a guest's current name, replacing what it was indexed under.
+     */
+    public void put(Guest guest) {
+        Long id = guest.getGuestId();
+        Set<String> tokens = tokenize(guest.getName());
+        Set<String> previous = tokens.isEmpty() ? tokensByGuest.remove(id) : tokensByGuest.put(id, tokens);
+        for (String token : tokens) {
+            if (previous == null || !previous.contains(token)) {
+                names.add(token);
+                guestsByToken.computeIfAbsent(token, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+        if (previous != null) {
+            for (String token : previous) {
+                if (!tokens.contains(token)) {
+                    removePosting(token, id);
+                }
+            }
+        }
+    }
+
+    public void remove(Long guestId) {
+        Set<String> previous = tokensByGuest.remove(guestId);
+        if (previous != null) {
+            for (String token : previous) {
+                removePosting(token, guestId);
+            }
+        }
+    }
+
+    /**
+     * Ids of guests whose name is close to {@code name}, best first, at most
+     * MAX_RESULTS. Longer query tokens are matched first, since they narrow
+     * the candidates most.
+     */
+    public List<Long> searchSimilar(String name) {
+        List<String> tokens = new ArrayList<>(tokenize(name));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        Map<Long, Double> scores = null;
+        for (String token : tokens) {
+            // A guest's best-matching name token counts for this query token
+            Map<Long, Double> best = new HashMap<>();
+            for (Map.Entry<String, Double> candidate : names.similar(token).entrySet()) {
+                Set<Long> ids = guestsByToken.get(candidate.getKey());
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    if (scores == null || scores.containsKey(id)) {
+                        best.merge(id, candidate.getValue(), Math::max);
+                    }
+                }
+            }
+            if (best.isEmpty()) {
+                return List.of();
+            }
+            if (scores != null) {
+                for (Map.Entry<Long, Double> entry : best.entrySet()) {
+                    entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                }
+            }
+            scores = best;
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(Math.min(ranked.size(), MAX_RESULTS));
+        for (int i = 0; i < ranked.size() && i < MAX_RESULTS; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    // ===== Helpers =====
+
+    private void removePosting(String token, Long id) {
+        guestsByToken.computeIfPresent(token, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Lowercased runs of letters and digits.
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
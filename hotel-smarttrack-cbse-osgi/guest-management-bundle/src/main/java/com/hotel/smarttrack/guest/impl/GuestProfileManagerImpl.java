@@ -0,0 +1,274 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestProfileService;
+import com.hotel.smarttrack.service.StayService;
+import org.osgi.service.component.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GuestProfileManagerImpl - OSGi Declarative Services implementation of
+ * GuestProfileService. Materialized per-guest value aggregates and the VIP
+ * indicator.
+ *
+ * Each checked-out stay and each invoice remembers what it last contributed
+ * to its guest (nights; net amount paid), so a change notification subtracts
+ * the old contribution and adds the new one under a per-entity lock
+ * (ConcurrentHashMap.compute). Notifications are therefore idempotent.
+ *
+ * Stay and Billing managers bind this service optionally and replay their
+ * repositories when it appears, as they do for HotelStatisticsService. The
+ * billing side reports paid amounts under the invoice lock, so they arrive
+ * in order. rebuildProfiles() re-reads everything from StayService and
+ * BillingService in parallel on a fork-join pool.
+ */
+@Component(service = GuestProfileService.class, immediate = true)
+public class GuestProfileManagerImpl implements GuestProfileService {
+
+    private static final String STAY_CHECKED_OUT = "CHECKED_OUT";
+    private static final String PAYMENT_COMPLETED = "COMPLETED";
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    // A guest is VIP with this many completed stays, or this much lifetime revenue
+    private static final int VIP_MIN_STAYS = Integer.getInteger("hotel.smarttrack.guest.vip.min.stays", 5);
+    private static final long VIP_MIN_REVENUE_MINOR_UNITS = Money.toMinorUnits(
+            new BigDecimal(System.getProperty("hotel.smarttrack.guest.vip.min.revenue", "5000.00")));
+
+    // ============ Per-Entity Contributions ============
+
+    private final Map<Long, StaySlot> staySlots = new ConcurrentHashMap<>();
+    private final Map<Long, InvoiceSlot> invoiceSlots = new ConcurrentHashMap<>();
+
+    // ============ Aggregates ============
+
+    private final Map<Long, Totals> totals = new ConcurrentHashMap<>();
+
+    // ============ OSGi Service References (rebuild only) ============
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile StayService stayService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile BillingService billingService;
+
+    // ============ OSGi Lifecycle Methods ============
+
+    @Activate
+    public void activate() {
+        System.out.println("[GuestProfileManagerImpl] Bundle ACTIVATED ✓ (VIP: " + VIP_MIN_STAYS
+                + " stays or $" + Money.ofMinor(VIP_MIN_REVENUE_MINOR_UNITS).toBigDecimal() + ")");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        System.out.println("[GuestProfileManagerImpl] Bundle DEACTIVATED");
+    }
+
+    // ============ Profile Reads ============
+
+    @Override
+    public GuestProfile getGuestProfile(Long guestId) {
+        Totals t = guestId == null ? null : totals.get(guestId);
+        if (t == null) {
+            return new GuestProfile(guestId, 0L, 0L, Money.ZERO.toBigDecimal(), false);
+        }
+        return new GuestProfile(guestId, t.stays, t.nights, Money.ofMinor(t.revenueMinorUnits).toBigDecimal(),
+                isVip(t));
+    }
+
+    @Override
+    public boolean isVip(Long guestId) {
+        return guestId != null && isVip(totals.get(guestId));
+    }
+
+    // ============ Change Notifications ============
+
+    @Override
+    public void stayChanged(Stay stay) {
+        if (stay == null || stay.getStayId() == null) {
+            return;
+        }
+        applyStay(stay.getStayId(), STAY_CHECKED_OUT.equals(stay.getStatus()) && stay.getGuest() != null
+                ? new StaySlot(stay.getGuest().getGuestId(), nights(stay.getCheckInTime(), stay.getCheckOutTime()))
+                : null);
+    }
+
+    @Override
+    public void invoicePaymentsChanged(Long invoiceId, Long guestId, BigDecimal amountPaid) {
+        if (invoiceId == null) {
+            return;
+        }
+        InvoiceSlot slot = new InvoiceSlot(guestId, amountPaid == null ? 0L : Money.toMinorUnits(amountPaid));
+        invoiceSlots.compute(invoiceId, (id, previous) -> replace(previous, slot));
+    }
+
+    // ============ Rebuild ============
+
+    /**
+     * Re-read every stay and invoice, in parallel. Contributions are replaced
+     * in place, so profiles stay readable during the rebuild. An invoice's
+     * payments are read inside its slot's lock, so a rebuild cannot overwrite
+     * a newer paid amount with an older one.
+     */
+    @Override
+    public synchronized int rebuildProfiles() {
+        StayService stays = stayService;
+        BillingService billing = billingService;
+        if (stays == null) {
+            throw new IllegalStateException("StayService is not available");
+        }
+        long started = System.nanoTime();
+        List<Stay> allStays = stays.getAllStays();
+        Map<Long, Long> guestByStay = new HashMap<>();
+        for (Stay stay : allStays) {
+            if (stay.getGuest() != null) {
+                guestByStay.put(stay.getStayId(), stay.getGuest().getGuestId());
+            }
+        }
+        List<Invoice> invoices = billing != null ? billing.getAllInvoices() : List.of();
+
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            pool.submit(() -> allStays.parallelStream().forEach(this::stayChanged)).join();
+            pool.submit(() -> invoices.parallelStream()
+                    .forEach(invoice -> refreshInvoice(invoice, guestByStay.get(invoice.getStayId()), billing)))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("[GuestProfileManagerImpl] Profiles rebuilt: " + totals.size() + " guests, "
+                + staySlots.size() + " completed stays, " + invoices.size() + " invoices in "
+                + (System.nanoTime() - started) / 1_000_000L + " ms");
+        return totals.size();
+    }
+
+    // ============ Helper Methods ============
+
+    private void refreshInvoice(Invoice invoice, Long guestId, BillingService billing) {
+        invoiceSlots.compute(invoice.getInvoiceId(), (id, previous) -> replace(previous,
+                new InvoiceSlot(guestId, paidMinorUnits(billing.getPaymentsForInvoice(id)))));
+    }
+
+    private void applyStay(Long stayId, StaySlot slot) {
+        staySlots.compute(stayId, (id, previous) -> {
+            if (previous != null) {
+                adjust(previous.guestId, -1, -previous.nights, 0L);
+            }
+            if (slot != null) {
+                adjust(slot.guestId, 1, slot.nights, 0L);
+            }
+            return slot;
+        });
+    }
+
+    /**
+     * Move an invoice's contribution; called inside invoiceSlots.compute().
+     */
+    private InvoiceSlot replace(InvoiceSlot previous, InvoiceSlot slot) {
+        if (previous != null) {
+            adjust(previous.guestId, 0, 0L, -previous.paidMinorUnits);
+        }
+        adjust(slot.guestId, 0, 0L, slot.paidMinorUnits);
+        return slot;
+    }
+
+    private void adjust(Long guestId, int stays, long nights, long revenueMinorUnits) {
+        if (guestId == null || (stays == 0 && nights == 0L && revenueMinorUnits == 0L)) {
+            return;
+        }
+        totals.compute(guestId, (id, current) -> {
+            Totals next = (current == null ? Totals.EMPTY : current).plus(stays, nights, revenueMinorUnits);
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    private static boolean isVip(Totals t) {
+        return t != null && (t.stays >= VIP_MIN_STAYS || t.revenueMinorUnits >= VIP_MIN_REVENUE_MINOR_UNITS);
+    }
+
+    private static long paidMinorUnits(List<Payment> payments) {
+        long sum = 0L;
+        for (Payment p : payments) {
+            Money amount = p.getAmountMoney();
+            if (amount != null && PAYMENT_COMPLETED.equalsIgnoreCase(p.getStatus())) {
+                sum += amount.getMinorUnits();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Nights between check-in and check-out dates, minimum one (as billed).
+     */
+    private static long nights(LocalDateTime checkIn, LocalDateTime checkOut) {
+        if (checkIn == null || checkOut == null) {
+            return 1L;
+        }
+        return Math.max(ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate()), 1L);
+    }
+
+    /**
+     * What a checked-out stay contributes to its guest.
+     */
+    private static final class StaySlot {
+        private final Long guestId;
+        private final long nights;
+
+        StaySlot(Long guestId, long nights) {
+            this.guestId = guestId;
+            this.nights = nights;
+        }
+    }
+
+    /**
+     * What an invoice contributes to its guest.
+     */
+    private static final class InvoiceSlot {
+        private final Long guestId;
+        private final long paidMinorUnits;
+
+        InvoiceSlot(Long guestId, long paidMinorUnits) {
+            this.guestId = guestId;
+            this.paidMinorUnits = paidMinorUnits;
+        }
+    }
+
+    /**
+     * A guest's aggregates; replaced, never mutated.
+     */
+    private static final class Totals {
+        private static final Totals EMPTY = new Totals(0L, 0L, 0L);
+
+        private final long stays;
+        private final long nights;
+        private final long revenueMinorUnits;
+
+        private Totals(long stays, long nights, long revenueMinorUnits) {
+            this.stays = stays;
+            this.nights = nights;
+            this.revenueMinorUnits = revenueMinorUnits;
+        }
+
+        Totals plus(int stays, long nights, long revenueMinorUnits) {
+            return new Totals(this.stays + stays, this.nights + nights, this.revenueMinorUnits + revenueMinorUnits);
+        }
+
+        boolean isEmpty() {
+            return stays == 0L && nights == 0L && revenueMinorUnits == 0L;
+        }
+    }
+}
@@ -1,24 +1,63 @@
 package com.hotel.smarttrack.guest.impl;
 
+import com.hotel.smarttrack.cache.PrefixIndex;
 import com.hotel.smarttrack.entity.Guest;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * In-memory repository for guests.
+ * Thread-safe using ConcurrentHashMap.
+ */
 public class GuestRepository {
 
     private final Map<Long, Guest> guests = new ConcurrentHashMap<>();
+    private final GuestSearchIndex searchIndex = new GuestSearchIndex();
+    private final GuestNameIndex nameIndex = new GuestNameIndex();
+    private final PrefixIndex nameCompletions = new PrefixIndex();
     private final AtomicLong idGen = new AtomicLong(1);
 
+    // ============ Unique Indexes ============
+
+    private final Map<String, Long> idByEmail = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByPhone = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByIdentificationNumber = new ConcurrentHashMap<>();
+    // What each guest is currently indexed under, so stale keys can be removed
+    private final Map<Long, IndexEntry> indexEntries = new ConcurrentHashMap<>();
+
+    /**
+     * Insert or update a guest and its indexes; field changes must be saved
+     * rather than set on a returned Guest. A rejected save leaves every
+     * index as it was.
+     *
+     * @throws IllegalStateException if another guest has the same email,
+     *                               phone or identification number
+     */
     public Guest save(Guest g) {
         if (g == null)
             throw new IllegalArgumentException("Guest is null");
 
-        if (g.getGuestId() == null) {
+        boolean isNew = g.getGuestId() == null;
+        if (isNew) {
             g.setGuestId(idGen.getAndIncrement());
         }
-        guests.put(g.getGuestId(), g);
+        try {
+            // compute() serializes index updates for the same guest
+            guests.compute(g.getGuestId(), (id, existing) -> {
+                reindex(id, IndexEntry.of(g));
+                searchIndex.put(g);
+                nameIndex.put(g);
+                nameCompletions.put(id, g.getName());
+                return g;
+            });
+        } catch (IllegalStateException e) {
+            if (isNew) {
+                g.setGuestId(null);
+            }
+            throw e;
+        }
         return g;
     }
 
@@ -33,51 +72,39 @@ public class GuestRepository {
     }
 
     public Optional<Guest> findByEmail(String email) {
-        if (email == null)
-            return Optional.empty();
-        for (Guest g : guests.values()) {
-            if (g.getEmail() != null && email.equalsIgnoreCase(g.getEmail()))
-                return Optional.of(g);
-        }
-        return Optional.empty();
+        return findIndexed(idByEmail, emailKey(email));
     }
 
     public Optional<Guest> findByPhone(String phone) {
-        if (phone == null)
-            return Optional.empty();
-        for (Guest g : guests.values()) {
-            if (g.getPhone() != null && phone.equals(g.getPhone()))
-                return Optional.of(g);
-        }
-        return Optional.empty();
+        return findIndexed(idByPhone, phoneKey(phone));
     }
 
     public Optional<Guest> findByIdentificationNumber(String idNo) {
-        if (idNo == null)
-            return Optional.empty();
-        for (Guest g : guests.values()) {
-            if (g.getIdentificationNumber() != null && idNo.equalsIgnoreCase(g.getIdentificationNumber())) {
-                return Optional.of(g);
-            }
-        }
-        return Optional.empty();
+        return findIndexed(idByIdentificationNumber, identificationKey(idNo));
     }
 
     public List<Guest> search(String term) {
         if (term == null || term.isBlank())
             return List.of();
-        String t = term.trim().toLowerCase();
+        return loadAll(searchIndex.search(term));
+    }
 
-        List<Guest> out = new ArrayList<>();
-        for (Guest g : guests.values()) {
-            boolean match = (g.getName() != null && g.getName().toLowerCase().contains(t)) ||
-                    (g.getEmail() != null && g.getEmail().toLowerCase().contains(t)) ||
-                    (g.getPhone() != null && g.getPhone().toLowerCase().contains(t)) ||
-                    (g.getIdentificationNumber() != null && g.getIdentificationNumber().toLowerCase().contains(t));
-            if (match)
-                out.add(g);
-        }
-        return out;
+    /**
+     * Guests whose name is close to {@code name} despite typos or a
+     * different spelling, best match first.
+     */
+    public List<Guest> findSimilarByName(String name) {
+        if (name == null || name.isBlank())
+            return List.of();
+        return loadAll(nameIndex.searchSimilar(name));
+    }
+
+    /**
+     * Guest ID to name for names starting with {@code prefix}, or with a
+     * later word starting with it, at most {@code limit}.
+     */
+    public Map<Long, String> completeNames(String prefix, int limit) {
+        return nameCompletions.complete(prefix, limit);
     }
 
     public List<Guest> findByStatus(String status) {
@@ -95,6 +122,135 @@ public class GuestRepository {
     public void delete(Long id) {
         if (id == null)
             return;
-        guests.remove(id);
+        guests.computeIfPresent(id, (key, existing) -> {
+            IndexEntry entry = indexEntries.remove(key);
+            if (entry != null) {
+                release(idByEmail, entry.email, key);
+                release(idByPhone, entry.phone, key);
+                release(idByIdentificationNumber, entry.identificationNumber, key);
+            }
+            searchIndex.remove(key);
+            nameIndex.remove(key);
+            nameCompletions.remove(key);
+            return null;
+        });
+    }
+
+    // ===== Index helpers =====
+
+    private List<Guest> loadAll(List<Long> ids) {
+        List<Guest> out = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Guest g = guests.get(id);
+            if (g != null)
+                out.add(g);
+        }
+        return out;
+    }
+
+    private Optional<Guest> findIndexed(Map<String, Long> index, String key) {
+        if (key == null)
+            return Optional.empty();
+        Long id = index.get(key);
+        return id == null ? Optional.empty() : Optional.ofNullable(guests.get(id));
+    }
+
+    /**
+     * Move a guest's unique keys to {@code entry}. Called inside
+     * guests.compute() for the guest, so never concurrently for one id.
+     */
+    private void reindex(Long id, IndexEntry entry) {
+        boolean emailClaimed = claim(idByEmail, entry.email, id, "email");
+        boolean phoneClaimed = false;
+        try {
+            phoneClaimed = claim(idByPhone, entry.phone, id, "phone");
+            claim(idByIdentificationNumber, entry.identificationNumber, id, "identification number");
+        } catch (IllegalStateException e) {
+            if (emailClaimed) {
+                idByEmail.remove(entry.email, id);
+            }
+            if (phoneClaimed) {
+                idByPhone.remove(entry.phone, id);
+            }
+            throw e;
+        }
+
+        IndexEntry previous = indexEntries.put(id, entry);
+        if (previous != null) {
+            releaseIfChanged(idByEmail, previous.email, entry.email, id);
+            releaseIfChanged(idByPhone, previous.phone, entry.phone, id);
+            releaseIfChanged(idByIdentificationNumber, previous.identificationNumber,
+                    entry.identificationNumber, id);
+        }
+    }
+
+    /**
+     * Point a unique key at the guest.
+     *
+     * @return true if the key was newly claimed, false if already held or null
+     * @throws IllegalStateException if another guest holds the key
+     */
+    private static boolean claim(Map<String, Long> index, String key, Long id, String keyName) {
+        if (key == null) {
+            return false;
+        }
+        Long owner = index.putIfAbsent(key, id);
+        if (owner != null && !owner.equals(id)) {
+            throw new IllegalStateException("Guest " + owner + " already has " + keyName + ": " + key);
+        }
+        return owner == null;
+    }
+
+    private static void releaseIfChanged(Map<String, Long> index, String oldKey, String newKey, Long id) {
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            index.remove(oldKey, id);
+        }
+    }
+
+    private static void release(Map<String, Long> index, String key, Long id) {
+        if (key != null) {
+            index.remove(key, id);
+        }
+    }
+
+    private static String emailKey(String email) {
+        return normalize(email, false);
+    }
+
+    private static String phoneKey(String phone) {
+        if (phone == null || phone.isBlank())
+            return null;
+        return phone.trim();
+    }
+
+    private static String identificationKey(String idNo) {
+        return normalize(idNo, true);
+    }
+
+    private static String normalize(String value, boolean upper) {
+        if (value == null || value.isBlank())
+            return null;
+        String trimmed = value.trim();
+        return upper ? trimmed.toUpperCase(Locale.ROOT) : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Unique keys a guest was last saved with.
+     */
+    private static final class IndexEntry {
+        private final String email;
+        private final String phone;
+        private final String identificationNumber;
+
+        private IndexEntry(String email, String phone, String identificationNumber) {
+            this.email = email;
+            this.phone = phone;
+            this.identificationNumber = identificationNumber;
+        }
+
+        static IndexEntry of(Guest guest) {
+            return new IndexEntry(emailKey(guest.getEmail()), phoneKey(guest.getPhone()),
+                    identificationKey(guest.getIdentificationNumber()));
+        }
     }
 }
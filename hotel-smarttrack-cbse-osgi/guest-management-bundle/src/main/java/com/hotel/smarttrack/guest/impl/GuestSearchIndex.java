@@ -0,0 +1,445 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.Guest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over guest name, email, phone and identification
+ * number for substring search.
+ * Thread-safe using a read/write lock.
+ *
+ * Each guest's four fields are lowercased once, on save, into one text with
+ * a separator between fields. Every distinct three-character window of that
+ * text (not spanning a separator) has a posting list of guest ids, kept
+ * sorted and gap-compressed (about a byte per entry for common trigrams).
+ * A query of three or more characters intersects the posting lists of its
+ * trigrams, shortest first, and checks the remaining candidates against
+ * their stored text - so a search touches only guests that share every
+ * trigram with the query. Shorter queries scan the stored texts without
+ * allocating per guest.
+ *
+ * Guest ids must fit in an int.
+ */
+public class GuestSearchIndex {
+
+    // Fields never contain it, so no trigram or match spans two fields
+    private static final char SEPARATOR = '\u0000';
+
+    // Stop intersecting and verify directly below this many candidates
+    private static final int VERIFY_THRESHOLD = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // Lowercased searchable text by guest id (ids are dense)
+    private String[] texts = new String[1024];
+    private int indexed;
+
+    /**
+     * Index a guest's current fields, replacing what it was indexed under.
+     */
+    public void put(Guest guest) {
+        int id = indexId(guest.getGuestId());
+        String text = searchableText(guest);
+
+        lock.writeLock().lock();
+        try {
+            if (id >= texts.length) {
+                texts = Arrays.copyOf(texts, Math.max(id + 1, texts.length * 2));
+            }
+            String previous = texts[id];
+            texts[id] = text;
+            if (previous == null) {
+                indexed++;
+            } else if (text.equals(previous)) {
+                return;
+            }
+            long[] before = previous == null ? new long[0] : trigrams(previous);
+            long[] after = trigrams(text);
+
+            // Both sorted: walk them together, touching only the differences
+            int i = 0;
+            int j = 0;
+            while (i < before.length || j < after.length) {
+                if (j == after.length || (i < before.length && before[i] < after[j])) {
+                    removePosting(before[i++], id);
+                } else if (i == before.length || after[j] < before[i]) {
+                    postings.computeIfAbsent(after[j++], k -> new Postings()).add(id);
+                } else {
+                    i++;
+                    j++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long guestId) {
+        int id = indexId(guestId);
+        lock.writeLock().lock();
+        try {
+            String previous = id < texts.length ? texts[id] : null;
+            if (previous != null) {
+                texts[id] = null;
+                indexed--;
+                for (long trigram : trigrams(previous)) {
+                    removePosting(trigram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of guests with a field containing {@code term}, ignoring case,
+     * in ascending order.
+     */
+    public List<Long> search(String term) {
+        if (term == null || term.isBlank()) {
+            return List.of();
+        }
+        String query = term.trim().toLowerCase(Locale.ROOT);
+        if (query.indexOf(SEPARATOR) >= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (query.length() < 3) {
+                return scan(query);
+            }
+            long[] keys = trigrams(query);
+            Postings[] lists = new Postings[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                lists[k] = postings.get(keys[k]);
+                if (lists[k] == null) {
+                    return List.of();
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] candidates = lists[0].toArray();
+            int count = candidates.length;
+            for (int k = 1; k < lists.length && count > VERIFY_THRESHOLD; k++) {
+                count = intersect(candidates, count, lists[k]);
+            }
+
+            List<Long> result = new ArrayList<>();
+            for (int c = 0; c < count; c++) {
+                String text = texts[candidates[c]];
+                if (text != null && text.contains(query)) {
+                    result.add((long) candidates[c]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return indexed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============ Helper Methods ============
+
+    private List<Long> scan(String query) {
+        List<Long> result = new ArrayList<>();
+        for (int id = 0; id < texts.length; id++) {
+            if (texts[id] != null && texts[id].contains(query)) {
+                result.add((long) id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Keep the first {@code count} candidates that are also in {@code list},
+     * compacting them to the front of the array. Candidates are ascending,
+     * so the list is walked forward one decoded block at a time.
+     *
+     * @return Number of candidates kept
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int[] block = new int[Postings.BLOCK_SIZE];
+        int current = -1;
+        int blockSize = 0;
+        int pos = 0;
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            int id = candidates[c];
+            if (id > list.last) {
+                break;
+            }
+            int b = list.blockFor(id, Math.max(current, 0));
+            if (b != current) {
+                if (list.blockCount[b] > block.length) {
+                    block = new int[list.blockCount[b]];
+                }
+                blockSize = list.decode(b, block);
+                current = b;
+                pos = 0;
+            }
+            while (pos < blockSize && block[pos] < id) {
+                pos++;
+            }
+            if (pos < blockSize && block[pos] == id) {
+                candidates[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    private void removePosting(long trigram, int id) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    private static String searchableText(Guest guest) {
+        StringBuilder sb = new StringBuilder();
+        appendField(sb, guest.getName());
+        appendField(sb, guest.getEmail());
+        appendField(sb, guest.getPhone());
+        appendField(sb, guest.getIdentificationNumber());
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        if (value != null) {
+            sb.append(value.replace(SEPARATOR, ' '));
+        }
+        sb.append(SEPARATOR);
+    }
+
+    /**
+     * Distinct trigrams of the text, packed three chars to a long, sorted.
+     */
+    private static long[] trigrams(String text) {
+        int n = Math.max(text.length() - 2, 0);
+        long[] keys = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == SEPARATOR || b == SEPARATOR || c == SEPARATOR) {
+                continue;
+            }
+            keys[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static int indexId(Long guestId) {
+        if (guestId == null || guestId < 0 || guestId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Guest id cannot be indexed: " + guestId);
+        }
+        return guestId.intValue();
+    }
+
+    /**
+     * Sorted, duplicate-free guest ids, compressed: blocks of ids stored as
+     * varint gaps after the block's first id. New guests get increasing ids,
+     * so adds are almost always appends to the last block; an insert or
+     * removal rewrites one block. The first id of every block is kept
+     * uncompressed so a lookup decodes a single block.
+     */
+    private static final class Postings {
+        private static final int BLOCK_SIZE = 128;
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int[] blockFirst = new int[1];
+        private int[] blockOffset = new int[1];
+        private int[] blockCount = new int[1];
+        private int blocks;
+        private int size;
+        private int last;
+
+        void add(int id) {
+            if (size == 0 || id > last) {
+                if (blocks == 0 || blockCount[blocks - 1] >= BLOCK_SIZE) {
+                    newBlock(id);
+                } else {
+                    writeGap(id - last);
+                    blockCount[blocks - 1]++;
+                }
+                last = id;
+                size++;
+                return;
+            }
+            int b = blockFor(id, 0);
+            int[] ids = new int[blockCount[b] + 1];
+            int count = decode(b, ids);
+            int pos = Arrays.binarySearch(ids, 0, count, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            System.arraycopy(ids, pos, ids, pos + 1, count - pos);
+            ids[pos] = id;
+            rewrite(b, ids, count + 1);
+            size++;
+        }
+
+        boolean remove(int id) {
+            if (size == 0 || id > last || id < blockFirst[0]) {
+                return false;
+            }
+            int b = blockFor(id, 0);
+            int[] ids = new int[blockCount[b]];
+            int count = decode(b, ids);
+            int pos = Arrays.binarySearch(ids, 0, count, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, count - pos - 1);
+            rewrite(b, ids, count - 1);
+            size--;
+            if (id == last && size > 0) {
+                int[] tail = new int[blockCount[blocks - 1]];
+                last = tail[decode(blocks - 1, tail) - 1];
+            }
+            return true;
+        }
+
+        int[] toArray() {
+            int[] ids = new int[size];
+            int n = 0;
+            for (int b = 0; b < blocks; b++) {
+                n += decodeInto(b, ids, n);
+            }
+            return ids;
+        }
+
+        /**
+         * Last block whose first id is at most {@code id}, searching from
+         * block {@code from}.
+         */
+        int blockFor(int id, int from) {
+            int lo = from;
+            int hi = blocks - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (blockFirst[mid] <= id) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return lo;
+        }
+
+        int decode(int b, int[] out) {
+            return decodeInto(b, out, 0);
+        }
+
+        private int decodeInto(int b, int[] out, int at) {
+            int id = blockFirst[b];
+            out[at] = id;
+            int n = 1;
+            int pos = blockOffset[b];
+            int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+            while (pos < end) {
+                int gap = 0;
+                int shift = 0;
+                byte v;
+                do {
+                    v = data[pos++];
+                    gap |= (v & 0x7F) << shift;
+                    shift += 7;
+                } while (v < 0);
+                id += gap;
+                out[at + n++] = id;
+            }
+            return n;
+        }
+
+        private void newBlock(int id) {
+            if (blocks == blockFirst.length) {
+                int grown = blocks + (blocks >> 1) + 1;
+                blockFirst = Arrays.copyOf(blockFirst, grown);
+                blockOffset = Arrays.copyOf(blockOffset, grown);
+                blockCount = Arrays.copyOf(blockCount, grown);
+            }
+            blockFirst[blocks] = id;
+            blockOffset[blocks] = length;
+            blockCount[blocks] = 1;
+            blocks++;
+        }
+
+        private void writeGap(int gap) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+            }
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+        }
+
+        /**
+         * Replace block {@code b} with {@code count} sorted ids (none drops it).
+         */
+        private void rewrite(int b, int[] ids, int count) {
+            byte[] encoded = new byte[count * 5];
+            int n = 0;
+            for (int k = 1; k < count; k++) {
+                int gap = ids[k] - ids[k - 1];
+                while ((gap & ~0x7F) != 0) {
+                    encoded[n++] = (byte) ((gap & 0x7F) | 0x80);
+                    gap >>>= 7;
+                }
+                encoded[n++] = (byte) gap;
+            }
+
+            int start = blockOffset[b];
+            int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+            int shift = n - (end - start);
+            if (length + shift > data.length) {
+                data = Arrays.copyOf(data, length + shift);
+            }
+            System.arraycopy(data, end, data, end + shift, length - end);
+            System.arraycopy(encoded, 0, data, start, n);
+            length += shift;
+            for (int k = b + 1; k < blocks; k++) {
+                blockOffset[k] += shift;
+            }
+
+            if (count == 0) {
+                int after = blocks - b - 1;
+                System.arraycopy(blockFirst, b + 1, blockFirst, b, after);
+                System.arraycopy(blockOffset, b + 1, blockOffset, b, after);
+                System.arraycopy(blockCount, b + 1, blockCount, b, after);
+                blocks--;
+            } else {
+                blockFirst[b] = ids[0];
+                blockCount[b] = count;
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.Reservation;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestSegmentationService;
+import com.hotel.smarttrack.service.ReservationService;
+import com.hotel.smarttrack.service.StayService;
+import org.osgi.service.component.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * GuestSegmentationManagerImpl - OSGi Declarative Services implementation of
+ * GuestSegmentationService. Marketing segments from stay, booking and spend
+ * history.
+ *
+ * A run reads all stays, reservations and invoice payments once, through one
+ * bulk call per service, into primitive columns (Columns) - a guest id and
+ * one or two day numbers or an amount per row. Rows are bucketed by guest id
+ * into partitions, which are tallied and classified in parallel on a
+ * fork-join pool; the tags of all guests then replace the previous run's in
+ * one step.
+ *
+ * Rules, over the window (default the last 365 days):
+ * <ul>
+ * <li>FREQUENT_BUSINESS: at least business.min.stays short stays starting
+ * Sunday to Thursday, making up most of the guest's stays, booked on
+ * average no more than business.max.lead.days ahead (if any booking times
+ * are recorded).</li>
+ * <li>WEEKEND_LEISURE: short stays starting on a Friday or Saturday make up
+ * at least half of the guest's stays.</li>
+ * <li>LAPSED: stayed before, but not within the window.</li>
+ * <li>HIGH_SPEND: paid at least high.spend on invoices issued in the
+ * window.</li>
+ * </ul>
+ * A short stay is at most short.stay.nights nights.
+ */
+@Component(service = GuestSegmentationService.class, immediate = true)
+public class GuestSegmentationManagerImpl implements GuestSegmentationService {
+
+    private static final String STAY_CHECKED_OUT = "CHECKED_OUT";
+    private static final String RESERVATION_CANCELLED = "CANCELLED";
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final int PARTITIONS = PARALLELISM * 4;
+
+    private static final int WINDOW_DAYS = Integer.getInteger("hotel.smarttrack.guest.segment.window.days", 365);
+    private static final int BUSINESS_MIN_STAYS =
+            Integer.getInteger("hotel.smarttrack.guest.segment.business.min.stays", 3);
+    private static final int BUSINESS_MAX_LEAD_DAYS =
+            Integer.getInteger("hotel.smarttrack.guest.segment.business.max.lead.days", 14);
+    private static final int SHORT_STAY_NIGHTS =
+            Integer.getInteger("hotel.smarttrack.guest.segment.short.stay.nights", 3);
+    private static final long HIGH_SPEND_MINOR_UNITS = Money.toMinorUnits(
+            new BigDecimal(System.getProperty("hotel.smarttrack.guest.segment.high.spend", "2000.00")));
+
+    // ============ Tags of the Last Run (replaced whole) ============
+
+    private volatile Map<Long, List<String>> segmentsByGuest = Map.of();
+    private volatile Map<String, Long> segmentCounts = Map.of();
+
+    // ============ OSGi Service References ============
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile StayService stayService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile ReservationService reservationService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile BillingService billingService;
+
+    // ============ OSGi Lifecycle Methods ============
+
+    @Activate
+    public void activate() {
+        System.out.println("[GuestSegmentationManagerImpl] Bundle ACTIVATED ✓ (window: " + WINDOW_DAYS + " days)");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        System.out.println("[GuestSegmentationManagerImpl] Bundle DEACTIVATED");
+    }
+
+    // ============ Segment Reads ============
+
+    @Override
+    public List<String> getSegments(Long guestId) {
+        return guestId == null ? List.of() : segmentsByGuest.getOrDefault(guestId, List.of());
+    }
+
+    @Override
+    public List<Long> getGuestIdsInSegment(String segment) {
+        if (segment == null || segment.isBlank()) {
+            throw new IllegalArgumentException("Segment is required");
+        }
+        String wanted = segment.trim().toUpperCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        segmentsByGuest.forEach((guestId, segments) -> {
+            if (segments.contains(wanted)) {
+                ids.add(guestId);
+            }
+        });
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public Map<String, Long> getSegmentCounts() {
+        return segmentCounts;
+    }
+
+    // ============ Batch ============
+
+    @Override
+    public synchronized Map<String, Long> runSegmentation() {
+        StayService stays = stayService;
+        ReservationService reservations = reservationService;
+        BillingService billing = billingService;
+        if (stays == null) {
+            throw new IllegalStateException("StayService is not available");
+        }
+        long started = System.nanoTime();
+        int windowStart = (int) LocalDate.now().minusDays(WINDOW_DAYS).toEpochDay();
+
+        // One bulk read per service, into columns
+        List<Stay> allStays = stays.getAllStays();
+        Columns stayColumns = new Columns(allStays.size());
+        Map<Long, Long> guestByStay = new HashMap<>();
+        for (Stay stay : allStays) {
+            if (stay.getGuest() == null) {
+                continue;
+            }
+            guestByStay.put(stay.getStayId(), stay.getGuest().getGuestId());
+            if (STAY_CHECKED_OUT.equals(stay.getStatus()) && stay.getCheckInTime() != null
+                    && stay.getCheckOutTime() != null) {
+                stayColumns.add(stay.getGuest().getGuestId(), day(stay.getCheckInTime()),
+                        day(stay.getCheckOutTime()), 0L);
+            }
+        }
+        List<Reservation> allReservations = reservations != null ? reservations.getAllReservations() : List.of();
+        Columns bookingColumns = new Columns(allReservations.size());
+        for (Reservation r : allReservations) {
+            if (r.getGuest() != null && r.getBookedTime() != null && r.getCheckInDate() != null
+                    && !RESERVATION_CANCELLED.equalsIgnoreCase(r.getStatus())
+                    && r.getCheckInDate().toEpochDay() >= windowStart) {
+                bookingColumns.add(r.getGuest().getGuestId(), day(r.getBookedTime()),
+                        (int) r.getCheckInDate().toEpochDay(), 0L);
+            }
+        }
+        List<Invoice> invoices = billing != null ? billing.getAllInvoices() : List.of();
+        Map<Long, BigDecimal> paid = billing != null ? billing.getAmountsPaid() : Map.of();
+        Columns spendColumns = new Columns(invoices.size());
+        for (Invoice invoice : invoices) {
+            Long guestId = guestByStay.get(invoice.getStayId());
+            BigDecimal amount = paid.get(invoice.getInvoiceId());
+            if (guestId != null && amount != null && invoice.getIssuedAt() != null
+                    && day(invoice.getIssuedAt()) >= windowStart) {
+                spendColumns.add(guestId, 0, 0, Money.toMinorUnits(amount));
+            }
+        }
+        stayColumns.partition();
+        bookingColumns.partition();
+        spendColumns.partition();
+
+        List<Map<Long, List<String>>> results;
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            results = pool.submit(() -> IntStream.range(0, PARTITIONS).parallel()
+                    .mapToObj(p -> segmentPartition(p, stayColumns, bookingColumns, spendColumns, windowStart))
+                    .toList()).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<Long, List<String>> tags = new HashMap<>();
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map<Long, List<String>> partition : results) {
+            tags.putAll(partition);
+            for (List<String> segments : partition.values()) {
+                for (String segment : segments) {
+                    counts.merge(segment, 1L, Long::sum);
+                }
+            }
+        }
+        segmentsByGuest = Collections.unmodifiableMap(tags);
+        segmentCounts = Collections.unmodifiableMap(counts);
+
+        System.out.println("[GuestSegmentationManagerImpl] Segmented " + tags.size() + " guests " + counts
+                + " from " + stayColumns.size + " stays, " + bookingColumns.size + " bookings, "
+                + spendColumns.size + " invoices in " + (System.nanoTime() - started) / 1_000_000L + " ms");
+        return segmentCounts;
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Tally and classify the guests of one partition.
+     */
+    private static Map<Long, List<String>> segmentPartition(int p, Columns stays, Columns bookings, Columns spend,
+            int windowStart) {
+        Map<Long, Tally> tallies = new HashMap<>();
+        for (int i = stays.start[p]; i < stays.start[p + 1]; i++) {
+            int row = stays.order[i];
+            Tally t = tallies.computeIfAbsent(stays.guestIds[row], id -> new Tally());
+            int checkIn = stays.first[row];
+            int checkOut = stays.second[row];
+            if (checkOut < windowStart) {
+                t.olderStays++;
+                continue;
+            }
+            t.recentStays++;
+            if (Math.max(checkOut - checkIn, 1) <= SHORT_STAY_NIGHTS) {
+                // Epoch day 0 was a Thursday: 1 is Friday, 2 Saturday
+                int dayOfWeek = Math.floorMod(checkIn, 7);
+                if (dayOfWeek == 1 || dayOfWeek == 2) {
+                    t.weekendStays++;
+                } else {
+                    t.businessStays++;
+                }
+            }
+        }
+        for (int i = bookings.start[p]; i < bookings.start[p + 1]; i++) {
+            int row = bookings.order[i];
+            Tally t = tallies.computeIfAbsent(bookings.guestIds[row], id -> new Tally());
+            t.bookings++;
+            t.leadDaysTotal += Math.max(bookings.second[row] - bookings.first[row], 0);
+        }
+        for (int i = spend.start[p]; i < spend.start[p + 1]; i++) {
+            int row = spend.order[i];
+            tallies.computeIfAbsent(spend.guestIds[row], id -> new Tally()).paidMinorUnits += spend.amounts[row];
+        }
+
+        Map<Long, List<String>> tags = new HashMap<>();
+        tallies.forEach((guestId, t) -> {
+            List<String> segments = t.segments();
+            if (!segments.isEmpty()) {
+                tags.put(guestId, segments);
+            }
+        });
+        return tags;
+    }
+
+    private static int day(LocalDateTime time) {
+        return (int) time.toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Rows of (guest id, two day numbers, amount) in parallel arrays, then
+     * bucketed by partition: rows order[start[p]] .. order[start[p + 1] - 1]
+     * belong to guests of partition p.
+     */
+    private static final class Columns {
+        private long[] guestIds;
+        private int[] first;
+        private int[] second;
+        private long[] amounts;
+        private int size;
+
+        private int[] order;
+        private int[] start;
+
+        Columns(int capacity) {
+            guestIds = new long[Math.max(capacity, 1)];
+            first = new int[guestIds.length];
+            second = new int[guestIds.length];
+            amounts = new long[guestIds.length];
+        }
+
+        void add(long guestId, int firstValue, int secondValue, long amount) {
+            if (size == guestIds.length) {
+                int grown = size * 2;
+                guestIds = Arrays.copyOf(guestIds, grown);
+                first = Arrays.copyOf(first, grown);
+                second = Arrays.copyOf(second, grown);
+                amounts = Arrays.copyOf(amounts, grown);
+            }
+            guestIds[size] = guestId;
+            first[size] = firstValue;
+            second[size] = secondValue;
+            amounts[size] = amount;
+            size++;
+        }
+
+        /**
+         * Counting sort of row numbers by partition.
+         */
+        void partition() {
+            start = new int[PARTITIONS + 1];
+            for (int row = 0; row < size; row++) {
+                start[partitionOf(guestIds[row]) + 1]++;
+            }
+            for (int p = 0; p < PARTITIONS; p++) {
+                start[p + 1] += start[p];
+            }
+            int[] next = Arrays.copyOf(start, PARTITIONS);
+            order = new int[size];
+            for (int row = 0; row < size; row++) {
+                order[next[partitionOf(guestIds[row])]++] = row;
+            }
+        }
+
+        private static int partitionOf(long guestId) {
+            return (int) Math.floorMod(guestId, (long) PARTITIONS);
+        }
+    }
+
+    /**
+     * One guest's counts within a partition.
+     */
+    private static final class Tally {
+        private int recentStays;
+        private int businessStays;
+        private int weekendStays;
+        private int olderStays;
+        private int bookings;
+        private long leadDaysTotal;
+        private long paidMinorUnits;
+
+        List<String> segments() {
+            List<String> segments = new ArrayList<>(2);
+            if (businessStays >= BUSINESS_MIN_STAYS && businessStays * 2 > recentStays
+                    && leadDaysTotal <= (long) BUSINESS_MAX_LEAD_DAYS * bookings) {
+                segments.add(FREQUENT_BUSINESS);
+            }
+            if (paidMinorUnits >= HIGH_SPEND_MINOR_UNITS) {
+                segments.add(HIGH_SPEND);
+            }
+            if (recentStays == 0 && olderStays > 0) {
+                segments.add(LAPSED);
+            }
+            if (weekendStays > 0 && weekendStays * 2 >= recentStays) {
+                segments.add(WEEKEND_LEISURE);
+            }
+            return segments;
+        }
+    }
+}
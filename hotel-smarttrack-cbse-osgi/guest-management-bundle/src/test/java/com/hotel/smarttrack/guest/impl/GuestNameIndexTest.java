@@ -0,0 +1,153 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.Guest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Misspelled and sound-alike names find the guest, the BK-tree returns
+ * every token a brute-force edit-distance scan would, and fuzzy lookups
+ * stay well under 20 ms on a large name base.
+ */
+class GuestNameIndexTest {
+
+    private static final String[] ONSETS = { "b", "ch", "d", "f", "g", "h", "j", "k", "l", "m", "n", "p", "r",
+            "s", "sh", "t", "v", "w", "z" };
+    private static final String[] VOWELS = { "a", "e", "i", "o", "u", "ai", "ou" };
+
+    @Test
+    void misspelledNamesFindTheGuest() {
+        GuestNameIndex index = new GuestNameIndex();
+        index.put(guest(1L, "John Smith"));
+        index.put(guest(2L, "Joan Smithers"));
+        index.put(guest(3L, "Maria Gonzalez"));
+
+        assertEquals(1L, index.searchSimilar("Jon Smyth").get(0));
+        assertEquals(1L, index.searchSimilar("smith john").get(0));
+        assertEquals(3L, index.searchSimilar("Mariah Gonzales").get(0));
+        assertFalse(index.searchSimilar("Jon Smyth").contains(3L));
+        assertTrue(index.searchSimilar("Xavier Smyth").isEmpty());
+        assertTrue(index.searchSimilar("  ").isEmpty());
+
+        // Renamed and removed guests are found under their current name only
+        index.put(guest(1L, "John Carter"));
+        assertFalse(index.searchSimilar("Jon Smyth").contains(1L));
+        assertEquals(List.of(1L), index.searchSimilar("Jon Cartr"));
+        index.remove(3L);
+        assertTrue(index.searchSimilar("Maria Gonzalez").isEmpty());
+    }
+
+    @Test
+    void dictionaryFindsEveryTokenWithinTheEditBound() {
+        NameDictionary dictionary = new NameDictionary();
+        List<String> tokens = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 4_000; i++) {
+            String token = randomToken(random);
+            if (dictionary.add(token)) {
+                tokens.add(token);
+            }
+        }
+
+        for (int i = 0; i < 300; i++) {
+            String query = typo(tokens.get(random.nextInt(tokens.size())), random);
+            int maxEdits = NameDictionary.maxEdits(query.length());
+            List<String> expected = new ArrayList<>();
+            for (String token : tokens) {
+                if (NameDictionary.levenshtein(query, token, query.length() + token.length()) <= maxEdits) {
+                    expected.add(token);
+                }
+            }
+            Map<String, Double> found = dictionary.similar(query);
+            if (expected.size() < NameDictionary.MAX_CANDIDATES) {
+                assertTrue(found.keySet().containsAll(expected), "query '" + query + "' missed " + expected);
+            }
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    void fuzzyLookupStaysUnderTwentyMilliseconds() {
+        // 200k guests sharing 2k first names and 50k surnames, as real names do
+        GuestNameIndex index = new GuestNameIndex();
+        Random random = new Random(9);
+        List<String> firstNames = randomTokens(2_000, random);
+        List<String> surnames = randomTokens(50_000, random);
+        List<String> names = new ArrayList<>();
+        int guests = 200_000;
+        for (long id = 1; id <= guests; id++) {
+            String name = capitalize(firstNames.get(random.nextInt(firstNames.size()))) + " "
+                    + capitalize(surnames.get(random.nextInt(surnames.size())));
+            names.add(name);
+            index.put(guest(id, name));
+        }
+
+        int queries = 500;
+        int found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            int target = random.nextInt(guests);
+            String[] parts = names.get(target).toLowerCase().split(" ");
+            if (index.searchSimilar(typo(parts[0], random) + " " + parts[1]).contains(target + 1L)) {
+                found++;
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / queries;
+
+        System.out.printf("[GuestNameIndexTest] %d fuzzy lookups over %d guests: %.2f ms each, %d found%n",
+                queries, guests, millis, found);
+        assertTrue(found > queries * 9 / 10, found + " of " + queries + " misspelled guests found");
+        assertTrue(millis < 20.0, "lookup took " + millis + " ms");
+    }
+
+    // ============ Helper Methods ============
+
+    private static Guest guest(Long id, String name) {
+        return new Guest(id, name, null, null, "ID" + id, "ACTIVE", null);
+    }
+
+    private static List<String> randomTokens(int count, Random random) {
+        Set<String> tokens = new LinkedHashSet<>();
+        while (tokens.size() < count) {
+            tokens.add(randomToken(random));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static String randomToken(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int s = 0; s < syllables; s++) {
+            sb.append(ONSETS[random.nextInt(ONSETS.length)]).append(VOWELS[random.nextInt(VOWELS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One substitution, deletion or insertion somewhere in the token.
+     */
+    private static String typo(String token, Random random) {
+        int at = random.nextInt(token.length());
+        char letter = (char) ('a' + random.nextInt(26));
+        return switch (random.nextInt(3)) {
+            case 0 -> token.substring(0, at) + letter + token.substring(at + 1);
+            case 1 -> token.substring(0, at) + token.substring(at + 1);
+            default -> token.substring(0, at) + letter + token.substring(at);
+        };
+    }
+
+    private static String capitalize(String token) {
+        return Character.toUpperCase(token.charAt(0)) + token.substring(1);
+    }
+}
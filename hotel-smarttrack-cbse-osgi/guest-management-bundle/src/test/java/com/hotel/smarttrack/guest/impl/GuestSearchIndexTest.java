@@ -0,0 +1,124 @@
+package com.hotel.smarttrack.guest.impl;
+
+import com.hotel.smarttrack.entity.Guest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The trigram index returns the guests a substring scan of name, email,
+ * phone and ID number would, and answers selective queries in milliseconds
+ * on a large profile base.
+ */
+class GuestSearchIndexTest {
+
+    private static final String[] FIRST = { "Mara", "John", "Sonia", "Petra", "Ali", "Wei", "Ana", "Omar" };
+    private static final String[] LAST = { "Johnson", "Smith", "Vance", "Quill", "Hassan", "Chen", "Silva", "Nakamura" };
+
+    @Test
+    void searchMatchesSubstringsOfEachField() {
+        GuestSearchIndex index = new GuestSearchIndex();
+        index.put(guest(1L, "Mara Johnson", "mara.j@example.com", "+1-555-0900", "P0900"));
+        index.put(guest(2L, "Sonia Vance", "sv@example.com", "+1-555-0901", "P0901"));
+
+        assertEquals(List.of(1L, 2L), index.search("son"));
+        assertEquals(List.of(1L), index.search("  HNSO "));
+        assertEquals(List.of(1L), index.search("ara.j@exam"));
+        assertEquals(List.of(2L), index.search("0901"));
+        assertEquals(List.of(2L), index.search("vA"));
+        assertTrue(index.search("johnsonx").isEmpty());
+        assertTrue(index.search("").isEmpty());
+        // No match spans the end of one field and the start of the next
+        assertTrue(index.search("sonmara").isEmpty());
+        assertTrue(index.search("0900p").isEmpty());
+
+        // Updates replace the old trigrams; removed guests are gone
+        index.put(guest(1L, "Mara Jones", "mara.j@example.com", "+1-555-0900", "P0900"));
+        assertTrue(index.search("hnso").isEmpty());
+        assertEquals(List.of(1L), index.search("a jon"));
+        index.remove(2L);
+        assertTrue(index.search("vance").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void searchAgreesWithASubstringScan() {
+        GuestSearchIndex index = new GuestSearchIndex();
+        List<Guest> guests = new ArrayList<>();
+        Random random = new Random(11);
+        for (long id = 1; id <= 3_000; id++) {
+            Guest g = randomGuest(id, random);
+            guests.add(g);
+            index.put(g);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            Guest source = guests.get(random.nextInt(guests.size()));
+            String name = source.getName();
+            int from = random.nextInt(name.length() - 2);
+            String term = name.substring(from, Math.min(name.length(), from + 2 + random.nextInt(6)));
+            assertEquals(scan(guests, term), index.search(term), "query '" + term + "'");
+        }
+    }
+
+    @Test
+    @Tag("performance")
+    void selectiveSearchStaysInMilliseconds() {
+        // A tenth of the two-million-guest target
+        GuestSearchIndex index = new GuestSearchIndex();
+        Random random = new Random(5);
+        int guests = 200_000;
+        for (long id = 1; id <= guests; id++) {
+            index.put(randomGuest(id, random));
+        }
+
+        int queries = 2_000;
+        int hits = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            long id = 1 + random.nextInt(guests);
+            hits += index.search("guest" + id + "@").size();
+            hits += index.search("555-" + String.format("%07d", id)).size();
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / (2 * queries);
+
+        System.out.printf("[GuestSearchIndexTest] %d searches over %d guests: %.3f ms each%n",
+                2 * queries, guests, millis);
+        assertTrue(hits >= 2 * queries);
+        assertTrue(millis < 2.0, "search took " + millis + " ms");
+    }
+
+    // ============ Helper Methods ============
+
+    private static Guest guest(Long id, String name, String email, String phone, String idNo) {
+        return new Guest(id, name, email, phone, idNo, "ACTIVE", null);
+    }
+
+    private static Guest randomGuest(long id, Random random) {
+        String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)];
+        return guest(id, name, "guest" + id + "@example.com", "+1-555-" + String.format("%07d", id), "ID" + id);
+    }
+
+    private static List<Long> scan(List<Guest> guests, String term) {
+        String query = term.trim().toLowerCase(Locale.ROOT);
+        List<Long> ids = new ArrayList<>();
+        for (Guest g : guests) {
+            if (contains(g.getName(), query) || contains(g.getEmail(), query)
+                    || contains(g.getPhone(), query) || contains(g.getIdentificationNumber(), query)) {
+                ids.add(g.getGuestId());
+            }
+        }
+        return ids;
+    }
+
+    private static boolean contains(String field, String query) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(query);
+    }
+}
@@ -1,15 +1,19 @@
 package com.hotel.smarttrack.reservation.impl;
 
+import com.hotel.smarttrack.cache.CacheStats;
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.Reservation;
 import com.hotel.smarttrack.entity.Room;
 import com.hotel.smarttrack.entity.RoomType;
 import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.HotelStatisticsService;
 import com.hotel.smarttrack.service.ReservationService;
 import com.hotel.smarttrack.service.RoomService;
 import org.osgi.service.component.annotations.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +31,20 @@ public class ReservationManagerImpl implements ReservationService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY)
     private volatile RoomService roomService;
 
+    private volatile HotelStatisticsService statisticsService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    void bindStatisticsService(HotelStatisticsService service) {
+        this.statisticsService = service;
+        repo.findAll().forEach(service::reservationChanged);
+    }
+
+    void unbindStatisticsService(HotelStatisticsService service) {
+        if (statisticsService == service) {
+            statisticsService = null;
+        }
+    }
+
     @Activate
     public void activate() {
         System.out.println("==============================================");
@@ -41,6 +59,7 @@ public class ReservationManagerImpl implements ReservationService {
         System.out.println("==============================================");
 
         loadSeedData();
+        repo.findAll().forEach(this::publishReservation);
         System.out.println("[ReservationManagerImpl] Loaded " + repo.findAll().size() + " reservations");
     }
 
@@ -76,9 +95,20 @@ public class ReservationManagerImpl implements ReservationService {
 
     @Deactivate
     public void deactivate() {
+        for (CacheStats stats : ReferenceDataCache.shared().stats()) {
+            System.out.println("[ReservationManagerImpl] Cache " + stats);
+        }
         System.out.println("[ReservationManagerImpl] Deactivated");
     }
 
+    private Reservation publishReservation(Reservation r) {
+        HotelStatisticsService stats = statisticsService;
+        if (stats != null) {
+            stats.reservationChanged(r);
+        }
+        return r;
+    }
+
     @Override
     public Reservation createReservation(Long guestId, Long roomTypeId, LocalDate checkIn,
             LocalDate checkOut, int numberOfGuests, String specialRequests) {
@@ -89,9 +119,10 @@ public class ReservationManagerImpl implements ReservationService {
         if (numberOfGuests <= 0)
             throw new IllegalArgumentException("numberOfGuests must be > 0");
 
-        Guest guest = guestService.getGuestById(guestId)
+        ReferenceDataCache cache = ReferenceDataCache.shared();
+        Guest guest = cache.getGuest(guestId, guestService::getGuestById)
                 .orElseThrow(() -> new IllegalArgumentException("Guest not found: " + guestId));
-        RoomType roomType = roomService.getRoomTypeById(roomTypeId)
+        RoomType roomType = cache.getRoomType(roomTypeId, roomService::getRoomTypeById)
                 .orElseThrow(() -> new IllegalArgumentException("RoomType not found: " + roomTypeId));
 
         Reservation r = new Reservation();
@@ -102,8 +133,9 @@ public class ReservationManagerImpl implements ReservationService {
         r.setNumberOfGuests(numberOfGuests);
         r.setStatus("RESERVED");
         r.setSpecialRequests(specialRequests);
+        r.setBookedTime(LocalDateTime.now());
 
-        return repo.save(r);
+        return publishReservation(repo.save(r));
     }
 
     @Override
@@ -127,7 +159,7 @@ public class ReservationManagerImpl implements ReservationService {
         r.setCheckInDate(newCheckIn);
         r.setCheckOutDate(newCheckOut);
         r.setNumberOfGuests(numberOfGuests);
-        return repo.save(r);
+        return publishReservation(repo.save(r));
     }
 
     @Override
@@ -0,0 +1,256 @@
+package com.hotel.smarttrack.room.impl;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import com.hotel.smarttrack.entity.Reservation;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.service.HotelStatisticsService;
+
+/**
+ * HotelStatisticsManagerImpl - OSGi Declarative Services implementation of
+ * HotelStatisticsService. Live occupancy counters for the front-desk dashboard.
+ *
+ * Each room, stay and reservation remembers what it last contributed, so a
+ * change notification subtracts the old contribution and adds the new one
+ * under a per-entity lock (ConcurrentHashMap.compute). Counters are LongAdders
+ * so dashboard polling never contends with check-in/out traffic.
+ *
+ * This component has no references of its own. Room, Reservation and Stay
+ * managers bind it optionally and replay their repositories when it appears,
+ * so counters survive either side being restarted.
+ */
+@Component(service = HotelStatisticsService.class, immediate = true)
+public class HotelStatisticsManagerImpl implements HotelStatisticsService {
+
+    private static final String STAY_CHECKED_IN = "CHECKED_IN";
+
+    // ============ Per-Entity Contributions ============
+
+    private final Map<Long, RoomSlot> roomSlots = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> activeStayGuests = new ConcurrentHashMap<>();
+    private final Map<Long, ReservationSlot> reservationSlots = new ConcurrentHashMap<>();
+
+    // ============ Counters ============
+
+    private final Map<String, LongAdder> roomsByStatus = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, LongAdder>> roomsByFloor = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, LongAdder>> roomsByType = new ConcurrentHashMap<>();
+    private final LongAdder inHouseGuests = new LongAdder();
+    private final Map<LocalDate, LongAdder> arrivals = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> departures = new ConcurrentHashMap<>();
+
+    // ============ OSGi Lifecycle Methods ============
+
+    @Activate
+    public void activate() {
+        System.out.println("[HotelStatisticsManagerImpl] Bundle ACTIVATED ✓");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        System.out.println("[HotelStatisticsManagerImpl] Bundle DEACTIVATED");
+    }
+
+    // ============ Room Counters ============
+
+    @Override
+    public long getTotalRooms() {
+        return roomSlots.size();
+    }
+
+    @Override
+    public long countRoomsByStatus(String status) {
+        return sum(roomsByStatus, status);
+    }
+
+    @Override
+    public long countRoomsByFloorAndStatus(int floorNumber, String status) {
+        Map<String, LongAdder> byStatus = roomsByFloor.get(floorNumber);
+        return byStatus == null ? 0L : sum(byStatus, status);
+    }
+
+    @Override
+    public long countRoomsByTypeAndStatus(Long roomTypeId, String status) {
+        Map<String, LongAdder> byStatus = roomTypeId == null ? null : roomsByType.get(roomTypeId);
+        return byStatus == null ? 0L : sum(byStatus, status);
+    }
+
+    @Override
+    public Map<String, Long> getRoomStatusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        roomsByStatus.forEach((status, counter) -> counts.put(status, counter.sum()));
+        return counts;
+    }
+
+    // ============ Stay / Reservation Counters ============
+
+    @Override
+    public long countActiveStays() {
+        return activeStayGuests.size();
+    }
+
+    @Override
+    public long countInHouseGuests() {
+        return inHouseGuests.sum();
+    }
+
+    @Override
+    public long countArrivals(LocalDate date) {
+        return sum(arrivals, date);
+    }
+
+    @Override
+    public long countDepartures(LocalDate date) {
+        return sum(departures, date);
+    }
+
+    // ============ Change Notifications ============
+
+    @Override
+    public void roomChanged(Room room) {
+        if (room == null || room.getRoomId() == null) {
+            return;
+        }
+        applyRoom(room.getRoomId(), RoomSlot.of(room));
+    }
+
+    @Override
+    public void roomRemoved(Long roomId) {
+        if (roomId == null) {
+            return;
+        }
+        applyRoom(roomId, null);
+    }
+
+    @Override
+    public void stayChanged(Stay stay) {
+        if (stay == null || stay.getStayId() == null) {
+            return;
+        }
+        applyStay(stay.getStayId(), STAY_CHECKED_IN.equals(stay.getStatus()) ? guestsFor(stay) : null);
+    }
+
+    @Override
+    public void reservationChanged(Reservation reservation) {
+        if (reservation == null || reservation.getReservationId() == null) {
+            return;
+        }
+        applyReservation(reservation.getReservationId(), ReservationSlot.of(reservation));
+    }
+
+    // ============ Helper Methods ============
+
+    private void applyRoom(Long roomId, RoomSlot slot) {
+        roomSlots.compute(roomId, (id, previous) -> {
+            adjustRoom(previous, -1);
+            adjustRoom(slot, 1);
+            return slot;
+        });
+    }
+
+    private void adjustRoom(RoomSlot slot, int delta) {
+        if (slot == null || slot.status == null) {
+            return;
+        }
+        counter(roomsByStatus, slot.status).add(delta);
+        counter(roomsByFloor.computeIfAbsent(slot.floorNumber, k -> new ConcurrentHashMap<>()), slot.status)
+                .add(delta);
+        if (slot.roomTypeId != null) {
+            counter(roomsByType.computeIfAbsent(slot.roomTypeId, k -> new ConcurrentHashMap<>()), slot.status)
+                    .add(delta);
+        }
+    }
+
+    /**
+     * @param guests Party size if the stay is checked in, null otherwise
+     */
+    private void applyStay(Long stayId, Integer guests) {
+        activeStayGuests.compute(stayId, (id, previous) -> {
+            if (previous != null) {
+                inHouseGuests.add(-previous);
+            }
+            if (guests != null) {
+                inHouseGuests.add(guests);
+            }
+            return guests;
+        });
+    }
+
+    private void applyReservation(Long reservationId, ReservationSlot slot) {
+        reservationSlots.compute(reservationId, (id, previous) -> {
+            if (previous != null) {
+                adjustDate(arrivals, previous.checkInDate, -1);
+                adjustDate(departures, previous.checkOutDate, -1);
+            }
+            adjustDate(arrivals, slot.checkInDate, 1);
+            adjustDate(departures, slot.checkOutDate, 1);
+            return slot;
+        });
+    }
+
+    private static void adjustDate(Map<LocalDate, LongAdder> counters, LocalDate date, int delta) {
+        if (date != null) {
+            counter(counters, date).add(delta);
+        }
+    }
+
+    private static int guestsFor(Stay stay) {
+        Reservation reservation = stay.getReservation();
+        return reservation != null && reservation.getNumberOfGuests() > 0 ? reservation.getNumberOfGuests() : 1;
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> long sum(Map<K, LongAdder> counters, K key) {
+        LongAdder counter = key == null ? null : counters.get(key);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    /**
+     * What a room contributes to the room counters.
+     */
+    private static final class RoomSlot {
+        private final String status;
+        private final int floorNumber;
+        private final Long roomTypeId;
+
+        private RoomSlot(String status, int floorNumber, Long roomTypeId) {
+            this.status = status;
+            this.floorNumber = floorNumber;
+            this.roomTypeId = roomTypeId;
+        }
+
+        static RoomSlot of(Room room) {
+            return new RoomSlot(room.getStatus(), room.getFloorNumber(),
+                    room.getRoomType() != null ? room.getRoomType().getRoomTypeId() : null);
+        }
+    }
+
+    /**
+     * What a reservation contributes to the arrival/departure counters.
+     */
+    private static final class ReservationSlot {
+        private final LocalDate checkInDate;
+        private final LocalDate checkOutDate;
+
+        private ReservationSlot(LocalDate checkInDate, LocalDate checkOutDate) {
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+        }
+
+        static ReservationSlot of(Reservation reservation) {
+            return new ReservationSlot(reservation.getCheckInDate(), reservation.getCheckOutDate());
+        }
+    }
+}
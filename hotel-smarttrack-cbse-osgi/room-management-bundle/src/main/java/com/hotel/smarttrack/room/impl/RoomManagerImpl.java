@@ -13,9 +13,14 @@ import java.util.stream.Collectors;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Room;
 import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.service.HotelStatisticsService;
 import com.hotel.smarttrack.service.RoomService;
 
 /**
@@ -28,7 +33,8 @@ import com.hotel.smarttrack.service.RoomService;
  * - @Deactivate: Called when bundle stops
  * 
  * Note: Room bundle has NO dependencies on other bundles!
- * It can activate independently.
+ * It can activate independently. HotelStatisticsService is an optional
+ * reference to a component in this same bundle.
  *
  * @author Eisraq Rejab
  */
@@ -45,6 +51,8 @@ public class RoomManagerImpl implements RoomService {
     private static final List<String> VALID_STATUSES = Arrays.asList(
             STATUS_AVAILABLE, STATUS_OCCUPIED, STATUS_UNDER_CLEANING, STATUS_OUT_OF_SERVICE);
 
+    private static final int MAX_COMPLETIONS = 10;
+
     // ============ In-Memory Repositories ============
 
     private final RoomRepository roomRepository = new RoomRepository();
@@ -53,12 +61,29 @@ public class RoomManagerImpl implements RoomService {
     // Mock reservation data for availability checking
     private final Map<Long, List<LocalDate[]>> roomReservations = new HashMap<>();
 
+    // ============ OSGi Service References ============
+
+    private volatile HotelStatisticsService statisticsService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    void bindStatisticsService(HotelStatisticsService service) {
+        this.statisticsService = service;
+        roomRepository.findAll().forEach(service::roomChanged);
+    }
+
+    void unbindStatisticsService(HotelStatisticsService service) {
+        if (statisticsService == service) {
+            statisticsService = null;
+        }
+    }
+
     // ============ OSGi Lifecycle Methods ============
 
     @Activate
     public void activate() {
         System.out.println("[RoomManagerImpl] Bundle ACTIVATING...");
         loadSeedData();
+        roomRepository.findAll().forEach(this::publishRoom);
         System.out.println("[RoomManagerImpl] Loaded " + roomTypeRepository.count() + " room types");
         System.out.println("[RoomManagerImpl] Loaded " + roomRepository.count() + " rooms");
         System.out.println("[RoomManagerImpl] Bundle ACTIVATED ✓");
@@ -66,6 +91,7 @@ public class RoomManagerImpl implements RoomService {
 
     @Deactivate
     public void deactivate() {
+        ReferenceDataCache.shared().invalidateAllRoomTypes();
         System.out.println("[RoomManagerImpl] Bundle DEACTIVATED");
     }
 
@@ -133,6 +159,7 @@ public class RoomManagerImpl implements RoomService {
                         "Room type with ID " + roomType.getRoomTypeId() + " not found"));
 
         RoomType saved = roomTypeRepository.save(roomType);
+        ReferenceDataCache.shared().invalidateRoomType(saved.getRoomTypeId());
         System.out.println("[RoomManagerImpl] Updated room type: " + roomType.getTypeName());
         return saved;
     }
@@ -159,6 +186,7 @@ public class RoomManagerImpl implements RoomService {
         }
 
         RoomType saved = roomTypeRepository.save(roomType);
+        ReferenceDataCache.shared().invalidateRoomType(roomTypeId);
         System.out.println("[RoomManagerImpl] Updated pricing for: " + saved.getTypeName() +
                 " - New price: $" + newPrice + ", Tax: " +
                 saved.getTaxRate().multiply(new BigDecimal("100")) + "%");
@@ -191,6 +219,7 @@ public class RoomManagerImpl implements RoomService {
         }
 
         roomTypeRepository.delete(roomTypeId);
+        ReferenceDataCache.shared().invalidateRoomType(roomTypeId);
         System.out.println("[RoomManagerImpl] Deleted room type: " + roomType.getTypeName());
     }
 
@@ -223,6 +252,7 @@ public class RoomManagerImpl implements RoomService {
         room.setStatus(STATUS_AVAILABLE);
 
         Room saved = roomRepository.save(room);
+        publishRoom(saved);
         System.out.println("[RoomManagerImpl] Created room: " + roomNumber +
                 " (Type: " + roomType.getTypeName() + ", Floor: " + floorNumber + ")");
         return saved;
@@ -253,6 +283,7 @@ public class RoomManagerImpl implements RoomService {
         }
 
         Room saved = roomRepository.save(room);
+        publishRoom(saved);
         System.out.println("[RoomManagerImpl] Updated room: " + room.getRoomNumber());
         return saved;
     }
@@ -272,6 +303,11 @@ public class RoomManagerImpl implements RoomService {
         return roomRepository.findAll();
     }
 
+    @Override
+    public List<String> completeRoomNumbers(String prefix) {
+        return roomRepository.completeRoomNumbers(prefix, MAX_COMPLETIONS);
+    }
+
     @Override
     public List<Room> getRoomsByFloor(int floorNumber) {
         if (floorNumber < 1) {
@@ -303,6 +339,10 @@ public class RoomManagerImpl implements RoomService {
         }
 
         roomRepository.delete(roomId);
+        HotelStatisticsService stats = statisticsService;
+        if (stats != null) {
+            stats.roomRemoved(roomId);
+        }
         System.out.println("[RoomManagerImpl] Deleted room: " + room.getRoomNumber() +
                 " (ID: " + roomId + ")");
     }
@@ -328,7 +368,7 @@ public class RoomManagerImpl implements RoomService {
 
         String oldStatus = room.getStatus();
         room.setStatus(status);
-        roomRepository.save(room);
+        publishRoom(roomRepository.save(room));
 
         System.out.println("[RoomManagerImpl] Updated room " + room.getRoomNumber() +
                 " status from '" + oldStatus + "' to '" + status + "'");
@@ -382,6 +422,13 @@ public class RoomManagerImpl implements RoomService {
 
     // ============ Helper Methods ============
 
+    private void publishRoom(Room room) {
+        HotelStatisticsService stats = statisticsService;
+        if (stats != null) {
+            stats.roomChanged(room);
+        }
+    }
+
     private boolean isRoomAvailableInternal(Room room, LocalDate checkIn, LocalDate checkOut) {
         if (!STATUS_AVAILABLE.equals(room.getStatus())) {
             return false;
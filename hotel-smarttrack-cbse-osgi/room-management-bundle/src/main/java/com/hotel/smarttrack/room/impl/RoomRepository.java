@@ -1,5 +1,6 @@
 package com.hotel.smarttrack.room.impl;
 
+import com.hotel.smarttrack.cache.PrefixIndex;
 import com.hotel.smarttrack.entity.Room;
 
 import java.util.*;
@@ -10,19 +11,26 @@ import java.util.stream.Collectors;
 /**
  * In-memory repository for Room entities.
  * Thread-safe using ConcurrentHashMap.
+ *
+ * Room numbers are also held in a PrefixIndex for completion, updated
+ * inside storage.compute() so it follows each save and delete in order.
  * 
  * @author Eisraq Rejab
  */
 public class RoomRepository {
 
     private final Map<Long, Room> storage = new ConcurrentHashMap<>();
+    private final PrefixIndex roomNumbers = new PrefixIndex();
     private final AtomicLong idGenerator = new AtomicLong(1);
 
     public Room save(Room entity) {
         if (entity.getRoomId() == null) {
             entity.setRoomId(idGenerator.getAndIncrement());
         }
-        storage.put(entity.getRoomId(), entity);
+        storage.compute(entity.getRoomId(), (id, existing) -> {
+            roomNumbers.put(id, entity.getRoomNumber());
+            return entity;
+        });
         return entity;
     }
 
@@ -64,7 +72,19 @@ public class RoomRepository {
     }
 
     public void delete(Long id) {
-        storage.remove(id);
+        storage.computeIfPresent(id, (key, existing) -> {
+            roomNumbers.remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Room numbers starting with {@code prefix}, or with a later part of the
+     * number starting with it ("A-101" for "101"), in order, at most
+     * {@code limit}.
+     */
+    public List<String> completeRoomNumbers(String prefix, int limit) {
+        return new ArrayList<>(roomNumbers.complete(prefix, limit).values());
     }
 
     public boolean existsById(Long id) {
@@ -0,0 +1,128 @@
+package com.hotel.smarttrack.stay.impl;
+
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-stay folio cache for balances computed before an invoice exists.
+ * Thread-safe using ConcurrentHashMap.
+ *
+ * A folio is dropped explicitly when a charge is posted or voided, the guest
+ * moves room or checks out. Night rollover and rate changes (updateRoomPricing
+ * lives in room-management-bundle) are caught by stamps checked on read: the
+ * business date, the room, the nightly rate and room tax rate, and the
+ * TaxService rules version the folio was priced with.
+ *
+ * Each stay has a version bumped on invalidation; a folio computed against an
+ * older version is discarded instead of overwriting a newer invalidation.
+ *
+ * @author Elvis Sawing
+ */
+public class FolioCache {
+
+    private final Map<Long, Folio> folios = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Current version for a stay; read before computing a folio.
+     */
+    public long version(Long stayId) {
+        AtomicLong version = versions.get(stayId);
+        return version == null ? 0L : version.get();
+    }
+
+    /**
+     * Get the cached folio if it is still valid for the business date.
+     */
+    public Folio getCurrent(Long stayId, LocalDate businessDate, long taxRulesVersion) {
+        Folio folio = folios.get(stayId);
+        return folio != null && folio.isCurrent(businessDate, taxRulesVersion) ? folio : null;
+    }
+
+    /**
+     * Cache a folio unless the stay was invalidated since {@code version} was read.
+     */
+    public void put(Long stayId, long version, Folio folio) {
+        folios.compute(stayId, (id, existing) -> version(stayId) == version ? folio : existing);
+    }
+
+    public void invalidate(Long stayId) {
+        if (stayId == null) {
+            return;
+        }
+        versions.computeIfAbsent(stayId, id -> new AtomicLong()).incrementAndGet();
+        folios.remove(stayId);
+    }
+
+    public int size() {
+        return folios.size();
+    }
+
+    /**
+     * Room charge, incidental and tax components of a stay's balance.
+     */
+    public static final class Folio {
+        private final Stay stay;
+        private final Room room;
+        private final Money nightlyRate;
+        private final BigDecimal taxRate;
+        private final long taxRulesVersion;
+        private final LocalDate businessDate;
+        private final Money roomCharges;
+        private final Money incidentals;
+        private final Money tax;
+
+        public Folio(Stay stay, Money nightlyRate, LocalDate businessDate,
+                Money roomCharges, Money incidentals, Money tax, long taxRulesVersion) {
+            this.stay = stay;
+            this.room = stay.getRoom();
+            this.nightlyRate = nightlyRate;
+            this.taxRate = room == null || room.getRoomType() == null ? null : room.getRoomType().getTaxRate();
+            this.taxRulesVersion = taxRulesVersion;
+            this.businessDate = businessDate;
+            this.roomCharges = roomCharges;
+            this.incidentals = incidentals;
+            this.tax = tax;
+        }
+
+        /**
+         * Still priced for the same day, room, rates and tax rules.
+         */
+        boolean isCurrent(LocalDate date, long rulesVersion) {
+            Room current = stay.getRoom();
+            if (!businessDate.equals(date) || current != room || taxRulesVersion != rulesVersion) {
+                return false;
+            }
+            RoomType roomType = current == null ? null : current.getRoomType();
+            Money rate = roomType == null ? null : roomType.getBasePriceMoney();
+            BigDecimal currentTaxRate = roomType == null ? null : roomType.getTaxRate();
+            return Objects.equals(nightlyRate, rate)
+                    && (taxRate == null ? currentTaxRate == null
+                            : currentTaxRate != null && taxRate.compareTo(currentTaxRate) == 0);
+        }
+
+        public Money getRoomCharges() {
+            return roomCharges;
+        }
+
+        public Money getIncidentals() {
+            return incidentals;
+        }
+
+        public Money getTax() {
+            return tax;
+        }
+
+        public Money getTotal() {
+            return roomCharges.plus(incidentals).plus(tax);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.hotel.smarttrack.stay.impl;
 
 import com.hotel.smarttrack.entity.IncidentalCharge;
+import com.hotel.smarttrack.entity.Money;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -21,11 +22,21 @@ public class IncidentalChargeRepository {
     public IncidentalCharge save(IncidentalCharge entity) {
         if (entity.getChargeId() == null) {
             entity.setChargeId(idGenerator.getAndIncrement());
+        } else {
+            reserveId(entity.getChargeId());
         }
         storage.put(entity.getChargeId(), entity);
         return entity;
     }
 
+    /**
+     * Keep generated IDs ahead of an ID taken in the stay event log, whether
+     * or not its record was restored.
+     */
+    public void reserveId(Long id) {
+        idGenerator.accumulateAndGet(id + 1, Math::max);
+    }
+
     public Optional<IncidentalCharge> findById(Long id) {
         return Optional.ofNullable(storage.get(id));
     }
@@ -52,14 +63,56 @@ public class IncidentalChargeRepository {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Find the charges of many stays in a single scan.
+     */
+    public Map<Long, List<IncidentalCharge>> findByStayIds(Collection<Long> stayIds) {
+        Set<Long> wanted = new HashSet<>(stayIds);
+        Map<Long, List<IncidentalCharge>> byStay = new HashMap<>();
+        for (IncidentalCharge charge : storage.values()) {
+            Long stayId = charge.getStay() != null ? charge.getStay().getStayId() : null;
+            if (wanted.contains(stayId)) {
+                byStay.computeIfAbsent(stayId, id -> new ArrayList<>()).add(charge);
+            }
+        }
+        return byStay;
+    }
+
     /**
      * Get total charges amount for a stay.
      */
     public BigDecimal getTotalChargesForStay(Long stayId) {
-        return findByStayId(stayId).stream()
-                .map(IncidentalCharge::getAmount)
-                .filter(Objects::nonNull)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.ofMinor(getTotalChargesMinorForStay(stayId)).toBigDecimal();
+    }
+
+    /**
+     * Get total charges for a stay in minor units (no per-charge allocation).
+     */
+    public long getTotalChargesMinorForStay(Long stayId) {
+        long total = 0L;
+        for (IncidentalCharge charge : storage.values()) {
+            Money amount = charge.getAmountMoney();
+            if (amount != null && charge.getStay() != null && stayId.equals(charge.getStay().getStayId())) {
+                total += amount.getMinorUnits();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Get total charges in minor units for many stays in a single scan.
+     */
+    public Map<Long, Long> getTotalChargesMinorByStay(Collection<Long> stayIds) {
+        Set<Long> wanted = new HashSet<>(stayIds);
+        Map<Long, Long> totals = new HashMap<>();
+        for (IncidentalCharge charge : storage.values()) {
+            Money amount = charge.getAmountMoney();
+            Long stayId = charge.getStay() != null ? charge.getStay().getStayId() : null;
+            if (amount != null && wanted.contains(stayId)) {
+                totals.merge(stayId, amount.getMinorUnits(), Long::sum);
+            }
+        }
+        return totals;
     }
 
     public long count() {
@@ -0,0 +1,406 @@
+package com.hotel.smarttrack.stay.impl;
+
+import com.hotel.smarttrack.entity.StayEvent;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented log of stay events.
+ *
+ * Records are appended sequentially to the active segment file
+ * (stay-events-NNNNNNNN.log) through a write buffer and a FileChannel; the
+ * buffer is flushed when full and flushed + fsynced every second by a
+ * background thread, so at most one interval of events is lost on a crash.
+ * Segments roll over at 64 MB.
+ *
+ * Record layout: [int length][int crc32][body]. On open, every segment is
+ * scanned to rebuild the per-stay position index; a torn or corrupt record at
+ * the tail of the last segment is truncated away.
+ *
+ * @author Elvis Sawing
+ */
+public class StayEventLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "stay-events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 128 * 1024;
+    private static final long FSYNC_INTERVAL_MS = 1000L;
+
+    private final Path directory;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(MAX_RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final List<Path> segments = new ArrayList<>();
+    // stayId -> record positions ((segment index << 32) | offset), in append order
+    private final Map<Long, List<Long>> positionsByStay = new HashMap<>();
+    private final ScheduledExecutorService syncer;
+
+    private FileChannel active;
+    private long activeSize;
+    private long nextSequence = 1L;
+    private long eventCount;
+    private boolean dirty;
+
+    public StayEventLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        recover();
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stay-event-log-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        syncer.scheduleWithFixedDelay(this::syncQuietly, FSYNC_INTERVAL_MS, FSYNC_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // ============ Append ============
+
+    /**
+     * Append an event and return it with its assigned sequence number.
+     */
+    public synchronized StayEvent append(StayEvent event) {
+        StayEvent sequenced = event.withSequence(nextSequence);
+        try {
+            recordBuffer.clear();
+            encode(sequenced, recordBuffer);
+            recordBuffer.flip();
+            int length = recordBuffer.remaining();
+
+            crc.reset();
+            crc.update(recordBuffer.array(), 0, length);
+
+            if (activeSize > 0 && activeSize + HEADER_SIZE + length > SEGMENT_SIZE) {
+                rollSegment();
+            }
+            if (writeBuffer.remaining() < HEADER_SIZE + length) {
+                flushBuffer();
+            }
+
+            long position = ((long) (segments.size() - 1) << 32) | activeSize;
+            writeBuffer.putInt(length);
+            writeBuffer.putInt((int) crc.getValue());
+            writeBuffer.put(recordBuffer);
+            activeSize += HEADER_SIZE + length;
+
+            positionsByStay.computeIfAbsent(sequenced.getStayId(), k -> new ArrayList<>()).add(position);
+            nextSequence++;
+            eventCount++;
+            dirty = true;
+            return sequenced;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append stay event", e);
+        }
+    }
+
+    /**
+     * Flush buffered events and fsync the active segment.
+     */
+    public synchronized void sync() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        flushBuffer();
+        active.force(false);
+        dirty = false;
+    }
+
+    // ============ Read / Replay ============
+
+    /**
+     * Read one stay's events in append order.
+     */
+    public synchronized List<StayEvent> readTimeline(Long stayId) {
+        List<Long> positions = positionsByStay.get(stayId);
+        if (positions == null) {
+            return List.of();
+        }
+
+        Map<Integer, FileChannel> channels = new HashMap<>();
+        try {
+            flushBuffer();
+            List<StayEvent> timeline = new ArrayList<>(positions.size());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            for (long position : positions) {
+                int segment = (int) (position >>> 32);
+                long offset = position & 0xFFFFFFFFL;
+                FileChannel channel = channels.get(segment);
+                if (channel == null) {
+                    channel = FileChannel.open(segments.get(segment), StandardOpenOption.READ);
+                    channels.put(segment, channel);
+                }
+
+                header.clear();
+                readFully(channel, header, offset);
+                header.flip();
+                ByteBuffer body = ByteBuffer.allocate(header.getInt());
+                readFully(channel, body, offset + HEADER_SIZE);
+                body.flip();
+                timeline.add(decode(body));
+            }
+            return timeline;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read timeline for stay " + stayId, e);
+        } finally {
+            for (FileChannel channel : channels.values()) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // read-only channel
+                }
+            }
+        }
+    }
+
+    /**
+     * Replay every event in the log, oldest first.
+     */
+    public synchronized void replay(Consumer<StayEvent> consumer) {
+        try {
+            flushBuffer();
+            for (int i = 0; i < segments.size(); i++) {
+                scanSegment(segments.get(i), (position, event) -> consumer.accept(event));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not replay stay event log", e);
+        }
+    }
+
+    public synchronized long size() {
+        return eventCount;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncer.shutdownNow();
+        synchronized (this) {
+            if (active != null && active.isOpen()) {
+                sync();
+                active.close();
+            }
+        }
+    }
+
+    // ============ Segment Management ============
+
+    private void recover() throws IOException {
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(directory)) {
+            existing = files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        long validEnd = 0L;
+        for (Path segment : existing) {
+            int index = segments.size();
+            segments.add(segment);
+            validEnd = scanSegment(segment, (offset, event) -> {
+                positionsByStay.computeIfAbsent(event.getStayId(), k -> new ArrayList<>())
+                        .add(((long) index << 32) | offset);
+                nextSequence = Math.max(nextSequence, event.getSequence() + 1);
+                eventCount++;
+            });
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(segmentPath(0));
+            validEnd = 0L;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        active = FileChannel.open(last, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (active.size() > validEnd) {
+            System.out.println("[StayEventLog] Truncating torn tail of " + last.getFileName()
+                    + " at " + validEnd + " bytes");
+            active.truncate(validEnd);
+        }
+        active.position(validEnd);
+        activeSize = validEnd;
+    }
+
+    private void rollSegment() throws IOException {
+        flushBuffer();
+        active.force(false);
+        active.close();
+
+        Path next = segmentPath(segments.size());
+        segments.add(next);
+        active = FileChannel.open(next, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSize = 0L;
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index + 1, SEGMENT_SUFFIX));
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            active.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("[StayEventLog] WARNING: fsync failed - " + e.getMessage());
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(long offset, StayEvent event);
+    }
+
+    /**
+     * Scan a segment from the start, stopping at the first torn or corrupt
+     * record.
+     *
+     * @return Offset just past the last valid record
+     */
+    private long scanSegment(Path segment, RecordVisitor visitor) throws IOException {
+        long offset = 0L;
+        CRC32 check = new CRC32();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(segment), BUFFER_SIZE))) {
+            while (true) {
+                int length;
+                int expectedCrc;
+                byte[] body;
+                try {
+                    length = in.readInt();
+                    expectedCrc = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE) {
+                        break;
+                    }
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+
+                check.reset();
+                check.update(body, 0, length);
+                if ((int) check.getValue() != expectedCrc) {
+                    break;
+                }
+                visitor.visit(offset, decode(ByteBuffer.wrap(body)));
+                offset += HEADER_SIZE + length;
+            }
+        }
+        return offset;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of stay event log");
+            }
+        }
+    }
+
+    // ============ Encoding ============
+
+    private static void encode(StayEvent event, ByteBuffer out) {
+        LocalDateTime time = event.getEventTime();
+        out.putLong(event.getSequence());
+        out.put((byte) event.getType().ordinal());
+        out.putLong(event.getStayId());
+        out.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(time.getNano());
+        putId(out, event.getGuestId());
+        putId(out, event.getRoomId());
+        putId(out, event.getReservationId());
+        putId(out, event.getChargeId());
+        out.putLong(event.getAmountMinorUnits());
+        putString(out, event.getKeyCardNumber());
+        putString(out, event.getServiceType());
+        putString(out, event.getDescription());
+    }
+
+    private static StayEvent decode(ByteBuffer in) {
+        long sequence = in.getLong();
+        StayEvent.Type type = StayEvent.Type.values()[in.get()];
+        long stayId = in.getLong();
+        LocalDateTime time = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+        Long guestId = getId(in);
+        Long roomId = getId(in);
+        Long reservationId = getId(in);
+        Long chargeId = getId(in);
+        long amount = in.getLong();
+        String keyCard = getString(in);
+        String serviceType = getString(in);
+        String description = getString(in);
+        return new StayEvent(sequence, type, stayId, time, guestId, roomId, reservationId, chargeId,
+                amount, keyCard, serviceType, description);
+    }
+
+    // IDs start at 1, so 0 encodes null
+    private static void putId(ByteBuffer out, Long id) {
+        out.putLong(id == null ? 0L : id);
+    }
+
+    private static Long getId(ByteBuffer in) {
+        long id = in.getLong();
+        return id == 0L ? null : id;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Stay event field too long: " + bytes.length + " bytes");
+        }
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        short length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
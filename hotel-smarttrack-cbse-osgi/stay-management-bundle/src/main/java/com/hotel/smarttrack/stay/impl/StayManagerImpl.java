@@ -1,14 +1,26 @@
 package com.hotel.smarttrack.stay.impl;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.*;
 import com.hotel.smarttrack.service.*;
 import org.osgi.service.component.annotations.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /**
  * StayManagerImpl - OSGi Declarative Services implementation of StayService.
@@ -31,9 +43,18 @@ public class StayManagerImpl implements StayService {
     private static final String ROOM_AVAILABLE = "AVAILABLE";
     private static final String ROOM_CLEANING = "UNDER_CLEANING";
 
+    // Billing constants (10% tax while no TaxService is bound, $100.00 default nightly rate)
+    private static final long TAX_RATE_BASIS_POINTS = 1000L;
+    private static final long NO_TAX_RULES = 0L;
+    private static final Money DEFAULT_RATE = Money.ofMinor(10_000L);
+
     // In-memory repositories
     private final StayRepository stayRepository = new StayRepository();
     private final IncidentalChargeRepository chargeRepository = new IncidentalChargeRepository();
+    private final FolioCache folioCache = new FolioCache();
+
+    // Append-only stay timeline (null if the log directory is unusable)
+    private volatile StayEventLog eventLog;
 
     // ============ OSGi Service References ============
 
@@ -49,19 +70,204 @@ public class StayManagerImpl implements StayService {
     @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
     private volatile BillingService billingService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    private volatile TaxService taxService;
+
+    private volatile HotelStatisticsService statisticsService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    void bindStatisticsService(HotelStatisticsService service) {
+        this.statisticsService = service;
+        stayRepository.findAll().forEach(service::stayChanged);
+    }
+
+    void unbindStatisticsService(HotelStatisticsService service) {
+        if (statisticsService == service) {
+            statisticsService = null;
+        }
+    }
+
+    private volatile GuestProfileService guestProfileService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    void bindGuestProfileService(GuestProfileService service) {
+        this.guestProfileService = service;
+        stayRepository.findAll().forEach(service::stayChanged);
+    }
+
+    void unbindGuestProfileService(GuestProfileService service) {
+        if (guestProfileService == service) {
+            guestProfileService = null;
+        }
+    }
+
     // ============ Lifecycle Methods ============
 
     @Activate
     public void activate() {
-        System.out.println("[StayManagerImpl] Activating and loading seed data...");
-        loadSeedData();
+        eventLog = openEventLog();
+        if (eventLog != null && eventLog.size() > 0) {
+            System.out.println("[StayManagerImpl] Activating and replaying stay event log...");
+            rebuildFromEventLog();
+        } else {
+            System.out.println("[StayManagerImpl] Activating and loading seed data...");
+            loadSeedData();
+        }
+        stayRepository.findAll().forEach(this::publishStay);
     }
 
     @Deactivate
     public void deactivate() {
+        StayEventLog log = eventLog;
+        eventLog = null;
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                System.out.println("[StayManager] WARNING: Could not close stay event log - " + e.getMessage());
+            }
+        }
         System.out.println("[StayManagerImpl] Bundle DEACTIVATED");
     }
 
+    // ============ Stay Event Log ============
+
+    /**
+     * Open the event log under hotel.smarttrack.stay.eventlog.dir, defaulting
+     * to ${karaf.data}/hotel-smarttrack/stay-events.
+     */
+    private StayEventLog openEventLog() {
+        String configured = System.getProperty("hotel.smarttrack.stay.eventlog.dir");
+        Path directory = configured != null
+                ? Paths.get(configured)
+                : Paths.get(System.getProperty("karaf.data", System.getProperty("java.io.tmpdir")),
+                        "hotel-smarttrack", "stay-events");
+        try {
+            StayEventLog log = new StayEventLog(directory);
+            System.out.println("[StayManager] Stay event log at " + directory + " (" + log.size() + " events)");
+            return log;
+        } catch (IOException e) {
+            System.out.println("[StayManager] WARNING: Stay event log disabled - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void record(StayEvent event) {
+        StayEventLog log = eventLog;
+        if (log == null) {
+            return;
+        }
+        try {
+            log.append(event);
+        } catch (UncheckedIOException e) {
+            System.out.println("[StayManager] WARNING: Could not record " + event.getType()
+                    + " for stay " + event.getStayId() + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the stay and charge repositories by replaying the event log.
+     * Guests, rooms and reservations are resolved through their services,
+     * which reseed on restart: a stay whose guest or room no longer resolves
+     * is skipped along with its events, and the rooms of stays still in house
+     * are marked occupied again.
+     */
+    private void rebuildFromEventLog() {
+        Set<Long> skipped = new HashSet<>();
+        eventLog.replay(event -> applyEvent(event, skipped));
+
+        for (Stay stay : stayRepository.findAll()) {
+            if (STATUS_CHECKED_IN.equals(stay.getStatus()) && stay.getRoom() != null) {
+                roomService.updateRoomStatus(stay.getRoom().getRoomId(), ROOM_OCCUPIED);
+            }
+        }
+
+        System.out.println("[StayManager] Rebuilt " + stayRepository.count() + " stays and "
+                + chargeRepository.count() + " incidental charges from " + eventLog.size() + " events");
+        if (!skipped.isEmpty()) {
+            System.out.println("[StayManager] WARNING: Skipped " + skipped.size()
+                    + " stays with unresolved guests or rooms: " + skipped);
+        }
+    }
+
+    private void applyEvent(StayEvent event, Set<Long> skipped) {
+        if (skipped.contains(event.getStayId())) {
+            if (event.getChargeId() != null) {
+                chargeRepository.reserveId(event.getChargeId());
+            }
+            return;
+        }
+
+        Stay stay = stayRepository.findById(event.getStayId()).orElse(null);
+        switch (event.getType()) {
+            case CHECK_IN:
+                Guest guest = resolve(event.getGuestId(), guestService::getGuestById);
+                Room room = resolve(event.getRoomId(), roomService::getRoomById);
+                if (guest == null || room == null) {
+                    System.out.println("[StayManager] WARNING: Stay " + event.getStayId() + " references "
+                            + (guest == null ? "guest " + event.getGuestId() : "room " + event.getRoomId())
+                            + ", which no longer exists - skipping it");
+                    stayRepository.reserveId(event.getStayId());
+                    skipped.add(event.getStayId());
+                    break;
+                }
+                Reservation reservation = resolve(event.getReservationId(), reservationService::getReservationById);
+                if (reservation == null && event.getReservationId() != null) {
+                    System.out.println("[StayManager] WARNING: Stay " + event.getStayId() + " references reservation "
+                            + event.getReservationId() + ", which no longer exists - restored without it");
+                }
+                stayRepository.save(new Stay(event.getStayId(), reservation, guest, room,
+                        event.getEventTime(), null, STATUS_CHECKED_IN, event.getKeyCardNumber()));
+                break;
+            case ROOM_MOVE:
+                if (stay != null) {
+                    Room moved = resolve(event.getRoomId(), roomService::getRoomById);
+                    if (moved != null) {
+                        stay.setRoom(moved);
+                    } else {
+                        System.out.println("[StayManager] WARNING: Stay " + event.getStayId() + " moved to room "
+                                + event.getRoomId() + ", which no longer exists - keeping its previous room");
+                    }
+                    stay.setKeyCardNumber(event.getKeyCardNumber());
+                }
+                break;
+            case KEY_CARD:
+                if (stay != null) {
+                    stay.setKeyCardNumber(event.getKeyCardNumber());
+                }
+                break;
+            case CHARGE:
+                if (stay != null) {
+                    chargeRepository.save(new IncidentalCharge(event.getChargeId(), stay, event.getServiceType(),
+                            event.getDescription(), event.getAmount().toBigDecimal(), event.getEventTime()));
+                } else {
+                    chargeRepository.reserveId(event.getChargeId());
+                }
+                break;
+            case VOID:
+                chargeRepository.delete(event.getChargeId());
+                break;
+            case CHECK_OUT:
+                if (stay != null) {
+                    stay.setCheckOutTime(event.getEventTime());
+                    stay.setStatus(STATUS_CHECKED_OUT);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static <T> T resolve(Long id, Function<Long, Optional<T>> lookup) {
+        return id == null ? null : lookup.apply(id).orElse(null);
+    }
+
+    @Override
+    public List<StayEvent> getStayTimeline(Long stayId) {
+        StayEventLog log = eventLog;
+        return log == null ? List.of() : log.readTimeline(stayId);
+    }
+
     private void loadSeedData() {
         try {
             // Get data from other services (per SEED_DATA_SPEC.md)
@@ -77,14 +283,15 @@ public class StayManagerImpl implements StayService {
             Stay stay1 = new Stay(null, reservation1, john, room201,
                     LocalDateTime.of(2026, 1, 25, 14, 0), null, STATUS_CHECKED_IN, "KC001");
             Stay savedStay = stayRepository.save(stay1);
+            record(StayEvent.checkIn(savedStay));
 
             // Add incidental charges (per SEED_DATA_SPEC.md)
-            chargeRepository.save(new IncidentalCharge(null, savedStay, "Minibar",
+            record(StayEvent.charge(chargeRepository.save(new IncidentalCharge(null, savedStay, "Minibar",
                     "2x Soda, 1x Chips", new BigDecimal("12.50"),
-                    LocalDateTime.of(2026, 1, 25, 20, 30)));
-            chargeRepository.save(new IncidentalCharge(null, savedStay, "Room Service",
+                    LocalDateTime.of(2026, 1, 25, 20, 30)))));
+            record(StayEvent.charge(chargeRepository.save(new IncidentalCharge(null, savedStay, "Room Service",
                     "Dinner - Steak with salad", new BigDecimal("45.00"),
-                    LocalDateTime.of(2026, 1, 25, 19, 0)));
+                    LocalDateTime.of(2026, 1, 25, 19, 0)))));
 
             System.out.println("[StayManager] Loaded " + stayRepository.count() + " stays");
             System.out.println("[StayManager] Loaded " + chargeRepository.count() + " incidental charges");
@@ -94,6 +301,26 @@ public class StayManagerImpl implements StayService {
         }
     }
 
+    private void publishStay(Stay stay) {
+        HotelStatisticsService stats = statisticsService;
+        if (stats != null) {
+            stats.stayChanged(stay);
+        }
+        GuestProfileService profiles = guestProfileService;
+        if (profiles != null) {
+            profiles.stayChanged(stay);
+        }
+    }
+
+    /**
+     * " (VIP)" for a guest meeting the VIP thresholds - a map lookup, not a
+     * scan of their history.
+     */
+    private String vipMarker(Guest guest) {
+        GuestProfileService profiles = guestProfileService;
+        return guest != null && profiles != null && profiles.isVip(guest.getGuestId()) ? " (VIP)" : "";
+    }
+
     // ============ UC13: Check-In Operations ============
 
     @Override
@@ -121,14 +348,16 @@ public class StayManagerImpl implements StayService {
         roomService.updateRoomStatus(room.getRoomId(), ROOM_OCCUPIED);
 
         Stay saved = stayRepository.save(stay);
+        publishStay(saved);
+        record(StayEvent.checkIn(saved));
         System.out.println("[StayManager] Checked in guest " + reservation.getGuest().getName()
-                + " to room " + room.getRoomNumber());
+                + vipMarker(reservation.getGuest()) + " to room " + room.getRoomNumber());
         return saved;
     }
 
     @Override
     public Stay checkInWalkIn(Long guestId, Long roomId) {
-        Guest guest = guestService.getGuestById(guestId)
+        Guest guest = ReferenceDataCache.shared().getGuest(guestId, guestService::getGuestById)
                 .orElseThrow(() -> new IllegalArgumentException("Guest not found: " + guestId));
 
         Room room = roomService.getRoomById(roomId)
@@ -147,7 +376,9 @@ public class StayManagerImpl implements StayService {
         roomService.updateRoomStatus(roomId, ROOM_OCCUPIED);
 
         Stay saved = stayRepository.save(stay);
-        System.out.println("[StayManager] Walk-in check-in: " + guest.getName()
+        publishStay(saved);
+        record(StayEvent.checkIn(saved));
+        System.out.println("[StayManager] Walk-in check-in: " + guest.getName() + vipMarker(guest)
                 + " to room " + room.getRoomNumber());
         return saved;
     }
@@ -172,6 +403,8 @@ public class StayManagerImpl implements StayService {
         stay.setKeyCardNumber(keyCardNumber);
         roomService.updateRoomStatus(roomId, ROOM_OCCUPIED);
         stayRepository.save(stay);
+        folioCache.invalidate(stayId);
+        record(StayEvent.roomMove(stayId, roomId, keyCardNumber));
 
         System.out.println("[StayManager] Assigned room " + newRoom.getRoomNumber()
                 + " with key card " + keyCardNumber);
@@ -184,6 +417,7 @@ public class StayManagerImpl implements StayService {
 
         stay.setKeyCardNumber(keyCardNumber);
         stayRepository.save(stay);
+        record(StayEvent.keyCard(stayId, keyCardNumber));
 
         System.out.println("[StayManager] Issued new key card " + keyCardNumber
                 + " for stay " + stayId);
@@ -209,6 +443,8 @@ public class StayManagerImpl implements StayService {
         charge.setChargeTime(LocalDateTime.now());
 
         IncidentalCharge saved = chargeRepository.save(charge);
+        folioCache.invalidate(stayId);
+        record(StayEvent.charge(saved));
         System.out.println("[StayManager] Recorded " + serviceType + " charge: $" + amount
                 + " - " + description);
         return saved;
@@ -219,17 +455,35 @@ public class StayManagerImpl implements StayService {
         return chargeRepository.findByStayId(stayId);
     }
 
+    @Override
+    public Map<Long, List<IncidentalCharge>> getChargesForStays(Collection<Long> stayIds) {
+        return chargeRepository.findByStayIds(stayIds);
+    }
+
     @Override
     public BigDecimal getTotalIncidentalCharges(Long stayId) {
         return chargeRepository.getTotalChargesForStay(stayId);
     }
 
     @Override
-    public void voidCharge(Long chargeId) {
-        if (!chargeRepository.existsById(chargeId)) {
-            throw new IllegalArgumentException("Charge not found: " + chargeId);
+    public Map<Long, BigDecimal> getTotalIncidentalCharges(Collection<Long> stayIds) {
+        Map<Long, Long> minor = chargeRepository.getTotalChargesMinorByStay(stayIds);
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        for (Long stayId : stayIds) {
+            totals.put(stayId, Money.ofMinor(minor.getOrDefault(stayId, 0L)).toBigDecimal());
         }
+        return totals;
+    }
+
+    @Override
+    public void voidCharge(Long chargeId) {
+        IncidentalCharge charge = chargeRepository.findById(chargeId)
+                .orElseThrow(() -> new IllegalArgumentException("Charge not found: " + chargeId));
         chargeRepository.delete(chargeId);
+        if (charge.getStay() != null) {
+            folioCache.invalidate(charge.getStay().getStayId());
+            record(StayEvent.voidCharge(charge.getStay().getStayId(), chargeId));
+        }
         System.out.println("[StayManager] Voided charge " + chargeId);
     }
 
@@ -246,13 +500,15 @@ public class StayManagerImpl implements StayService {
 
         stay.setCheckOutTime(LocalDateTime.now());
         stay.setStatus(STATUS_CHECKED_OUT);
+        folioCache.invalidate(stayId);
 
         Room room = stay.getRoom();
         if (room != null) {
             roomService.updateRoomStatus(room.getRoomId(), ROOM_CLEANING);
         }
 
-        stayRepository.save(stay);
+        publishStay(stayRepository.save(stay));
+        record(StayEvent.checkOut(stay));
 
         // Generate invoice if billing service available
         if (billingService != null) {
@@ -269,11 +525,6 @@ public class StayManagerImpl implements StayService {
 
     @Override
     public BigDecimal getOutstandingBalance(Long stayId) {
-        Stay stay = stayRepository.findById(stayId).orElse(null);
-        if (stay == null) {
-            return BigDecimal.ZERO;
-        }
-
         // If billing service is available and an invoice exists, use billing's
         // outstanding balance
         if (billingService != null) {
@@ -284,23 +535,84 @@ public class StayManagerImpl implements StayService {
             }
         }
 
-        // No invoice yet - calculate raw charges
-        BigDecimal roomCharges = calculateRoomCharges(stayId);
-        BigDecimal incidentalTotal = chargeRepository.getTotalChargesForStay(stayId);
+        // No invoice yet - serve the cached folio or price the stay
+        LocalDate today = LocalDate.now();
+        TaxService tax = taxService;
+        long taxRules = tax != null ? tax.getRulesVersion() : NO_TAX_RULES;
+        FolioCache.Folio folio = folioCache.getCurrent(stayId, today, taxRules);
+        if (folio == null) {
+            long version = folioCache.version(stayId);
+            Stay stay = stayRepository.findById(stayId).orElse(null);
+            if (stay == null) {
+                return BigDecimal.ZERO;
+            }
+            folio = buildFolio(stay, today, tax, taxRules);
+            folioCache.put(stayId, version, folio);
+        }
+        return folio.getTotal().toBigDecimal();
+    }
 
-        BigDecimal subtotal = roomCharges.add(incidentalTotal);
-        BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.10));
+    /**
+     * Price a stay's folio: room charges + incidentals + tax. Tax comes from
+     * TaxService (room charges as one line for the nights stayed, each
+     * incidental by its service type), or a flat 10% while it is not bound.
+     */
+    private FolioCache.Folio buildFolio(Stay stay, LocalDate businessDate, TaxService taxService, long taxRules) {
+        RoomType roomType = stay.getRoom() != null ? stay.getRoom().getRoomType() : null;
+        Money nightlyRate = roomType == null ? null : roomType.getBasePriceMoney();
+        Money room = roomCharges(stay);
+        if (taxService == null) {
+            Money incidentals = Money.ofMinor(chargeRepository.getTotalChargesMinorForStay(stay.getStayId()));
+            Money tax = room.plus(incidentals).applyRate(TAX_RATE_BASIS_POINTS);
+            return new FolioCache.Folio(stay, nightlyRate, businessDate, room, incidentals, tax, taxRules);
+        }
 
-        return subtotal.add(tax);
+        long incidentals = 0L;
+        long tax = roomType != null
+                ? taxService.computeTaxMinor(TaxService.CHARGE_ROOM, roomType, stay.getGuest(),
+                        room.getMinorUnits(), nightsStayed(stay))
+                : 0L;
+        for (IncidentalCharge charge : chargeRepository.findByStayId(stay.getStayId())) {
+            Money amount = charge.getAmountMoney();
+            if (amount != null) {
+                incidentals += amount.getMinorUnits();
+                tax += taxService.computeTaxMinor(charge.getServiceType(), roomType, stay.getGuest(),
+                        amount.getMinorUnits(), 0L);
+            }
+        }
+        return new FolioCache.Folio(stay, nightlyRate, businessDate, room, Money.ofMinor(incidentals),
+                Money.ofMinor(tax), taxRules);
     }
 
     @Override
     public BigDecimal calculateRoomCharges(Long stayId) {
         Stay stay = stayRepository.findById(stayId).orElse(null);
-        if (stay == null || stay.getRoom() == null || stay.getRoom().getRoomType() == null) {
+        if (stay == null) {
             return BigDecimal.ZERO;
         }
+        return roomCharges(stay).toBigDecimal();
+    }
+
+    /**
+     * Room charges as nights stayed x nightly rate, minimum one night.
+     */
+    private Money roomCharges(Stay stay) {
+        if (stay.getRoom() == null || stay.getRoom().getRoomType() == null) {
+            return Money.ZERO;
+        }
+
+        Money rate = stay.getRoom().getRoomType().getBasePriceMoney();
+        if (rate == null) {
+            rate = DEFAULT_RATE;
+        }
 
+        return rate.times(nightsStayed(stay));
+    }
+
+    /**
+     * Nights from check-in to check-out (or now), minimum one night.
+     */
+    private static long nightsStayed(Stay stay) {
         LocalDateTime checkIn = stay.getCheckInTime();
         LocalDateTime checkOut = stay.getCheckOutTime() != null
                 ? stay.getCheckOutTime()
@@ -310,13 +622,7 @@ public class StayManagerImpl implements StayService {
         if (nights < 1) {
             nights = 1; // Minimum 1 night charge
         }
-
-        BigDecimal rate = stay.getRoom().getRoomType().getBasePrice();
-        if (rate == null) {
-            rate = BigDecimal.valueOf(100.00); // Default rate
-        }
-
-        return rate.multiply(BigDecimal.valueOf(nights));
+        return nights;
     }
 
     // ============ Stay Queries ============
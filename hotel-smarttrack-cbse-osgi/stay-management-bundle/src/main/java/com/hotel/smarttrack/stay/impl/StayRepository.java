@@ -19,11 +19,21 @@ public class StayRepository {
     public Stay save(Stay entity) {
         if (entity.getStayId() == null) {
             entity.setStayId(idGenerator.getAndIncrement());
+        } else {
+            reserveId(entity.getStayId());
         }
         storage.put(entity.getStayId(), entity);
         return entity;
     }
 
+    /**
+     * Keep generated IDs ahead of an ID taken in the stay event log, whether
+     * or not its record was restored.
+     */
+    public void reserveId(Long id) {
+        idGenerator.accumulateAndGet(id + 1, Math::max);
+    }
+
     public Optional<Stay> findById(Long id) {
         return Optional.ofNullable(storage.get(id));
     }
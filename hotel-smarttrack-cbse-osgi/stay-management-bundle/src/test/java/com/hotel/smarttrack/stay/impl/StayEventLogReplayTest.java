@@ -0,0 +1,218 @@
+package com.hotel.smarttrack.stay.impl;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.IncidentalCharge;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.entity.StayEvent;
+import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.ReservationService;
+import com.hotel.smarttrack.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarting StayManagerImpl rebuilds its stays from the event log against
+ * guest and room bundles that have reseeded: in-house rooms are occupied
+ * again, and stays whose guest is gone are skipped without reusing their IDs.
+ */
+class StayEventLogReplayTest {
+
+    private static final String LOG_DIR_PROPERTY = "hotel.smarttrack.stay.eventlog.dir";
+    private static final RoomType STANDARD = new RoomType(1L, "Standard", "Standard room", 2,
+            new BigDecimal("100.00"), new BigDecimal("0.10"));
+
+    @TempDir
+    Path logDir;
+
+    private StayManagerImpl running;
+
+    @BeforeEach
+    void useTempLog() {
+        System.setProperty(LOG_DIR_PROPERTY, logDir.toString());
+    }
+
+    @AfterEach
+    void stop() {
+        if (running != null) {
+            running.deactivate();
+        }
+        System.clearProperty(LOG_DIR_PROPERTY);
+    }
+
+    @Test
+    void replayRestoresStaysChargesAndOccupiedRooms() {
+        StayManagerImpl first = start(new Hotel(1L));
+        Stay inHouse = first.checkInWalkIn(1L, 1L);
+        first.recordCharge(inHouse.getStayId(), "Minibar", "Soda", new BigDecimal("5.00"));
+        Stay departed = first.checkInWalkIn(1L, 2L);
+        first.checkOutGuest(departed.getStayId());
+        first.deactivate();
+
+        // The room bundle reseeds with every room available
+        Hotel reseeded = new Hotel(1L);
+        StayManagerImpl second = start(reseeded);
+
+        List<Stay> active = second.getActiveStays();
+        assertEquals(1, active.size());
+        assertEquals(inHouse.getStayId(), active.get(0).getStayId());
+        List<IncidentalCharge> charges = second.getChargesForStay(inHouse.getStayId());
+        assertEquals(1, charges.size());
+        assertEquals(0, new BigDecimal("5.00").compareTo(charges.get(0).getAmount()));
+        assertEquals("CHECKED_OUT", second.getStayById(departed.getStayId()).orElseThrow().getStatus());
+        assertEquals("OCCUPIED", reseeded.rooms.get(1L).getStatus());
+        assertEquals("AVAILABLE", reseeded.rooms.get(2L).getStatus());
+    }
+
+    @Test
+    void replaySkipsStaysWhoseGuestIsGone() {
+        StayManagerImpl first = start(new Hotel(1L, 2L));
+        Stay lost = first.checkInWalkIn(2L, 1L);
+        IncidentalCharge lostCharge = first.recordCharge(lost.getStayId(), "Spa", "Massage",
+                new BigDecimal("80.00"));
+        Stay kept = first.checkInWalkIn(1L, 2L);
+        first.deactivate();
+
+        // Guest 2 was created at runtime and is not part of the reseeded data
+        Hotel reseeded = new Hotel(1L);
+        StayManagerImpl second = start(reseeded);
+
+        assertTrue(second.getStayById(lost.getStayId()).isEmpty());
+        assertTrue(second.getChargesForStay(lost.getStayId()).isEmpty());
+        assertEquals("AVAILABLE", reseeded.rooms.get(1L).getStatus());
+        assertTrue(second.getStayById(kept.getStayId()).isPresent());
+        assertEquals("OCCUPIED", reseeded.rooms.get(2L).getStatus());
+
+        // New stays and charges never reuse the skipped IDs
+        Stay next = second.checkInWalkIn(1L, 1L);
+        IncidentalCharge nextCharge = second.recordCharge(next.getStayId(), "Minibar", "Water",
+                new BigDecimal("2.00"));
+        assertTrue(next.getStayId() > lost.getStayId());
+        assertTrue(nextCharge.getChargeId() > lostCharge.getChargeId());
+    }
+
+    @Test
+    @Tag("performance")
+    void replayExceedsOneHundredThousandEventsPerSecond() throws Exception {
+        int stays = 20_000;
+        int chargesPerStay = 9;
+        long chargeId = 1L;
+        LocalDateTime time = LocalDateTime.of(2026, 1, 25, 14, 0);
+        try (StayEventLog log = new StayEventLog(logDir)) {
+            for (long stayId = 1; stayId <= stays; stayId++) {
+                log.append(new StayEvent(0L, StayEvent.Type.CHECK_IN, stayId, time, 1L, 1L, null, null,
+                        0L, "KC" + stayId, null, null));
+                for (int i = 0; i < chargesPerStay; i++) {
+                    log.append(new StayEvent(0L, StayEvent.Type.CHARGE, stayId, time, null, null, null,
+                            chargeId++, 1_250L, null, "Minibar", "Soda"));
+                }
+            }
+        }
+        long events = (long) stays * (chargesPerStay + 1);
+
+        long start = System.nanoTime();
+        StayManagerImpl manager = start(new Hotel(1L));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertEquals(stays, manager.getActiveStays().size());
+        double perSecond = events / seconds;
+        System.out.printf("[StayEventLogReplayTest] Replayed %d events in %.3f s (%.0f events/s)%n",
+                events, seconds, perSecond);
+        assertTrue(perSecond > 100_000, "replay rate " + perSecond + " events/s");
+    }
+
+    // ============ Helper Methods ============
+
+    private StayManagerImpl start(Hotel hotel) {
+        StayManagerImpl manager = new StayManagerImpl();
+        inject(manager, "guestService", hotel.guestService());
+        inject(manager, "roomService", hotel.roomService());
+        inject(manager, "reservationService", stub(ReservationService.class, Map.of()));
+        manager.activate();
+        running = manager;
+        return manager;
+    }
+
+    private static void inject(StayManagerImpl manager, String field, Object service) {
+        try {
+            Field f = StayManagerImpl.class.getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(manager, service);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A service whose listed methods are implemented by the given handlers;
+     * every other method returns an empty Optional, an empty list or null.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            var handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            if (method.getReturnType() == Optional.class) {
+                return Optional.empty();
+            }
+            if (method.getReturnType() == List.class) {
+                return List.of();
+            }
+            if (method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Guests and two available rooms as the other bundles seed them.
+     */
+    private static final class Hotel {
+        private final Map<Long, Guest> guests = new HashMap<>();
+        private final Map<Long, Room> rooms = new HashMap<>();
+
+        Hotel(Long... guestIds) {
+            for (Long id : guestIds) {
+                guests.put(id, new Guest(id, "Guest " + id, "guest" + id + "@example.com", "+1-555-000" + id,
+                        "ID" + id, "ACTIVE", null));
+            }
+            rooms.put(1L, new Room(1L, "101", 1, STANDARD, "AVAILABLE"));
+            rooms.put(2L, new Room(2L, "102", 1, STANDARD, "AVAILABLE"));
+        }
+
+        GuestService guestService() {
+            return stub(GuestService.class, Map.of(
+                    "getGuestById", args -> Optional.ofNullable(guests.get((Long) args[0]))));
+        }
+
+        RoomService roomService() {
+            return stub(RoomService.class, Map.of(
+                    "getRoomById", args -> Optional.ofNullable(rooms.get((Long) args[0])),
+                    "updateRoomStatus", args -> {
+                        rooms.get((Long) args[0]).setStatus((String) args[1]);
+                        return null;
+                    }));
+        }
+    }
+}
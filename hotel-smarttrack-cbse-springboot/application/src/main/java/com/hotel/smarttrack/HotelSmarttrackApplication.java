@@ -2,12 +2,15 @@ package com.hotel.smarttrack;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class.
  * This assembles all components and starts the Hotel SmartTrack system.
+ * Scheduling is enabled for back-office jobs such as the night audit.
  */
 @SpringBootApplication
+@EnableScheduling
 public class HotelSmarttrackApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,112 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.RoomService;
+import com.hotel.smarttrack.service.StayService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+/**
+ * A batch partition that fails to save falls back to invoicing its stays one
+ * by one; only stays that still fail are reported, after the rest of the
+ * batch is invoiced.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class BatchInvoiceFailureTest {
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @MockitoSpyBean
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private StayService stayService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @AfterEach
+    void restoreRepository() {
+        reset(invoiceRepository);
+    }
+
+    @Test
+    void failedPartitionIsInvoicedStayByStay() {
+        Stay first = checkIn("B901");
+        Stay second = checkIn("B902");
+        doThrow(new ConcurrencyFailureException("Invoice changed concurrently"))
+                .when(invoiceRepository).saveAll(anyList());
+
+        List<Invoice> invoices = billingService.generateInvoices(List.of(first.getStayId(), second.getStayId()));
+
+        assertEquals(2, invoices.size());
+        assertEquals(first.getStayId(), invoices.get(0).getStay().getStayId());
+        assertEquals(second.getStayId(), invoices.get(1).getStay().getStayId());
+        assertTrue(invoices.get(0).isInterim());
+        assertTrue(billingService.getInvoiceByStay(second.getStayId()).isPresent());
+    }
+
+    @Test
+    void staysThatStillFailAreReportedAfterTheRestAreInvoiced() {
+        Stay invoiced = checkIn("B903");
+        Stay failing = checkIn("B904");
+        doThrow(new ConcurrencyFailureException("Invoice changed concurrently"))
+                .when(invoiceRepository).saveAll(anyList());
+        doThrow(new ConcurrencyFailureException("Invoice changed concurrently"))
+                .when(invoiceRepository).save(argThat(invoice -> invoice != null && invoice.getStay() != null
+                        && failing.getStayId().equals(invoice.getStay().getStayId())));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> billingService.generateInvoices(List.of(invoiced.getStayId(), failing.getStayId())));
+
+        assertTrue(e.getMessage().contains(String.valueOf(failing.getStayId())), e.getMessage());
+        assertTrue(billingService.getInvoiceByStay(invoiced.getStayId()).isPresent());
+        assertTrue(billingService.getInvoiceByStay(failing.getStayId()).isEmpty());
+
+        // Invoicing the failed stay again is safe once the conflict is gone
+        reset(invoiceRepository);
+        List<Invoice> retried = billingService.generateInvoices(List.of(invoiced.getStayId(), failing.getStayId()));
+        assertEquals(failing.getStayId(), retried.get(1).getStay().getStayId());
+    }
+
+    // ============ Helper Methods ============
+
+    private Stay checkIn(String roomNumber) {
+        RoomType roomType = roomService.getAllRoomTypes().get(0);
+        Guest guest = guestService.createGuest("Batch Guest " + roomNumber, roomNumber + "@example.com",
+                "+1-555-" + roomNumber.substring(1), "BATCH" + roomNumber);
+        Room room = roomService.createRoom(roomNumber, 9, roomType.getRoomTypeId());
+        return stayService.checkInWalkIn(guest.getGuestId(), room.getRoomId());
+    }
+}
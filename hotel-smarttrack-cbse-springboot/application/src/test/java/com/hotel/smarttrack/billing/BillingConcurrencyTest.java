@@ -0,0 +1,144 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.service.BillingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test for concurrent payments through BillingManager.
+ * 32 threads pay the same few invoices in full; optimistic @Version retries
+ * must keep every accepted payment and never overpay an invoice.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class BillingConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int INVOICES = 4;
+    private static final BigDecimal INVOICE_TOTAL = new BigDecimal("50.00");
+    private static final BigDecimal PAYMENT = new BigDecimal("1.00");
+    private static final int MAX_ATTEMPTS_PER_THREAD = 100;
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentPaymentsNeverOverpayOrLoseUpdates() throws Exception {
+        List<Long> invoiceIds = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            invoiceIds.add(invoiceRepository.save(newInvoice()).getInvoiceId());
+        }
+        Map<Long, AtomicInteger> accepted = new ConcurrentHashMap<>();
+        invoiceIds.forEach(id -> accepted.put(id, new AtomicInteger()));
+        AtomicInteger gaveUp = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        Set<Long> settled = ConcurrentHashMap.newKeySet();
+
+        // 32 threads pay random open invoices until all 200 dollars are paid
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < MAX_ATTEMPTS_PER_THREAD && settled.size() < INVOICES; i++) {
+                        Long id = invoiceIds.get(ThreadLocalRandom.current().nextInt(INVOICES));
+                        if (settled.contains(id)) {
+                            continue;
+                        }
+                        attempts.incrementAndGet();
+                        try {
+                            billingService.processPayment(id, PAYMENT, "Cash");
+                            accepted.get(id).incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            // Invoice already settled
+                            settled.add(id);
+                        } catch (IllegalStateException e) {
+                            // Retries exhausted - rejected, not lost
+                            gaveUp.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (Long id : invoiceIds) {
+            tx.executeWithoutResult(status -> {
+                Invoice invoice = invoiceRepository.findById(id).orElseThrow();
+                BigDecimal recorded = BigDecimal.ZERO;
+                for (Payment p : invoice.getPayments()) {
+                    recorded = recorded.add(p.getAmount());
+                }
+                int payments = invoice.getPayments().size();
+
+                assertEquals(accepted.get(id).get(), payments, "lost payment on invoice " + id);
+                assertEquals(0, recorded.compareTo(invoice.getAmountPaid()), "invoice " + id + " amount paid");
+                assertEquals(0, INVOICE_TOTAL.subtract(recorded).compareTo(invoice.getOutstandingBalance()));
+                assertEquals(0, PAYMENT.multiply(BigDecimal.valueOf(accepted.get(id).get())).compareTo(recorded),
+                        "invoice " + id + " recorded total");
+                assertEquals(0, INVOICE_TOTAL.compareTo(recorded), "invoice " + id + " not fully paid");
+            });
+        }
+        // Retries absorb nearly all conflicts; a rejected payment is the exception
+        assertTrue(gaveUp.get() * 20 <= attempts.get(),
+                gaveUp.get() + " of " + attempts.get() + " payments gave up");
+    }
+
+    private static Invoice newInvoice() {
+        Invoice invoice = new Invoice();
+        invoice.setRoomCharges(INVOICE_TOTAL);
+        invoice.setIncidentalCharges(BigDecimal.ZERO);
+        invoice.setTaxes(BigDecimal.ZERO);
+        invoice.setDiscounts(BigDecimal.ZERO);
+        invoice.setTotalAmount(INVOICE_TOTAL);
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        invoice.setOutstandingBalance(INVOICE_TOTAL);
+        invoice.setStatus("Issued");
+        invoice.setIssuedTime(LocalDateTime.now());
+        return invoice;
+    }
+}
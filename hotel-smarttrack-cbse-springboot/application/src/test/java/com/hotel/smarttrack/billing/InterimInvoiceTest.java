@@ -0,0 +1,118 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.RoomNightCharge;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.RoomNightChargeRepository;
+import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.RoomService;
+import com.hotel.smarttrack.service.StayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An interim invoice raised while a stay is in house must be turned into a
+ * final invoice at check-out that bills every night and incidental of the
+ * stay, keeping the payment taken against the interim invoice.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class InterimInvoiceTest {
+
+    private static final BigDecimal NIGHT = new BigDecimal("100.00");
+    private static final BigDecimal NIGHT_TAX = new BigDecimal("10.00");
+    private static final BigDecimal PAYMENT = new BigDecimal("50.00");
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private StayService stayService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private StayRepository stayRepository;
+
+    @Autowired
+    private RoomNightChargeRepository nightChargeRepository;
+
+    @Test
+    void checkoutRepricesInterimInvoiceForTheWholeStay() {
+        LocalDate today = LocalDate.now();
+        RoomType roomType = roomService.getAllRoomTypes().get(0);
+        Guest guest = guestService.createGuest("Interim Guest", "interim@example.com", "+1-555-0800", "INTERIM1");
+        Room room = roomService.createRoom("I801", 8, roomType.getRoomTypeId());
+        Stay stay = stayService.checkInWalkIn(guest.getGuestId(), room.getRoomId());
+        stay.setCheckInTime(today.minusDays(3).atTime(15, 0));
+        stay = stayRepository.save(stay);
+
+        // Month-end: two of the three nights so far are posted
+        postNight(stay, today.minusDays(3));
+        postNight(stay, today.minusDays(2));
+        Invoice interim = billingService.generateInvoices(List.of(stay.getStayId())).get(0);
+        assertTrue(interim.isInterim());
+        // The unposted third night is billed at the room rate
+        assertEquals(0, new BigDecimal("200.00").add(roomType.getBasePrice()).compareTo(interim.getRoomCharges()));
+        assertEquals(0, billingService.computeTotalCharges(stay.getStayId()).compareTo(interim.getTotalAmount()));
+        billingService.processPayment(interim.getInvoiceId(), PAYMENT, "Cash");
+
+        // The rest of the stay: the last night posted, an incidental, check-out
+        postNight(stay, today.minusDays(1));
+        stayService.recordCharge(stay.getStayId(), "Minibar", "Drinks", new BigDecimal("40.00"));
+        stayService.checkOutGuest(stay.getStayId());
+
+        Invoice invoice = billingService.getInvoiceByStay(stay.getStayId()).orElseThrow();
+        BigDecimal total = billingService.computeTotalCharges(stay.getStayId());
+        assertEquals(interim.getInvoiceId(), invoice.getInvoiceId());
+        assertFalse(invoice.isInterim());
+        assertEquals(0, new BigDecimal("300.00").compareTo(invoice.getRoomCharges()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(invoice.getIncidentalCharges()));
+        assertEquals(0, total.compareTo(invoice.getTotalAmount()));
+        assertTrue(invoice.getTotalAmount().compareTo(interim.getTotalAmount()) > 0);
+        assertEquals(0, PAYMENT.compareTo(invoice.getAmountPaid()));
+        assertEquals(0, total.subtract(PAYMENT).compareTo(invoice.getOutstandingBalance()));
+        assertEquals("Partially Paid", invoice.getStatus());
+
+        // Invoicing the checked-out stay again returns the final invoice as it is
+        Invoice again = billingService.generateInvoice(stay.getStayId());
+        assertEquals(invoice.getInvoiceId(), again.getInvoiceId());
+        assertEquals(0, invoice.getTotalAmount().compareTo(again.getTotalAmount()));
+    }
+
+    private void postNight(Stay stay, LocalDate businessDate) {
+        RoomNightCharge charge = new RoomNightCharge();
+        charge.setStay(stay);
+        charge.setBusinessDate(businessDate);
+        charge.setRoomNumber(stay.getRoom().getRoomNumber());
+        charge.setAmount(NIGHT);
+        charge.setTaxRate(new BigDecimal("0.10"));
+        charge.setTaxAmount(NIGHT_TAX);
+        charge.setPostedTime(LocalDateTime.now());
+        nightChargeRepository.save(charge);
+    }
+}
@@ -0,0 +1,84 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lapsed invoices move to Overdue, including ones without a status; an
+ * invoice skipped because its due date moved on stays tracked under the new
+ * date.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class OverdueInvoiceSchedulerTest {
+
+    private static final BigDecimal TOTAL = new BigDecimal("80.00");
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private OverdueInvoiceScheduler scheduler;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Test
+    void lapsedInvoiceWithoutStatusBecomesOverdue() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Invoice invoice = invoiceRepository.save(newInvoice(null, yesterday));
+        scheduler.track(invoice.getInvoiceId(), yesterday);
+
+        assertEquals(1, scheduler.runDue());
+        assertEquals(OverdueInvoiceScheduler.STATUS_OVERDUE,
+                invoiceRepository.findById(invoice.getInvoiceId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void reissuedInvoiceIsRequeuedUnderItsCurrentDueDate() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate nextWeek = LocalDate.now().plusDays(7);
+        // Tracked under its first due date, then re-issued with new terms
+        Invoice invoice = invoiceRepository.save(newInvoice("Issued", nextWeek));
+        int before = scheduler.size();
+        scheduler.track(invoice.getInvoiceId(), yesterday);
+
+        assertEquals(0, scheduler.runDue());
+        assertEquals(before + 1, scheduler.size());
+        assertEquals("Issued", invoiceRepository.findById(invoice.getInvoiceId()).orElseThrow().getStatus());
+
+        // A paid invoice is not requeued
+        Invoice paid = invoiceRepository.save(newInvoice(OverdueInvoiceScheduler.STATUS_PAID, yesterday));
+        scheduler.track(paid.getInvoiceId(), yesterday);
+        assertEquals(0, scheduler.runDue());
+        assertEquals(before + 1, scheduler.size());
+    }
+
+    // ============ Helper Methods ============
+
+    private static Invoice newInvoice(String status, LocalDate dueDate) {
+        Invoice invoice = new Invoice();
+        invoice.setRoomCharges(TOTAL);
+        invoice.setIncidentalCharges(BigDecimal.ZERO);
+        invoice.setTaxes(BigDecimal.ZERO);
+        invoice.setDiscounts(BigDecimal.ZERO);
+        invoice.setTotalAmount(TOTAL);
+        invoice.setAmountPaid(BigDecimal.ZERO);
+        invoice.setOutstandingBalance(TOTAL);
+        invoice.setStatus(status);
+        invoice.setIssuedTime(LocalDateTime.now());
+        invoice.setDueDate(dueDate);
+        return invoice;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.service.GuestService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk import of a tenth of the 500k-guests-a-minute target. The bound
+ * leaves room for a single-CPU build machine, where validation and writes
+ * cannot overlap; a laptop should finish in about six seconds. Runs against
+ * its own database so the bulk guests do not turn up in other tests'
+ * searches.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:guestimportperf"
+})
+class GuestImportPerformanceTest {
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Test
+    void importsFiftyThousandGuestsInUnderTwentySeconds() {
+        int rows = 50_000;
+        StringBuilder csv = new StringBuilder("name,email,phone,identification number\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Bulk Guest ").append(i).append(",bulk").append(i).append("@example.com,+1-555-")
+                    .append(String.format("%07d", i)).append(",BULK").append(i).append('\n');
+        }
+
+        long start = System.nanoTime();
+        GuestImportReport report = guestService.importGuests(GuestImportTest.stream(csv.toString()), "bulk.csv");
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("[GuestImportPerformanceTest] Imported %d guests in %.2f s (%.0f rows/s)%n",
+                report.getImported(), seconds, report.getImported() / seconds);
+        assertEquals(rows, report.getImported());
+        assertTrue(seconds < 20.0, "import took " + seconds + " s");
+    }
+}
@@ -0,0 +1,90 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.service.GuestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk import inserts the valid rows of a CSV and reports every rejected
+ * row by line number without stopping; imported guests are searchable.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class GuestImportTest {
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Test
+    void validRowsAreImportedAndEveryRejectIsReported() {
+        guestService.createGuest("Existing Import", "imp.existing@example.com", "+1-555-1000", "IMP1000");
+        String csv = """
+                Identification Number,Name,Email,Phone,Notes
+                IMP1001,"Quinn, Avery",Avery.Quinn@Example.COM,+1-555-1001,vip
+                IMP1002,Bo Lind,not-an-email,+1-555-1002,
+                IMP1003,Cara Holt,avery.quinn@example.com,+1-555-1003,
+                IMP1004,Dev Rao,,+1-555-1004,
+                IMP1000,Eli Park,eli.park@example.com,+1-555-1005,
+                IMP1006,Fay Moss,IMP.EXISTING@example.com,+1-555-1006,
+                IMP1001,Gus Hale,gus.hale@example.com,+1-555-1007,
+                IMP1008,Hana Ito,hana.ito@example.com,+1-555-1008,
+                """;
+
+        GuestImportReport report = guestService.importGuests(stream(csv), "test.csv");
+
+        assertEquals(8, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(6, report.getRejected());
+        Map<Long, String> errors = report.getErrors().stream().collect(Collectors.toMap(
+                GuestImportReport.RowError::getLineNumber, GuestImportReport.RowError::getMessage));
+        assertEquals(Map.of(
+                3L, "Invalid email format.",
+                4L, "Email already used on line 2.",
+                5L, "Email is required.",
+                6L, "Identification Number already exists.",
+                7L, "Email already exists.",
+                8L, "Identification Number already used on line 2."), errors);
+
+        // Email normalized, quoted comma kept, and the guest is searchable
+        List<Guest> quinn = guestService.searchGuests("avery.quinn@");
+        assertEquals(1, quinn.size());
+        assertEquals("Quinn, Avery", quinn.get(0).getName());
+        assertEquals("avery.quinn@example.com", quinn.get(0).getEmail());
+        assertEquals(1, guestService.searchGuests("hana ito").size());
+    }
+
+    @Test
+    void headerlessFileUsesTheDefaultColumnOrder() {
+        String csv = "Ivy Lane,ivy.lane@example.com,+1-555-1010,IMP1010\n"
+                + "Jay Bell,jay.bell@example.com,+1-555-1011,IMP1011\n";
+
+        GuestImportReport report = guestService.importGuests(stream(csv), "plain.csv");
+
+        assertEquals(2, report.getImported());
+        assertTrue(report.getErrors().isEmpty());
+        assertEquals("IMP1011", guestService.searchGuests("jay.bell@").get(0).getIdentificationNumber());
+    }
+
+    // ============ Helper Methods ============
+
+    static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,101 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.service.GuestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guest search finds the term anywhere in a guest's name, email, phone or
+ * ID number, ignoring case, as the substring scan it replaced did.
+ * Misspelled and sound-alike names find the guest. A duplicate merged into
+ * another guest is no longer found.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class GuestSearchTest {
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Test
+    void searchMatchesSubstringsOfEveryField() {
+        Guest johnson = guestService.createGuest("Mara Johnson", "mara.j@example.com", "+1-555-0900", "SRCH0900");
+        Guest sonia = guestService.createGuest("Sonia Vance", "sv@example.com", "+1-555-0901", "SRCH0901");
+
+        // The middle of a word, and a word start ranked first
+        assertEquals(List.of(sonia.getGuestId(), johnson.getGuestId()), ids(guestService.searchGuests("son")));
+        assertEquals(List.of(johnson.getGuestId()), ids(guestService.searchGuests("HNSO")));
+        assertEquals(List.of(johnson.getGuestId()), ids(guestService.searchGuests("a joh")));
+        assertEquals(List.of(johnson.getGuestId()), ids(guestService.searchGuests("ara.j@exam")));
+        assertEquals(List.of(sonia.getGuestId()), ids(guestService.searchGuests("0901")));
+        assertEquals(List.of(sonia.getGuestId()), ids(guestService.searchGuests("15550901")));
+        assertEquals(List.of(johnson.getGuestId()), ids(guestService.searchGuests("h0900")));
+        assertTrue(guestService.searchGuests("johnsonx").isEmpty());
+
+        // Shorter than a trigram: scanned
+        assertTrue(ids(guestService.searchGuests("vA")).contains(sonia.getGuestId()));
+
+        // Updates replace the old trigrams
+        johnson.setName("Mara Jones");
+        guestService.updateGuest(johnson);
+        assertTrue(guestService.searchGuests("hnso").isEmpty());
+        assertEquals(List.of(johnson.getGuestId()), ids(guestService.searchGuests("ara jon")));
+    }
+
+    @Test
+    void misspelledNamesFindTheGuest() {
+        Guest smith = guestService.createGuest("Johnathan Smithfield", "j.smithfield@example.com", "+1-555-0920",
+                "SRCH0920");
+        Guest gonzalez = guestService.createGuest("Mariela Gonzalvez", "m.gonzalvez@example.com", "+1-555-0921",
+                "SRCH0921");
+
+        assertEquals(smith.getGuestId(), ids(guestService.findSimilarGuests("Jonathan Smythfield")).get(0));
+        assertEquals(smith.getGuestId(), ids(guestService.findSimilarGuests("smithfield johnathan")).get(0));
+        assertEquals(gonzalez.getGuestId(), ids(guestService.findSimilarGuests("Mariella Gonzalves")).get(0));
+        assertFalse(ids(guestService.findSimilarGuests("Jonathan Smythfield")).contains(gonzalez.getGuestId()));
+        assertTrue(guestService.findSimilarGuests("Xavier Smythfield").isEmpty());
+        assertTrue(guestService.findSimilarGuests("  ").isEmpty());
+
+        // A renamed guest is found under the new name only
+        smith.setName("Johnathan Carterton");
+        guestService.updateGuest(smith);
+        assertFalse(ids(guestService.findSimilarGuests("Jonathan Smythfield")).contains(smith.getGuestId()));
+        assertEquals(smith.getGuestId(), ids(guestService.findSimilarGuests("Johnathan Cartertn")).get(0));
+    }
+
+    @Test
+    void mergedDuplicateDropsOutOfSearch() {
+        Guest survivor = guestService.createGuest("Petra Quill", "petra.quill@example.com", "+1-555-0910", "SRCH0910");
+        Guest duplicate = guestService.createGuest("Petra Quillon", "pquillon@example.com", "+1-555-0911", "SRCH0911");
+        assertEquals(List.of(survivor.getGuestId(), duplicate.getGuestId()), ids(guestService.searchGuests("quill")));
+
+        guestService.mergeGuests(survivor.getGuestId(), duplicate.getGuestId());
+
+        assertEquals(List.of(survivor.getGuestId()), ids(guestService.searchGuests("quill")));
+        assertTrue(guestService.searchGuests("quillon").isEmpty());
+        assertTrue(guestService.searchGuests("pquillon@").isEmpty());
+        assertTrue(guestService.searchGuests("11").stream()
+                .noneMatch(g -> g.getGuestId().equals(duplicate.getGuestId())));
+        assertFalse(ids(guestService.findSimilarGuests("Petra Quillon")).contains(duplicate.getGuestId()));
+        assertFalse(guestService.completeGuestNames("petra").containsKey(duplicate.getGuestId()));
+    }
+
+    // ============ Helper Methods ============
+
+    private static List<Long> ids(List<Guest> guests) {
+        return guests.stream().map(Guest::getGuestId).toList();
+    }
+}
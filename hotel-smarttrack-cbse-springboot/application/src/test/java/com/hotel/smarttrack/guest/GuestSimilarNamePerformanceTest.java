@@ -0,0 +1,121 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.service.GuestService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fuzzy name lookups stay under 20 ms on a large guest base. Runs against
+ * its own database so the bulk guests do not turn up in other tests'
+ * searches.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.datasource.url=jdbc:h2:mem:guestsimilarperf"
+})
+class GuestSimilarNamePerformanceTest {
+
+    private static final String[] ONSETS = { "b", "ch", "d", "f", "g", "h", "j", "k", "l", "m", "n", "p", "r",
+            "s", "sh", "t", "v", "w", "z" };
+    private static final String[] VOWELS = { "a", "e", "i", "o", "u", "ai", "ou" };
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Test
+    void fuzzyLookupStaysUnderTwentyMilliseconds() {
+        // 50k guests sharing 1k first names and 20k surnames, as real names do
+        Random random = new Random(9);
+        List<String> firstNames = randomTokens(1_000, random);
+        List<String> surnames = randomTokens(20_000, random);
+        int guests = 50_000;
+        List<String> names = new ArrayList<>(guests);
+        StringBuilder csv = new StringBuilder("name,email,phone,identification number\n");
+        for (int i = 0; i < guests; i++) {
+            String name = firstNames.get(random.nextInt(firstNames.size())) + " "
+                    + surnames.get(random.nextInt(surnames.size()));
+            names.add(name);
+            csv.append(name).append(",fuzzy").append(i).append("@example.com,+1-555-")
+                    .append(String.format("%07d", i)).append(",FUZZY").append(i).append('\n');
+        }
+        assertEquals(guests, guestService.importGuests(GuestImportTest.stream(csv.toString()), "names.csv")
+                .getImported());
+
+        // Warm up the JIT and the database's query plans first
+        lookUpMisspelled(names, 100, random);
+        int queries = 300;
+        long start = System.nanoTime();
+        int found = lookUpMisspelled(names, queries, random);
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / queries;
+
+        System.out.printf("[GuestSimilarNamePerformanceTest] %d fuzzy lookups over %d guests: %.2f ms each, "
+                + "%d found%n", queries, guests, millis, found);
+        assertTrue(found > queries * 9 / 10, found + " of " + queries + " misspelled guests found");
+        assertTrue(millis < 20.0, "lookup took " + millis + " ms");
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Look up random guests with a typo in the first name.
+     *
+     * @return Number of lookups that found the guest
+     */
+    private int lookUpMisspelled(List<String> names, int queries, Random random) {
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            String[] parts = name.split(" ");
+            List<Guest> similar = guestService.findSimilarGuests(typo(parts[0], random) + " " + parts[1]);
+            if (similar.stream().anyMatch(g -> g.getName().equals(name))) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static List<String> randomTokens(int count, Random random) {
+        Set<String> tokens = new LinkedHashSet<>();
+        while (tokens.size() < count) {
+            StringBuilder sb = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                sb.append(ONSETS[random.nextInt(ONSETS.length)]).append(VOWELS[random.nextInt(VOWELS.length)]);
+            }
+            tokens.add(Character.toUpperCase(sb.charAt(0)) + sb.substring(1));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * One substitution, deletion or insertion somewhere in the token.
+     */
+    private static String typo(String token, Random random) {
+        int at = random.nextInt(token.length());
+        char letter = (char) ('a' + random.nextInt(26));
+        return switch (random.nextInt(3)) {
+            case 0 -> token.substring(0, at) + letter + token.substring(at + 1);
+            case 1 -> token.substring(0, at) + token.substring(at + 1);
+            default -> token.substring(0, at) + letter + token.substring(at);
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.hotel.smarttrack.stay;
+
+import com.hotel.smarttrack.MainMenuConsole;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.RoomNightCharge;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.RoomNightChargeRepository;
+import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.RoomService;
+import com.hotel.smarttrack.service.StayService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Re-running the night audit over a batch in which one stay is already
+ * posted must still post every other stay of the batch, exactly once.
+ */
+@SpringBootTest(properties = "spring.sql.init.mode=never")
+class NightAuditJobTest {
+
+    private static final int STAYS = 5;
+
+    // Keep the interactive console from reading stdin during the test
+    @MockitoBean
+    private MainMenuConsole mainMenuConsole;
+
+    // Lets the test hide the pre-posted stay from the audit's first read
+    @MockitoSpyBean
+    private RoomNightChargeRepository nightChargeRepository;
+
+    @Autowired
+    private NightAuditJob nightAuditJob;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private StayService stayService;
+
+    @Test
+    void rerunWithOneStayPostedPostsEveryOtherStay() {
+        LocalDate businessDate = LocalDate.now();
+        RoomType roomType = roomService.getAllRoomTypes().get(0);
+        List<Stay> stays = new ArrayList<>();
+        for (int i = 0; i < STAYS; i++) {
+            Guest guest = guestService.createGuest("Audit Guest " + i, "audit" + i + "@example.com",
+                    "+1-555-09" + i, "AUDIT" + i);
+            Room room = roomService.createRoom("A9" + i, 9, roomType.getRoomTypeId());
+            stays.add(stayService.checkInWalkIn(guest.getGuestId(), room.getRoomId()));
+        }
+
+        // One stay posted by an earlier run the audit does not know about yet
+        Stay prePosted = stays.get(2);
+        nightChargeRepository.save(charge(prePosted, businessDate));
+        // First read misses it; the re-read after the conflict sees it
+        doReturn(List.of()).doReturn(List.of(prePosted.getStayId()))
+                .when(nightChargeRepository).findPostedStayIds(businessDate);
+
+        nightAuditJob.postRoomNights(businessDate);
+        assertPostedOnce(stays, businessDate);
+
+        // A further re-run changes nothing
+        reset(nightChargeRepository);
+        nightAuditJob.postRoomNights(businessDate);
+        assertPostedOnce(stays, businessDate);
+    }
+
+    private void assertPostedOnce(List<Stay> stays, LocalDate businessDate) {
+        for (Stay stay : stays) {
+            long nights = nightChargeRepository.findByStayId(stay.getStayId()).stream()
+                    .filter(n -> businessDate.equals(n.getBusinessDate()))
+                    .count();
+            assertEquals(1, nights, "room-nights posted for stay " + stay.getStayId());
+        }
+    }
+
+    private static RoomNightCharge charge(Stay stay, LocalDate businessDate) {
+        RoomNightCharge charge = new RoomNightCharge();
+        charge.setStay(stay);
+        charge.setBusinessDate(businessDate);
+        charge.setAmount(new BigDecimal("100.00"));
+        charge.setTaxRate(new BigDecimal("0.10"));
+        charge.setTaxAmount(new BigDecimal("10.00"));
+        charge.setPostedTime(LocalDateTime.now());
+        return charge;
+    }
+}
@@ -1,25 +1,60 @@
 package com.hotel.smarttrack.billing;
 
+import com.hotel.smarttrack.billing.dto.BillingInvoiceSummary;
+import com.hotel.smarttrack.billing.gateway.PaymentGatewayClient;
+import com.hotel.smarttrack.entity.AgingReport;
+import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.Invoice;
 import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.entity.PaymentAuthorization;
+import com.hotel.smarttrack.entity.ReconciliationReport;
 import com.hotel.smarttrack.entity.Stay;
 import com.hotel.smarttrack.entity.IncidentalCharge;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.RoomNightCharge;
+import com.hotel.smarttrack.entity.RoomType;
 import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.InvoiceSummaryView;
 import com.hotel.smarttrack.repository.PaymentRepository;
 import com.hotel.smarttrack.repository.IncidentalChargeRepository;
+import com.hotel.smarttrack.repository.RoomNightChargeRepository;
+import com.hotel.smarttrack.repository.StayRepository;
 import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.GuestProfileService;
 import com.hotel.smarttrack.service.StayService;
+import com.hotel.smarttrack.service.TaxService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * BillingManager - Implementation of BillingService.
@@ -31,58 +66,271 @@ import java.util.UUID;
 @Transactional
 public class BillingManager implements BillingService {
 
-    private static final BigDecimal TAX_RATE = new BigDecimal("0.10"); // 10% tax
+    private static final String STATUS_PAID = OverdueInvoiceScheduler.STATUS_PAID;
+    private static final String STATUS_OVERDUE = OverdueInvoiceScheduler.STATUS_OVERDUE;
+
+    // Optimistic retry policy for payments racing on the same invoice
+    private static final int MAX_PAYMENT_ATTEMPTS = 20;
+    private static final long PAYMENT_RETRY_BACKOFF_MS = 2L;
+
+    // Batch invoice generation
+    private static final int INVOICE_BATCH_SIZE = 200;
+    private static final int LOOKUP_CHUNK_SIZE = 1000; // stay IDs per IN-list query
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
 
     private final InvoiceRepository invoiceRepository;
     private final PaymentRepository paymentRepository;
     private final StayService stayService;
+    private final StayRepository stayRepository;
     private final IncidentalChargeRepository incidentalChargeRepository;
+    private final RoomNightChargeRepository nightChargeRepository;
+    private final TaxService taxService;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentGatewayClient gatewayClient;
+    private final SettlementReconciler settlementReconciler;
+    private final OverdueInvoiceScheduler overdueScheduler;
+    private final ReceivablesAging receivablesAging;
+    private final GuestProfileService guestProfileService;
+    private final int paymentTermsDays;
+
+    // Records authorized payments once the gateway answers
+    private final ExecutorService paymentRecorder = Executors.newFixedThreadPool(PARALLELISM, r -> {
+        Thread t = new Thread(r, "payment-recorder");
+        t.setDaemon(true);
+        return t;
+    });
 
     public BillingManager(InvoiceRepository invoiceRepository,
             PaymentRepository paymentRepository,
             @Lazy StayService stayService,
-            IncidentalChargeRepository incidentalChargeRepository) {
+            StayRepository stayRepository,
+            IncidentalChargeRepository incidentalChargeRepository,
+            RoomNightChargeRepository nightChargeRepository,
+            TaxService taxService,
+            PlatformTransactionManager transactionManager,
+            PaymentGatewayClient gatewayClient,
+            SettlementReconciler settlementReconciler,
+            OverdueInvoiceScheduler overdueScheduler,
+            ReceivablesAging receivablesAging,
+            GuestProfileService guestProfileService,
+            @Value("${hotel.billing.payment-terms-days:30}") int paymentTermsDays) {
+        if (paymentTermsDays < 0) {
+            throw new IllegalArgumentException("Payment terms cannot be negative: " + paymentTermsDays);
+        }
         this.invoiceRepository = invoiceRepository;
         this.paymentRepository = paymentRepository;
         this.stayService = stayService;
+        this.stayRepository = stayRepository;
         this.incidentalChargeRepository = incidentalChargeRepository;
+        this.nightChargeRepository = nightChargeRepository;
+        this.taxService = taxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gatewayClient = gatewayClient;
+        this.settlementReconciler = settlementReconciler;
+        this.overdueScheduler = overdueScheduler;
+        this.receivablesAging = receivablesAging;
+        this.guestProfileService = guestProfileService;
+        this.paymentTermsDays = paymentTermsDays;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        paymentRecorder.shutdown();
     }
 
     // ============ Invoice Generation ============
 
+    /**
+     * Invoice a stay: an interim invoice while it is in house, the final one
+     * once it has checked out. An existing interim invoice is re-priced; a
+     * final invoice is returned as it is.
+     */
     @Override
     public Invoice generateInvoice(Long stayId) {
         // Check if invoice already exists for this stay
         Optional<Invoice> existingInvoice = invoiceRepository.findByStay_StayId(stayId);
-        if (existingInvoice.isPresent()) {
+        if (existingInvoice.isPresent() && !existingInvoice.get().isInterim()) {
             return existingInvoice.get();
         }
 
         Stay stay = stayService.getStayById(stayId)
                 .orElseThrow(() -> new IllegalArgumentException("Stay not found: " + stayId));
 
-        // Calculate charges
-        BigDecimal roomCharges = calculateRoomCharges(stay);
-        BigDecimal incidentalCharges = calculateIncidentalCharges(stayId);
-        BigDecimal subtotal = roomCharges.add(incidentalCharges);
-        BigDecimal taxes = subtotal.multiply(TAX_RATE);
-        BigDecimal totalAmount = subtotal.add(taxes);
+        Invoice invoice = buildInvoice(stay, nightChargeRepository.findByStayId(stayId),
+                incidentalChargeRepository.findByStayId(stayId), LocalDateTime.now());
+        if (existingInvoice.isPresent()) {
+            invoice = supersede(existingInvoice.get(), invoice);
+        }
+        Invoice saved = invoiceRepository.save(invoice);
+        overdueScheduler.track(saved.getInvoiceId(), saved.getDueDate());
+        receivablesAging.trackAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Generate invoices for many stays at once (e.g. month-end interim
+     * invoices for all in-house stays). As with generateInvoice, interim
+     * invoices are re-priced and final invoices are returned as they are.
+     *
+     * Stays are saved in partitions, each in its own transaction. If a
+     * partition fails (e.g. a payment changed one of its interim invoices
+     * meanwhile), its stays are invoiced one by one through generateInvoice
+     * instead. Stays that still fail are reported together once the whole
+     * batch has run; every other stay stays invoiced, and invoicing the
+     * failed ones again is safe.
+     *
+     * @param stayIds Stays to invoice
+     * @return Invoices in the order of the given stay IDs (duplicates removed)
+     * @throws IllegalArgumentException if any stay is not found (nothing is invoiced)
+     * @throws IllegalStateException    if some stays could not be invoiced
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Invoice> generateInvoices(Collection<Long> stayIds) {
+        if (stayIds == null) {
+            throw new IllegalArgumentException("Stay IDs cannot be null");
+        }
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(stayIds));
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Stay IDs cannot contain null");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        BatchLookup lookup = transactionTemplate.execute(status -> loadBatch(ids));
+
+        List<Long> missing = new ArrayList<>();
+        List<Stay> toInvoice = new ArrayList<>();
+        int repriced = 0;
+        for (Long id : ids) {
+            Stay stay = lookup.stays.get(id);
+            Invoice existing = lookup.existingInvoices.get(id);
+            if (stay == null) {
+                missing.add(id);
+            } else if (existing == null) {
+                toInvoice.add(stay);
+            } else if (existing.isInterim()) {
+                toInvoice.add(stay);
+                repriced++;
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Stay not found: " + missing);
+        }
+
+        Map<Long, Invoice> byStay = new HashMap<>(lookup.existingInvoices);
+        Map<Long, String> failures = new ConcurrentHashMap<>();
+        if (!toInvoice.isEmpty()) {
+            ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+            try {
+                LocalDateTime issuedTime = LocalDateTime.now();
+                for (Invoice invoice : pool.invoke(new InvoiceBatchTask(toInvoice, 0, toInvoice.size(),
+                        lookup, issuedTime, failures))) {
+                    byStay.put(invoice.getStay().getStayId(), invoice);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        System.out.println("[BillingManager] Batch invoicing: " + (toInvoice.size() - repriced) + " generated, "
+                + repriced + " interim re-priced, " + (ids.size() - toInvoice.size()) + " already invoiced"
+                + (failures.isEmpty() ? "" : ", " + failures.size() + " failed"));
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Could not invoice stays " + new TreeMap<>(failures)
+                    + "; the other " + (ids.size() - failures.size()) + " stay(s) are invoiced");
+        }
+
+        List<Invoice> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            result.add(byStay.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Price one stay. Shared by single and batch invoice generation.
+     */
+    private Invoice buildInvoice(Stay stay, List<RoomNightCharge> postedNights, List<IncidentalCharge> incidentals,
+            LocalDateTime issuedTime) {
+        Money roomCharges = calculateRoomCharges(stay, postedNights);
+        Money incidentalCharges = calculateIncidentalCharges(incidentals);
+        Money subtotal = roomCharges.plus(incidentalCharges);
+        Money taxes = calculateTaxes(stay, postedNights, incidentals);
+        BigDecimal totalAmount = subtotal.plus(taxes).toBigDecimal();
 
         Invoice invoice = new Invoice();
         invoice.setStay(stay);
         invoice.setGuest(stay.getGuest());
-        invoice.setRoomCharges(roomCharges);
-        invoice.setIncidentalCharges(incidentalCharges);
-        invoice.setTaxes(taxes);
+        invoice.setRoomCharges(roomCharges.toBigDecimal());
+        invoice.setIncidentalCharges(incidentalCharges.toBigDecimal());
+        invoice.setTaxes(taxes.toBigDecimal());
         invoice.setDiscounts(BigDecimal.ZERO);
         invoice.setTotalAmount(totalAmount);
         invoice.setAmountPaid(BigDecimal.ZERO);
         invoice.setOutstandingBalance(totalAmount);
         invoice.setStatus("Issued");
-        invoice.setIssuedTime(LocalDateTime.now());
+        invoice.setIssuedTime(issuedTime);
+        invoice.setDueDate(issuedTime.toLocalDate().plusDays(paymentTermsDays));
+        invoice.setInterim(stay.getCheckOutTime() == null);
         invoice.setPayments(new ArrayList<>());
+        return invoice;
+    }
 
-        return invoiceRepository.save(invoice);
+    /**
+     * Carry a fresh pricing over to an interim invoice, keeping its ID,
+     * payments and discounts. It is issued again with new payment terms,
+     * and is final once the stay has checked out.
+     */
+    private static Invoice supersede(Invoice interim, Invoice priced) {
+        BigDecimal discounts = interim.getDiscounts() != null ? interim.getDiscounts() : BigDecimal.ZERO;
+        BigDecimal amountPaid = interim.getAmountPaid() != null ? interim.getAmountPaid() : BigDecimal.ZERO;
+        BigDecimal outstanding = priced.getTotalAmount().subtract(discounts).subtract(amountPaid);
+
+        interim.setRoomCharges(priced.getRoomCharges());
+        interim.setIncidentalCharges(priced.getIncidentalCharges());
+        interim.setTaxes(priced.getTaxes());
+        interim.setDiscounts(discounts);
+        interim.setTotalAmount(priced.getTotalAmount());
+        interim.setAmountPaid(amountPaid);
+        interim.setOutstandingBalance(outstanding);
+        interim.setIssuedTime(priced.getIssuedTime());
+        interim.setDueDate(priced.getDueDate());
+        interim.setInterim(priced.isInterim());
+        if (outstanding.compareTo(BigDecimal.ZERO) <= 0) {
+            interim.setStatus(STATUS_PAID);
+        } else if (amountPaid.compareTo(BigDecimal.ZERO) > 0) {
+            interim.setStatus("Partially Paid");
+        } else {
+            interim.setStatus("Issued");
+        }
+        return interim;
+    }
+
+    /**
+     * Load everything needed to price a batch of stays, one IN-list query
+     * per chunk of stay IDs and table.
+     */
+    private BatchLookup loadBatch(List<Long> ids) {
+        BatchLookup lookup = new BatchLookup();
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ids.size()));
+
+            for (Stay stay : stayRepository.findAllById(chunk)) {
+                lookup.stays.put(stay.getStayId(), stay);
+            }
+            for (Invoice invoice : invoiceRepository.findByStay_StayIdIn(chunk)) {
+                lookup.existingInvoices.putIfAbsent(invoice.getStay().getStayId(), invoice);
+            }
+            for (RoomNightCharge night : nightChargeRepository.findByStayIdIn(chunk)) {
+                lookup.postedNights.computeIfAbsent(night.getStay().getStayId(), k -> new ArrayList<>()).add(night);
+            }
+            for (IncidentalCharge charge : incidentalChargeRepository.findByStayIdIn(chunk)) {
+                lookup.incidentals.computeIfAbsent(charge.getStay().getStayId(), k -> new ArrayList<>()).add(charge);
+            }
+        }
+        return lookup;
     }
 
     @Override
@@ -90,12 +338,12 @@ public class BillingManager implements BillingService {
         Stay stay = stayService.getStayById(stayId)
                 .orElseThrow(() -> new IllegalArgumentException("Stay not found: " + stayId));
 
-        BigDecimal roomCharges = calculateRoomCharges(stay);
-        BigDecimal incidentalCharges = calculateIncidentalCharges(stayId);
-        BigDecimal subtotal = roomCharges.add(incidentalCharges);
-        BigDecimal taxes = subtotal.multiply(TAX_RATE);
+        List<RoomNightCharge> postedNights = nightChargeRepository.findByStayId(stayId);
+        List<IncidentalCharge> incidentals = incidentalChargeRepository.findByStayId(stayId);
+        Money subtotal = calculateRoomCharges(stay, postedNights).plus(calculateIncidentalCharges(incidentals));
+        Money taxes = calculateTaxes(stay, postedNights, incidentals);
 
-        return subtotal.add(taxes);
+        return subtotal.plus(taxes).toBigDecimal();
     }
 
     @Override
@@ -110,8 +358,87 @@ public class BillingManager implements BillingService {
 
     // ============ Payment Processing ============
 
+    /**
+     * Authorize a payment with the gateway and record it, waiting for the
+     * result.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Payment processPayment(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        try {
+            return processPaymentAsync(invoiceId, amount, paymentMethod).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Authorize a payment with the gateway and record it without blocking
+     * the caller. Validation errors are thrown immediately; a decline,
+     * gateway failure or a balance that changed meanwhile completes the
+     * future exceptionally. An authorization that cannot be recorded is voided.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Payment> processPaymentAsync(Long invoiceId, BigDecimal amount, String paymentMethod) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Payment amount must be positive");
+        }
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found: " + invoiceId));
+        if (amount.compareTo(invoice.getOutstandingBalance()) > 0) {
+            throw new IllegalArgumentException("Payment amount exceeds outstanding balance");
+        }
+
+        String idempotencyKey = "PAY-" + UUID.randomUUID();
+        return gatewayClient.authorize(idempotencyKey, invoiceId, amount, paymentMethod)
+                .thenApplyAsync(authorization -> {
+                    if (!authorization.isApproved()) {
+                        throw new IllegalStateException("Payment declined: " + authorization.getMessage());
+                    }
+                    return recordAuthorizedPayment(invoiceId, amount, paymentMethod, authorization);
+                }, paymentRecorder);
+    }
+
+    /**
+     * Record an approved payment; void it with the gateway if it can no
+     * longer be recorded (e.g. a concurrent payment settled the invoice).
+     */
+    private Payment recordAuthorizedPayment(Long invoiceId, BigDecimal amount, String paymentMethod,
+            PaymentAuthorization authorization) {
+        try {
+            return recordWithRetry(invoiceId, amount, paymentMethod, authorization.getTransactionReference());
+        } catch (RuntimeException e) {
+            gatewayClient.voidAuthorization(authorization.getTransactionReference());
+            throw e;
+        }
+    }
+
+    /**
+     * Record a payment, retrying on optimistic lock conflicts.
+     * Each attempt commits (and detects a conflict) in its own transaction.
+     */
+    private Payment recordWithRetry(Long invoiceId, BigDecimal amount, String paymentMethod,
+            String transactionReference) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(
+                        status -> recordPayment(invoiceId, amount, paymentMethod, transactionReference));
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_PAYMENT_ATTEMPTS) {
+                    throw new IllegalStateException("Invoice " + invoiceId
+                            + " is being updated concurrently - payment not recorded", e);
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private Payment recordPayment(Long invoiceId, BigDecimal amount, String paymentMethod,
+            String transactionReference) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found: " + invoiceId));
 
@@ -128,7 +455,7 @@ public class BillingManager implements BillingService {
         payment.setAmount(amount);
         payment.setPaymentMethod(paymentMethod);
         payment.setStatus("Completed");
-        payment.setTransactionReference(generateTransactionReference());
+        payment.setTransactionReference(transactionReference);
         payment.setPaymentTime(LocalDateTime.now());
 
         Payment savedPayment = paymentRepository.save(payment);
@@ -152,12 +479,17 @@ public class BillingManager implements BillingService {
 
         // Update status
         if (newOutstandingBalance.compareTo(BigDecimal.ZERO) <= 0) {
-            invoice.setStatus("Paid");
+            invoice.setStatus(STATUS_PAID);
+        } else if (invoice.getDueDate() != null && invoice.getDueDate().isBefore(LocalDate.now())) {
+            // A part payment does not cure an overdue invoice
+            invoice.setStatus(STATUS_OVERDUE);
         } else {
             invoice.setStatus("Partially Paid");
         }
 
         invoiceRepository.save(invoice);
+        receivablesAging.trackAfterCommit(invoice);
+        guestProfileService.invoiceChanged(invoice);
 
         return savedPayment;
     }
@@ -180,26 +512,17 @@ public class BillingManager implements BillingService {
 
     @Override
     public List<Invoice> getUnpaidInvoices() {
-        List<Invoice> allInvoices = invoiceRepository.findAll();
-        List<Invoice> unpaidInvoices = new ArrayList<>();
-        for (Invoice invoice : allInvoices) {
-            if (!"Paid".equalsIgnoreCase(invoice.getStatus())) {
-                unpaidInvoices.add(invoice);
-            }
-        }
-        return unpaidInvoices;
+        return invoiceRepository.findByStatusNotOrStatusIsNull(STATUS_PAID);
+    }
+
+    @Override
+    public List<Invoice> getOverdueInvoices() {
+        return invoiceRepository.findByStatus(STATUS_OVERDUE);
     }
 
     @Override
     public List<Invoice> getInvoicesByGuest(Long guestId) {
-        List<Invoice> allInvoices = invoiceRepository.findAll();
-        List<Invoice> guestInvoices = new ArrayList<>();
-        for (Invoice invoice : allInvoices) {
-            if (invoice.getGuest() != null && invoice.getGuest().getGuestId().equals(guestId)) {
-                guestInvoices.add(invoice);
-            }
-        }
-        return guestInvoices;
+        return invoiceRepository.findByGuest_GuestId(guestId);
     }
 
     @Override
@@ -234,10 +557,48 @@ public class BillingManager implements BillingService {
 
         // Update status if fully paid after discount
         if (newOutstandingBalance.compareTo(BigDecimal.ZERO) <= 0) {
-            invoice.setStatus("Paid");
+            invoice.setStatus(STATUS_PAID);
         }
 
         invoiceRepository.save(invoice);
+        receivablesAging.trackAfterCommit(invoice);
+    }
+
+    // ============ Settlement Reconciliation ============
+
+    /**
+     * Match a processor settlement file against the payments made from
+     * {@code from} to {@code to}. See SettlementReconciler.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ReconciliationReport reconcileSettlement(String filePath, LocalDate from, LocalDate to) {
+        if (filePath == null || filePath.isBlank()) {
+            throw new IllegalArgumentException("Settlement file path is required");
+        }
+        return settlementReconciler.reconcile(Path.of(filePath.trim()), from, to);
+    }
+
+    // ============ Receivables Aging ============
+
+    /**
+     * Outstanding totals and counts per aging bucket, from the incremental
+     * aggregate rather than a scan of open invoices.
+     */
+    @Override
+    public AgingReport getAgingReport() {
+        return receivablesAging.report();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Invoice> getInvoicesInAgingBucket(AgingReport.Bucket bucket) {
+        if (bucket == null) {
+            throw new IllegalArgumentException("Aging bucket is required");
+        }
+        List<Invoice> invoices = invoiceRepository.findAllById(receivablesAging.invoiceIds(bucket));
+        invoices.sort(Comparator.comparing(Invoice::getInvoiceId));
+        return invoices;
     }
 
     // ============ Convenience Methods for Console ============
@@ -249,46 +610,194 @@ public class BillingManager implements BillingService {
         return invoiceRepository.findAll();
     }
 
+    /**
+     * Unpaid invoice rows for listing, without loading payments.
+     */
+    @Transactional(readOnly = true)
+    public List<BillingInvoiceSummary> listUnpaidInvoiceSummaries() {
+        return toSummaries(invoiceRepository.findSummariesByStatusNot(STATUS_PAID));
+    }
+
+    /**
+     * A guest's invoice rows for listing, without loading payments.
+     */
+    @Transactional(readOnly = true)
+    public List<BillingInvoiceSummary> listInvoiceSummariesByGuest(Long guestId) {
+        return toSummaries(invoiceRepository.findSummariesByGuestId(guestId));
+    }
+
     // ============ Helper Methods ============
 
-    private BigDecimal calculateRoomCharges(Stay stay) {
+    /**
+     * Room-nights posted by the night audit, plus any nights through the
+     * current business date not yet posted, at the current room rate.
+     */
+    private Money calculateRoomCharges(Stay stay, List<RoomNightCharge> postedNights) {
+        Money posted = Money.ZERO;
+        for (RoomNightCharge night : postedNights) {
+            posted = posted.plus(night.getAmountMoney());
+        }
+
         if (stay.getRoom() == null || stay.getRoom().getRoomType() == null) {
-            return BigDecimal.ZERO;
+            return posted;
         }
 
-        BigDecimal ratePerNight = stay.getRoom().getRoomType().getBasePrice();
+        Money ratePerNight = stay.getRoom().getRoomType().getBasePriceMoney();
         if (ratePerNight == null) {
-            return BigDecimal.ZERO;
+            return posted;
         }
+        long unposted = stay.unpostedNights(postedNights.size(), RoomNightCharge.currentBusinessDate());
+        return posted.plus(ratePerNight.times(unposted));
+    }
 
-        // Calculate number of nights using checkInTime and checkOutTime
-        LocalDateTime checkIn = stay.getCheckInTime();
-        LocalDateTime checkOut = stay.getCheckOutTime();
+    /**
+     * Tax already posted with each room-night, plus TaxService on the
+     * unposted nights and on each incidental.
+     */
+    private Money calculateTaxes(Stay stay, List<RoomNightCharge> postedNights, List<IncidentalCharge> incidentals) {
+        RoomType roomType = stay.getRoom() != null ? stay.getRoom().getRoomType() : null;
+        Guest guest = stay.getGuest();
 
-        if (checkIn == null || checkOut == null) {
-            return ratePerNight; // Default to 1 night
+        long tax = 0L;
+        for (RoomNightCharge night : postedNights) {
+            tax += night.getTaxAmountMoney().getMinorUnits();
+        }
+        Money ratePerNight = roomType != null ? roomType.getBasePriceMoney() : null;
+        if (ratePerNight != null) {
+            long unposted = stay.unpostedNights(postedNights.size(), RoomNightCharge.currentBusinessDate());
+            tax += taxService.computeTaxMinor(TaxService.CHARGE_ROOM, roomType, guest,
+                    ratePerNight.times(unposted).getMinorUnits(), unposted);
         }
+        for (IncidentalCharge charge : incidentals) {
+            Money amount = charge.getAmountMoney();
+            if (amount != null) {
+                tax += taxService.computeTaxMinor(charge.getServiceType(), roomType, guest, amount.getMinorUnits(), 0L);
+            }
+        }
+        return Money.ofMinor(tax);
+    }
 
-        long nights = ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate());
-        if (nights <= 0) {
-            nights = 1;
+    private static Money calculateIncidentalCharges(List<IncidentalCharge> charges) {
+        long total = 0L;
+        for (IncidentalCharge charge : charges) {
+            Money amount = charge.getAmountMoney();
+            if (amount != null) {
+                total += amount.getMinorUnits();
+            }
         }
+        return Money.ofMinor(total);
+    }
 
-        return ratePerNight.multiply(BigDecimal.valueOf(nights));
+    /**
+     * Prefetched data for batch invoice generation, keyed by stay ID.
+     */
+    private static final class BatchLookup {
+        private final Map<Long, Stay> stays = new HashMap<>();
+        private final Map<Long, Invoice> existingInvoices = new HashMap<>();
+        private final Map<Long, List<RoomNightCharge>> postedNights = new HashMap<>();
+        private final Map<Long, List<IncidentalCharge>> incidentals = new HashMap<>();
     }
 
-    private BigDecimal calculateIncidentalCharges(Long stayId) {
-        List<IncidentalCharge> charges = incidentalChargeRepository.findByStayId(stayId);
-        BigDecimal total = BigDecimal.ZERO;
-        for (IncidentalCharge charge : charges) {
-            if (charge.getAmount() != null) {
-                total = total.add(charge.getAmount());
+    /**
+     * Splits the stays until a partition fits in one batch, then prices and
+     * saves that batch in its own transaction.
+     */
+    private class InvoiceBatchTask extends RecursiveTask<List<Invoice>> {
+
+        private final List<Stay> stays;
+        private final int from;
+        private final int to;
+        private final BatchLookup lookup;
+        private final LocalDateTime issuedTime;
+        private final Map<Long, String> failures;
+
+        InvoiceBatchTask(List<Stay> stays, int from, int to, BatchLookup lookup, LocalDateTime issuedTime,
+                Map<Long, String> failures) {
+            this.stays = stays;
+            this.from = from;
+            this.to = to;
+            this.lookup = lookup;
+            this.issuedTime = issuedTime;
+            this.failures = failures;
+        }
+
+        @Override
+        protected List<Invoice> compute() {
+            if (to - from <= INVOICE_BATCH_SIZE) {
+                return saveBatch();
+            }
+            int mid = (from + to) >>> 1;
+            InvoiceBatchTask left = new InvoiceBatchTask(stays, from, mid, lookup, issuedTime, failures);
+            left.fork();
+            List<Invoice> right = new InvoiceBatchTask(stays, mid, to, lookup, issuedTime, failures).compute();
+            List<Invoice> all = new ArrayList<>(left.join());
+            all.addAll(right);
+            return all;
+        }
+
+        private List<Invoice> saveBatch() {
+            List<Invoice> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Stay stay = stays.get(i);
+                Long stayId = stay.getStayId();
+                Invoice invoice = buildInvoice(stay,
+                        lookup.postedNights.getOrDefault(stayId, List.of()),
+                        lookup.incidentals.getOrDefault(stayId, List.of()),
+                        issuedTime);
+                Invoice interim = lookup.existingInvoices.get(stayId);
+                batch.add(interim != null ? supersede(interim, invoice) : invoice);
+            }
+            List<Invoice> saved;
+            try {
+                saved = transactionTemplate.execute(status -> invoiceRepository.saveAll(batch));
+            } catch (RuntimeException e) {
+                System.out.println("[BillingManager] Batch of " + batch.size() + " invoice(s) failed ("
+                        + e.getMessage() + "); invoicing its stays one by one");
+                return saveEach();
+            }
+            for (Invoice invoice : saved) {
+                overdueScheduler.track(invoice.getInvoiceId(), invoice.getDueDate());
+                receivablesAging.trackAfterCommit(invoice);
             }
+            return saved;
+        }
+
+        /**
+         * Invoice each stay of the partition in its own transaction from
+         * freshly loaded state, recording those that still fail.
+         */
+        private List<Invoice> saveEach() {
+            List<Invoice> saved = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Long stayId = stays.get(i).getStayId();
+                try {
+                    saved.add(transactionTemplate.execute(status -> generateInvoice(stayId)));
+                } catch (RuntimeException e) {
+                    System.out.println("[BillingManager] Could not invoice stay " + stayId + " - " + e.getMessage());
+                    failures.put(stayId, String.valueOf(e.getMessage()));
+                }
+            }
+            return saved;
         }
-        return total;
     }
 
-    private String generateTransactionReference() {
-        return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private static List<BillingInvoiceSummary> toSummaries(List<InvoiceSummaryView> rows) {
+        List<BillingInvoiceSummary> summaries = new ArrayList<>(rows.size());
+        for (InvoiceSummaryView row : rows) {
+            summaries.add(BillingInvoiceSummary.from(row));
+        }
+        return summaries;
+    }
+
+    /**
+     * Randomized linear backoff so retrying payments spread out.
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(PAYMENT_RETRY_BACKOFF_MS * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying payment", e);
+        }
     }
 }
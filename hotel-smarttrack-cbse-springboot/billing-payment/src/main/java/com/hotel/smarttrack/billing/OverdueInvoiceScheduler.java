@@ -0,0 +1,141 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.InvoiceRepository.DueDateView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * OverdueInvoiceScheduler - moves invoices to Overdue when their due date lapses.
+ *
+ * Open invoices sit in a priority queue ordered by due date. The daily run
+ * pops only the entries that lapsed since the last run and moves them with
+ * one bulk UPDATE per chunk, so invoices not yet due are never read.
+ *
+ * Entries are not removed when an invoice is paid; the UPDATE re-checks
+ * status, due date and balance. A popped invoice it skips that is still
+ * open (e.g. re-issued with a later due date) goes back on the queue under
+ * its current due date. The queue is rebuilt from the database on startup.
+ */
+@Component
+public class OverdueInvoiceScheduler {
+
+    static final String STATUS_PAID = "Paid";
+    static final String STATUS_OVERDUE = "Overdue";
+
+    private static final int UPDATE_CHUNK_SIZE = 1000; // invoice IDs per UPDATE
+
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final PriorityQueue<DueEntry> queue = new PriorityQueue<>();
+
+    public OverdueInvoiceScheduler(InvoiceRepository invoiceRepository,
+            PlatformTransactionManager transactionManager) {
+        this.invoiceRepository = invoiceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Track an invoice's due date. Invoices without a due date are ignored.
+     */
+    public synchronized void track(Long invoiceId, LocalDate dueDate) {
+        if (invoiceId == null || dueDate == null) {
+            return;
+        }
+        queue.add(new DueEntry(dueDate, invoiceId));
+    }
+
+    /**
+     * Load every open due date and move anything that lapsed while the
+     * application was down.
+     *
+     * @return Number of invoices tracked
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized int rebuild() {
+        queue.clear();
+        for (DueDateView row : invoiceRepository.findOpenDueDates(STATUS_PAID, STATUS_OVERDUE)) {
+            queue.add(new DueEntry(row.getDueDate(), row.getInvoiceId()));
+        }
+        int tracked = queue.size();
+        System.out.println("[OverdueInvoiceScheduler] Tracking due dates for " + tracked + " open invoice(s)");
+        runDue();
+        return tracked;
+    }
+
+    /**
+     * Scheduled run just after midnight.
+     */
+    @Scheduled(cron = "${hotel.billing.overdue-cron:5 0 0 * * *}")
+    public void runDaily() {
+        runDue();
+    }
+
+    /**
+     * Move every tracked invoice whose due date is before today.
+     *
+     * @return Number of invoices moved to Overdue
+     */
+    public synchronized int runDue() {
+        LocalDate today = LocalDate.now();
+        List<Long> lapsed = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().dueDate.isBefore(today)) {
+            lapsed.add(queue.poll().invoiceId);
+        }
+        if (lapsed.isEmpty()) {
+            return 0;
+        }
+
+        int transitioned = 0;
+        List<DueEntry> requeue = new ArrayList<>();
+        for (int from = 0; from < lapsed.size(); from += UPDATE_CHUNK_SIZE) {
+            List<Long> chunk = lapsed.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, lapsed.size()));
+            Integer updated = transactionTemplate.execute(status -> {
+                int moved = invoiceRepository.markOverdue(chunk, today, STATUS_PAID, STATUS_OVERDUE);
+                if (moved < chunk.size()) {
+                    for (DueDateView row : invoiceRepository.findOpenDueDatesAmong(chunk, STATUS_PAID,
+                            STATUS_OVERDUE)) {
+                        requeue.add(new DueEntry(row.getDueDate(), row.getInvoiceId()));
+                    }
+                }
+                return moved;
+            });
+            transitioned += updated != null ? updated : 0;
+        }
+        queue.addAll(requeue);
+        if (transitioned > 0) {
+            System.out.println("[OverdueInvoiceScheduler] " + transitioned + " invoice(s) now Overdue");
+        }
+        return transitioned;
+    }
+
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    private static final class DueEntry implements Comparable<DueEntry> {
+        private final LocalDate dueDate;
+        private final Long invoiceId;
+
+        DueEntry(LocalDate dueDate, Long invoiceId) {
+            this.dueDate = dueDate;
+            this.invoiceId = invoiceId;
+        }
+
+        @Override
+        public int compareTo(DueEntry other) {
+            int byDate = dueDate.compareTo(other.dueDate);
+            return byDate != 0 ? byDate : invoiceId.compareTo(other.invoiceId);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.entity.AgingReport;
+import com.hotel.smarttrack.entity.AgingReport.Bucket;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.InvoiceRepository.OpenBalanceView;
+import com.hotel.smarttrack.transaction.TransactionHooks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ReceivablesAging - accounts-receivable aging kept up to date as invoices
+ * are issued, paid and discounted, so the aging report is a copy of one
+ * total and one count per bucket instead of a scan of every open invoice.
+ *
+ * Open invoices are also indexed by issue date. Moving to the next bucket
+ * happens in a daily roll that looks up only the invoices issued exactly
+ * 31, 61 or 91 days earlier; invoices past 90 days leave the date index.
+ * Reads roll forward first, so a missed scheduled run is caught up.
+ *
+ * Updates are applied after commit with the invoice's absolute balance and
+ * version, so a late update from an older commit is ignored. The aggregate
+ * is rebuilt from the database on startup.
+ */
+@Component
+public class ReceivablesAging {
+
+    private static final Bucket[] BUCKETS = Bucket.values();
+    private static final int LAST = BUCKETS.length - 1;
+
+    private final InvoiceRepository invoiceRepository;
+
+    private final Map<Long, Entry> open = new HashMap<>();
+    // Issue date -> open invoices not yet in the last bucket
+    private final Map<LocalDate, Set<Long>> byIssueDate = new HashMap<>();
+    private final List<Set<Long>> members = new ArrayList<>(BUCKETS.length);
+    private final long[] totals = new long[BUCKETS.length];
+    private final long[] counts = new long[BUCKETS.length];
+    // Versions of invoices closed since the last roll, to drop late updates
+    private final Map<Long, Long> closedVersions = new HashMap<>();
+    private LocalDate asOf = LocalDate.now();
+
+    public ReceivablesAging(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            members.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Apply an invoice's balance once the current transaction commits, or
+     * straight away outside a transaction.
+     */
+    public void trackAfterCommit(Invoice invoice) {
+        TransactionHooks.afterCommit(() -> track(invoice));
+    }
+
+    /**
+     * Apply an invoice's current outstanding balance.
+     */
+    public void track(Invoice invoice) {
+        if (invoice == null || invoice.getInvoiceId() == null) {
+            return;
+        }
+        update(invoice.getInvoiceId(), issueDate(invoice.getIssuedTime()),
+                invoice.getOutstandingBalance() == null ? 0L : Money.toMinorUnits(invoice.getOutstandingBalance()),
+                invoice.getVersion());
+    }
+
+    /**
+     * Set an invoice's outstanding balance; zero or less removes it.
+     *
+     * @param issuedOn Issue date, or null to age from today
+     * @param version Invoice version the balance was read at, or null if unknown
+     */
+    public synchronized void update(Long invoiceId, LocalDate issuedOn, long outstandingMinorUnits, Long version) {
+        Entry entry = open.get(invoiceId);
+        if (version != null) {
+            Long closedAt = closedVersions.get(invoiceId);
+            if ((closedAt != null && version <= closedAt) || (entry != null && entry.version != null
+                    && version < entry.version)) {
+                return;
+            }
+        }
+
+        if (outstandingMinorUnits <= 0L) {
+            if (entry != null) {
+                remove(invoiceId, entry);
+            }
+            if (version != null) {
+                closedVersions.put(invoiceId, version);
+            }
+            return;
+        }
+
+        if (entry == null) {
+            if (issuedOn == null) {
+                issuedOn = asOf;
+            }
+            entry = new Entry(issuedOn, Bucket.forAge(ChronoUnit.DAYS.between(issuedOn, asOf)).ordinal());
+            open.put(invoiceId, entry);
+            members.get(entry.bucket).add(invoiceId);
+            counts[entry.bucket]++;
+            if (entry.bucket < LAST) {
+                byIssueDate.computeIfAbsent(issuedOn, d -> new HashSet<>()).add(invoiceId);
+            }
+        }
+        closedVersions.remove(invoiceId);
+        totals[entry.bucket] += outstandingMinorUnits - entry.outstanding;
+        entry.outstanding = outstandingMinorUnits;
+        entry.version = version;
+    }
+
+    /**
+     * Load every open balance from the database.
+     *
+     * @return Number of open invoices
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized int rebuild() {
+        open.clear();
+        byIssueDate.clear();
+        members.forEach(Set::clear);
+        Arrays.fill(totals, 0L);
+        Arrays.fill(counts, 0L);
+        closedVersions.clear();
+        asOf = LocalDate.now();
+        for (OpenBalanceView row : invoiceRepository.findOpenBalances()) {
+            update(row.getInvoiceId(), issueDate(row.getIssuedTime()),
+                    Money.toMinorUnits(row.getOutstandingBalance()), row.getVersion());
+        }
+        System.out.println("[ReceivablesAging] Aging " + open.size() + " open invoice(s)");
+        return open.size();
+    }
+
+    /**
+     * Scheduled roll just after midnight.
+     */
+    @Scheduled(cron = "${hotel.billing.aging-cron:10 0 0 * * *}")
+    public void runDaily() {
+        rollTo(LocalDate.now());
+    }
+
+    /**
+     * Advance the aging date one day at a time up to {@code day}, moving the
+     * invoices that cross a bucket boundary on each day.
+     *
+     * @return Number of bucket moves
+     */
+    public synchronized int rollTo(LocalDate day) {
+        if (!day.isAfter(asOf)) {
+            return 0;
+        }
+        int moved = 0;
+        while (asOf.isBefore(day)) {
+            asOf = asOf.plusDays(1);
+            for (int bucket = 1; bucket <= LAST; bucket++) {
+                LocalDate issuedOn = asOf.minusDays(BUCKETS[bucket].getMinAgeDays());
+                Set<Long> ids = bucket == LAST ? byIssueDate.remove(issuedOn) : byIssueDate.get(issuedOn);
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Entry entry = open.get(id);
+                    if (entry != null && entry.bucket == bucket - 1) {
+                        move(id, entry, bucket);
+                        moved++;
+                    }
+                }
+            }
+        }
+        closedVersions.clear();
+        return moved;
+    }
+
+    /**
+     * Totals and counts per bucket as of today.
+     */
+    public synchronized AgingReport report() {
+        rollTo(LocalDate.now());
+        return new AgingReport(asOf, totals, counts);
+    }
+
+    /**
+     * IDs of the open invoices in a bucket as of today, ascending.
+     */
+    public synchronized List<Long> invoiceIds(Bucket bucket) {
+        rollTo(LocalDate.now());
+        List<Long> ids = new ArrayList<>(members.get(bucket.ordinal()));
+        ids.sort(null);
+        return ids;
+    }
+
+    public synchronized int size() {
+        return open.size();
+    }
+
+    // ============ Helper Methods ============
+
+    private void move(Long id, Entry entry, int bucket) {
+        members.get(entry.bucket).remove(id);
+        counts[entry.bucket]--;
+        totals[entry.bucket] -= entry.outstanding;
+        entry.bucket = bucket;
+        members.get(bucket).add(id);
+        counts[bucket]++;
+        totals[bucket] += entry.outstanding;
+    }
+
+    private void remove(Long id, Entry entry) {
+        open.remove(id);
+        members.get(entry.bucket).remove(id);
+        counts[entry.bucket]--;
+        totals[entry.bucket] -= entry.outstanding;
+        if (entry.bucket < LAST) {
+            Set<Long> sameDay = byIssueDate.get(entry.issuedOn);
+            if (sameDay != null) {
+                sameDay.remove(id);
+                if (sameDay.isEmpty()) {
+                    byIssueDate.remove(entry.issuedOn);
+                }
+            }
+        }
+    }
+
+    private static LocalDate issueDate(LocalDateTime issuedTime) {
+        return issuedTime != null ? issuedTime.toLocalDate() : null;
+    }
+
+    private static final class Entry {
+        private final LocalDate issuedOn;
+        private int bucket;
+        private long outstanding;
+        private Long version;
+
+        Entry(LocalDate issuedOn, int bucket) {
+            this.issuedOn = issuedOn;
+            this.bucket = bucket;
+        }
+    }
+}
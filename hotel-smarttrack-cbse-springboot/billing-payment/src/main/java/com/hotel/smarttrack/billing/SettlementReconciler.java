@@ -0,0 +1,428 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.ReconciliationReport;
+import com.hotel.smarttrack.entity.ReconciliationReport.Bucket;
+import com.hotel.smarttrack.entity.ReconciliationReport.Item;
+import com.hotel.smarttrack.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * SettlementReconciler - matches a processor settlement file against
+ * recorded payments by transaction reference.
+ * Part of Billing & Payment Component (Rule 2).
+ *
+ * Hash join: the payments of the settlement window (one indexed range
+ * query, streamed, four columns per row) are the build side, keyed by reference. The
+ * file is the probe side and is streamed line by line, so it is never held
+ * in memory. References not in the window (e.g. paid just before midnight
+ * and settled the next day) are looked up in chunks through
+ * idx_payments_txn_ref before they are reported missing.
+ *
+ * Memory is bounded by the payments in the window plus the references that
+ * did not reconcile; file size does not matter.
+ *
+ * File formats (detected from the first line):
+ * - CSV with a header naming a reference column (transaction_reference,
+ *   reference, txn_ref, ...) and an amount column; other columns are ignored
+ * - Fixed width: reference in the first reference-width characters, amount
+ *   in the next amount-width characters; an optional header is skipped
+ */
+@Component
+public class SettlementReconciler {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000; // references per IN-list query
+    private static final long NONE = -1L;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final PaymentRepository paymentRepository;
+    private final int referenceWidth;
+    private final int amountWidth;
+    private final int itemLimit;
+
+    public SettlementReconciler(PaymentRepository paymentRepository,
+            @Value("${hotel.billing.settlement.reference-width:24}") int referenceWidth,
+            @Value("${hotel.billing.settlement.amount-width:16}") int amountWidth,
+            @Value("${hotel.billing.settlement.item-limit:10000}") int itemLimit) {
+        if (referenceWidth < 1 || amountWidth < 1 || itemLimit < 0) {
+            throw new IllegalArgumentException("Invalid settlement reconciliation settings");
+        }
+        this.paymentRepository = paymentRepository;
+        this.referenceWidth = referenceWidth;
+        this.amountWidth = amountWidth;
+        this.itemLimit = itemLimit;
+    }
+
+    /**
+     * Reconcile a settlement file against payments made from {@code from} to
+     * {@code to} (inclusive).
+     *
+     * @throws IllegalArgumentException if the file cannot be read or has no
+     *                                  usable reference/amount columns
+     */
+    public ReconciliationReport reconcile(Path file, LocalDate from, LocalDate to) {
+        if (file == null || from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Settlement file and a valid date range are required");
+        }
+        long started = System.nanoTime();
+        ReconciliationReport report = new ReconciliationReport(file.toString(), itemLimit);
+        Join join = new Join(report);
+
+        // Build side: payments of the settlement window
+        try (Stream<Object[]> rows = paymentRepository.streamSettlementRowsBetween(
+                from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            rows.forEach(row -> join.addLedger(row, true));
+        }
+
+        // Probe side: stream the file
+        long lines = 0;
+        long malformed = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            LineFormat format = null;
+            String[] fields = new String[2];
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == null) {
+                    format = detectFormat(line);
+                    if (format.header) {
+                        continue;
+                    }
+                }
+                lines++;
+                format.read(line, fields);
+                long amount;
+                try {
+                    amount = parseMinorUnits(fields[1]);
+                } catch (NumberFormatException e) {
+                    malformed++;
+                    continue;
+                }
+                if (fields[0].isEmpty()) {
+                    malformed++;
+                    continue;
+                }
+                join.probe(fields[0], amount, lineNumber);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read settlement file " + file + ": " + e.getMessage(), e);
+        }
+        join.finish();
+
+        report.setLinesRead(lines);
+        report.setMalformedLines(malformed);
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000L);
+        System.out.println("[SettlementReconciler] " + report);
+        return report;
+    }
+
+    // ============ Hash Join ============
+
+    private final class Join {
+        private final ReconciliationReport report;
+        private final Map<String, LedgerEntry> ledger = new LinkedHashMap<>();
+        private final Set<String> unknown = new HashSet<>();
+        private final List<PendingLine> pending = new ArrayList<>();
+
+        Join(ReconciliationReport report) {
+            this.report = report;
+        }
+
+        /**
+         * Add a {payment_id, invoice_id, transaction_reference, amount} row.
+         */
+        void addLedger(Object[] row, boolean inWindow) {
+            long paymentId = ((Number) row[0]).longValue();
+            long invoiceId = row[1] != null ? ((Number) row[1]).longValue() : NONE;
+            String reference = (String) row[2];
+            BigDecimal amount = (BigDecimal) row[3];
+            LedgerEntry entry = new LedgerEntry(paymentId, invoiceId, Money.toMinorUnits(amount), inWindow);
+            LedgerEntry first = ledger.putIfAbsent(reference, entry);
+            if (first != null && first.paymentId != entry.paymentId) {
+                // One processor reference recorded on two payments
+                report.record(new Item(Bucket.DUPLICATE, reference, entry.paymentId,
+                        entry.invoiceId(), amount, null, 0L));
+            }
+        }
+
+        void probe(String reference, long amount, long lineNumber) {
+            LedgerEntry entry = ledger.get(reference);
+            if (entry != null) {
+                settle(reference, entry, amount, lineNumber);
+            } else if (unknown.contains(reference)) {
+                report.record(new Item(Bucket.DUPLICATE, reference, null, null, null,
+                        Money.ofMinor(amount).toBigDecimal(), lineNumber));
+            } else {
+                pending.add(new PendingLine(reference, amount, lineNumber));
+                if (pending.size() >= LOOKUP_CHUNK_SIZE) {
+                    flush();
+                }
+            }
+        }
+
+        /**
+         * Look up references outside the window by index, then settle the
+         * waiting lines in file order.
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<String> references = new HashSet<>();
+            for (PendingLine line : pending) {
+                references.add(line.reference);
+            }
+            for (Object[] row : paymentRepository.findSettlementRowsByReference(references)) {
+                addLedger(row, false);
+            }
+            for (PendingLine line : pending) {
+                LedgerEntry entry = ledger.get(line.reference);
+                if (entry != null) {
+                    settle(line.reference, entry, line.amount, line.lineNumber);
+                } else {
+                    Bucket bucket = unknown.add(line.reference) ? Bucket.MISSING_IN_LEDGER : Bucket.DUPLICATE;
+                    report.record(new Item(bucket, line.reference, null, null, null,
+                            Money.ofMinor(line.amount).toBigDecimal(), line.lineNumber));
+                }
+            }
+            pending.clear();
+        }
+
+        void finish() {
+            flush();
+            for (Map.Entry<String, LedgerEntry> e : ledger.entrySet()) {
+                LedgerEntry entry = e.getValue();
+                if (entry.inWindow && !entry.settled) {
+                    report.record(new Item(Bucket.MISSING_IN_SETTLEMENT, e.getKey(), entry.paymentId,
+                            entry.invoiceId(), Money.ofMinor(entry.amount).toBigDecimal(), null, 0L));
+                }
+            }
+        }
+
+        private void settle(String reference, LedgerEntry entry, long amount, long lineNumber) {
+            if (entry.settled) {
+                report.record(new Item(Bucket.DUPLICATE, reference, entry.paymentId, entry.invoiceId(),
+                        Money.ofMinor(entry.amount).toBigDecimal(), Money.ofMinor(amount).toBigDecimal(),
+                        lineNumber));
+                return;
+            }
+            entry.settled = true;
+            if (entry.amount == amount) {
+                report.recordMatch(amount);
+            } else {
+                report.record(new Item(Bucket.AMOUNT_MISMATCH, reference, entry.paymentId, entry.invoiceId(),
+                        Money.ofMinor(entry.amount).toBigDecimal(), Money.ofMinor(amount).toBigDecimal(),
+                        lineNumber));
+            }
+        }
+    }
+
+    /**
+     * One payment on the build side; primitives only to keep large windows small.
+     */
+    private static final class LedgerEntry {
+        private final long paymentId;
+        private final long invoiceId;
+        private final long amount;
+        private final boolean inWindow;
+        private boolean settled;
+
+        LedgerEntry(long paymentId, long invoiceId, long amount, boolean inWindow) {
+            this.paymentId = paymentId;
+            this.invoiceId = invoiceId;
+            this.amount = amount;
+            this.inWindow = inWindow;
+        }
+
+        Long invoiceId() {
+            return invoiceId != NONE ? invoiceId : null;
+        }
+    }
+
+    private static final class PendingLine {
+        private final String reference;
+        private final long amount;
+        private final long lineNumber;
+
+        PendingLine(String reference, long amount, long lineNumber) {
+            this.reference = reference;
+            this.amount = amount;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    // ============ File Formats ============
+
+    private LineFormat detectFormat(String firstLine) {
+        if (firstLine.indexOf(',') >= 0) {
+            String[] header = splitCsv(firstLine, Integer.MAX_VALUE);
+            int referenceColumn = -1;
+            int amountColumn = -1;
+            for (int i = 0; i < header.length; i++) {
+                String name = header[i].toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+                if (referenceColumn < 0 && (name.contains("reference") || name.equals("txnref")
+                        || name.equals("ref"))) {
+                    referenceColumn = i;
+                } else if (name.equals("amount") || (amountColumn < 0 && name.contains("amount"))) {
+                    amountColumn = i;
+                }
+            }
+            if (referenceColumn < 0 || amountColumn < 0) {
+                throw new IllegalArgumentException(
+                        "Settlement CSV needs a header with reference and amount columns: " + firstLine);
+            }
+            return LineFormat.csv(referenceColumn, amountColumn);
+        }
+        LineFormat fixed = LineFormat.fixedWidth(referenceWidth, amountWidth, false);
+        String[] fields = new String[2];
+        fixed.read(firstLine, fields);
+        try {
+            parseMinorUnits(fields[1]);
+            return fixed;
+        } catch (NumberFormatException e) {
+            return LineFormat.fixedWidth(referenceWidth, amountWidth, true);
+        }
+    }
+
+    /**
+     * Reads the reference and amount fields of one line.
+     */
+    private static final class LineFormat {
+        private final boolean csv;
+        private final int first;  // reference column, or reference width
+        private final int second; // amount column, or amount width
+        private final boolean header;
+
+        private LineFormat(boolean csv, int first, int second, boolean header) {
+            this.csv = csv;
+            this.first = first;
+            this.second = second;
+            this.header = header;
+        }
+
+        static LineFormat csv(int referenceColumn, int amountColumn) {
+            return new LineFormat(true, referenceColumn, amountColumn, true);
+        }
+
+        static LineFormat fixedWidth(int referenceWidth, int amountWidth, boolean header) {
+            return new LineFormat(false, referenceWidth, amountWidth, header);
+        }
+
+        /**
+         * Put the trimmed reference in out[0] and the amount in out[1];
+         * missing fields are empty.
+         */
+        void read(String line, String[] out) {
+            if (csv) {
+                String[] fields = splitCsv(line, Math.max(first, second));
+                out[0] = first < fields.length ? fields[first].trim() : "";
+                out[1] = second < fields.length ? fields[second].trim() : "";
+                return;
+            }
+            int split = Math.min(line.length(), first);
+            out[0] = line.substring(0, split).trim();
+            out[1] = line.substring(split, Math.min(line.length(), first + second)).trim();
+        }
+    }
+
+    /**
+     * Split a CSV line up to and including field {@code lastField}. Double
+     * quotes group a field that contains commas; "" is a literal quote.
+     */
+    static String[] splitCsv(String line, int lastField) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                if (fields.size() > lastField) {
+                    return fields.toArray(new String[0]);
+                }
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Parse an amount such as "125.50" or "-3.1" to minor units without
+     * allocating a BigDecimal; other notations fall back to BigDecimal.
+     */
+    static long parseMinorUnits(String text) {
+        int length = text.length();
+        if (length == 0) {
+            throw new NumberFormatException("Empty amount");
+        }
+        int i = 0;
+        boolean negative = false;
+        if (text.charAt(0) == '-' || text.charAt(0) == '+') {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fraction >= 0 && ++fraction > 2 || digits >= 17) {
+                    return Money.toMinorUnits(new BigDecimal(text));
+                }
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return Money.toMinorUnits(new BigDecimal(text));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("No digits in amount: " + text);
+        }
+        for (int f = Math.max(fraction, 0); f < 2; f++) {
+            units *= 10;
+        }
+        return negative ? -units : units;
+    }
+}
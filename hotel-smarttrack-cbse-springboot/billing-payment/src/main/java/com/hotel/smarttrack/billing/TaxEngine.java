@@ -0,0 +1,160 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.TaxRule;
+import com.hotel.smarttrack.service.TaxService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TaxEngine - Implementation of TaxService.
+ * Part of Billing & Payment Component (Rule 2).
+ *
+ * The active rule set is an immutable snapshot behind a volatile reference.
+ * Each snapshot compiles a TaxPlan per charge type and room type on first
+ * use and caches it; updateRules swaps in a fresh snapshot, so readers never
+ * lock and never see a half-applied rule change. A plan built from
+ * RoomType.taxRate is recompiled when updateRoomPricing changes the rate.
+ *
+ * Default rules (application.properties):
+ * - ROOM_TAX: the room type's tax rate on room-nights (10% if unset)
+ * - SERVICE_TAX: hotel.tax.service-rate on incidentals
+ * - CITY_LEVY: hotel.tax.city-levy-per-night per room-night (off when 0)
+ * Guests whose tax exemption is in hotel.tax.exempt-categories pay none of them.
+ */
+@Service
+public class TaxEngine implements TaxService {
+
+    private static final BigDecimal DEFAULT_ROOM_TAX_RATE = new BigDecimal("0.10");
+    private static final Long NO_ROOM_TYPE = -1L;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile RuleSet current;
+
+    public TaxEngine(@Value("${hotel.tax.service-rate:0.10}") BigDecimal serviceRate,
+            @Value("${hotel.tax.city-levy-per-night:0.00}") BigDecimal cityLevyPerNight,
+            @Value("${hotel.tax.exempt-categories:DIPLOMATIC}") String[] exemptCategories) {
+        updateRules(defaultRules(serviceRate, cityLevyPerNight, exemptCategories));
+    }
+
+    /**
+     * Room tax from the room type, service tax on incidentals and an optional
+     * per-night city levy.
+     */
+    public static List<TaxRule> defaultRules(BigDecimal serviceRate, BigDecimal cityLevyPerNight,
+            String... exemptCategories) {
+        List<TaxRule> rules = new ArrayList<>();
+        rules.add(TaxRule.roomTypeRate("ROOM_TAX", DEFAULT_ROOM_TAX_RATE).exemptFor(exemptCategories));
+        rules.add(TaxRule.percent("SERVICE_TAX", TaxRule.INCIDENTALS, serviceRate).exemptFor(exemptCategories));
+        if (cityLevyPerNight != null && cityLevyPerNight.signum() > 0) {
+            rules.add(TaxRule.perNight("CITY_LEVY", cityLevyPerNight).exemptFor(exemptCategories));
+        }
+        return rules;
+    }
+
+    // ============ Evaluation ============
+
+    @Override
+    public long computeTaxMinor(String chargeType, RoomType roomType, Guest guest, long amountMinor, long nights) {
+        if (amountMinor == 0L && nights == 0L) {
+            return 0L;
+        }
+        RuleSet rules = current;
+        return rules.plan(chargeType, roomType).evaluate(amountMinor, nights, rules.guestMask(guest));
+    }
+
+    // ============ Rule Management ============
+
+    @Override
+    public List<TaxRule> getRules() {
+        return current.rules;
+    }
+
+    @Override
+    public void updateRules(List<TaxRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Tax rules cannot be null");
+        }
+        for (TaxRule rule : rules) {
+            if (rule == null) {
+                throw new IllegalArgumentException("Tax rules cannot contain null");
+            }
+        }
+        current = new RuleSet(List.copyOf(rules), versions.incrementAndGet());
+        System.out.println("[TaxEngine] Loaded " + rules.size() + " tax rule(s), version " + current.version);
+    }
+
+    @Override
+    public long getRulesVersion() {
+        return current.version;
+    }
+
+    // ============ Helper Classes ============
+
+    /**
+     * One immutable rule set and the plans compiled from it.
+     */
+    private static final class RuleSet {
+        private final List<TaxRule> rules;
+        private final long version;
+        private final Map<String, Long> exemptionBits = new HashMap<>();
+        private final Map<String, Map<Long, TaxPlan>> plans = new ConcurrentHashMap<>();
+
+        RuleSet(List<TaxRule> rules, long version) {
+            this.rules = rules;
+            this.version = version;
+            for (TaxRule rule : rules) {
+                for (String category : rule.getExemptCategories()) {
+                    if (!exemptionBits.containsKey(category)) {
+                        if (exemptionBits.size() == Long.SIZE) {
+                            throw new IllegalArgumentException("At most " + Long.SIZE + " exemption categories");
+                        }
+                        exemptionBits.put(category, 1L << exemptionBits.size());
+                    }
+                }
+            }
+        }
+
+        TaxPlan plan(String chargeType, RoomType roomType) {
+            String type = chargeType != null ? chargeType : "";
+            Long roomTypeId = roomType != null && roomType.getRoomTypeId() != null
+                    ? roomType.getRoomTypeId()
+                    : NO_ROOM_TYPE;
+            BigDecimal roomTypeRate = roomType != null ? roomType.getTaxRate() : null;
+
+            Map<Long, TaxPlan> byRoomType = plans.get(type);
+            if (byRoomType == null) {
+                byRoomType = plans.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+            }
+            TaxPlan plan = byRoomType.get(roomTypeId);
+            if (plan == null || !plan.compiledFor(roomTypeRate)) {
+                plan = TaxPlan.compile(rules, type, NO_ROOM_TYPE.equals(roomTypeId) ? null : roomTypeId,
+                        roomTypeRate, exemptionBits);
+                byRoomType.put(roomTypeId, plan);
+            }
+            return plan;
+        }
+
+        long guestMask(Guest guest) {
+            String exemption = guest != null ? guest.getTaxExemption() : null;
+            if (exemption == null || exemptionBits.isEmpty()) {
+                return 0L;
+            }
+            Long bit = exemptionBits.get(exemption);
+            if (bit == null) {
+                bit = exemptionBits.get(exemption.trim().toUpperCase(Locale.ROOT));
+            }
+            return bit != null ? bit : 0L;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hotel.smarttrack.billing;
+
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.TaxRule;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tax rules compiled for one charge type in one room type.
+ *
+ * Matching rules are flattened into parallel primitive arrays (rate, flat
+ * amount per night, exemption bit mask), so evaluating a line allocates
+ * nothing. Immutable and safe to share between threads.
+ */
+final class TaxPlan {
+
+    // RoomType.taxRate the plan was compiled with, for ROOM_TYPE_RATE rules
+    private final boolean usesRoomTypeRate;
+    private final BigDecimal roomTypeRate;
+
+    private final long[] basisPoints;
+    private final long[] perNightMinor;
+    private final long[] exemptMask;
+
+    private TaxPlan(boolean usesRoomTypeRate, BigDecimal roomTypeRate,
+            long[] basisPoints, long[] perNightMinor, long[] exemptMask) {
+        this.usesRoomTypeRate = usesRoomTypeRate;
+        this.roomTypeRate = roomTypeRate;
+        this.basisPoints = basisPoints;
+        this.perNightMinor = perNightMinor;
+        this.exemptMask = exemptMask;
+    }
+
+    /**
+     * Compile the rules that apply to a charge type in a room type.
+     *
+     * @param roomTypeId    Room type, or null if unknown
+     * @param roomTypeRate  The room type's own tax rate (may be null)
+     * @param exemptionBits Bit assigned to each exemption category
+     */
+    static TaxPlan compile(List<TaxRule> rules, String chargeType, Long roomTypeId, BigDecimal roomTypeRate,
+            Map<String, Long> exemptionBits) {
+        List<TaxRule> matching = new ArrayList<>();
+        for (TaxRule rule : rules) {
+            if (rule.appliesTo(chargeType, roomTypeId)) {
+                matching.add(rule);
+            }
+        }
+
+        int n = matching.size();
+        long[] basisPoints = new long[n];
+        long[] perNightMinor = new long[n];
+        long[] exemptMask = new long[n];
+        boolean usesRoomTypeRate = false;
+        for (int i = 0; i < n; i++) {
+            TaxRule rule = matching.get(i);
+            switch (rule.getBasis()) {
+                case PERCENT:
+                    basisPoints[i] = rule.getBasisPoints();
+                    break;
+                case ROOM_TYPE_RATE:
+                    usesRoomTypeRate = true;
+                    basisPoints[i] = roomTypeRate != null ? Money.toBasisPoints(roomTypeRate) : rule.getBasisPoints();
+                    break;
+                case PER_NIGHT:
+                    perNightMinor[i] = rule.getAmountMinor();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown tax basis: " + rule.getBasis());
+            }
+            for (String category : rule.getExemptCategories()) {
+                exemptMask[i] |= exemptionBits.get(category);
+            }
+        }
+        return new TaxPlan(usesRoomTypeRate, roomTypeRate, basisPoints, perNightMinor, exemptMask);
+    }
+
+    /**
+     * Whether the plan is still valid for the room type's current tax rate.
+     */
+    boolean compiledFor(BigDecimal currentRoomTypeRate) {
+        if (!usesRoomTypeRate || currentRoomTypeRate == roomTypeRate) {
+            return true;
+        }
+        return currentRoomTypeRate != null && roomTypeRate != null
+                && currentRoomTypeRate.compareTo(roomTypeRate) == 0;
+    }
+
+    /**
+     * Tax on one line, each component rounded half-up on its own.
+     *
+     * @param guestMask Exemption bits held by the guest
+     */
+    long evaluate(long amountMinor, long nights, long guestMask) {
+        long tax = 0L;
+        for (int i = 0; i < basisPoints.length; i++) {
+            if ((exemptMask[i] & guestMask) != 0L) {
+                continue;
+            }
+            tax += Money.applyRate(amountMinor, basisPoints[i]) + Math.multiplyExact(perNightMinor[i], nights);
+        }
+        return tax;
+    }
+}
@@ -1,10 +1,14 @@
 package com.hotel.smarttrack.billing.console;
 
 import com.hotel.smarttrack.billing.BillingManager;
+import com.hotel.smarttrack.billing.dto.BillingInvoiceSummary;
+import com.hotel.smarttrack.entity.AgingReport;
 import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.ReconciliationReport;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
 
@@ -28,6 +32,8 @@ public class BillingConsole {
             System.out.println("3. Generate invoice for stay");
             System.out.println("4. Process payment");
             System.out.println("5. View invoice details");
+            System.out.println("6. Reconcile settlement file");
+            System.out.println("7. Receivables aging report");
             System.out.println("0. Back to Main Menu");
             System.out.print("\nEnter your choice: ");
 
@@ -39,6 +45,8 @@ public class BillingConsole {
                 case "3" -> generateInvoice(scanner);
                 case "4" -> processPayment(scanner);
                 case "5" -> viewInvoiceDetails(scanner);
+                case "6" -> reconcileSettlement(scanner);
+                case "7" -> showAgingReport();
                 case "0" -> running = false;
                 default -> System.out.println("Invalid choice. Try again.");
             }
@@ -56,7 +64,7 @@ public class BillingConsole {
     }
 
     private void listUnpaidInvoices() {
-        List<Invoice> invoices = billingManager.getUnpaidInvoices();
+        List<BillingInvoiceSummary> invoices = billingManager.listUnpaidInvoiceSummaries();
         if (invoices.isEmpty()) {
             System.out.println("No unpaid invoices found.");
             return;
@@ -116,6 +124,53 @@ public class BillingConsole {
         }
     }
 
+    private void reconcileSettlement(Scanner scanner) {
+        try {
+            System.out.print("Settlement file path: ");
+            String path = scanner.nextLine().trim();
+
+            System.out.print("Payments from (YYYY-MM-DD): ");
+            LocalDate from = LocalDate.parse(scanner.nextLine().trim());
+
+            System.out.print("Payments to (YYYY-MM-DD): ");
+            LocalDate to = LocalDate.parse(scanner.nextLine().trim());
+
+            ReconciliationReport report = billingManager.reconcileSettlement(path, from, to);
+            printReconciliationReport(report);
+        } catch (RuntimeException e) {
+            System.out.println("❌ Error: " + e.getMessage());
+        }
+    }
+
+    private void printReconciliationReport(ReconciliationReport report) {
+        System.out.println("\n--- Settlement Reconciliation ---");
+        System.out.println("File:             " + report.getSource());
+        System.out.println("Lines:            " + report.getLinesRead()
+                + " (" + report.getMalformedLines() + " malformed)");
+        System.out.println("Matched:          " + report.getCount(ReconciliationReport.Bucket.MATCHED)
+                + " ($" + report.getMatchedAmount() + ")");
+        for (ReconciliationReport.Bucket bucket : ReconciliationReport.Bucket.values()) {
+            if (bucket == ReconciliationReport.Bucket.MATCHED || report.getCount(bucket) == 0) {
+                continue;
+            }
+            System.out.println("\n" + bucket + ": " + report.getCount(bucket)
+                    + (report.isTruncated(bucket) ? " (first " + report.getItems(bucket).size() + " shown)" : ""));
+            report.getItems(bucket).forEach(item -> System.out.println("  " + item));
+        }
+        System.out.println(report.isClean() ? "\n✅ Settlement reconciles." : "\n⚠ Settlement has exceptions.");
+    }
+
+    private void showAgingReport() {
+        AgingReport report = billingManager.getAgingReport();
+        System.out.println("\n--- Receivables Aging as of " + report.getAsOf() + " ---");
+        for (AgingReport.Bucket bucket : AgingReport.Bucket.values()) {
+            System.out.printf("%-6s days | %5d invoice(s) | $%s%n", bucket.getLabel(),
+                    report.getInvoiceCount(bucket), report.getOutstanding(bucket));
+        }
+        System.out.printf("%-11s | %5d invoice(s) | $%s%n", "Total",
+                report.getTotalInvoiceCount(), report.getTotalOutstanding());
+    }
+
     private void printInvoiceSummary(Invoice inv) {
         System.out.printf("ID=%d | Guest=%s | Total=%s | Paid=%s | Balance=%s | Status=%s%n",
                 inv.getInvoiceId(),
@@ -126,6 +181,16 @@ public class BillingConsole {
                 inv.getStatus());
     }
 
+    private void printInvoiceSummary(BillingInvoiceSummary inv) {
+        System.out.printf("ID=%d | Guest=%s | Total=%s | Paid=%s | Balance=%s | Status=%s%n",
+                inv.getId(),
+                inv.getGuestName() != null ? inv.getGuestName() : "N/A",
+                inv.getAmount(),
+                inv.getAmountPaid(),
+                inv.getOutstandingBalance(),
+                inv.getStatus());
+    }
+
     private void printInvoiceDetails(Invoice inv) {
         System.out.println("\n--- Invoice Details ---");
         System.out.println("Invoice ID:       " + inv.getInvoiceId());
@@ -138,7 +203,7 @@ public class BillingConsole {
         System.out.println("Total Amount:     $" + inv.getTotalAmount());
         System.out.println("Amount Paid:      $" + inv.getAmountPaid());
         System.out.println("Outstanding:      $" + inv.getOutstandingBalance());
-        System.out.println("Status:           " + inv.getStatus());
+        System.out.println("Status:           " + inv.getStatus() + (inv.isInterim() ? " (interim)" : ""));
         System.out.println("Issued:           " + inv.getIssuedTime());
     }
 }
@@ -1,23 +1,43 @@
 package com.hotel.smarttrack.billing.dto;
 
+import com.hotel.smarttrack.repository.InvoiceSummaryView;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public class BillingInvoiceSummary {
 
     private Long id;
     private Long reservationId;
-    private double amount;
-    private String status;      // "UNPAID" / "PAID"
+    private Long guestId;
+    private String guestName;
+    private BigDecimal amount;
+    private BigDecimal amountPaid;
+    private BigDecimal outstandingBalance;
+    private String status;      // "Issued" / "Partially Paid" / "Paid"
     private LocalDate createdDate;
 
-    public BillingInvoiceSummary(Long id, Long reservationId, double amount, String status, LocalDate createdDate) {
+    public BillingInvoiceSummary(Long id, Long reservationId, Long guestId, String guestName,
+            BigDecimal amount, BigDecimal amountPaid, BigDecimal outstandingBalance,
+            String status, LocalDate createdDate) {
         this.id = id;
         this.reservationId = reservationId;
+        this.guestId = guestId;
+        this.guestName = guestName;
         this.amount = amount;
+        this.amountPaid = amountPaid;
+        this.outstandingBalance = outstandingBalance;
         this.status = status;
         this.createdDate = createdDate;
     }
 
+    public static BillingInvoiceSummary from(InvoiceSummaryView view) {
+        return new BillingInvoiceSummary(view.getInvoiceId(), view.getReservationId(),
+                view.getGuestId(), view.getGuestName(),
+                view.getTotalAmount(), view.getAmountPaid(), view.getOutstandingBalance(),
+                view.getStatus(), view.getIssuedTime() != null ? view.getIssuedTime().toLocalDate() : null);
+    }
+
     public Long getId() {
         return id;
     }
@@ -26,10 +46,26 @@ public class BillingInvoiceSummary {
         return reservationId;
     }
 
-    public double getAmount() {
+    public Long getGuestId() {
+        return guestId;
+    }
+
+    public String getGuestName() {
+        return guestName;
+    }
+
+    public BigDecimal getAmount() {
         return amount;
     }
 
+    public BigDecimal getAmountPaid() {
+        return amountPaid;
+    }
+
+    public BigDecimal getOutstandingBalance() {
+        return outstandingBalance;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,95 @@
+package com.hotel.smarttrack.cache;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.RoomType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * ReferenceDataCache - guests and room types looked up by ID from other
+ * components, e.g. on every booking, shared so each lookup is a map read
+ * instead of a database round-trip.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Callers pass the owning service's lookup as the loader. The owning
+ * component invalidates an entry whenever it writes one: immediately, and
+ * again when the transaction ends so a concurrent reader cannot cache the
+ * row as it was before the commit. Cached entities are detached and shared
+ * between threads; treat them as read-only. Hit rates are logged on a
+ * schedule.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final ReadThroughCache<Long, Guest> guests;
+    private final ReadThroughCache<Long, RoomType> roomTypes;
+
+    public ReferenceDataCache(
+            @Value("${hotel.cache.guests.max-size:10000}") int guestMaxSize,
+            @Value("${hotel.cache.guests.ttl-seconds:300}") long guestTtlSeconds,
+            @Value("${hotel.cache.room-types.max-size:1000}") int roomTypeMaxSize,
+            @Value("${hotel.cache.room-types.ttl-seconds:600}") long roomTypeTtlSeconds) {
+        this.guests = new ReadThroughCache<>("guests", guestMaxSize, guestTtlSeconds * 1000L);
+        this.roomTypes = new ReadThroughCache<>("roomTypes", roomTypeMaxSize, roomTypeTtlSeconds * 1000L);
+    }
+
+    public Optional<Guest> getGuest(Long guestId, Function<Long, Optional<Guest>> loader) {
+        return guests.get(guestId, loader);
+    }
+
+    public Optional<RoomType> getRoomType(Long roomTypeId, Function<Long, Optional<RoomType>> loader) {
+        return roomTypes.get(roomTypeId, loader);
+    }
+
+    /**
+     * Drop a guest now and again once the current transaction ends.
+     */
+    public void invalidateGuest(Long guestId) {
+        invalidateNowAndOnCompletion(guests, guestId);
+    }
+
+    /**
+     * Drop a room type now and again once the current transaction ends.
+     */
+    public void invalidateRoomType(Long roomTypeId) {
+        invalidateNowAndOnCompletion(roomTypes, roomTypeId);
+    }
+
+    /**
+     * Hit rate and counters of each cache.
+     */
+    public List<CacheStats> stats() {
+        return List.of(guests.stats(), roomTypes.stats());
+    }
+
+    /**
+     * Scheduled hit-rate report, hourly by default.
+     */
+    @Scheduled(cron = "${hotel.cache.stats-cron:0 0 * * * *}")
+    public void logStats() {
+        for (CacheStats stats : stats()) {
+            System.out.println("[ReferenceDataCache] " + stats);
+        }
+    }
+
+    // ============ Helper Methods ============
+
+    private static void invalidateNowAndOnCompletion(ReadThroughCache<Long, ?> cache, Long id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import java.util.Objects;
@@ -13,7 +14,10 @@ import java.util.Objects;
  * Part of Base Library (Rule 1) - shared across all components.
  */
 @Entity
-@Table(name = "guests")
+@Table(name = "guests", indexes = {
+        @Index(name = "idx_guests_email", columnList = "email"),
+        @Index(name = "idx_guests_identification", columnList = "identification_number")
+})
 public class Guest {
 
     @Id
@@ -32,6 +36,11 @@ public class Guest {
 
     private String statusJustification;
 
+    /**
+     * Tax exemption category (e.g. DIPLOMATIC), null if none
+     */
+    private String taxExemption;
+
     public Guest() {
     }
 
@@ -102,6 +111,14 @@ public class Guest {
         this.statusJustification = statusJustification;
     }
 
+    public String getTaxExemption() {
+        return taxExemption;
+    }
+
+    public void setTaxExemption(String taxExemption) {
+        this.taxExemption = taxExemption;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
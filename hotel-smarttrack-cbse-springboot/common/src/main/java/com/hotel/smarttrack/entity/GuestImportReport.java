@@ -0,0 +1,120 @@
+package com.hotel.smarttrack.entity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GuestImportReport - outcome of a bulk guest import.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Every data row is either imported or rejected with a reason and its line
+ * number. Counts are exact; rejected rows are kept up to a limit so a badly
+ * broken file cannot exhaust memory.
+ */
+public class GuestImportReport {
+
+    private final String source;
+    private final int errorLimit;
+    private final List<RowError> errors = new ArrayList<>();
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long elapsedMillis;
+
+    public GuestImportReport(String source, int errorLimit) {
+        if (errorLimit < 0) {
+            throw new IllegalArgumentException("Error limit cannot be negative");
+        }
+        this.source = source;
+        this.errorLimit = errorLimit;
+    }
+
+    /**
+     * Count a rejected row and keep it while under the limit.
+     */
+    public void reject(long lineNumber, String message) {
+        rejected++;
+        if (errors.size() < errorLimit) {
+            errors.add(new RowError(lineNumber, message));
+        }
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Rejected rows in line order, up to the error limit.
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Whether some rejected rows were counted but not kept.
+     */
+    public boolean isTruncated() {
+        return rejected > errors.size();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "GuestImportReport{source='" + source + "', rows=" + rowsRead + ", imported=" + imported
+                + ", rejected=" + rejected + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+
+    /**
+     * A rejected row.
+     */
+    public static final class RowError {
+        private final long lineNumber;
+        private final String message;
+
+        public RowError(long lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+}
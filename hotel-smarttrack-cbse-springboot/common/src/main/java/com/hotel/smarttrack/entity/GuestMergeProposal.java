@@ -0,0 +1,58 @@
+package com.hotel.smarttrack.entity;
+
+/**
+ * GuestMergeProposal - two guest profiles that look like the same person,
+ * with the older profile proposed as the one to keep.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * The score is between 0 and 1; reasons name the fields that matched.
+ */
+public class GuestMergeProposal {
+
+    private final Long survivorGuestId;
+    private final String survivorName;
+    private final Long duplicateGuestId;
+    private final String duplicateName;
+    private final double score;
+    private final String reasons;
+
+    public GuestMergeProposal(Long survivorGuestId, String survivorName, Long duplicateGuestId,
+            String duplicateName, double score, String reasons) {
+        this.survivorGuestId = survivorGuestId;
+        this.survivorName = survivorName;
+        this.duplicateGuestId = duplicateGuestId;
+        this.duplicateName = duplicateName;
+        this.score = score;
+        this.reasons = reasons;
+    }
+
+    public Long getSurvivorGuestId() {
+        return survivorGuestId;
+    }
+
+    public String getSurvivorName() {
+        return survivorName;
+    }
+
+    public Long getDuplicateGuestId() {
+        return duplicateGuestId;
+    }
+
+    public String getDuplicateName() {
+        return duplicateName;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getReasons() {
+        return reasons;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Keep #%d '%s' <- merge #%d '%s' (score %.2f: %s)",
+                survivorGuestId, survivorName, duplicateGuestId, duplicateName, score, reasons);
+    }
+}
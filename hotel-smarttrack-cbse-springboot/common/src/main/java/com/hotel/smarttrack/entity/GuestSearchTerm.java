@@ -0,0 +1,68 @@
+package com.hotel.smarttrack.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * GuestSearchTerm - one indexed term of a guest, for guest search.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * A term is a lowercase whole word of the guest's name, stored with its
+ * field weight and looked up by exact value on idx_guest_terms_term.
+ */
+@Entity
+@Table(name = "guest_search_terms", indexes = {
+        @Index(name = "idx_guest_terms_term", columnList = "term"),
+        @Index(name = "idx_guest_terms_guest", columnList = "guest_id")
+})
+public class GuestSearchTerm {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long termId;
+
+    @Column(name = "guest_id", nullable = false)
+    private Long guestId;
+
+    @Column(nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    private int weight;
+
+    public GuestSearchTerm() {
+    }
+
+    public GuestSearchTerm(Long guestId, String term, int weight) {
+        this.guestId = guestId;
+        this.term = term;
+        this.weight = weight;
+    }
+
+    public Long getTermId() {
+        return termId;
+    }
+
+    public Long getGuestId() {
+        return guestId;
+    }
+
+    public String getTerm() {
+        return term;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "GuestSearchTerm{guestId=" + guestId + ", term='" + term + "', weight=" + weight + "}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.hotel.smarttrack.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * GuestSegment - one marketing segment tag of a guest, derived from their
+ * stay, booking and spend history by the segmentation job.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Tags are replaced wholesale on every run; a guest has at most one row per
+ * segment.
+ */
+@Entity
+@Table(name = "guest_segments", indexes = {
+        @Index(name = "idx_guest_segments_guest", columnList = "guest_id"),
+        @Index(name = "idx_guest_segments_segment", columnList = "segment")
+})
+public class GuestSegment {
+
+    /** At least a few short, weekday, short-notice stays in the window. */
+    public static final String FREQUENT_BUSINESS = "FREQUENT_BUSINESS";
+    /** Mostly short stays starting on a Friday or Saturday in the window. */
+    public static final String WEEKEND_LEISURE = "WEEKEND_LEISURE";
+    /** Stayed before, but not within the window. */
+    public static final String LAPSED = "LAPSED";
+    /** Paid at least the high-spend amount on invoices issued in the window. */
+    public static final String HIGH_SPEND = "HIGH_SPEND";
+
+    public static final int MAX_SEGMENT_LENGTH = 32;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long segmentId;
+
+    @Column(name = "guest_id", nullable = false)
+    private Long guestId;
+
+    @Column(nullable = false, length = MAX_SEGMENT_LENGTH)
+    private String segment;
+
+    public GuestSegment() {
+    }
+
+    public GuestSegment(Long guestId, String segment) {
+        this.guestId = guestId;
+        this.segment = segment;
+    }
+
+    public Long getSegmentId() {
+        return segmentId;
+    }
+
+    public Long getGuestId() {
+        return guestId;
+    }
+
+    public String getSegment() {
+        return segment;
+    }
+
+    @Override
+    public String toString() {
+        return "GuestSegment{guestId=" + guestId + ", segment='" + segment + "'}";
+    }
+}
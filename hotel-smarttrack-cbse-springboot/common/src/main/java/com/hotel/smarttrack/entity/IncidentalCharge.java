@@ -1,5 +1,6 @@
 package com.hotel.smarttrack.entity;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -34,7 +35,8 @@ public class IncidentalCharge {
     private String serviceType;
 
     private String description;
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
     private LocalDateTime chargeTime;
 
     public IncidentalCharge() {
@@ -46,7 +48,7 @@ public class IncidentalCharge {
         this.stay = stay;
         this.serviceType = serviceType;
         this.description = description;
-        this.amount = amount;
+        this.amount = Money.of(amount);
         this.chargeTime = chargeTime;
     }
 
@@ -83,10 +85,18 @@ public class IncidentalCharge {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -115,6 +125,6 @@ public class IncidentalCharge {
 
     @Override
     public String toString() {
-        return "IncidentalCharge{chargeId=" + chargeId + ", serviceType='" + serviceType + "', amount=" + amount + "}";
+        return "IncidentalCharge{chargeId=" + chargeId + ", serviceType='" + serviceType + "', amount=" + getAmount() + "}";
     }
 }
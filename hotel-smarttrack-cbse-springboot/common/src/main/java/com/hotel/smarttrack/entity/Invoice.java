@@ -1,16 +1,20 @@
 package com.hotel.smarttrack.entity;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
@@ -20,9 +24,16 @@ import java.util.Objects;
  * Part of Base Library (Rule 1) - shared across all components.
  */
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_status", columnList = "status"),
+        @Index(name = "idx_invoices_guest", columnList = "guest_id"),
+        @Index(name = "idx_invoices_stay", columnList = "stay_id"),
+        @Index(name = "idx_invoices_due_date", columnList = "due_date")
+})
 public class Invoice {
 
+    private static final List<String> STATUSES = List.of("Draft", "Issued", "Paid", "Partially Paid", "Overdue");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long invoiceId;
@@ -48,12 +59,37 @@ public class Invoice {
     private List<Payment> payments;
 
     /**
-     * Invoice status: Draft, Issued, Paid, Partially Paid, Overdue
+     * Invoice status: Draft, Issued, Paid, Partially Paid, Overdue.
+     * Stored in this casing whatever casing it was set in, so status
+     * queries can compare exactly and still use idx_invoices_status.
      */
     private String status;
 
     private LocalDateTime issuedTime;
 
+    /**
+     * Becomes Overdue the day after this date if a balance is still owed.
+     */
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    /**
+     * Interim invoice for a stay still in house (e.g. month-end billing).
+     * Re-priced when the stay is invoiced again, and turned into the final
+     * invoice at check-out.
+     */
+    @Column(columnDefinition = "BOOLEAN DEFAULT FALSE NOT NULL")
+    private boolean interim;
+
+    /**
+     * Optimistic lock version; a payment or discount saved against a stale
+     * copy of the invoice fails instead of overwriting a concurrent update.
+     * Defaults to 0 so rows seeded by data.sql are versioned too.
+     */
+    @Version
+    @Column(columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private Long version;
+
     public Invoice() {
     }
 
@@ -72,7 +108,7 @@ public class Invoice {
         this.amountPaid = amountPaid;
         this.outstandingBalance = outstandingBalance;
         this.payments = payments;
-        this.status = status;
+        this.status = canonicalStatus(status);
         this.issuedTime = issuedTime;
     }
 
@@ -169,7 +205,7 @@ public class Invoice {
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = canonicalStatus(status);
     }
 
     public LocalDateTime getIssuedTime() {
@@ -180,6 +216,30 @@ public class Invoice {
         this.issuedTime = issuedTime;
     }
 
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public boolean isInterim() {
+        return interim;
+    }
+
+    public void setInterim(boolean interim) {
+        this.interim = interim;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -199,4 +259,22 @@ public class Invoice {
     public String toString() {
         return "Invoice{invoiceId=" + invoiceId + ", totalAmount=" + totalAmount + ", status='" + status + "'}";
     }
+
+    /**
+     * The known status matching {@code status} regardless of case, spacing
+     * or underscores ("PARTIALLY_PAID" gives "Partially Paid"); other
+     * values are kept as given.
+     */
+    private static String canonicalStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        String key = status.trim().replace('_', ' ').replaceAll("\\s+", " ");
+        for (String known : STATUSES) {
+            if (known.equalsIgnoreCase(key)) {
+                return known;
+            }
+        }
+        return status;
+    }
 }
@@ -0,0 +1,27 @@
+package com.hotel.smarttrack.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA converter mapping {@link Money} attributes to DECIMAL columns.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Columns hold amounts in {@link Money#DEFAULT_CURRENCY}; the existing
+ * schema and seed data (data.sql) are unchanged.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute == null ? null : attribute.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return Money.of(dbData);
+    }
+}
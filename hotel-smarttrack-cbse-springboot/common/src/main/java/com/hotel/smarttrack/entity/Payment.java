@@ -1,9 +1,11 @@
 package com.hotel.smarttrack.entity;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
@@ -15,14 +17,18 @@ import java.util.Objects;
  * Part of Base Library (Rule 1) - shared across all components.
  */
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_txn_ref", columnList = "transaction_reference"),
+        @Index(name = "idx_payments_time", columnList = "payment_time")
+})
 public class Payment {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long paymentId;
 
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
 
     /**
      * Payment method: Cash, Credit Card, Debit Card, Digital Wallet
@@ -43,7 +49,7 @@ public class Payment {
     public Payment(Long paymentId, BigDecimal amount, String paymentMethod,
             String status, String transactionReference, LocalDateTime paymentTime) {
         this.paymentId = paymentId;
-        this.amount = amount;
+        this.amount = Money.of(amount);
         this.paymentMethod = paymentMethod;
         this.status = status;
         this.transactionReference = transactionReference;
@@ -59,10 +65,18 @@ public class Payment {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return amount == null ? null : amount.toBigDecimal();
     }
 
     public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
         this.amount = amount;
     }
 
@@ -115,6 +129,6 @@ public class Payment {
 
     @Override
     public String toString() {
-        return "Payment{paymentId=" + paymentId + ", amount=" + amount + ", status='" + status + "'}";
+        return "Payment{paymentId=" + paymentId + ", amount=" + getAmount() + ", status='" + status + "'}";
     }
 }
@@ -9,6 +9,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 /**
@@ -47,6 +48,12 @@ public class Reservation {
 
     private String specialRequests;
 
+    /**
+     * When the reservation was made, for booking lead times. Null for
+     * reservations loaded without one.
+     */
+    private LocalDateTime bookedTime;
+
     public Reservation() {
     }
 
@@ -136,6 +143,14 @@ public class Reservation {
         this.specialRequests = specialRequests;
     }
 
+    public LocalDateTime getBookedTime() {
+        return bookedTime;
+    }
+
+    public void setBookedTime(LocalDateTime bookedTime) {
+        this.bookedTime = bookedTime;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
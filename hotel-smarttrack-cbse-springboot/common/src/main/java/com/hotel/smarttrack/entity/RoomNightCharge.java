@@ -0,0 +1,175 @@
+package com.hotel.smarttrack.entity;
+
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * RoomNightCharge entity - one room-night posted by the night audit.
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Each line captures the room, nightly rate and tax rate in force on its
+ * business date, so later rate changes do not reprice nights already posted.
+ * A stay has at most one line per business date.
+ */
+@Entity
+@Table(name = "room_night_charges", uniqueConstraints = @UniqueConstraint(columnNames = { "stay_id",
+        "business_date" }))
+public class RoomNightCharge {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long nightChargeId;
+
+    @ManyToOne
+    @JoinColumn(name = "stay_id")
+    private Stay stay;
+
+    private LocalDate businessDate;
+    private String roomNumber;
+
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
+
+    private BigDecimal taxRate;
+
+    @Convert(converter = MoneyConverter.class)
+    private Money taxAmount;
+
+    private LocalDateTime postedTime;
+
+    public RoomNightCharge() {
+    }
+
+    public RoomNightCharge(Long nightChargeId, Stay stay, LocalDate businessDate, String roomNumber,
+            BigDecimal amount, BigDecimal taxRate, BigDecimal taxAmount, LocalDateTime postedTime) {
+        this.nightChargeId = nightChargeId;
+        this.stay = stay;
+        this.businessDate = businessDate;
+        this.roomNumber = roomNumber;
+        this.amount = Money.of(amount);
+        this.taxRate = taxRate;
+        this.taxAmount = Money.of(taxAmount);
+        this.postedTime = postedTime;
+    }
+
+    /**
+     * The business date the night audit last closed: yesterday. Stays still
+     * in house are charged through this night.
+     */
+    public static LocalDate currentBusinessDate() {
+        return LocalDate.now().minusDays(1);
+    }
+
+    public Long getNightChargeId() {
+        return nightChargeId;
+    }
+
+    public void setNightChargeId(Long nightChargeId) {
+        this.nightChargeId = nightChargeId;
+    }
+
+    public Stay getStay() {
+        return stay;
+    }
+
+    public void setStay(Stay stay) {
+        this.stay = stay;
+    }
+
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    public void setBusinessDate(LocalDate businessDate) {
+        this.businessDate = businessDate;
+    }
+
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    public void setRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount == null ? null : amount.toBigDecimal();
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = Money.of(amount);
+    }
+
+    public Money getAmountMoney() {
+        return amount;
+    }
+
+    public void setAmountMoney(Money amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getTaxAmount() {
+        return taxAmount == null ? null : taxAmount.toBigDecimal();
+    }
+
+    public void setTaxAmount(BigDecimal taxAmount) {
+        this.taxAmount = Money.of(taxAmount);
+    }
+
+    public Money getTaxAmountMoney() {
+        return taxAmount;
+    }
+
+    public void setTaxAmountMoney(Money taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public LocalDateTime getPostedTime() {
+        return postedTime;
+    }
+
+    public void setPostedTime(LocalDateTime postedTime) {
+        this.postedTime = postedTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        RoomNightCharge that = (RoomNightCharge) o;
+        return Objects.equals(nightChargeId, that.nightChargeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nightChargeId);
+    }
+
+    @Override
+    public String toString() {
+        return "RoomNightCharge{nightChargeId=" + nightChargeId + ", businessDate=" + businessDate
+                + ", roomNumber='" + roomNumber + "', amount=" + getAmount() + ", tax=" + getTaxAmount() + "}";
+    }
+}
@@ -1,5 +1,6 @@
 package com.hotel.smarttrack.entity;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -24,7 +25,8 @@ public class RoomType {
     private String typeName;
     private String description;
     private int maxOccupancy;
-    private BigDecimal basePrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money basePrice;
     private BigDecimal taxRate;
 
     public RoomType() {
@@ -36,7 +38,7 @@ public class RoomType {
         this.typeName = typeName;
         this.description = description;
         this.maxOccupancy = maxOccupancy;
-        this.basePrice = basePrice;
+        this.basePrice = Money.of(basePrice);
         this.taxRate = taxRate;
     }
 
@@ -73,10 +75,18 @@ public class RoomType {
     }
 
     public BigDecimal getBasePrice() {
-        return basePrice;
+        return basePrice == null ? null : basePrice.toBigDecimal();
     }
 
     public void setBasePrice(BigDecimal basePrice) {
+        this.basePrice = Money.of(basePrice);
+    }
+
+    public Money getBasePriceMoney() {
+        return basePrice;
+    }
+
+    public void setBasePriceMoney(Money basePrice) {
         this.basePrice = basePrice;
     }
 
@@ -105,6 +115,6 @@ public class RoomType {
 
     @Override
     public String toString() {
-        return "RoomType{roomTypeId=" + roomTypeId + ", typeName='" + typeName + "', basePrice=" + basePrice + "}";
+        return "RoomType{roomTypeId=" + roomTypeId + ", typeName='" + typeName + "', basePrice=" + getBasePrice() + "}";
     }
 }
@@ -8,7 +8,9 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 /**
@@ -124,6 +126,26 @@ public class Stay {
         this.keyCardNumber = keyCardNumber;
     }
 
+    /**
+     * Nights to charge, minimum one: check-in to check-out, or for a stay
+     * still in house, every night through the given business date.
+     */
+    public long nightsThrough(LocalDate businessDate) {
+        if (checkInTime == null) {
+            return 1L;
+        }
+        LocalDate end = checkOutTime != null ? checkOutTime.toLocalDate() : businessDate.plusDays(1);
+        return Math.max(ChronoUnit.DAYS.between(checkInTime.toLocalDate(), end), 1L);
+    }
+
+    /**
+     * Nights to charge through the business date that the night audit has
+     * not posted.
+     */
+    public long unpostedNights(int postedNights, LocalDate businessDate) {
+        return Math.max(nightsThrough(businessDate) - postedNights, 0L);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,168 @@
+package com.hotel.smarttrack.entity;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * TaxRule - one jurisdiction rule (room tax, service tax, city levy, ...).
+ * Part of Base Library (Rule 1) - shared across all components.
+ *
+ * Immutable value object; TaxService compiles a list of rules into per
+ * room type / charge type plans. Rates are held in basis points and flat
+ * amounts in minor units, as Money does.
+ *
+ * Charge types: ROOM for room-nights, an incidental
+ * service type (Minibar, Spa, ...), INCIDENTALS for any non-room charge or
+ * ANY_CHARGE for everything.
+ */
+public final class TaxRule {
+
+    public static final String ANY_CHARGE = "*";
+    public static final String INCIDENTALS = "INCIDENTAL";
+    public static final String ROOM = "ROOM";
+
+    public enum Basis {
+        /** Percentage of the charge amount */
+        PERCENT,
+        /** Percentage taken from the stay's RoomType.taxRate */
+        ROOM_TYPE_RATE,
+        /** Flat amount per night */
+        PER_NIGHT
+    }
+
+    private final String code;
+    private final Basis basis;
+    private final String chargeType;
+    private final long basisPoints;
+    private final long amountMinor;
+    private final Long roomTypeId; // null = all room types
+    private final Set<String> exemptCategories;
+
+    private TaxRule(String code, Basis basis, String chargeType, long basisPoints, long amountMinor,
+            Long roomTypeId, Set<String> exemptCategories) {
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Tax rule code is required");
+        }
+        if (chargeType == null || chargeType.isBlank()) {
+            throw new IllegalArgumentException("Charge type is required for tax rule " + code);
+        }
+        if (basisPoints < 0 || amountMinor < 0) {
+            throw new IllegalArgumentException("Tax rule " + code + " cannot be negative");
+        }
+        this.code = code.trim().toUpperCase(Locale.ROOT);
+        this.basis = Objects.requireNonNull(basis, "basis");
+        this.chargeType = chargeType.trim();
+        this.basisPoints = basisPoints;
+        this.amountMinor = amountMinor;
+        this.roomTypeId = roomTypeId;
+        this.exemptCategories = exemptCategories;
+    }
+
+    // ============ Factories ============
+
+    /**
+     * Percentage of the charge amount, e.g. percent("SERVICE_TAX", INCIDENTALS, 0.10).
+     */
+    public static TaxRule percent(String code, String chargeType, BigDecimal rate) {
+        if (rate == null) {
+            throw new IllegalArgumentException("Rate is required for tax rule " + code);
+        }
+        return new TaxRule(code, Basis.PERCENT, chargeType, Money.toBasisPoints(rate), 0L, null, Set.of());
+    }
+
+    /**
+     * Room tax at the stay's RoomType.taxRate ({@code fallbackRate} if unset).
+     */
+    public static TaxRule roomTypeRate(String code, BigDecimal fallbackRate) {
+        return new TaxRule(code, Basis.ROOM_TYPE_RATE, ROOM, Money.toBasisPoints(fallbackRate), 0L, null,
+                Set.of());
+    }
+
+    /**
+     * Flat amount per room-night, e.g. a city levy.
+     */
+    public static TaxRule perNight(String code, BigDecimal amount) {
+        return new TaxRule(code, Basis.PER_NIGHT, ROOM, 0L, Money.toMinorUnits(amount), null, Set.of());
+    }
+
+    /**
+     * Copy of this rule limited to one room type.
+     */
+    public TaxRule forRoomType(Long roomTypeId) {
+        return new TaxRule(code, basis, chargeType, basisPoints, amountMinor, roomTypeId, exemptCategories);
+    }
+
+    /**
+     * Copy of this rule that guests in the given exemption categories do not pay.
+     */
+    public TaxRule exemptFor(String... categories) {
+        Set<String> exempt = new LinkedHashSet<>(exemptCategories);
+        for (String category : categories) {
+            if (category != null && !category.isBlank()) {
+                exempt.add(category.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return new TaxRule(code, basis, chargeType, basisPoints, amountMinor, roomTypeId,
+                Collections.unmodifiableSet(exempt));
+    }
+
+    // ============ Matching ============
+
+    /**
+     * Whether this rule taxes a charge of the given type in the given room type.
+     */
+    public boolean appliesTo(String type, Long stayRoomTypeId) {
+        if (roomTypeId != null && !roomTypeId.equals(stayRoomTypeId)) {
+            return false;
+        }
+        if (ANY_CHARGE.equals(chargeType)) {
+            return true;
+        }
+        boolean roomCharge = ROOM.equalsIgnoreCase(type);
+        if (INCIDENTALS.equalsIgnoreCase(chargeType)) {
+            return !roomCharge;
+        }
+        return chargeType.equalsIgnoreCase(type);
+    }
+
+    // ============ Getters ============
+
+    public String getCode() {
+        return code;
+    }
+
+    public Basis getBasis() {
+        return basis;
+    }
+
+    public String getChargeType() {
+        return chargeType;
+    }
+
+    public long getBasisPoints() {
+        return basisPoints;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public Long getRoomTypeId() {
+        return roomTypeId;
+    }
+
+    public Set<String> getExemptCategories() {
+        return exemptCategories;
+    }
+
+    @Override
+    public String toString() {
+        return "TaxRule{code='" + code + "', basis=" + basis + ", chargeType='" + chargeType
+                + "', basisPoints=" + basisPoints + ", amountMinor=" + amountMinor
+                + ", roomTypeId=" + roomTypeId + ", exempt=" + exemptCategories + "}";
+    }
+}
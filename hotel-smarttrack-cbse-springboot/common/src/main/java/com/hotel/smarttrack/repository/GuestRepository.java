@@ -1,11 +1,13 @@
 package com.hotel.smarttrack.repository;
 
 import com.hotel.smarttrack.entity.Guest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,6 +35,8 @@ public interface GuestRepository extends JpaRepository<Guest, Long> {
 
     /**
      * Search guests by name, email, phone, or identification number.
+     * Substring match with a full table scan; GuestService.searchGuests uses
+     * it only for terms shorter than a trigram.
      */
     @Query("SELECT g FROM Guest g WHERE " +
             "LOWER(g.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
@@ -56,4 +60,48 @@ public interface GuestRepository extends JpaRepository<Guest, Long> {
      * Check if identification number already exists.
      */
     boolean existsByIdentificationNumber(String identificationNumber);
+
+    /**
+     * Those of the given emails already on a guest, for batched uniqueness
+     * checks (idx_guests_email).
+     */
+    @Query("SELECT g.email FROM Guest g WHERE g.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Those of the given identification numbers already on a guest
+     * (idx_guests_identification).
+     */
+    @Query("SELECT g.identificationNumber FROM Guest g WHERE g.identificationNumber IN :ids")
+    List<String> findExistingIdentificationNumbers(@Param("ids") Collection<String> identificationNumbers);
+
+    /**
+     * Fields used to match duplicate profiles, one page of guests after
+     * {@code afterGuestId} in ID order. Merged guests are left out.
+     */
+    @Query("SELECT g.guestId AS guestId, g.name AS name, g.email AS email, g.phone AS phone, "
+            + "g.identificationNumber AS identificationNumber FROM Guest g "
+            + "WHERE g.guestId > :after AND (g.status IS NULL OR g.status <> 'MERGED') ORDER BY g.guestId")
+    List<GuestMatchView> findMatchFields(@Param("after") Long afterGuestId, Pageable pageable);
+
+    /**
+     * Highest guest ID, or null if there are no guests.
+     */
+    @Query("SELECT MAX(g.guestId) FROM Guest g")
+    Long findMaxGuestId();
+
+    /**
+     * Guest ID and the fields compared for duplicate detection.
+     */
+    interface GuestMatchView {
+        Long getGuestId();
+
+        String getName();
+
+        String getEmail();
+
+        String getPhone();
+
+        String getIdentificationNumber();
+    }
 }
@@ -0,0 +1,60 @@
+package com.hotel.smarttrack.repository;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestSearchTerm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA Repository for GuestSearchTerm.
+ * Part of Base Library - backs indexed guest search.
+ *
+ * Terms are looked up by exact value on idx_guest_terms_term.
+ */
+@Repository
+public interface GuestSearchTermRepository extends JpaRepository<GuestSearchTerm, Long> {
+
+    /**
+     * Remove every term of a guest.
+     */
+    @Modifying
+    @Query("DELETE FROM GuestSearchTerm t WHERE t.guestId = :guestId")
+    int deleteByGuestId(@Param("guestId") Long guestId);
+
+    /**
+     * Rows of {guestId, term} for guests with one of the given terms at the
+     * given weight (e.g. name tokens), for typo-tolerant name search.
+     */
+    @Query("SELECT t.guestId, t.term FROM GuestSearchTerm t WHERE t.term IN :terms AND t.weight = :weight")
+    List<Object[]> findGuestTerms(@Param("terms") Collection<String> terms, @Param("weight") int weight);
+
+    /**
+     * As {@link #findGuestTerms}, for the given guests only.
+     */
+    @Query("SELECT t.guestId, t.term FROM GuestSearchTerm t "
+            + "WHERE t.term IN :terms AND t.weight = :weight AND t.guestId IN :guestIds")
+    List<Object[]> findGuestTermsAmong(@Param("terms") Collection<String> terms, @Param("weight") int weight,
+            @Param("guestIds") Collection<Long> guestIds);
+
+    /**
+     * Every distinct term indexed at the given weight.
+     */
+    @Query("SELECT DISTINCT t.term FROM GuestSearchTerm t WHERE t.weight = :weight")
+    List<String> findDistinctTerms(@Param("weight") int weight);
+
+    /**
+     * Guests after {@code afterGuestId} with no terms yet (e.g. loaded by
+     * data.sql), by guest ID; page through by passing the last ID seen.
+     * Merged guests have none and are left out.
+     */
+    @Query("SELECT g FROM Guest g WHERE g.guestId > :after AND (g.status IS NULL OR g.status <> 'MERGED') "
+            + "AND NOT EXISTS (SELECT 1 FROM GuestSearchTerm t WHERE t.guestId = g.guestId) ORDER BY g.guestId")
+    List<Guest> findGuestsWithoutTerms(@Param("after") Long afterGuestId, Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package com.hotel.smarttrack.repository;
+
+import com.hotel.smarttrack.entity.GuestSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Spring Data JPA Repository for GuestSegment.
+ * Part of Base Library - backs guest segmentation.
+ *
+ * Tags are written by the segmentation job as JDBC batches; these are the
+ * read side.
+ */
+@Repository
+public interface GuestSegmentRepository extends JpaRepository<GuestSegment, Long> {
+
+    /**
+     * A guest's segments, alphabetically.
+     */
+    @Query("SELECT s.segment FROM GuestSegment s WHERE s.guestId = :guestId ORDER BY s.segment")
+    List<String> findSegmentsByGuestId(@Param("guestId") Long guestId);
+
+    /**
+     * IDs of the guests in a segment, ascending.
+     */
+    @Query("SELECT s.guestId FROM GuestSegment s WHERE s.segment = :segment ORDER BY s.guestId")
+    List<Long> findGuestIdsBySegment(@Param("segment") String segment);
+
+    /**
+     * Rows of {segment, guest count}.
+     */
+    @Query("SELECT s.segment, COUNT(s) FROM GuestSegment s GROUP BY s.segment ORDER BY s.segment")
+    List<Object[]> countBySegment();
+}
@@ -6,7 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,15 +23,15 @@ public interface IncidentalChargeRepository extends JpaRepository<IncidentalChar
     List<IncidentalCharge> findByStayId(@Param("stayId") Long stayId);
 
     /**
-     * Find charges by service type.
+     * Find charges for a batch of stays in one query.
      */
-    List<IncidentalCharge> findByServiceType(String serviceType);
+    @Query("SELECT ic FROM IncidentalCharge ic WHERE ic.stay.stayId IN :stayIds")
+    List<IncidentalCharge> findByStayIdIn(@Param("stayIds") Collection<Long> stayIds);
 
     /**
-     * Get total charges for a stay.
+     * Find charges by service type.
      */
-    @Query("SELECT COALESCE(SUM(ic.amount), 0) FROM IncidentalCharge ic WHERE ic.stay.stayId = :stayId")
-    BigDecimal getTotalChargesForStay(@Param("stayId") Long stayId);
+    List<IncidentalCharge> findByServiceType(String serviceType);
 
     /**
      * Find charges by stay ID and service type.
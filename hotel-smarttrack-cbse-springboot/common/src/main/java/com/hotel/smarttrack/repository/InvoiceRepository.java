@@ -1,10 +1,186 @@
 package com.hotel.smarttrack.repository;
 
+import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.Invoice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByStay_StayId(Long stayId);
+
+    /**
+     * Find existing invoices for a batch of stays.
+     */
+    List<Invoice> findByStay_StayIdIn(Collection<Long> stayIds);
+
+    /**
+     * Find invoices not in the given status (invoices with no status included).
+     * Uses idx_invoices_status; stay and guest are fetched in the same query.
+     */
+    @EntityGraph(attributePaths = { "stay", "guest" })
+    List<Invoice> findByStatusNotOrStatusIsNull(String status);
+
+    /**
+     * Find invoices in a status. Uses idx_invoices_status.
+     */
+    @EntityGraph(attributePaths = { "stay", "guest" })
+    List<Invoice> findByStatus(String status);
+
+    /**
+     * Find invoices billed to a guest. Uses idx_invoices_guest.
+     */
+    @EntityGraph(attributePaths = { "stay", "guest" })
+    List<Invoice> findByGuest_GuestId(Long guestId);
+
+    /**
+     * Listing rows for invoices not in the given status, without loading
+     * invoice entities or their payments.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, r.reservationId AS reservationId, g.guestId AS guestId, "
+            + "g.name AS guestName, i.totalAmount AS totalAmount, i.amountPaid AS amountPaid, "
+            + "i.outstandingBalance AS outstandingBalance, i.status AS status, i.issuedTime AS issuedTime "
+            + "FROM Invoice i LEFT JOIN i.guest g LEFT JOIN i.stay s LEFT JOIN s.reservation r "
+            + "WHERE i.status <> :status OR i.status IS NULL ORDER BY i.invoiceId")
+    List<InvoiceSummaryView> findSummariesByStatusNot(@Param("status") String status);
+
+    /**
+     * Listing rows for a guest's invoices, without loading invoice entities.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, r.reservationId AS reservationId, g.guestId AS guestId, "
+            + "g.name AS guestName, i.totalAmount AS totalAmount, i.amountPaid AS amountPaid, "
+            + "i.outstandingBalance AS outstandingBalance, i.status AS status, i.issuedTime AS issuedTime "
+            + "FROM Invoice i JOIN i.guest g LEFT JOIN i.stay s LEFT JOIN s.reservation r "
+            + "WHERE g.guestId = :guestId ORDER BY i.invoiceId")
+    List<InvoiceSummaryView> findSummariesByGuestId(@Param("guestId") Long guestId);
+
+    // ============ Due Dates ============
+
+    /**
+     * Due dates of invoices that can still become overdue.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.dueDate AS dueDate FROM Invoice i "
+            + "WHERE i.dueDate IS NOT NULL AND (i.status IS NULL OR i.status NOT IN (:paid, :overdue))")
+    List<DueDateView> findOpenDueDates(@Param("paid") String paidStatus, @Param("overdue") String overdueStatus);
+
+    /**
+     * As {@link #findOpenDueDates}, for the given invoices only.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.dueDate AS dueDate FROM Invoice i WHERE i.invoiceId IN :ids "
+            + "AND i.dueDate IS NOT NULL AND (i.status IS NULL OR i.status NOT IN (:paid, :overdue))")
+    List<DueDateView> findOpenDueDatesAmong(@Param("ids") Collection<Long> invoiceIds,
+            @Param("paid") String paidStatus, @Param("overdue") String overdueStatus);
+
+    /**
+     * Move the given invoices to the overdue status if their due date is
+     * before {@code today} and they still owe a balance. Bumps the version so
+     * a concurrent payment on a stale copy retries.
+     *
+     * @return Number of invoices moved
+     */
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = :overdue, i.version = i.version + 1 "
+            + "WHERE i.invoiceId IN :ids AND i.dueDate < :today AND i.outstandingBalance > 0 "
+            + "AND (i.status IS NULL OR i.status NOT IN (:paid, :overdue))")
+    int markOverdue(@Param("ids") Collection<Long> invoiceIds, @Param("today") LocalDate today,
+            @Param("paid") String paidStatus, @Param("overdue") String overdueStatus);
+
+    /**
+     * Move every invoice of one guest to another (duplicate profile merge).
+     * Bumps the version so a concurrent update on a stale copy retries.
+     *
+     * @return Number of invoices moved
+     */
+    @Modifying
+    @Query("UPDATE Invoice i SET i.guest = :to, i.version = i.version + 1 WHERE i.guest.guestId = :fromGuestId")
+    int reassignGuest(@Param("fromGuestId") Long fromGuestId, @Param("to") Guest to);
+
+    // ============ Guest Profiles ============
+
+    /**
+     * Highest invoice ID, or null if there are no invoices.
+     */
+    @Query("SELECT MAX(i.invoiceId) FROM Invoice i")
+    Long findMaxInvoiceId();
+
+    /**
+     * Guest, amount paid and version of invoices with IDs in
+     * [fromInvoiceId, toInvoiceId].
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.guest.guestId AS guestId, i.amountPaid AS amountPaid, "
+            + "i.version AS version FROM Invoice i WHERE i.invoiceId BETWEEN :from AND :to")
+    List<AmountPaidView> findAmountsPaid(@Param("from") Long fromInvoiceId, @Param("to") Long toInvoiceId);
+
+    /**
+     * Amount paid and version of a guest's invoices.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.guest.guestId AS guestId, i.amountPaid AS amountPaid, "
+            + "i.version AS version FROM Invoice i WHERE i.guest.guestId = :guestId")
+    List<AmountPaidView> findAmountsPaidByGuestId(@Param("guestId") Long guestId);
+
+    // ============ Guest Segmentation ============
+
+    /**
+     * Amount paid on invoices issued since {@code since} to guests with IDs
+     * in [fromGuestId, toGuestId].
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.guest.guestId AS guestId, i.amountPaid AS amountPaid, "
+            + "i.version AS version FROM Invoice i "
+            + "WHERE i.guest.guestId BETWEEN :from AND :to AND i.issuedTime >= :since")
+    List<AmountPaidView> findAmountsPaidByGuestRange(@Param("from") Long fromGuestId,
+            @Param("to") Long toGuestId, @Param("since") LocalDateTime since);
+
+    // ============ Aging ============
+
+    /**
+     * Issue time and balance of every invoice that still owes something.
+     */
+    @Query("SELECT i.invoiceId AS invoiceId, i.issuedTime AS issuedTime, "
+            + "i.outstandingBalance AS outstandingBalance, i.version AS version "
+            + "FROM Invoice i WHERE i.outstandingBalance > 0")
+    List<OpenBalanceView> findOpenBalances();
+
+    /**
+     * Invoice ID and due date only.
+     */
+    interface DueDateView {
+        Long getInvoiceId();
+
+        LocalDate getDueDate();
+    }
+
+    /**
+     * Invoice ID, guest, amount paid and version only.
+     */
+    interface AmountPaidView {
+        Long getInvoiceId();
+
+        Long getGuestId();
+
+        BigDecimal getAmountPaid();
+
+        Long getVersion();
+    }
+
+    /**
+     * Invoice ID, issue time, balance and version only.
+     */
+    interface OpenBalanceView {
+        Long getInvoiceId();
+
+        LocalDateTime getIssuedTime();
+
+        BigDecimal getOutstandingBalance();
+
+        Long getVersion();
+    }
 }
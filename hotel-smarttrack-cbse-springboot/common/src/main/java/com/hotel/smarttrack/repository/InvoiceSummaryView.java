@@ -0,0 +1,29 @@
+package com.hotel.smarttrack.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of an invoice row for listing screens.
+ * Part of Base Library - returned by InvoiceRepository summary queries.
+ */
+public interface InvoiceSummaryView {
+
+    Long getInvoiceId();
+
+    Long getReservationId();
+
+    Long getGuestId();
+
+    String getGuestName();
+
+    BigDecimal getTotalAmount();
+
+    BigDecimal getAmountPaid();
+
+    BigDecimal getOutstandingBalance();
+
+    String getStatus();
+
+    LocalDateTime getIssuedTime();
+}
@@ -1,7 +1,47 @@
 package com.hotel.smarttrack.repository;
 
 import com.hotel.smarttrack.entity.Payment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * Find payments by processor transaction reference. Uses idx_payments_txn_ref.
+     */
+    List<Payment> findByTransactionReference(String transactionReference);
+
+    // ============ Settlement Reconciliation ============
+    // Rows are {payment_id, invoice_id, transaction_reference, amount}. Plain
+    // arrays rather than projections: a day's settlement window can be a
+    // million rows, and a projection proxy per row costs ~10x the query.
+
+    /**
+     * Reconciliation rows for referenced payments made in [from, to),
+     * streamed rather than collected. Uses idx_payments_time; no payment
+     * entities are loaded. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT p.payment_id, p.invoice_id, p.transaction_reference, p.amount FROM payments p "
+            + "WHERE p.transaction_reference IS NOT NULL AND p.payment_time >= :from AND p.payment_time < :to",
+            nativeQuery = true)
+    Stream<Object[]> streamSettlementRowsBetween(@Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Reconciliation rows for the given transaction references.
+     * Uses idx_payments_txn_ref.
+     */
+    @Query(value = "SELECT p.payment_id, p.invoice_id, p.transaction_reference, p.amount FROM payments p "
+            + "WHERE p.transaction_reference IN (:refs)", nativeQuery = true)
+    List<Object[]> findSettlementRowsByReference(@Param("refs") Collection<String> transactionReferences);
 }
@@ -1,12 +1,15 @@
 package com.hotel.smarttrack.repository;
 
+import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.Reservation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -67,4 +70,35 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
      */
     @Query("SELECT r FROM Reservation r WHERE r.guest.guestId = :guestId ORDER BY r.checkInDate DESC")
     List<Reservation> findGuestReservationHistory(@Param("guestId") Long guestId);
+
+    /**
+     * Move every reservation of one guest to another (duplicate profile merge).
+     *
+     * @return Number of reservations moved
+     */
+    @Modifying
+    @Query("UPDATE Reservation r SET r.guest = :to WHERE r.guest.guestId = :fromGuestId")
+    int reassignGuest(@Param("fromGuestId") Long fromGuestId, @Param("to") Guest to);
+
+    // ============ Guest Segmentation ============
+
+    /**
+     * Booking and check-in dates of the uncancelled reservations of guests
+     * with IDs in [fromGuestId, toGuestId] that record when they were made.
+     */
+    @Query("SELECT r.guest.guestId AS guestId, r.bookedTime AS bookedTime, r.checkInDate AS checkInDate "
+            + "FROM Reservation r WHERE r.guest.guestId BETWEEN :from AND :to "
+            + "AND r.bookedTime IS NOT NULL AND UPPER(r.status) <> 'CANCELLED'")
+    List<BookingView> findBookingsByGuestRange(@Param("from") Long fromGuestId, @Param("to") Long toGuestId);
+
+    /**
+     * Guest, booking time and check-in date only.
+     */
+    interface BookingView {
+        Long getGuestId();
+
+        LocalDateTime getBookedTime();
+
+        LocalDate getCheckInDate();
+    }
 }
@@ -0,0 +1,42 @@
+package com.hotel.smarttrack.repository;
+
+import com.hotel.smarttrack.entity.RoomNightCharge;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA Repository for RoomNightCharge entity.
+ * Part of Base Library - provides data access for night audit postings.
+ */
+@Repository
+public interface RoomNightChargeRepository extends JpaRepository<RoomNightCharge, Long> {
+
+    /**
+     * Find posted room-nights for a stay.
+     */
+    @Query("SELECT n FROM RoomNightCharge n WHERE n.stay.stayId = :stayId ORDER BY n.businessDate")
+    List<RoomNightCharge> findByStayId(@Param("stayId") Long stayId);
+
+    /**
+     * Find posted room-nights for a batch of stays in one query.
+     */
+    @Query("SELECT n FROM RoomNightCharge n WHERE n.stay.stayId IN :stayIds ORDER BY n.stay.stayId, n.businessDate")
+    List<RoomNightCharge> findByStayIdIn(@Param("stayIds") Collection<Long> stayIds);
+
+    /**
+     * Find IDs of stays already posted for a business date.
+     */
+    @Query("SELECT n.stay.stayId FROM RoomNightCharge n WHERE n.businessDate = :businessDate")
+    List<Long> findPostedStayIds(@Param("businessDate") LocalDate businessDate);
+
+    /**
+     * Find all room-nights posted for a business date.
+     */
+    List<RoomNightCharge> findByBusinessDate(LocalDate businessDate);
+}
@@ -1,11 +1,14 @@
 package com.hotel.smarttrack.repository;
 
+import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.Stay;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,4 +59,62 @@ public interface StayRepository extends JpaRepository<Stay, Long> {
      */
     @Query("SELECT s FROM Stay s WHERE s.guest.guestId = :guestId ORDER BY s.checkInTime DESC")
     List<Stay> findGuestStayHistory(@Param("guestId") Long guestId);
+
+    /**
+     * Move every stay of one guest to another (duplicate profile merge).
+     *
+     * @return Number of stays moved
+     */
+    @Modifying
+    @Query("UPDATE Stay s SET s.guest = :to WHERE s.guest.guestId = :fromGuestId")
+    int reassignGuest(@Param("fromGuestId") Long fromGuestId, @Param("to") Guest to);
+
+    // ============ Guest Profiles ============
+
+    /**
+     * Highest stay ID, or null if there are no stays.
+     */
+    @Query("SELECT MAX(s.stayId) FROM Stay s")
+    Long findMaxStayId();
+
+    /**
+     * Checked-out stays with IDs in [fromStayId, toStayId], four columns
+     * per row.
+     */
+    @Query("SELECT s.stayId AS stayId, s.guest.guestId AS guestId, s.checkInTime AS checkInTime, "
+            + "s.checkOutTime AS checkOutTime FROM Stay s "
+            + "WHERE s.stayId BETWEEN :from AND :to AND s.status = 'CHECKED_OUT'")
+    List<CompletedStayView> findCompletedStays(@Param("from") Long fromStayId, @Param("to") Long toStayId);
+
+    /**
+     * A guest's checked-out stays.
+     */
+    @Query("SELECT s.stayId AS stayId, s.guest.guestId AS guestId, s.checkInTime AS checkInTime, "
+            + "s.checkOutTime AS checkOutTime FROM Stay s "
+            + "WHERE s.guest.guestId = :guestId AND s.status = 'CHECKED_OUT'")
+    List<CompletedStayView> findCompletedStaysByGuestId(@Param("guestId") Long guestId);
+
+    // ============ Guest Segmentation ============
+
+    /**
+     * Checked-out stays of guests with IDs in [fromGuestId, toGuestId].
+     */
+    @Query("SELECT s.stayId AS stayId, s.guest.guestId AS guestId, s.checkInTime AS checkInTime, "
+            + "s.checkOutTime AS checkOutTime FROM Stay s "
+            + "WHERE s.guest.guestId BETWEEN :from AND :to AND s.status = 'CHECKED_OUT'")
+    List<CompletedStayView> findCompletedStaysByGuestRange(@Param("from") Long fromGuestId,
+            @Param("to") Long toGuestId);
+
+    /**
+     * Stay ID, guest and stay times only.
+     */
+    interface CompletedStayView {
+        Long getStayId();
+
+        Long getGuestId();
+
+        LocalDateTime getCheckInTime();
+
+        LocalDateTime getCheckOutTime();
+    }
 }
@@ -1,10 +1,15 @@
 package com.hotel.smarttrack.service;
 
+import com.hotel.smarttrack.entity.AgingReport;
 import com.hotel.smarttrack.entity.Invoice;
 import com.hotel.smarttrack.entity.Payment;
+import com.hotel.smarttrack.entity.ReconciliationReport;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * BillingService interface - exposes Billing & Payment functionality.
@@ -17,6 +22,8 @@ public interface BillingService {
 
     Invoice generateInvoice(Long stayId);
 
+    List<Invoice> generateInvoices(Collection<Long> stayIds);
+
     BigDecimal computeTotalCharges(Long stayId);
 
     Optional<Invoice> getInvoiceById(Long invoiceId);
@@ -27,6 +34,8 @@ public interface BillingService {
 
     Payment processPayment(Long invoiceId, BigDecimal amount, String paymentMethod);
 
+    CompletableFuture<Payment> processPaymentAsync(Long invoiceId, BigDecimal amount, String paymentMethod);
+
     List<Payment> getPaymentsForInvoice(Long invoiceId);
 
     // ============ Outstanding Balance Management ============
@@ -35,6 +44,8 @@ public interface BillingService {
 
     List<Invoice> getUnpaidInvoices();
 
+    List<Invoice> getOverdueInvoices();
+
     List<Invoice> getInvoicesByGuest(Long guestId);
 
     void updateInvoiceStatus(Long invoiceId, String status);
@@ -42,4 +53,14 @@ public interface BillingService {
     // ============ Discounts ============
 
     void applyDiscount(Long invoiceId, BigDecimal discountAmount, String reason);
+
+    // ============ Settlement Reconciliation ============
+
+    ReconciliationReport reconcileSettlement(String filePath, LocalDate from, LocalDate to);
+
+    // ============ Receivables Aging ============
+
+    AgingReport getAgingReport();
+
+    List<Invoice> getInvoicesInAgingBucket(AgingReport.Bucket bucket);
 }
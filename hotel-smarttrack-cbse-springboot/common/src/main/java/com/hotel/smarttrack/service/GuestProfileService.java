@@ -0,0 +1,57 @@
+package com.hotel.smarttrack.service;
+
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Stay;
+
+/**
+ * GuestProfileService interface - per-guest value aggregates (completed
+ * stays, nights, lifetime revenue) and the VIP indicator.
+ * Part of Base Library (Rule 5) - interface in common library.
+ * Implemented by GuestProfileManager in guest-management component.
+ *
+ * Aggregates are maintained incrementally from check-outs and payments, so
+ * reading a profile or the VIP flag is a constant-time lookup instead of
+ * summing the guest's stay and invoice history.
+ */
+public interface GuestProfileService {
+
+    // ============ Profile Reads ============
+
+    /**
+     * Get a guest's aggregates; all zero for a guest with no completed stays
+     * or payments.
+     *
+     * @param guestId Guest ID
+     */
+    GuestProfile getGuestProfile(Long guestId);
+
+    /**
+     * Whether a guest meets the VIP thresholds (completed stays or lifetime
+     * revenue).
+     *
+     * @param guestId Guest ID
+     */
+    boolean isVip(Long guestId);
+
+    // ============ Change Notifications ============
+
+    /**
+     * Record the current state of a stay; it counts once checked out.
+     */
+    void stayChanged(Stay stay);
+
+    /**
+     * Record the current amount paid on an invoice.
+     */
+    void invoiceChanged(Invoice invoice);
+
+    // ============ Rebuild ============
+
+    /**
+     * Recompute every guest's aggregates from stays and invoices.
+     *
+     * @return Number of guests with a profile
+     */
+    int rebuildProfiles();
+}
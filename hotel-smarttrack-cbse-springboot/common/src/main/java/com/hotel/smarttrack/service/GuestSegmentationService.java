@@ -0,0 +1,47 @@
+package com.hotel.smarttrack.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GuestSegmentationService interface - marketing segments (frequent
+ * business traveler, weekend leisure, lapsed, high spend) derived from each
+ * guest's stays, booking lead times and spend.
+ * Part of Base Library (Rule 5) - interface in common library.
+ * Implemented by GuestSegmentationManager in guest-management component.
+ *
+ * Segments are computed by a batch job that reads the whole history once,
+ * partitioned by guest; reads return the tags of the last run.
+ */
+public interface GuestSegmentationService {
+
+    // ============ Segment Reads ============
+
+    /**
+     * A guest's segments from the last run, alphabetically; empty if none.
+     *
+     * @param guestId Guest ID
+     */
+    List<String> getSegments(Long guestId);
+
+    /**
+     * IDs of the guests in a segment, ascending.
+     *
+     * @param segment Segment name (see GuestSegment)
+     */
+    List<Long> getGuestIdsInSegment(String segment);
+
+    /**
+     * Number of guests in each segment after the last run.
+     */
+    Map<String, Long> getSegmentCounts();
+
+    // ============ Batch ============
+
+    /**
+     * Recompute every guest's segments and replace the stored tags.
+     *
+     * @return Number of guests in each segment
+     */
+    Map<String, Long> runSegmentation();
+}
@@ -1,7 +1,14 @@
 package com.hotel.smarttrack.service;
 
 import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.entity.GuestMergeProposal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -46,6 +53,34 @@ public interface GuestService {
      */
     List<Guest> searchGuests(String searchTerm);
 
+    /**
+     * Search guests by criteria, one page of ranked results at a time.
+     * 
+     * @param searchTerm Name, email, phone, or ID number
+     * @param pageable   Page number and size
+     * @return Page of matching guests with the total match count
+     */
+    Page<Guest> searchGuests(String searchTerm, Pageable pageable);
+
+    /**
+     * Find guests by a possibly misspelt name: every word must be within a
+     * few typos of a word of the guest's name, or sound like it ("Jon Smyth"
+     * finds "John Smith"). Closest matches come first.
+     * 
+     * @param name Guest name as heard or typed
+     * @return Matching guests, at most 100
+     */
+    List<Guest> findSimilarGuests(String name);
+
+    /**
+     * Complete a partly typed guest name from its start or the start of a
+     * later word ("smi" gives "John Smith"). Merged guests are left out.
+     * 
+     * @param prefix Start of the name or of one of its words
+     * @return Guest ID to name, best match first, at most 10
+     */
+    Map<Long, String> completeGuestNames(String prefix);
+
     /**
      * Get all guests.
      * 
@@ -75,4 +110,44 @@ public interface GuestService {
      * @param guestId Guest ID
      */
     void reactivateGuest(Long guestId);
+
+    /**
+     * Find pairs of guest profiles that look like the same person. Guests
+     * are only compared with guests sharing a phone number, email local part
+     * or phonetic name key, so this stays close to linear in the number of
+     * guests.
+     * 
+     * @return Proposed merges, most likely duplicates first
+     */
+    List<GuestMergeProposal> findDuplicateGuests();
+
+    /**
+     * Merge a duplicate guest profile into the one being kept. Reservations,
+     * stays and invoices move to the survivor; the duplicate is marked MERGED.
+     * 
+     * @param survivorGuestId  Guest ID to keep
+     * @param duplicateGuestId Guest ID to merge away
+     * @return The survivor
+     */
+    Guest mergeGuests(Long survivorGuestId, Long duplicateGuestId);
+
+    /**
+     * Bulk-import guests from a CSV file with name, email, phone and
+     * identification number columns. Rows are validated like createGuest;
+     * invalid or duplicate rows are reported and skipped, the rest are
+     * imported in batches.
+     * 
+     * @param filePath Path of the CSV file
+     * @return Imported and rejected counts, with the reason per rejected row
+     */
+    GuestImportReport importGuests(String filePath);
+
+    /**
+     * Bulk-import guests from a CSV stream, as {@link #importGuests(String)}.
+     * 
+     * @param in     UTF-8 CSV content; read to the end but not closed
+     * @param source Name of the input for the report
+     * @return Imported and rejected counts, with the reason per rejected row
+     */
+    GuestImportReport importGuests(InputStream in, String source);
 }
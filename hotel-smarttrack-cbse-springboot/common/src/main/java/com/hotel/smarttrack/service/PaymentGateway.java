@@ -0,0 +1,41 @@
+package com.hotel.smarttrack.service;
+
+import com.hotel.smarttrack.entity.PaymentAuthorization;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PaymentGateway interface - service provider interface for card/payment
+ * processors.
+ * Part of Base Library (Rule 5) - interface in common library.
+ * Implemented by SimulatedPaymentGateway in billing-payment component; a real
+ * processor adapter replaces it.
+ *
+ * Calls are asynchronous so many authorizations can be in flight at once.
+ * Implementations must not block the calling thread.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Authorize and capture a payment.
+     *
+     * The future completes with the processor's answer (approved or declined)
+     * or exceptionally on a transport failure. A failed call may be retried
+     * with the same idempotency key; the processor must not charge twice.
+     *
+     * @param idempotencyKey Unique per payment attempt, reused on retries
+     * @param invoiceId      Invoice being paid
+     * @param amount         Amount to charge
+     * @param paymentMethod  Payment method (Cash, Credit Card, ...)
+     */
+    CompletableFuture<PaymentAuthorization> authorize(String idempotencyKey, Long invoiceId,
+            BigDecimal amount, String paymentMethod);
+
+    /**
+     * Void an approved authorization that could not be recorded.
+     *
+     * @param transactionReference Reference returned by authorize
+     */
+    CompletableFuture<Void> voidAuthorization(String transactionReference);
+}
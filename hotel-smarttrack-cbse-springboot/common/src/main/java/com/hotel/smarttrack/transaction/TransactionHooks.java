@@ -0,0 +1,32 @@
+package com.hotel.smarttrack.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * TransactionHooks - defers updates to in-memory state (indexes, counters,
+ * aggregates) until the surrounding transaction commits.
+ * Part of Base Library (Rule 1) - shared across all components.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /**
+     * Run once the current transaction commits, so a rolled-back write never
+     * shows up; run now if there is no transaction.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
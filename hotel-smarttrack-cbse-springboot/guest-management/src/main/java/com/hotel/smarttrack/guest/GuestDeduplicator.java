@@ -0,0 +1,377 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestMergeProposal;
+import com.hotel.smarttrack.repository.GuestRepository;
+import com.hotel.smarttrack.repository.GuestRepository.GuestMatchView;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.ReservationRepository;
+import com.hotel.smarttrack.repository.StayRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * GuestDeduplicator - finds guest profiles that look like the same person
+ * and merges a duplicate into the profile being kept.
+ *
+ * Comparing every pair of guests is quadratic, so guests are blocked first:
+ * they are only compared with guests sharing a phone number (last nine
+ * digits), an email local part (no dots or "+tag") or a phonetic name key.
+ * Each blocking key is hashed and packed with the guest's position into a
+ * long, so a block is a run in one sorted long[] per key. Blocks of up to
+ * MAX_BLOCK_SIZE guests are compared in full; larger ones (common names,
+ * shared switchboard numbers) are sorted by name and each guest is compared
+ * with its next WINDOW neighbours. Work and memory stay close to linear in
+ * the number of guests.
+ *
+ * A pair scores for an equal ID number (0.6), email (0.4) or email local
+ * part (0.25), phone (0.35) and a name similarity of at least 0.85 (0.45
+ * times the similarity; Jaro-Winkler of the least similar name token),
+ * capped at 1. Pairs at or above the threshold are proposed, keeping the
+ * older profile. A nightly run keeps the latest proposals; nothing is
+ * merged without a call to merge().
+ */
+@Component
+public class GuestDeduplicator {
+
+    static final String MERGED = "MERGED";
+
+    private static final int LOAD_CHUNK_SIZE = 5000;
+    private static final int MAX_BLOCK_SIZE = 50;
+    private static final int WINDOW = 10;
+
+    private static final double ID_WEIGHT = 0.6;
+    private static final double EMAIL_WEIGHT = 0.4;
+    private static final double EMAIL_LOCAL_WEIGHT = 0.25;
+    private static final double PHONE_WEIGHT = 0.35;
+    private static final double NAME_WEIGHT = 0.45;
+    private static final double MIN_NAME_SIMILARITY = 0.85;
+
+    private final GuestRepository guestRepository;
+    private final ReservationRepository reservationRepository;
+    private final StayRepository stayRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double threshold;
+
+    private volatile List<GuestMergeProposal> lastProposals = List.of();
+
+    public GuestDeduplicator(GuestRepository guestRepository,
+            ReservationRepository reservationRepository,
+            StayRepository stayRepository,
+            InvoiceRepository invoiceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${hotel.guest.dedup.threshold:0.7}") double threshold) {
+        if (threshold <= 0.0 || threshold > 1.0) {
+            throw new IllegalArgumentException("Duplicate threshold must be in (0, 1]: " + threshold);
+        }
+        this.guestRepository = guestRepository;
+        this.reservationRepository = reservationRepository;
+        this.stayRepository = stayRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Scheduled overnight detection; the proposals are kept for review.
+     */
+    @Scheduled(cron = "${hotel.guest.dedup-cron:0 30 3 * * *}")
+    public void runNightly() {
+        findDuplicates();
+    }
+
+    /**
+     * Score the guests within each block and propose merges.
+     *
+     * @return Proposed merges, highest score first
+     */
+    public List<GuestMergeProposal> findDuplicates() {
+        long started = System.nanoTime();
+        List<Profile> profiles = loadProfiles();
+
+        Map<Long, Match> matches = new HashMap<>();
+        int compared = 0;
+        compared += compareBlocks(profiles, p -> p.phone, matches);
+        compared += compareBlocks(profiles, p -> p.emailLocal, matches);
+        compared += compareBlocks(profiles, p -> p.phonetic, matches);
+
+        List<GuestMergeProposal> proposals = toProposals(matches.values());
+        lastProposals = List.copyOf(proposals);
+        System.out.println("[GuestDeduplicator] " + proposals.size() + " possible duplicate(s) among "
+                + profiles.size() + " guests (" + compared + " pairs compared, "
+                + (System.nanoTime() - started) / 1_000_000 + " ms)");
+        return proposals;
+    }
+
+    /**
+     * Proposals from the last detection run.
+     */
+    public List<GuestMergeProposal> getLastProposals() {
+        return lastProposals;
+    }
+
+    /**
+     * Merge a duplicate profile into the survivor in the caller's
+     * transaction. Reservations, stays and invoices move to the survivor in
+     * one bulk update each; the survivor takes any contact details it is
+     * missing and a blacklisting; the duplicate is kept, marked MERGED. An
+     * email or ID number the survivor takes is cleared on the duplicate in
+     * the same update, so it stays unique.
+     *
+     * @return The survivor
+     */
+    public Guest merge(Long survivorGuestId, Long duplicateGuestId) {
+        if (survivorGuestId == null || duplicateGuestId == null) {
+            throw new IllegalArgumentException("Both guest IDs are required.");
+        }
+        if (survivorGuestId.equals(duplicateGuestId)) {
+            throw new IllegalArgumentException("Cannot merge a guest into itself.");
+        }
+        Guest survivor = guestRepository.findById(survivorGuestId)
+                .orElseThrow(() -> new IllegalArgumentException("Guest Not Found: " + survivorGuestId));
+        Guest duplicate = guestRepository.findById(duplicateGuestId)
+                .orElseThrow(() -> new IllegalArgumentException("Guest Not Found: " + duplicateGuestId));
+        if (MERGED.equals(survivor.getStatus()) || MERGED.equals(duplicate.getStatus())) {
+            throw new IllegalArgumentException("Guest was already merged: "
+                    + (MERGED.equals(survivor.getStatus()) ? survivorGuestId : duplicateGuestId));
+        }
+
+        if (isBlank(survivor.getEmail())) {
+            survivor.setEmail(duplicate.getEmail());
+            duplicate.setEmail(null);
+        }
+        if (isBlank(survivor.getPhone())) {
+            survivor.setPhone(duplicate.getPhone());
+        }
+        if (isBlank(survivor.getIdentificationNumber())) {
+            survivor.setIdentificationNumber(duplicate.getIdentificationNumber());
+            duplicate.setIdentificationNumber(null);
+        }
+        if (isBlank(survivor.getTaxExemption())) {
+            survivor.setTaxExemption(duplicate.getTaxExemption());
+        }
+        if ("BLACKLISTED".equals(duplicate.getStatus()) && !"BLACKLISTED".equals(survivor.getStatus())) {
+            survivor.setStatus("BLACKLISTED");
+            survivor.setStatusJustification(duplicate.getStatusJustification());
+        }
+        duplicate.setStatus(MERGED);
+        duplicate.setStatusJustification("Merged into guest " + survivorGuestId);
+        guestRepository.saveAll(List.of(survivor, duplicate));
+        guestRepository.flush();
+
+        int reservations = reservationRepository.reassignGuest(duplicateGuestId, survivor);
+        int stays = stayRepository.reassignGuest(duplicateGuestId, survivor);
+        int invoices = invoiceRepository.reassignGuest(duplicateGuestId, survivor);
+        System.out.println("[GuestDeduplicator] Merged guest " + duplicateGuestId + " into " + survivorGuestId
+                + " (" + reservations + " reservation(s), " + stays + " stay(s), " + invoices + " invoice(s))");
+        return survivor;
+    }
+
+    // ============ Detection ============
+
+    private List<Profile> loadProfiles() {
+        List<Profile> profiles = new ArrayList<>();
+        long after = 0L;
+        while (true) {
+            long from = after;
+            List<GuestMatchView> chunk = readOnlyTransaction.execute(status -> guestRepository
+                    .findMatchFields(from, PageRequest.of(0, LOAD_CHUNK_SIZE)));
+            if (chunk == null || chunk.isEmpty()) {
+                return profiles;
+            }
+            for (GuestMatchView row : chunk) {
+                profiles.add(new Profile(row));
+            }
+            after = chunk.get(chunk.size() - 1).getGuestId();
+        }
+    }
+
+    /**
+     * Compare the guests in each block of one blocking key.
+     *
+     * @return Number of pairs compared
+     */
+    private int compareBlocks(List<Profile> profiles, Function<Profile, String> blockingKey,
+            Map<Long, Match> matches) {
+        // Key hash in the high half, profile position in the low half
+        long[] keyed = new long[profiles.size()];
+        int size = 0;
+        for (int i = 0; i < profiles.size(); i++) {
+            String key = blockingKey.apply(profiles.get(i));
+            if (key != null) {
+                keyed[size++] = ((long) key.hashCode() << 32) | i;
+            }
+        }
+        Arrays.sort(keyed, 0, size);
+
+        int compared = 0;
+        int start = 0;
+        while (start < size) {
+            int end = start + 1;
+            while (end < size && (keyed[end] >>> 32) == (keyed[start] >>> 32)) {
+                end++;
+            }
+            if (end - start > 1) {
+                compared += compareBlock(profiles, keyed, start, end, matches);
+            }
+            start = end;
+        }
+        return compared;
+    }
+
+    private int compareBlock(List<Profile> profiles, long[] keyed, int start, int end,
+            Map<Long, Match> matches) {
+        Profile[] block = new Profile[end - start];
+        for (int i = start; i < end; i++) {
+            block[i - start] = profiles.get((int) keyed[i]);
+        }
+        int window = block.length;
+        if (block.length > MAX_BLOCK_SIZE) {
+            Arrays.sort(block, Comparator.comparing((Profile p) -> p.name == null ? "" : p.name));
+            window = WINDOW + 1;
+        }
+        int compared = 0;
+        for (int i = 0; i < block.length; i++) {
+            int last = Math.min(block.length, i + window);
+            for (int j = i + 1; j < last; j++) {
+                compare(block[i], block[j], matches);
+                compared++;
+            }
+        }
+        return compared;
+    }
+
+    private void compare(Profile a, Profile b, Map<Long, Match> matches) {
+        boolean sameId = a.identification != null && a.identification.equals(b.identification);
+        boolean sameEmail = a.email != null && a.email.equals(b.email);
+        boolean sameEmailLocal = !sameEmail && a.emailLocal != null && a.emailLocal.equals(b.emailLocal);
+        boolean samePhone = a.phone != null && a.phone.equals(b.phone);
+        double nameSimilarity = GuestMatching.nameSimilarity(a.name, b.name);
+        boolean similarName = nameSimilarity >= MIN_NAME_SIMILARITY;
+
+        double score = (sameId ? ID_WEIGHT : 0.0)
+                + (sameEmail ? EMAIL_WEIGHT : 0.0)
+                + (sameEmailLocal ? EMAIL_LOCAL_WEIGHT : 0.0)
+                + (samePhone ? PHONE_WEIGHT : 0.0)
+                + (similarName ? NAME_WEIGHT * nameSimilarity : 0.0);
+        score = Math.min(1.0, score);
+        if (score < threshold) {
+            return;
+        }
+
+        Profile older = a.guestId < b.guestId ? a : b;
+        Profile newer = older == a ? b : a;
+        long pair = (older.guestId << 32) ^ newer.guestId;
+        if (matches.containsKey(pair)) {
+            return;
+        }
+        List<String> reasons = new ArrayList<>(4);
+        if (sameId) {
+            reasons.add("ID number");
+        }
+        if (sameEmail) {
+            reasons.add("email");
+        }
+        if (sameEmailLocal) {
+            reasons.add("email local part");
+        }
+        if (samePhone) {
+            reasons.add("phone");
+        }
+        if (similarName) {
+            reasons.add(nameSimilarity == 1.0 ? "name" : "similar name");
+        }
+        matches.put(pair, new Match(older.guestId, newer.guestId, score, String.join(", ", reasons)));
+    }
+
+    private List<GuestMergeProposal> toProposals(Iterable<Match> matches) {
+        List<Match> sorted = new ArrayList<>();
+        Set<Long> ids = new HashSet<>();
+        for (Match match : matches) {
+            sorted.add(match);
+            ids.add(match.survivorId);
+            ids.add(match.duplicateId);
+        }
+        sorted.sort(Comparator.comparingDouble((Match m) -> m.score).reversed()
+                .thenComparingLong(m -> m.survivorId)
+                .thenComparingLong(m -> m.duplicateId));
+
+        Map<Long, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            List<Long> idList = new ArrayList<>(ids);
+            for (int i = 0; i < idList.size(); i += LOAD_CHUNK_SIZE) {
+                List<Long> slice = idList.subList(i, Math.min(idList.size(), i + LOAD_CHUNK_SIZE));
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    for (Guest g : guestRepository.findAllById(slice)) {
+                        names.put(g.getGuestId(), g.getName());
+                    }
+                });
+            }
+        }
+
+        List<GuestMergeProposal> proposals = new ArrayList<>(sorted.size());
+        for (Match m : sorted) {
+            proposals.add(new GuestMergeProposal(m.survivorId, names.get(m.survivorId),
+                    m.duplicateId, names.get(m.duplicateId), m.score, m.reasons));
+        }
+        return proposals;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    /**
+     * Normalized fields of one guest; the display name is loaded only for
+     * proposed pairs.
+     */
+    private static final class Profile {
+        private final long guestId;
+        private final String name;
+        private final String phonetic;
+        private final String email;
+        private final String emailLocal;
+        private final String phone;
+        private final String identification;
+
+        Profile(GuestMatchView row) {
+            this.guestId = row.getGuestId();
+            this.name = GuestMatching.nameKey(row.getName());
+            this.phonetic = GuestMatching.phoneticKey(row.getName());
+            this.email = GuestMatching.emailKey(row.getEmail());
+            this.emailLocal = GuestMatching.emailLocalPart(email);
+            this.phone = GuestMatching.phoneKey(row.getPhone());
+            this.identification = GuestMatching.identificationKey(row.getIdentificationNumber());
+        }
+    }
+
+    private static final class Match {
+        private final long survivorId;
+        private final long duplicateId;
+        private final double score;
+        private final String reasons;
+
+        Match(long survivorId, long duplicateId, double score, String reasons) {
+            this.survivorId = survivorId;
+            this.duplicateId = duplicateId;
+            this.score = score;
+            this.reasons = reasons;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.repository.GuestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GuestImporter - streaming bulk import of guest profiles from CSV, e.g.
+ * corporate client lists and loyalty migrations.
+ *
+ * The file is never held in memory. It flows through four stages:
+ * 1. Read (caller thread): lines are grouped into batches.
+ * 2. Parse, normalize and validate (worker pool): each batch is split into
+ *    fields and checked with the same rules as createGuest, in parallel.
+ * 3. In-file duplicates (caller thread, batches in file order): a row whose
+ *    email or ID number appeared on an earlier line is rejected.
+ * 4. Write (worker pool): each batch is checked against the database with
+ *    one IN-list query per field, then the survivors are inserted and
+ *    indexed for search as JDBC batches, one transaction per batch. Guest
+ *    IDs use IDENTITY generation, so saveAll would insert row by row.
+ *    Stage 3 leaves no duplicates between batches, so batches can be
+ *    written concurrently.
+ *
+ * A bounded number of batches is in flight at each stage, so memory is
+ * bounded by the batch size and the emails and ID numbers seen so far. A
+ * rejected row is reported with its line number; it does not stop the
+ * import. Batches already written stay imported if a later one fails.
+ *
+ * CSV format: a header naming name, email, phone and identification number
+ * columns (in any order; other columns are ignored), or no header and those
+ * four columns in that order. Double quotes group a field with commas.
+ */
+@Component
+public class GuestImporter {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000; // values per IN-list query
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final String INSERT_GUEST_SQL = "INSERT INTO guests "
+            + "(name, email, phone, identification_number, status) VALUES (?, ?, ?, ?, 'ACTIVE')";
+
+    private final GuestRepository guestRepository;
+    private final GuestSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int parallelism;
+    private final int errorLimit;
+
+    public GuestImporter(GuestRepository guestRepository, GuestSearchIndex searchIndex,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${hotel.guest.import.batch-size:2000}") int batchSize,
+            @Value("${hotel.guest.import.parallelism:4}") int parallelism,
+            @Value("${hotel.guest.import.error-limit:10000}") int errorLimit) {
+        if (batchSize < 1 || parallelism < 1 || errorLimit < 0) {
+            throw new IllegalArgumentException("Invalid guest import settings");
+        }
+        this.guestRepository = guestRepository;
+        this.searchIndex = searchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.parallelism = Math.min(parallelism, Runtime.getRuntime().availableProcessors());
+        this.errorLimit = errorLimit;
+    }
+
+    /**
+     * Import guests from a UTF-8 CSV stream. The stream is read to the end
+     * but not closed.
+     *
+     * @param source Name of the input for the report, e.g. the file path
+     * @throws IllegalArgumentException if the stream cannot be read
+     */
+    public GuestImportReport importGuests(InputStream in, String source) {
+        if (in == null) {
+            throw new IllegalArgumentException("Guest import input is required");
+        }
+        long started = System.nanoTime();
+        GuestImportReport report = new GuestImportReport(source, errorLimit);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "guest-import-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Pipeline pipeline = new Pipeline(report, workers);
+        long rows = 0;
+        try {
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+            Columns columns = null;
+            List<Row> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (columns == null) {
+                    columns = Columns.detect(line);
+                    if (columns.header) {
+                        continue;
+                    }
+                }
+                rows++;
+                batch.add(new Row(lineNumber, line));
+                if (batch.size() == batchSize) {
+                    pipeline.submit(batch, columns);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                pipeline.submit(batch, columns);
+            }
+            pipeline.finish();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read guest import " + source + ": " + e.getMessage(), e);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            workers.shutdownNow();
+        }
+
+        report.setRowsRead(rows);
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000L);
+        System.out.println("[GuestImporter] " + report);
+        return report;
+    }
+
+    // ============ Pipeline ============
+
+    /**
+     * Parse, normalize and validate a batch (worker thread). Rows keep their
+     * order; invalid rows carry their error.
+     */
+    private static List<Row> validate(List<Row> batch, Columns columns) {
+        for (Row row : batch) {
+            String[] fields = splitCsv(row.line);
+            row.line = null;
+            try {
+                String name = columns.field(fields, columns.name);
+                String email = columns.field(fields, columns.email);
+                String phone = columns.field(fields, columns.phone);
+                String identificationNumber = columns.field(fields, columns.identificationNumber);
+                GuestManager.require(name, "Name");
+                GuestManager.require(email, "Email");
+                GuestManager.require(phone, "Phone");
+                GuestManager.require(identificationNumber, "Identification Number");
+                GuestManager.validateEmail(email);
+
+                row.name = name.trim();
+                row.email = GuestManager.normalizeEmail(email);
+                row.phone = phone.trim();
+                row.identificationNumber = identificationNumber.trim();
+            } catch (IllegalArgumentException e) {
+                row.error = e.getMessage();
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Batches in flight for one import. Driven by the caller thread, which
+     * takes validated and written batches back in file order, so rejected
+     * rows are reported in line order.
+     */
+    private class Pipeline {
+        private final GuestImportReport report;
+        private final ExecutorService workers;
+        private final Deque<CompletableFuture<List<Row>>> validating = new ArrayDeque<>();
+        private final Deque<CompletableFuture<List<Row>>> writing = new ArrayDeque<>();
+        // First line of each email and ID number accepted so far
+        private final Map<String, Long> emailLines = new HashMap<>();
+        private final Map<String, Long> identificationLines = new HashMap<>();
+
+        Pipeline(GuestImportReport report, ExecutorService workers) {
+            this.report = report;
+            this.workers = workers;
+        }
+
+        void submit(List<Row> batch, Columns columns) {
+            if (validating.size() >= 2 * parallelism) {
+                write(validating.removeFirst().join());
+            }
+            validating.addLast(CompletableFuture.supplyAsync(() -> validate(batch, columns), workers));
+        }
+
+        /**
+         * Drain both stages.
+         */
+        void finish() {
+            while (!validating.isEmpty()) {
+                write(validating.removeFirst().join());
+            }
+            while (!writing.isEmpty()) {
+                record(writing.removeFirst().join());
+            }
+        }
+
+        /**
+         * Reject rows repeating an earlier email or ID number, then hand the
+         * batch to the workers for writing.
+         */
+        private void write(List<Row> batch) {
+            List<Row> accepted = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                if (row.error == null) {
+                    Long firstEmail = emailLines.get(row.email);
+                    Long firstId = identificationLines.get(row.identificationNumber);
+                    if (firstEmail != null) {
+                        row.error = "Email already used on line " + firstEmail + ".";
+                    } else if (firstId != null) {
+                        row.error = "Identification Number already used on line " + firstId + ".";
+                    } else {
+                        emailLines.put(row.email, row.lineNumber);
+                        identificationLines.put(row.identificationNumber, row.lineNumber);
+                        accepted.add(row);
+                    }
+                }
+            }
+            if (writing.size() >= parallelism) {
+                record(writing.removeFirst().join());
+            }
+            writing.addLast(CompletableFuture.supplyAsync(() -> {
+                if (!accepted.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> insert(accepted));
+                }
+                return batch;
+            }, workers));
+        }
+
+        private void record(List<Row> batch) {
+            for (Row row : batch) {
+                if (row.error == null) {
+                    report.addImported(1);
+                } else {
+                    report.reject(row.lineNumber, row.error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reject rows whose email or ID number is already on a guest, then insert
+     * the rest and their search terms (worker thread, in a transaction).
+     */
+    private void insert(List<Row> accepted) {
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingIds = new HashSet<>();
+        for (int from = 0; from < accepted.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Row> chunk = accepted.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, accepted.size()));
+            List<String> emails = new ArrayList<>(chunk.size());
+            List<String> ids = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                emails.add(row.email);
+                ids.add(row.identificationNumber);
+            }
+            existingEmails.addAll(guestRepository.findExistingEmails(emails));
+            existingIds.addAll(guestRepository.findExistingIdentificationNumbers(ids));
+        }
+
+        List<Row> toInsert = new ArrayList<>(accepted.size());
+        for (Row row : accepted) {
+            if (existingEmails.contains(row.email)) {
+                row.error = "Email already exists.";
+            } else if (existingIds.contains(row.identificationNumber)) {
+                row.error = "Identification Number already exists.";
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_GUEST_SQL, new String[] { "guest_id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Row row = toInsert.get(i);
+                        ps.setString(1, row.name);
+                        ps.setString(2, row.email);
+                        ps.setString(3, row.phone);
+                        ps.setString(4, row.identificationNumber);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return toInsert.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != toInsert.size()) {
+            throw new IllegalStateException("Expected " + toInsert.size() + " guest IDs, got " + keyList.size());
+        }
+        List<Guest> saved = new ArrayList<>(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            Row row = toInsert.get(i);
+            Long guestId = ((Number) keyList.get(i).values().iterator().next()).longValue();
+            saved.add(new Guest(guestId, row.name, row.email, row.phone, row.identificationNumber,
+                    "ACTIVE", null));
+        }
+        searchIndex.indexNew(saved);
+    }
+
+    // ============ Parsing ============
+
+    /**
+     * Split a CSV line into fields. Double quotes group a field that
+     * contains commas; "" is a literal quote.
+     */
+    static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * A data line, then its parsed fields or the reason it was rejected.
+     */
+    private static final class Row {
+        private final long lineNumber;
+        private String line;
+        private String name;
+        private String email;
+        private String phone;
+        private String identificationNumber;
+        private String error;
+
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Column positions, from the header or the default order.
+     */
+    private static final class Columns {
+        private final boolean header;
+        private final int name;
+        private final int email;
+        private final int phone;
+        private final int identificationNumber;
+
+        private Columns(boolean header, int name, int email, int phone, int identificationNumber) {
+            this.header = header;
+            this.name = name;
+            this.email = email;
+            this.phone = phone;
+            this.identificationNumber = identificationNumber;
+        }
+
+        /**
+         * Treat the first line as a header if it names an email column.
+         */
+        static Columns detect(String firstLine) {
+            String[] fields = splitCsv(firstLine);
+            int name = -1;
+            int email = -1;
+            int phone = -1;
+            int identificationNumber = -1;
+            for (int i = 0; i < fields.length; i++) {
+                String column = fields[i].trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+                switch (column) {
+                    case "name", "fullname", "guestname" -> name = i;
+                    case "email", "emailaddress" -> email = i;
+                    case "phone", "phonenumber", "mobile" -> phone = i;
+                    case "identificationnumber", "idnumber", "identification", "passport" ->
+                            identificationNumber = i;
+                    default -> {
+                    }
+                }
+            }
+            if (email < 0) {
+                return new Columns(false, 0, 1, 2, 3);
+            }
+            if (name < 0 || phone < 0 || identificationNumber < 0) {
+                throw new IllegalArgumentException(
+                        "Guest CSV header needs name, email, phone and identification number columns: "
+                                + firstLine);
+            }
+            return new Columns(true, name, email, phone, identificationNumber);
+        }
+
+        String field(String[] fields, int index) {
+            return index < fields.length ? fields[index] : null;
+        }
+    }
+}
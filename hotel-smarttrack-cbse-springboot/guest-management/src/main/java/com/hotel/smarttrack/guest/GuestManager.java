@@ -1,12 +1,26 @@
 package com.hotel.smarttrack.guest;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.entity.GuestMergeProposal;
 import com.hotel.smarttrack.repository.GuestRepository;
 import com.hotel.smarttrack.service.GuestService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,9 +28,21 @@ import java.util.Optional;
 public class GuestManager implements GuestService {
 
     private final GuestRepository guestRepository;
-
-    public GuestManager(GuestRepository guestRepository) {
+    private final GuestSearchIndex searchIndex;
+    private final GuestDeduplicator deduplicator;
+    private final ReferenceDataCache referenceDataCache;
+    private final GuestImporter importer;
+    private final GuestProfileManager profileManager;
+
+    public GuestManager(GuestRepository guestRepository, GuestSearchIndex searchIndex,
+            GuestDeduplicator deduplicator, ReferenceDataCache referenceDataCache, GuestImporter importer,
+            GuestProfileManager profileManager) {
         this.guestRepository = guestRepository;
+        this.searchIndex = searchIndex;
+        this.deduplicator = deduplicator;
+        this.referenceDataCache = referenceDataCache;
+        this.importer = importer;
+        this.profileManager = profileManager;
     }
 
     @Override
@@ -47,7 +73,9 @@ public class GuestManager implements GuestService {
         g.setStatus("ACTIVE");
         g.setStatusJustification(null);
 
-        return guestRepository.saveAndFlush(g);
+        Guest saved = guestRepository.saveAndFlush(g);
+        searchIndex.index(saved);
+        return saved;
     }
 
     @Override
@@ -96,13 +124,23 @@ public class GuestManager implements GuestService {
             existing.setIdentificationNumber(newId);
         }
 
+        // tax exemption (blank clears it)
+        if (guest.getTaxExemption() != null) {
+            existing.setTaxExemption(notBlank(guest.getTaxExemption())
+                    ? guest.getTaxExemption().trim().toUpperCase()
+                    : null);
+        }
+
         if (notBlank(existing.getStatus())) {
             existing.setStatus(existing.getStatus().trim().toUpperCase());
         } else {
             existing.setStatus("ACTIVE");
         }
 
-        return guestRepository.saveAndFlush(existing);
+        Guest saved = guestRepository.saveAndFlush(existing);
+        searchIndex.index(saved);
+        referenceDataCache.invalidateGuest(saved.getGuestId());
+        return saved;
     }
 
     @Override
@@ -116,7 +154,38 @@ public class GuestManager implements GuestService {
     public List<Guest> searchGuests(String searchTerm) {
         if (!notBlank(searchTerm))
             return List.of();
-        return guestRepository.searchGuests(searchTerm.trim());
+        return loadInOrder(searchIndex.search(searchTerm));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Guest> searchGuests(String searchTerm, Pageable pageable) {
+        if (pageable == null)
+            throw new IllegalArgumentException("Page request is required.");
+        List<Long> ranked = notBlank(searchTerm) ? searchIndex.search(searchTerm) : List.of();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(loadInOrder(ranked), pageable, ranked.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(loadInOrder(ranked.subList(from, to)), pageable, ranked.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Guest> findSimilarGuests(String name) {
+        if (!notBlank(name))
+            return List.of();
+        return loadInOrder(searchIndex.searchSimilarNames(name));
+    }
+
+    /**
+     * Served from memory; no transaction needed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, String> completeGuestNames(String prefix) {
+        return searchIndex.completeNames(prefix);
     }
 
     @Override
@@ -139,13 +208,73 @@ public class GuestManager implements GuestService {
     public void reactivateGuest(Long guestId) {
         Guest g = guestRepository.findById(guestId)
                 .orElseThrow(() -> new IllegalArgumentException("Guest Not Found"));
+        if (GuestDeduplicator.MERGED.equals(g.getStatus()))
+            throw new IllegalArgumentException("Guest was merged into another profile.");
         g.setStatus("ACTIVE");
         g.setStatusJustification(null);
         guestRepository.saveAndFlush(g);
+        referenceDataCache.invalidateGuest(guestId);
+    }
+
+    // ---- duplicates ----
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GuestMergeProposal> findDuplicateGuests() {
+        return deduplicator.findDuplicates();
+    }
+
+    @Override
+    public Guest mergeGuests(Long survivorGuestId, Long duplicateGuestId) {
+        Guest survivor = deduplicator.merge(survivorGuestId, duplicateGuestId);
+        searchIndex.index(survivor);
+        searchIndex.remove(duplicateGuestId);
+        referenceDataCache.invalidateGuest(survivorGuestId);
+        referenceDataCache.invalidateGuest(duplicateGuestId);
+        profileManager.refreshGuest(survivorGuestId);
+        return survivor;
+    }
+
+    // ---- bulk import ----
+
+    /**
+     * Runs outside a transaction; the importer commits each batch on its own.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GuestImportReport importGuests(String filePath) {
+        if (!notBlank(filePath))
+            throw new IllegalArgumentException("Import file path is required.");
+        Path file = Path.of(filePath.trim());
+        try (InputStream in = Files.newInputStream(file)) {
+            return importer.importGuests(in, file.toString());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read guest import " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GuestImportReport importGuests(InputStream in, String source) {
+        return importer.importGuests(in, source);
     }
 
     // ---- helpers ----
 
+    private List<Guest> loadInOrder(List<Long> ids) {
+        Map<Long, Guest> byId = new HashMap<>();
+        for (Guest g : guestRepository.findAllById(ids)) {
+            byId.put(g.getGuestId(), g);
+        }
+        List<Guest> out = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Guest g = byId.get(id);
+            if (g != null)
+                out.add(g);
+        }
+        return out;
+    }
+
     private void setStatus(Long guestId, String status, String justification, String err) {
         if (guestId == null)
             throw new IllegalArgumentException("Guest ID is required.");
@@ -158,9 +287,10 @@ public class GuestManager implements GuestService {
         g.setStatus(status);
         g.setStatusJustification(justification.trim());
         guestRepository.saveAndFlush(g);
+        referenceDataCache.invalidateGuest(guestId);
     }
 
-    private static void validateEmail(String email) {
+    static void validateEmail(String email) {
         if (!notBlank(email))
             throw new IllegalArgumentException("Email is required.");
         String e = email.trim();
@@ -170,11 +300,11 @@ public class GuestManager implements GuestService {
         }
     }
 
-    private static String normalizeEmail(String email) {
+    static String normalizeEmail(String email) {
         return email.trim().toLowerCase();
     }
 
-    private static void require(String v, String field) {
+    static void require(String v, String field) {
         if (!notBlank(v))
             throw new IllegalArgumentException(field + " is required.");
     }
@@ -0,0 +1,257 @@
+package com.hotel.smarttrack.guest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GuestMatching - normalization and similarity functions for comparing
+ * guest profiles that were typed in differently.
+ */
+final class GuestMatching {
+
+    // Phone numbers are compared on their last digits, ignoring country codes
+    static final int PHONE_DIGITS = 9;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    // Soundex digit per letter a-z; 0 = vowel-like, not coded
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private GuestMatching() {
+    }
+
+    /**
+     * Name tokens, lowercased, letters and digits only, sorted so that
+     * "Smith, John" and "John Smith" compare equal. Null if no tokens.
+     */
+    static String nameKey(String name) {
+        List<String> tokens = tokens(name);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        tokens.sort(null);
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * Soundex code of each name token, sorted, e.g. "Jon Smyth" and
+     * "John Smith" both give "J500 S530". Null if no tokens.
+     */
+    static String phoneticKey(String name) {
+        List<String> tokens = tokens(name);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        List<String> codes = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            String code = soundex(token);
+            if (code != null) {
+                codes.add(code);
+            }
+        }
+        if (codes.isEmpty()) {
+            return null;
+        }
+        codes.sort(null);
+        return String.join(" ", codes);
+    }
+
+    /**
+     * Trimmed, lowercased email. Null if blank.
+     */
+    static String emailKey(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Email local part without dots or a "+tag", so "j.doe+ota@x.com" and
+     * "jdoe@y.com" share "jdoe". Null if blank.
+     */
+    static String emailLocalPart(String emailKey) {
+        if (emailKey == null) {
+            return null;
+        }
+        int at = emailKey.indexOf('@');
+        String local = at >= 0 ? emailKey.substring(0, at) : emailKey;
+        int plus = local.indexOf('+');
+        if (plus >= 0) {
+            local = local.substring(0, plus);
+        }
+        local = local.replace(".", "");
+        return local.isEmpty() ? null : local;
+    }
+
+    /**
+     * Last PHONE_DIGITS digits of a phone number. Null if it has fewer than
+     * MIN_PHONE_DIGITS digits.
+     */
+    static String phoneKey(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits.toString();
+    }
+
+    /**
+     * Identification number uppercased, letters and digits only. Null if
+     * nothing is left.
+     */
+    static String identificationKey(String idNo) {
+        if (idNo == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(idNo.length());
+        for (int i = 0; i < idNo.length(); i++) {
+            char c = idNo.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toUpperCase(c));
+            }
+        }
+        return key.length() == 0 ? null : key.toString();
+    }
+
+    /**
+     * American Soundex: first letter plus three digits. Null if the token
+     * does not start with a letter a-z.
+     */
+    static String soundex(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        char first = Character.toLowerCase(token.charAt(0));
+        if (first < 'a' || first > 'z') {
+            return null;
+        }
+        char[] code = { Character.toUpperCase(first), '0', '0', '0' };
+        int length = 1;
+        char last = SOUNDEX_CODES.charAt(first - 'a');
+        for (int i = 1; i < token.length() && length < code.length; i++) {
+            char c = Character.toLowerCase(token.charAt(i));
+            if (c < 'a' || c > 'z') {
+                continue;
+            }
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (digit != '0' && digit != last) {
+                code[length++] = digit;
+            }
+            // h and w do not separate letters with the same code
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        return new String(code);
+    }
+
+    /**
+     * Similarity of two name keys, token by token: each token of the name
+     * with fewer tokens is paired with its closest token in the other, and
+     * the weakest pair decides. A shared first name alone does not make
+     * two names similar, and a missing middle name does not make them
+     * different.
+     */
+    static double nameSimilarity(String nameKeyA, String nameKeyB) {
+        if (nameKeyA == null || nameKeyB == null) {
+            return 0.0;
+        }
+        if (nameKeyA.equals(nameKeyB)) {
+            return 1.0;
+        }
+        String[] a = nameKeyA.split(" ");
+        String[] b = nameKeyB.split(" ");
+        String[] shorter = a.length <= b.length ? a : b;
+        String[] longer = shorter == a ? b : a;
+        double weakest = 1.0;
+        for (String token : shorter) {
+            double best = 0.0;
+            for (String other : longer) {
+                best = Math.max(best, jaroWinkler(token, other));
+            }
+            weakest = Math.min(weakest, best);
+        }
+        return weakest;
+    }
+
+    /**
+     * Jaro-Winkler similarity, 1.0 for equal strings and 0.0 for nothing in
+     * common.
+     */
+    static double jaroWinkler(String a, String b) {
+        if (a == null || b == null) {
+            return 0.0;
+        }
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatched = new boolean[a.length()];
+        boolean[] bMatched = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length(), i + window + 1);
+            for (int j = from; j < to; j++) {
+                if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (aMatched[i]) {
+                while (!bMatched[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+        int prefix = 0;
+        int maxPrefix = Math.min(4, Math.min(a.length(), b.length()));
+        while (prefix < maxPrefix && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1.0 - jaro);
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
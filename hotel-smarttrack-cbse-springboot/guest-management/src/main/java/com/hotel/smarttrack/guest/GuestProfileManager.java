@@ -0,0 +1,331 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.entity.Invoice;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.InvoiceRepository.AmountPaidView;
+import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.repository.StayRepository.CompletedStayView;
+import com.hotel.smarttrack.service.GuestProfileService;
+import com.hotel.smarttrack.transaction.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GuestProfileManager - Implementation of GuestProfileService.
+ * Materialized per-guest value aggregates and the VIP indicator.
+ * This class is private to the guest-management component.
+ *
+ * Each checked-out stay and each invoice remembers what it last contributed
+ * to its guest (nights; amount paid), so a change notification subtracts the
+ * old contribution and adds the new one under a per-entity lock
+ * (ConcurrentHashMap.compute). Notifications are therefore idempotent, and a
+ * stay or invoice moved to another guest by a merge moves its contribution.
+ * Invoice contributions carry the invoice version; an older version never
+ * replaces a newer one, so out-of-order after-commit callbacks are harmless.
+ *
+ * Notifications raised inside a transaction are applied after commit. The
+ * aggregates are rebuilt when the context starts and nightly: stay and
+ * invoice ID ranges are split into partitions that are read and applied in
+ * parallel, each partition in its own read-only transaction.
+ */
+@Service
+public class GuestProfileManager implements GuestProfileService {
+
+    private static final String STAY_CHECKED_OUT = "CHECKED_OUT";
+    private static final int PARTITION_SIZE = 5000; // stay or invoice IDs per rebuild partition
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private final StayRepository stayRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int vipMinStays;
+    private final long vipMinRevenueMinorUnits;
+
+    // ============ Per-Entity Contributions ============
+
+    private final Map<Long, StaySlot> staySlots = new ConcurrentHashMap<>();
+    private final Map<Long, InvoiceSlot> invoiceSlots = new ConcurrentHashMap<>();
+
+    // ============ Aggregates ============
+
+    private final Map<Long, Totals> totals = new ConcurrentHashMap<>();
+
+    public GuestProfileManager(StayRepository stayRepository, InvoiceRepository invoiceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${hotel.guest.vip.min-stays:5}") int vipMinStays,
+            @Value("${hotel.guest.vip.min-revenue:5000.00}") BigDecimal vipMinRevenue) {
+        if (vipMinStays < 1 || vipMinRevenue == null || vipMinRevenue.signum() <= 0) {
+            throw new IllegalArgumentException("Invalid VIP thresholds");
+        }
+        this.stayRepository = stayRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.vipMinStays = vipMinStays;
+        this.vipMinRevenueMinorUnits = Money.toMinorUnits(vipMinRevenue);
+    }
+
+    // ============ Profile Reads ============
+
+    @Override
+    public GuestProfile getGuestProfile(Long guestId) {
+        Totals t = guestId == null ? null : totals.get(guestId);
+        if (t == null) {
+            return new GuestProfile(guestId, 0L, 0L, Money.ZERO.toBigDecimal(), false);
+        }
+        return new GuestProfile(guestId, t.stays, t.nights, Money.ofMinor(t.revenueMinorUnits).toBigDecimal(),
+                isVip(t));
+    }
+
+    @Override
+    public boolean isVip(Long guestId) {
+        return guestId != null && isVip(totals.get(guestId));
+    }
+
+    // ============ Change Notifications ============
+
+    @Override
+    public void stayChanged(Stay stay) {
+        if (stay == null || stay.getStayId() == null) {
+            return;
+        }
+        Long stayId = stay.getStayId();
+        StaySlot slot = STAY_CHECKED_OUT.equals(stay.getStatus()) && stay.getGuest() != null
+                ? new StaySlot(stay.getGuest().getGuestId(), nights(stay.getCheckInTime(), stay.getCheckOutTime()))
+                : null;
+        TransactionHooks.afterCommit(() -> applyStay(stayId, slot));
+    }
+
+    @Override
+    public void invoiceChanged(Invoice invoice) {
+        if (invoice == null || invoice.getInvoiceId() == null) {
+            return;
+        }
+        // Read once committed, when the version has been incremented
+        TransactionHooks.afterCommit(() -> applyInvoice(invoice.getInvoiceId(), InvoiceSlot.of(invoice)));
+    }
+
+    /**
+     * Re-read one guest's stays and invoices, e.g. after a merge moved
+     * another guest's history onto them. Applied after commit.
+     */
+    public void refreshGuest(Long guestId) {
+        if (guestId == null) {
+            return;
+        }
+        List<CompletedStayView> stays = stayRepository.findCompletedStaysByGuestId(guestId);
+        List<AmountPaidView> invoices = invoiceRepository.findAmountsPaidByGuestId(guestId);
+        TransactionHooks.afterCommit(() -> {
+            stays.forEach(this::applyStay);
+            invoices.forEach(this::applyInvoice);
+        });
+    }
+
+    // ============ Rebuild ============
+
+    /**
+     * Rebuild on startup, which also picks up rows loaded by data.sql.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void rebuildOnStartup() {
+        rebuildProfiles();
+    }
+
+    /**
+     * Scheduled full rebuild, 04:00 daily by default.
+     */
+    @Scheduled(cron = "${hotel.guest.profile.rebuild-cron:0 0 4 * * *}")
+    public void rebuildNightly() {
+        rebuildProfiles();
+    }
+
+    /**
+     * Re-read every checked-out stay and invoice, a partition of IDs per
+     * task. Contributions are replaced in place, so profiles stay readable
+     * during the rebuild and concurrent notifications are not lost.
+     */
+    @Override
+    public synchronized int rebuildProfiles() {
+        long started = System.nanoTime();
+        List<Runnable> partitions = new ArrayList<>();
+        Long maxStayId = readOnlyTransaction.execute(status -> stayRepository.findMaxStayId());
+        for (long from = 0; maxStayId != null && from <= maxStayId; from += PARTITION_SIZE) {
+            long lo = from;
+            long hi = from + PARTITION_SIZE - 1;
+            partitions.add(() -> readOnlyTransaction.executeWithoutResult(
+                    status -> stayRepository.findCompletedStays(lo, hi).forEach(this::applyStay)));
+        }
+        Long maxInvoiceId = readOnlyTransaction.execute(status -> invoiceRepository.findMaxInvoiceId());
+        for (long from = 0; maxInvoiceId != null && from <= maxInvoiceId; from += PARTITION_SIZE) {
+            long lo = from;
+            long hi = from + PARTITION_SIZE - 1;
+            partitions.add(() -> readOnlyTransaction.executeWithoutResult(
+                    status -> invoiceRepository.findAmountsPaid(lo, hi).forEach(this::applyInvoice)));
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLELISM, r -> {
+            Thread t = new Thread(r, "guest-profile-rebuild-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletableFuture.allOf(partitions.stream()
+                    .map(partition -> CompletableFuture.runAsync(partition, pool))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("[GuestProfileManager] Profiles rebuilt: " + totals.size() + " guests, "
+                + staySlots.size() + " completed stays, " + invoiceSlots.size() + " invoices in "
+                + partitions.size() + " partitions, " + (System.nanoTime() - started) / 1_000_000L + " ms");
+        return totals.size();
+    }
+
+    // ============ Helper Methods ============
+
+    private void applyStay(CompletedStayView row) {
+        applyStay(row.getStayId(), new StaySlot(row.getGuestId(), nights(row.getCheckInTime(), row.getCheckOutTime())));
+    }
+
+    private void applyStay(Long stayId, StaySlot slot) {
+        staySlots.compute(stayId, (id, previous) -> {
+            if (previous != null) {
+                adjust(previous.guestId, -1, -previous.nights, 0L);
+            }
+            if (slot != null) {
+                adjust(slot.guestId, 1, slot.nights, 0L);
+            }
+            return slot;
+        });
+    }
+
+    private void applyInvoice(AmountPaidView row) {
+        applyInvoice(row.getInvoiceId(), new InvoiceSlot(row.getGuestId(), minorUnits(row.getAmountPaid()),
+                row.getVersion()));
+    }
+
+    private void applyInvoice(Long invoiceId, InvoiceSlot slot) {
+        invoiceSlots.compute(invoiceId, (id, previous) -> {
+            if (previous != null) {
+                if (slot.isOlderThan(previous)) {
+                    return previous;
+                }
+                adjust(previous.guestId, 0, 0L, -previous.paidMinorUnits);
+            }
+            adjust(slot.guestId, 0, 0L, slot.paidMinorUnits);
+            return slot;
+        });
+    }
+
+    private void adjust(Long guestId, int stays, long nights, long revenueMinorUnits) {
+        if (guestId == null || (stays == 0 && nights == 0L && revenueMinorUnits == 0L)) {
+            return;
+        }
+        totals.compute(guestId, (id, current) -> {
+            Totals next = (current == null ? Totals.EMPTY : current).plus(stays, nights, revenueMinorUnits);
+            return next.isEmpty() ? null : next;
+        });
+    }
+
+    private boolean isVip(Totals t) {
+        return t != null && (t.stays >= vipMinStays || t.revenueMinorUnits >= vipMinRevenueMinorUnits);
+    }
+
+    /**
+     * Nights between check-in and check-out dates, minimum one (as billed).
+     */
+    private static long nights(LocalDateTime checkIn, LocalDateTime checkOut) {
+        if (checkIn == null || checkOut == null) {
+            return 1L;
+        }
+        return Math.max(ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate()), 1L);
+    }
+
+    private static long minorUnits(BigDecimal amount) {
+        return amount == null ? 0L : Money.toMinorUnits(amount);
+    }
+
+    /**
+     * What a checked-out stay contributes to its guest.
+     */
+    private static final class StaySlot {
+        private final Long guestId;
+        private final long nights;
+
+        StaySlot(Long guestId, long nights) {
+            this.guestId = guestId;
+            this.nights = nights;
+        }
+    }
+
+    /**
+     * What an invoice contributes to its guest, as of an invoice version.
+     */
+    private static final class InvoiceSlot {
+        private final Long guestId;
+        private final long paidMinorUnits;
+        private final Long version;
+
+        InvoiceSlot(Long guestId, long paidMinorUnits, Long version) {
+            this.guestId = guestId;
+            this.paidMinorUnits = paidMinorUnits;
+            this.version = version;
+        }
+
+        static InvoiceSlot of(Invoice invoice) {
+            return new InvoiceSlot(invoice.getGuest() != null ? invoice.getGuest().getGuestId() : null,
+                    minorUnits(invoice.getAmountPaid()), invoice.getVersion());
+        }
+
+        boolean isOlderThan(InvoiceSlot other) {
+            return version != null && other.version != null && version < other.version;
+        }
+    }
+
+    /**
+     * A guest's aggregates; replaced, never mutated.
+     */
+    private static final class Totals {
+        private static final Totals EMPTY = new Totals(0L, 0L, 0L);
+
+        private final long stays;
+        private final long nights;
+        private final long revenueMinorUnits;
+
+        private Totals(long stays, long nights, long revenueMinorUnits) {
+            this.stays = stays;
+            this.nights = nights;
+            this.revenueMinorUnits = revenueMinorUnits;
+        }
+
+        Totals plus(int stays, long nights, long revenueMinorUnits) {
+            return new Totals(this.stays + stays, this.nights + nights, this.revenueMinorUnits + revenueMinorUnits);
+        }
+
+        boolean isEmpty() {
+            return stays == 0L && nights == 0L && revenueMinorUnits == 0L;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.cache.PrefixIndex;
+import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestSearchTerm;
+import com.hotel.smarttrack.repository.GuestRepository;
+import com.hotel.smarttrack.repository.GuestRepository.GuestMatchView;
+import com.hotel.smarttrack.repository.GuestSearchTermRepository;
+import com.hotel.smarttrack.transaction.TransactionHooks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GuestSearchIndex - guest search, typo-tolerant name lookup and name
+ * completion.
+ *
+ * search() finds the query anywhere in a guest's name, email, phone or
+ * identification number: queries of three or more characters narrow to the
+ * guests holding each of their trigrams in an in-memory TrigramIndex, and
+ * those are checked against the stored guest; shorter ones are scanned.
+ * Matches are ranked by the weight of the best field containing the query
+ * (name 4, identification number and phone 3, email 1), doubled at a word
+ * start, then by guest ID.
+ *
+ * searchSimilarNames() expands each query token through an in-memory
+ * NameDictionary and looks the results up as whole name words in
+ * guest_search_terms. completeNames() uses an in-memory PrefixIndex.
+ * The in-memory indexes are loaded on startup and updated once each
+ * indexing transaction commits.
+ */
+@Component
+public class GuestSearchIndex {
+
+    static final int NAME_WEIGHT = 4;
+    static final int IDENTIFIER_WEIGHT = 3;
+    static final int CONTACT_WEIGHT = 1;
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int MAX_SIMILAR_RESULTS = 100;
+    private static final int MAX_COMPLETIONS = 10;
+    // Later tokens are checked by ID below this many candidates, else scanned
+    private static final int MAX_IN_LIST = 1000;
+    private static final int BACKFILL_CHUNK_SIZE = 500; // guests per transaction
+    private static final String INSERT_TERM_SQL =
+            "INSERT INTO guest_search_terms (guest_id, term, weight) VALUES (?, ?, ?)";
+
+    private final GuestSearchTermRepository termRepository;
+    private final GuestRepository guestRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final NameDictionary names = new NameDictionary();
+    private final PrefixIndex completions = new PrefixIndex();
+    private final TrigramIndex trigrams = new TrigramIndex();
+
+    public GuestSearchIndex(GuestSearchTermRepository termRepository, GuestRepository guestRepository,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.termRepository = termRepository;
+        this.guestRepository = guestRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replace a saved guest's terms with ones for its current fields; a
+     * merged guest is removed instead.
+     */
+    @Transactional
+    public void index(Guest guest) {
+        if (guest == null || guest.getGuestId() == null) {
+            throw new IllegalArgumentException("Guest must be saved before indexing.");
+        }
+        if (GuestDeduplicator.MERGED.equals(guest.getStatus())) {
+            remove(guest.getGuestId());
+            return;
+        }
+        termRepository.deleteByGuestId(guest.getGuestId());
+        termRepository.saveAll(rows(guest));
+        names.addAll(tokenize(guest.getName()));
+        Long guestId = guest.getGuestId();
+        String name = guest.getName();
+        Set<String> fields = fields(guest).keySet();
+        TransactionHooks.afterCommit(() -> {
+            completions.put(guestId, name);
+            trigrams.add(guestId, fields);
+        });
+    }
+
+    /**
+     * Take a guest out of search, e.g. a duplicate merged into another
+     * guest: its terms are deleted in the current transaction and its name
+     * is no longer completed once that commits. Its trigrams stay, but
+     * search() skips merged guests.
+     */
+    @Transactional
+    public void remove(Long guestId) {
+        termRepository.deleteByGuestId(guestId);
+        TransactionHooks.afterCommit(() -> completions.remove(guestId));
+    }
+
+    /**
+     * Add the terms of guests that were just inserted and have none yet,
+     * as one JDBC batch.
+     */
+    @Transactional
+    public void indexNew(List<Guest> guests) {
+        List<Object[]> rows = new ArrayList<>(guests.size() * 3);
+        Map<Long, String> added = new HashMap<>(guests.size() * 2);
+        Map<Long, Set<String>> addedFields = new HashMap<>(guests.size() * 2);
+        for (Guest guest : guests) {
+            if (guest.getGuestId() == null) {
+                throw new IllegalArgumentException("Guest must be saved before indexing.");
+            }
+            for (GuestSearchTerm term : rows(guest)) {
+                rows.add(new Object[] { term.getGuestId(), term.getTerm(), term.getWeight() });
+            }
+            names.addAll(tokenize(guest.getName()));
+            added.put(guest.getGuestId(), guest.getName());
+            addedFields.put(guest.getGuestId(), fields(guest).keySet());
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TERM_SQL, rows);
+        }
+        TransactionHooks.afterCommit(() -> {
+            added.forEach(completions::put);
+            addedFields.forEach(trigrams::add);
+        });
+    }
+
+    /**
+     * Index guests that have no terms yet, a chunk per transaction.
+     *
+     * @return Number of guests indexed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int indexMissing() {
+        int indexed = 0;
+        long after = 0L;
+        while (true) {
+            long from = after;
+            List<Guest> chunk = transactionTemplate.execute(status -> {
+                List<Guest> missing = termRepository.findGuestsWithoutTerms(from,
+                        PageRequest.of(0, BACKFILL_CHUNK_SIZE));
+                List<GuestSearchTerm> rows = new ArrayList<>();
+                for (Guest guest : missing) {
+                    rows.addAll(rows(guest));
+                    names.addAll(tokenize(guest.getName()));
+                }
+                termRepository.saveAll(rows);
+                return missing;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            indexed += chunk.size();
+            after = chunk.get(chunk.size() - 1).getGuestId();
+        }
+        if (indexed > 0) {
+            System.out.println("[GuestSearchIndex] Indexed " + indexed + " guest(s)");
+        }
+        return indexed;
+    }
+
+    /**
+     * Load every indexed name token into the name dictionary.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadNameDictionary() {
+        List<String> tokens = transactionTemplate.execute(status -> termRepository.findDistinctTerms(NAME_WEIGHT));
+        names.addAll(tokens);
+        System.out.println("[GuestSearchIndex] Name dictionary: " + names.size() + " token(s)");
+    }
+
+    /**
+     * Load all guests except merged ones into the completion and trigram
+     * indexes, a chunk per transaction.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadGuests() {
+        long after = 0L;
+        while (true) {
+            long from = after;
+            List<GuestMatchView> chunk = transactionTemplate.execute(status ->
+                    guestRepository.findMatchFields(from, PageRequest.of(0, BACKFILL_CHUNK_SIZE)));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            for (GuestMatchView guest : chunk) {
+                completions.put(guest.getGuestId(), guest.getName());
+                trigrams.add(guest.getGuestId(), fields(guest.getName(), guest.getEmail(), guest.getPhone(),
+                        guest.getIdentificationNumber()).keySet());
+            }
+            after = chunk.get(chunk.size() - 1).getGuestId();
+        }
+        System.out.println("[GuestSearchIndex] Name completions: " + completions.size() + " guest(s), "
+                + trigrams.size() + " trigram(s)");
+    }
+
+    /**
+     * Guest ID to name for names starting with the prefix, or with a later
+     * word starting with it; at most MAX_COMPLETIONS. Never touches the
+     * database.
+     */
+    public Map<Long, String> completeNames(String prefix) {
+        return completions.complete(prefix, MAX_COMPLETIONS);
+    }
+
+    /**
+     * IDs of guests with a field containing the query, ignoring case, best
+     * match first. Merged guests are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> search(String query) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+
+        List<Guest> candidates;
+        if (term.length() < TrigramIndex.TRIGRAM_LENGTH) {
+            candidates = guestRepository.searchGuests(term);
+        } else {
+            long[] found = trigrams.guestsWithAll(term);
+            List<Long> ids = new ArrayList<>(found.length);
+            for (long id : found) {
+                ids.add(id);
+            }
+            candidates = ids.isEmpty() ? List.of() : guestRepository.findAllById(ids);
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Guest guest : candidates) {
+            if (GuestDeduplicator.MERGED.equals(guest.getStatus())) {
+                continue;
+            }
+            int score = score(guest, term);
+            if (score > 0) {
+                scores.put(guest.getGuestId(), score);
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Integer> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * IDs of guests whose name has, for every token of the query, a token
+     * within a few typos of it or sounding like it. Ranked by summed
+     * similarity, then guest ID; at most MAX_SIMILAR_RESULTS.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> searchSimilarNames(String name) {
+        List<String> tokens = new ArrayList<>(tokenize(name));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        tokens.sort(Comparator.comparingInt(String::length).reversed());
+        if (tokens.size() > MAX_QUERY_TOKENS) {
+            tokens = tokens.subList(0, MAX_QUERY_TOKENS);
+        }
+
+        Map<Long, Double> scores = null;
+        for (String token : tokens) {
+            Map<String, Double> candidates = names.similar(token);
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+            List<Object[]> rows = scores != null && scores.size() <= MAX_IN_LIST
+                    ? termRepository.findGuestTermsAmong(candidates.keySet(), NAME_WEIGHT, scores.keySet())
+                    : termRepository.findGuestTerms(candidates.keySet(), NAME_WEIGHT);
+            // A guest's best-matching name token counts for this query token
+            Map<Long, Double> best = new HashMap<>();
+            for (Object[] row : rows) {
+                best.merge(((Number) row[0]).longValue(), candidates.get((String) row[1]), Math::max);
+            }
+            Map<Long, Double> next = new HashMap<>();
+            for (Map.Entry<Long, Double> entry : best.entrySet()) {
+                Double before = scores == null ? Double.valueOf(0.0) : scores.get(entry.getKey());
+                if (before != null) {
+                    next.put(entry.getKey(), before + entry.getValue());
+                }
+            }
+            if (next.isEmpty()) {
+                return List.of();
+            }
+            scores = next;
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(Math.min(ranked.size(), MAX_SIMILAR_RESULTS));
+        for (int i = 0; i < ranked.size() && i < MAX_SIMILAR_RESULTS; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Index rows of a guest: its name words at NAME_WEIGHT.
+     */
+    private static List<GuestSearchTerm> rows(Guest guest) {
+        List<GuestSearchTerm> rows = new ArrayList<>();
+        for (String token : tokenize(guest.getName())) {
+            rows.add(new GuestSearchTerm(guest.getGuestId(), token, NAME_WEIGHT));
+        }
+        return rows;
+    }
+
+    /**
+     * Lowercased searchable fields of a guest with their ranking weights
+     * (the highest, if two fields are equal).
+     */
+    private static Map<String, Integer> fields(Guest guest) {
+        return fields(guest.getName(), guest.getEmail(), guest.getPhone(), guest.getIdentificationNumber());
+    }
+
+    private static Map<String, Integer> fields(String name, String email, String phone,
+            String identificationNumber) {
+        Map<String, Integer> fields = new HashMap<>();
+        addField(fields, name, NAME_WEIGHT);
+        addField(fields, identificationNumber, IDENTIFIER_WEIGHT);
+        addField(fields, phone, IDENTIFIER_WEIGHT);
+        if (phone != null) {
+            addField(fields, phone.replaceAll("\\D", ""), IDENTIFIER_WEIGHT);
+        }
+        addField(fields, email, CONTACT_WEIGHT);
+        return fields;
+    }
+
+    private static void addField(Map<String, Integer> fields, String value, int weight) {
+        if (value != null && !value.isEmpty()) {
+            fields.merge(value.toLowerCase(Locale.ROOT), weight, Math::max);
+        }
+    }
+
+    /**
+     * Weight of the best field containing the term, doubled where the match
+     * starts a word; 0 if no field contains it.
+     */
+    private static int score(Guest guest, String term) {
+        int best = 0;
+        for (Map.Entry<String, Integer> field : fields(guest).entrySet()) {
+            String text = field.getKey();
+            int at = text.indexOf(term);
+            if (at >= 0) {
+                boolean wordStart = at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1));
+                best = Math.max(best, wordStart ? field.getValue() * 2 : field.getValue());
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lowercase letter/digit runs of the text, in order, without repeats.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(truncate(lower.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static String truncate(String term) {
+        return term.length() > GuestSearchTerm.MAX_TERM_LENGTH
+                ? term.substring(0, GuestSearchTerm.MAX_TERM_LENGTH)
+                : term;
+    }
+}
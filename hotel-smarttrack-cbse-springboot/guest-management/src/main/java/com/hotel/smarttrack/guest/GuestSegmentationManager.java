@@ -0,0 +1,317 @@
+package com.hotel.smarttrack.guest;
+
+import com.hotel.smarttrack.entity.GuestSegment;
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.repository.GuestRepository;
+import com.hotel.smarttrack.repository.GuestSegmentRepository;
+import com.hotel.smarttrack.repository.InvoiceRepository;
+import com.hotel.smarttrack.repository.InvoiceRepository.AmountPaidView;
+import com.hotel.smarttrack.repository.ReservationRepository;
+import com.hotel.smarttrack.repository.ReservationRepository.BookingView;
+import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.repository.StayRepository.CompletedStayView;
+import com.hotel.smarttrack.service.GuestSegmentationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GuestSegmentationManager - Implementation of GuestSegmentationService.
+ * Weekly marketing segments from stay, booking and spend history.
+ * This class is private to the guest-management component.
+ *
+ * The guest ID range is split into partitions that are segmented in
+ * parallel, each in its own transaction: the partition's checked-out stays,
+ * bookings and recent invoice payments are read once as narrow projections
+ * into per-guest primitive columns (History), every guest is classified,
+ * and the partition's tags are replaced with one DELETE and one JDBC batch
+ * insert. Each row of history is therefore read once per run, and nothing
+ * goes through the services one guest at a time.
+ *
+ * Rules, over the window (default the last 365 days):
+ * <ul>
+ * <li>FREQUENT_BUSINESS: at least business-min-stays short stays starting
+ * Sunday to Thursday, making up most of the guest's stays, booked on
+ * average no more than business-max-lead-days ahead (if any booking
+ * times are recorded).</li>
+ * <li>WEEKEND_LEISURE: short stays starting on a Friday or Saturday make up
+ * at least half of the guest's stays.</li>
+ * <li>LAPSED: stayed before, but not within the window.</li>
+ * <li>HIGH_SPEND: paid at least high-spend on invoices issued in the
+ * window.</li>
+ * </ul>
+ * A short stay is at most short-stay-nights nights.
+ */
+@Service
+public class GuestSegmentationManager implements GuestSegmentationService {
+
+    private static final int PARTITION_SIZE = 5000; // guest IDs per partition
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final String DELETE_SEGMENTS_SQL = "DELETE FROM guest_segments WHERE guest_id BETWEEN ? AND ?";
+    private static final String INSERT_SEGMENT_SQL = "INSERT INTO guest_segments (guest_id, segment) VALUES (?, ?)";
+
+    private final GuestRepository guestRepository;
+    private final StayRepository stayRepository;
+    private final ReservationRepository reservationRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final GuestSegmentRepository segmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // ============ Rules ============
+
+    private final int windowDays;
+    private final int businessMinStays;
+    private final int businessMaxLeadDays;
+    private final int shortStayNights;
+    private final long highSpendMinorUnits;
+
+    public GuestSegmentationManager(GuestRepository guestRepository, StayRepository stayRepository,
+            ReservationRepository reservationRepository, InvoiceRepository invoiceRepository,
+            GuestSegmentRepository segmentRepository, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${hotel.guest.segment.window-days:365}") int windowDays,
+            @Value("${hotel.guest.segment.business-min-stays:3}") int businessMinStays,
+            @Value("${hotel.guest.segment.business-max-lead-days:14}") int businessMaxLeadDays,
+            @Value("${hotel.guest.segment.short-stay-nights:3}") int shortStayNights,
+            @Value("${hotel.guest.segment.high-spend:2000.00}") BigDecimal highSpend) {
+        if (windowDays < 1 || businessMinStays < 1 || businessMaxLeadDays < 0 || shortStayNights < 1
+                || highSpend == null || highSpend.signum() <= 0) {
+            throw new IllegalArgumentException("Invalid guest segmentation rules");
+        }
+        this.guestRepository = guestRepository;
+        this.stayRepository = stayRepository;
+        this.reservationRepository = reservationRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.segmentRepository = segmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.windowDays = windowDays;
+        this.businessMinStays = businessMinStays;
+        this.businessMaxLeadDays = businessMaxLeadDays;
+        this.shortStayNights = shortStayNights;
+        this.highSpendMinorUnits = Money.toMinorUnits(highSpend);
+    }
+
+    // ============ Segment Reads ============
+
+    @Override
+    public List<String> getSegments(Long guestId) {
+        return guestId == null ? List.of() : segmentRepository.findSegmentsByGuestId(guestId);
+    }
+
+    @Override
+    public List<Long> getGuestIdsInSegment(String segment) {
+        if (segment == null || segment.isBlank()) {
+            throw new IllegalArgumentException("Segment is required.");
+        }
+        return segmentRepository.findGuestIdsBySegment(segment.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Override
+    public Map<String, Long> getSegmentCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : segmentRepository.countBySegment()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    // ============ Batch ============
+
+    /**
+     * Scheduled run, 05:00 every Monday by default.
+     */
+    @Scheduled(cron = "${hotel.guest.segment.cron:0 0 5 * * MON}")
+    public void runWeekly() {
+        runSegmentation();
+    }
+
+    /**
+     * Segment every guest ID partition in parallel. Tags are replaced one
+     * partition at a time, so readers see each guest's old or new segments,
+     * never a mix.
+     */
+    @Override
+    public synchronized Map<String, Long> runSegmentation() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        List<long[]> partitions = new ArrayList<>();
+        Long maxGuestId = guestRepository.findMaxGuestId();
+        for (long from = 0; maxGuestId != null && from <= maxGuestId; from += PARTITION_SIZE) {
+            partitions.add(new long[] { from, from + PARTITION_SIZE - 1 });
+        }
+
+        int tagged;
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            tagged = pool.submit(() -> partitions.parallelStream()
+                    .mapToInt(range -> segmentPartition(range[0], range[1], today))
+                    .sum()).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Long> counts = getSegmentCounts();
+        System.out.println("[GuestSegmentationManager] Segmented " + tagged + " guests " + counts + " in "
+                + partitions.size() + " partitions, " + (System.nanoTime() - started) / 1_000_000L + " ms");
+        return counts;
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Read, classify and re-tag the guests with IDs in [lo, hi].
+     *
+     * @return Number of guests given at least one segment
+     */
+    private int segmentPartition(long lo, long hi, LocalDate today) {
+        Integer tagged = transactionTemplate.execute(status -> {
+            LocalDate windowStart = today.minusDays(windowDays);
+            History history = new History(lo, (int) (hi - lo + 1));
+            for (CompletedStayView stay : stayRepository.findCompletedStaysByGuestRange(lo, hi)) {
+                history.addStay(stay.getGuestId(), stay.getCheckInTime(), stay.getCheckOutTime(), windowStart,
+                        shortStayNights);
+            }
+            for (BookingView booking : reservationRepository.findBookingsByGuestRange(lo, hi)) {
+                history.addBooking(booking.getGuestId(), booking.getBookedTime(), booking.getCheckInDate(),
+                        windowStart);
+            }
+            for (AmountPaidView invoice : invoiceRepository.findAmountsPaidByGuestRange(lo, hi,
+                    windowStart.atStartOfDay())) {
+                history.addPaid(invoice.getGuestId(), invoice.getAmountPaid());
+            }
+
+            List<Object[]> rows = new ArrayList<>();
+            int guests = 0;
+            for (int slot = 0; slot < history.size; slot++) {
+                int before = rows.size();
+                classify(history, slot, rows);
+                if (rows.size() > before) {
+                    guests++;
+                }
+            }
+            jdbcTemplate.update(DELETE_SEGMENTS_SQL, lo, hi);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SEGMENT_SQL, rows);
+            }
+            return guests;
+        });
+        return tagged == null ? 0 : tagged;
+    }
+
+    /**
+     * Add a {guestId, segment} row for each segment of the guest in a slot.
+     */
+    private void classify(History h, int slot, List<Object[]> rows) {
+        Long guestId = h.firstGuestId + slot;
+        int recent = h.recentStays[slot];
+        if (h.businessStays[slot] >= businessMinStays && h.businessStays[slot] * 2 > recent
+                && h.leadDaysTotal[slot] <= (long) businessMaxLeadDays * h.bookings[slot]) {
+            rows.add(new Object[] { guestId, GuestSegment.FREQUENT_BUSINESS });
+        }
+        if (h.weekendStays[slot] > 0 && h.weekendStays[slot] * 2 >= recent) {
+            rows.add(new Object[] { guestId, GuestSegment.WEEKEND_LEISURE });
+        }
+        if (recent == 0 && h.olderStays[slot] > 0) {
+            rows.add(new Object[] { guestId, GuestSegment.LAPSED });
+        }
+        if (h.paidMinorUnits[slot] >= highSpendMinorUnits) {
+            rows.add(new Object[] { guestId, GuestSegment.HIGH_SPEND });
+        }
+    }
+
+    /**
+     * One partition's history as parallel primitive columns, indexed by
+     * guest ID minus the partition's first guest ID.
+     */
+    private static final class History {
+        private final long firstGuestId;
+        private final int size;
+
+        // Checked-out stays ending in the window, and of those, short ones by start day
+        private final int[] recentStays;
+        private final int[] businessStays;
+        private final int[] weekendStays;
+        // Checked-out stays ending before the window
+        private final int[] olderStays;
+        // Bookings for check-ins in the window, and their summed lead days
+        private final int[] bookings;
+        private final long[] leadDaysTotal;
+        // Paid on invoices issued in the window
+        private final long[] paidMinorUnits;
+
+        History(long firstGuestId, int size) {
+            this.firstGuestId = firstGuestId;
+            this.size = size;
+            this.recentStays = new int[size];
+            this.businessStays = new int[size];
+            this.weekendStays = new int[size];
+            this.olderStays = new int[size];
+            this.bookings = new int[size];
+            this.leadDaysTotal = new long[size];
+            this.paidMinorUnits = new long[size];
+        }
+
+        void addStay(Long guestId, LocalDateTime checkIn, LocalDateTime checkOut, LocalDate windowStart,
+                int shortStayNights) {
+            int slot = slot(guestId);
+            if (slot < 0 || checkIn == null || checkOut == null) {
+                return;
+            }
+            if (checkOut.toLocalDate().isBefore(windowStart)) {
+                olderStays[slot]++;
+                return;
+            }
+            recentStays[slot]++;
+            long nights = Math.max(ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate()), 1L);
+            if (nights <= shortStayNights) {
+                DayOfWeek day = checkIn.getDayOfWeek();
+                if (day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY) {
+                    weekendStays[slot]++;
+                } else {
+                    businessStays[slot]++;
+                }
+            }
+        }
+
+        void addBooking(Long guestId, LocalDateTime bookedTime, LocalDate checkIn, LocalDate windowStart) {
+            int slot = slot(guestId);
+            if (slot < 0 || bookedTime == null || checkIn == null || checkIn.isBefore(windowStart)) {
+                return;
+            }
+            bookings[slot]++;
+            leadDaysTotal[slot] += Math.max(ChronoUnit.DAYS.between(bookedTime.toLocalDate(), checkIn), 0L);
+        }
+
+        void addPaid(Long guestId, BigDecimal amountPaid) {
+            int slot = slot(guestId);
+            if (slot >= 0 && amountPaid != null) {
+                paidMinorUnits[slot] += Money.toMinorUnits(amountPaid);
+            }
+        }
+
+        private int slot(Long guestId) {
+            if (guestId == null) {
+                return -1;
+            }
+            long slot = guestId - firstGuestId;
+            return slot >= 0 && slot < size ? (int) slot : -1;
+        }
+    }
+}
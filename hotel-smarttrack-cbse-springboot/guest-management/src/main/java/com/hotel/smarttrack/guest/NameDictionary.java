@@ -0,0 +1,249 @@
+package com.hotel.smarttrack.guest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * NameDictionary - the distinct name tokens of all guests, for typo-tolerant
+ * and sound-alike name lookup. Thread-safe; tokens are only ever added, so
+ * a token whose last guest was renamed simply matches nobody.
+ *
+ * Tokens are held in BK-trees keyed by Levenshtein distance, one per token
+ * length: the tokens within k edits of a query are found by searching only
+ * the trees for lengths within k of the query's, descending only into
+ * children whose edge distance is within k of the query's distance to the
+ * node (triangle inequality). Each node knows its largest edge distance, so
+ * the distance to it is computed in a band and abandoned as soon as no child
+ * could qualify - for most nodes, once it exceeds k. Nodes whose letters
+ * already differ by more than that are skipped without computing it.
+ *
+ * Tokens are also bucketed by Soundex code, for spellings further apart
+ * that sound alike ("Schmidt" / "Smith"). Candidates are scored by
+ * Jaro-Winkler similarity and only the best few are kept, so a common token
+ * cannot fan out into a huge lookup.
+ */
+final class NameDictionary {
+
+    // Candidates kept per query token
+    static final int MAX_CANDIDATES = 32;
+    // Sound-alike tokens further than the edit bound must be at least this similar
+    private static final double MIN_PHONETIC_SIMILARITY = 0.75;
+
+    private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<String>> tokensByPhonetic = new ConcurrentHashMap<>();
+    private final Map<Integer, Node> rootsByLength = new ConcurrentHashMap<>();
+
+    /**
+     * Add a token (lowercase letters and digits).
+     *
+     * @return true if it was not in the dictionary yet
+     */
+    boolean add(String token) {
+        if (token == null || token.isEmpty() || !tokens.add(token)) {
+            return false;
+        }
+        String phonetic = GuestMatching.soundex(token);
+        if (phonetic != null) {
+            tokensByPhonetic.computeIfAbsent(phonetic, k -> ConcurrentHashMap.newKeySet()).add(token);
+        }
+        Node created = new Node(token);
+        Node node = rootsByLength.putIfAbsent(token.length(), created);
+        while (node != null) {
+            int distance = levenshtein(token, node.token, Math.max(token.length(), node.token.length()));
+            node.widen(distance);
+            if (node.children.compareAndSet(distance, null, created)) {
+                break;
+            }
+            node = node.children.get(distance);
+        }
+        return true;
+    }
+
+    void addAll(Iterable<String> tokens) {
+        for (String token : tokens) {
+            add(token);
+        }
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Dictionary tokens close to {@code token} - within the edit bound for
+     * its length, or sounding alike - with their similarity (1.0 for the
+     * token itself), best first, at most MAX_CANDIDATES.
+     */
+    Map<String, Double> similar(String token) {
+        Map<String, Double> found = new LinkedHashMap<>();
+        if (token == null || token.isEmpty()) {
+            return found;
+        }
+        int maxEdits = maxEdits(token.length());
+        long letters = letters(token);
+        // Every tree searched holds tokens at most maxEdits longer than this
+        int[] previous = new int[token.length() + maxEdits + 2];
+        int[] current = new int[previous.length];
+        List<Node> pending = new ArrayList<>();
+        for (int length = token.length() - maxEdits; length <= token.length() + maxEdits; length++) {
+            Node root = rootsByLength.get(length);
+            if (root != null) {
+                pending.add(root);
+            }
+        }
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            int reach = node.maxChildDistance;
+            if (missingLetters(letters, node.letters) > maxEdits + reach) {
+                continue; // too far for the node and every child
+            }
+            int distance = levenshtein(token, node.token, maxEdits + reach, previous, current);
+            if (distance <= maxEdits) {
+                found.put(node.token, GuestMatching.jaroWinkler(token, node.token));
+            }
+            if (distance > maxEdits + reach) {
+                continue; // every child is too far
+            }
+            for (int d = Math.max(1, distance - maxEdits); d <= Math.min(reach, distance + maxEdits); d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    pending.add(child);
+                }
+            }
+        }
+        String phonetic = GuestMatching.soundex(token);
+        Set<String> soundAlike = phonetic == null ? null : tokensByPhonetic.get(phonetic);
+        if (soundAlike != null) {
+            for (String other : soundAlike) {
+                if (!found.containsKey(other)) {
+                    double similarity = GuestMatching.jaroWinkler(token, other);
+                    if (similarity >= MIN_PHONETIC_SIMILARITY) {
+                        found.put(other, similarity);
+                    }
+                }
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(found.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Double> best = new LinkedHashMap<>();
+        for (int i = 0; i < ranked.size() && i < MAX_CANDIDATES; i++) {
+            best.put(ranked.get(i).getKey(), ranked.get(i).getValue());
+        }
+        return best;
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Typos tolerated for a token of this length: none for initials and
+     * two-letter tokens, one up to five letters, two beyond.
+     */
+    static int maxEdits(int length) {
+        if (length <= 2) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Set of the letters and digits in a token, one bit each.
+     */
+    private static long letters(String token) {
+        long set = 0L;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                set |= 1L << (c - 'a');
+            } else if (c >= '0' && c <= '9') {
+                set |= 1L << (26 + c - '0');
+            }
+        }
+        return set;
+    }
+
+    /**
+     * A lower bound on the edit distance between two tokens: every letter one
+     * has and the other lacks costs at least one edit, and an edit can fix at
+     * most one such letter on each side.
+     */
+    private static int missingLetters(long a, long b) {
+        return Math.max(Long.bitCount(a & ~b), Long.bitCount(b & ~a));
+    }
+
+    /**
+     * Levenshtein distance, or {@code max + 1} once it must exceed
+     * {@code max}. Only cells within {@code max} of the diagonal are filled.
+     */
+    static int levenshtein(String a, String b, int max) {
+        return levenshtein(a, b, max, new int[b.length() + 2], new int[b.length() + 2]);
+    }
+
+    /**
+     * As {@link #levenshtein(String, String, int)}, filling the given rows,
+     * each at least {@code b.length() + 2} long.
+     */
+    private static int levenshtein(String a, String b, int max, int[] previous, int[] current) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > max) {
+            return max + 1;
+        }
+        int over = max + 1;
+        for (int j = 0; j <= lb; j++) {
+            previous[j] = Math.min(j, over);
+        }
+        previous[lb + 1] = over;
+        for (int i = 1; i <= la; i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(lb, i + max);
+            current[from - 1] = from == 1 ? Math.min(i, over) : over;
+            int rowMin = current[from - 1];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                int cell = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(cell, over);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            current[to + 1] = over;
+            if (rowMin > max) {
+                return over;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[lb];
+    }
+
+    /**
+     * A BK-tree node: children indexed by their distance to this token. All
+     * tokens in a tree have the same length, which bounds that distance.
+     */
+    private static final class Node {
+        private final String token;
+        private final long letters;
+        private final AtomicReferenceArray<Node> children;
+        // Largest child key so far; raised before the child is linked
+        private volatile int maxChildDistance;
+
+        Node(String token) {
+            this.token = token;
+            this.letters = letters(token);
+            this.children = new AtomicReferenceArray<>(token.length() + 1);
+        }
+
+        synchronized void widen(int distance) {
+            if (distance > maxChildDistance) {
+                maxChildDistance = distance;
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.hotel.smarttrack.guest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * TrigramIndex - in-memory posting lists from every three-character window
+ * of guests' searchable fields to the guests holding it, for substring
+ * search. Thread-safe using a read/write lock.
+ *
+ * Postings are sorted and gap-compressed, about a byte per entry for common
+ * trigrams. Like NameDictionary tokens they are only ever added: an edited
+ * or merged guest keeps its old trigrams, so callers check candidates
+ * against the stored guest. Guest IDs must fit in an int.
+ */
+final class TrigramIndex {
+
+    static final int TRIGRAM_LENGTH = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * Add a guest under the trigrams of each field (already lowercased).
+     * No trigram spans two fields.
+     */
+    void add(Long guestId, Collection<String> fields) {
+        int id = indexId(guestId);
+        long[] keys = trigrams(fields);
+        lock.writeLock().lock();
+        try {
+            for (long key : keys) {
+                postings.computeIfAbsent(key, k -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * IDs of guests holding every trigram of the query (lowercased, at
+     * least TRIGRAM_LENGTH long), ascending.
+     */
+    long[] guestsWithAll(String query) {
+        long[] keys = trigrams(List.of(query));
+        if (keys.length == 0) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                lists[k] = postings.get(keys[k]);
+                if (lists[k] == null) {
+                    return new long[0];
+                }
+            }
+            // Shortest first: it bounds the candidates
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            int[] candidates = lists[0].toArray();
+            int count = candidates.length;
+            for (int k = 1; k < lists.length && count > 0; k++) {
+                count = intersect(candidates, count, lists[k]);
+            }
+            long[] ids = new long[count];
+            for (int c = 0; c < count; c++) {
+                ids[c] = candidates[c];
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of distinct trigrams indexed.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============ Helper Methods ============
+
+    /**
+     * Keep the first {@code count} candidates that are also in {@code list},
+     * compacting them to the front of the array. Candidates are ascending,
+     * so the list is walked forward one decoded block at a time.
+     *
+     * @return Number of candidates kept
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int[] block = new int[Postings.BLOCK_SIZE];
+        int current = -1;
+        int blockSize = 0;
+        int pos = 0;
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            int id = candidates[c];
+            if (id > list.last) {
+                break;
+            }
+            int b = list.blockFor(id, Math.max(current, 0));
+            if (b != current) {
+                if (list.blockCount[b] > block.length) {
+                    block = new int[list.blockCount[b]];
+                }
+                blockSize = list.decode(b, block);
+                current = b;
+                pos = 0;
+            }
+            while (pos < blockSize && block[pos] < id) {
+                pos++;
+            }
+            if (pos < blockSize && block[pos] == id) {
+                candidates[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Distinct trigrams of the fields, packed three chars to a long, sorted.
+     */
+    private static long[] trigrams(Collection<String> fields) {
+        int n = 0;
+        for (String field : fields) {
+            n += Math.max(field.length() - (TRIGRAM_LENGTH - 1), 0);
+        }
+        long[] keys = new long[n];
+        int count = 0;
+        for (String field : fields) {
+            for (int i = 0; i + TRIGRAM_LENGTH <= field.length(); i++) {
+                keys[count++] = ((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16)
+                        | field.charAt(i + 2);
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static int indexId(Long guestId) {
+        if (guestId == null || guestId < 0 || guestId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Guest ID cannot be indexed: " + guestId);
+        }
+        return guestId.intValue();
+    }
+
+    /**
+     * Sorted, duplicate-free guest IDs, compressed: blocks of IDs stored as
+     * varint gaps after the block's first ID. New guests get increasing IDs,
+     * so adds are almost always appends to the last block; re-adding an
+     * older guest rewrites one block. The first ID of every block is kept
+     * uncompressed so a lookup decodes a single block.
+     */
+    private static final class Postings {
+        private static final int BLOCK_SIZE = 128;
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int[] blockFirst = new int[1];
+        private int[] blockOffset = new int[1];
+        private int[] blockCount = new int[1];
+        private int blocks;
+        private int size;
+        private int last;
+
+        void add(int id) {
+            if (size == 0 || id > last) {
+                if (blocks == 0 || blockCount[blocks - 1] >= BLOCK_SIZE) {
+                    newBlock(id);
+                } else {
+                    writeGap(id - last);
+                    blockCount[blocks - 1]++;
+                }
+                last = id;
+                size++;
+                return;
+            }
+            int b = blockFor(id, 0);
+            int[] ids = new int[blockCount[b] + 1];
+            int count = decode(b, ids);
+            int pos = Arrays.binarySearch(ids, 0, count, id);
+            if (pos >= 0) {
+                return;
+            }
+            pos = -pos - 1;
+            System.arraycopy(ids, pos, ids, pos + 1, count - pos);
+            ids[pos] = id;
+            rewrite(b, ids, count + 1);
+            size++;
+        }
+
+        int[] toArray() {
+            int[] ids = new int[size];
+            int n = 0;
+            for (int b = 0; b < blocks; b++) {
+                n += decodeInto(b, ids, n);
+            }
+            return ids;
+        }
+
+        /**
+         * Last block whose first ID is at most {@code id}, searching from
+         * block {@code from}.
+         */
+        int blockFor(int id, int from) {
+            int lo = from;
+            int hi = blocks - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (blockFirst[mid] <= id) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return lo;
+        }
+
+        int decode(int b, int[] out) {
+            return decodeInto(b, out, 0);
+        }
+
+        private int decodeInto(int b, int[] out, int at) {
+            int id = blockFirst[b];
+            out[at] = id;
+            int n = 1;
+            int pos = blockOffset[b];
+            int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+            while (pos < end) {
+                int gap = 0;
+                int shift = 0;
+                byte v;
+                do {
+                    v = data[pos++];
+                    gap |= (v & 0x7F) << shift;
+                    shift += 7;
+                } while (v < 0);
+                id += gap;
+                out[at + n++] = id;
+            }
+            return n;
+        }
+
+        private void newBlock(int id) {
+            if (blocks == blockFirst.length) {
+                int grown = blocks + (blocks >> 1) + 1;
+                blockFirst = Arrays.copyOf(blockFirst, grown);
+                blockOffset = Arrays.copyOf(blockOffset, grown);
+                blockCount = Arrays.copyOf(blockCount, grown);
+            }
+            blockFirst[blocks] = id;
+            blockOffset[blocks] = length;
+            blockCount[blocks] = 1;
+            blocks++;
+        }
+
+        private void writeGap(int gap) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + 5, data.length + (data.length >> 1)));
+            }
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+        }
+
+        /**
+         * Replace block {@code b} with {@code count} sorted IDs.
+         */
+        private void rewrite(int b, int[] ids, int count) {
+            byte[] encoded = new byte[count * 5];
+            int n = 0;
+            for (int k = 1; k < count; k++) {
+                int gap = ids[k] - ids[k - 1];
+                while ((gap & ~0x7F) != 0) {
+                    encoded[n++] = (byte) ((gap & 0x7F) | 0x80);
+                    gap >>>= 7;
+                }
+                encoded[n++] = (byte) gap;
+            }
+
+            int start = blockOffset[b];
+            int end = b + 1 < blocks ? blockOffset[b + 1] : length;
+            int shift = n - (end - start);
+            if (length + shift > data.length) {
+                data = Arrays.copyOf(data, length + shift);
+            }
+            System.arraycopy(data, end, data, end + shift, length - end);
+            System.arraycopy(encoded, 0, data, start, n);
+            length += shift;
+            for (int k = b + 1; k < blocks; k++) {
+                blockOffset[k] += shift;
+            }
+            blockFirst[b] = ids[0];
+            blockCount[b] = count;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.hotel.smarttrack.guest.console;
 
 import com.hotel.smarttrack.entity.Guest;
+import com.hotel.smarttrack.entity.GuestImportReport;
+import com.hotel.smarttrack.entity.GuestMergeProposal;
+import com.hotel.smarttrack.entity.GuestProfile;
+import com.hotel.smarttrack.service.GuestProfileService;
+import com.hotel.smarttrack.service.GuestSegmentationService;
 import com.hotel.smarttrack.service.GuestService;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -12,10 +18,15 @@ import java.util.Scanner;
 public class GuestManagementConsole {
 
     private final GuestService guestService;
+    private final GuestProfileService guestProfileService;
+    private final GuestSegmentationService guestSegmentationService;
     private final Scanner scanner = new Scanner(System.in);
 
-    public GuestManagementConsole(GuestService guestService) {
+    public GuestManagementConsole(GuestService guestService, GuestProfileService guestProfileService,
+            GuestSegmentationService guestSegmentationService) {
         this.guestService = guestService;
+        this.guestProfileService = guestProfileService;
+        this.guestSegmentationService = guestSegmentationService;
     }
 
     public void start() {
@@ -29,6 +40,12 @@ public class GuestManagementConsole {
             System.out.println("6. Deactivate Guest");
             System.out.println("7. Blacklist Guest");
             System.out.println("8. Reactivate Guest");
+            System.out.println("9. Find Duplicate Guests");
+            System.out.println("10. Merge Guests");
+            System.out.println("11. Import Guests from CSV");
+            System.out.println("12. View Guest Profile");
+            System.out.println("13. Find Guests by Similar Name");
+            System.out.println("14. Run Guest Segmentation");
             System.out.println("0. Back to Main Menu");
             System.out.print("Choose: ");
 
@@ -43,6 +60,12 @@ public class GuestManagementConsole {
                     case "6" -> deactivateGuest();
                     case "7" -> blacklistGuest();
                     case "8" -> reactivateGuest();
+                    case "9" -> findDuplicateGuests();
+                    case "10" -> mergeGuests();
+                    case "11" -> importGuests();
+                    case "12" -> viewGuestProfile();
+                    case "13" -> findSimilarGuests();
+                    case "14" -> runSegmentation();
                     case "0" -> {
                         return;
                     }
@@ -71,7 +94,7 @@ public class GuestManagementConsole {
     }
 
     private void updateGuest() {
-        Long id = readLong("Guest ID to update: ");
+        Long id = readGuestId("Guest ID to update: ");
 
         Optional<Guest> opt = guestService.getGuestById(id);
         if (opt.isEmpty()) {
@@ -107,7 +130,7 @@ public class GuestManagementConsole {
     }
 
     private void viewGuestById() {
-        Long id = readLong("Guest ID: ");
+        Long id = readGuestId("Guest ID: ");
         Optional<Guest> guest = guestService.getGuestById(id);
         System.out.println(guest.map(Object::toString).orElse("Guest Not Found"));
     }
@@ -133,7 +156,7 @@ public class GuestManagementConsole {
     }
 
     private void deactivateGuest() {
-        Long id = readLong("Guest ID to deactivate: ");
+        Long id = readGuestId("Guest ID to deactivate: ");
         System.out.print("Reason/Justification: ");
         String reason = scanner.nextLine();
         guestService.deactivateGuest(id, reason);
@@ -141,7 +164,7 @@ public class GuestManagementConsole {
     }
 
     private void blacklistGuest() {
-        Long id = readLong("Guest ID to blacklist: ");
+        Long id = readGuestId("Guest ID to blacklist: ");
         System.out.print("Reason/Justification: ");
         String reason = scanner.nextLine();
         guestService.blacklistGuest(id, reason);
@@ -149,19 +172,92 @@ public class GuestManagementConsole {
     }
 
     private void reactivateGuest() {
-        Long id = readLong("Guest ID to reactivate: ");
+        Long id = readGuestId("Guest ID to reactivate: ");
         guestService.reactivateGuest(id);
         System.out.println("Guest reactivated.");
     }
 
-    private Long readLong(String prompt) {
+    private void findDuplicateGuests() {
+        List<GuestMergeProposal> proposals = guestService.findDuplicateGuests();
+        if (proposals.isEmpty()) {
+            System.out.println("No duplicates found.");
+            return;
+        }
+        int shown = Math.min(proposals.size(), 50);
+        proposals.subList(0, shown).forEach(System.out::println);
+        if (shown < proposals.size()) {
+            System.out.println("... " + (proposals.size() - shown) + " more");
+        }
+    }
+
+    private void mergeGuests() {
+        Long keep = readGuestId("Guest ID to keep: ");
+        Long duplicate = readGuestId("Duplicate Guest ID to merge into it: ");
+        Guest merged = guestService.mergeGuests(keep, duplicate);
+        System.out.println("Merged: " + merged);
+    }
+
+    private void importGuests() {
+        System.out.print("CSV file path: ");
+        String path = scanner.nextLine();
+        GuestImportReport report = guestService.importGuests(path);
+        System.out.println("Imported " + report.getImported() + " of " + report.getRowsRead()
+                + " row(s) in " + report.getElapsedMillis() + " ms, rejected " + report.getRejected());
+        int shown = Math.min(report.getErrors().size(), 50);
+        report.getErrors().subList(0, shown).forEach(System.out::println);
+        if (shown < report.getRejected()) {
+            System.out.println("... " + (report.getRejected() - shown) + " more");
+        }
+    }
+
+    private void findSimilarGuests() {
+        System.out.print("Name (spelling may be approximate): ");
+        String name = scanner.nextLine();
+        List<Guest> results = guestService.findSimilarGuests(name);
+        if (results.isEmpty()) {
+            System.out.println("No similar guests found.");
+            return;
+        }
+        results.forEach(System.out::println);
+    }
+
+    private void viewGuestProfile() {
+        Long id = readGuestId("Guest ID: ");
+        GuestProfile profile = guestProfileService.getGuestProfile(id);
+        System.out.println("Completed stays: " + profile.getCompletedStays());
+        System.out.println("Nights stayed: " + profile.getTotalNights());
+        System.out.println("Lifetime revenue: $" + profile.getLifetimeRevenue());
+        System.out.println("VIP: " + (profile.isVip() ? "Yes" : "No"));
+        List<String> segments = guestSegmentationService.getSegments(id);
+        System.out.println("Segments: " + (segments.isEmpty() ? "-" : String.join(", ", segments)));
+    }
+
+    private void runSegmentation() {
+        Map<String, Long> counts = guestSegmentationService.runSegmentation();
+        if (counts.isEmpty()) {
+            System.out.println("No guest matched any segment.");
+            return;
+        }
+        counts.forEach((segment, guests) -> System.out.println(segment + ": " + guests + " guest(s)"));
+    }
+
+    /**
+     * Read a guest ID. Anything else is taken as the start of a name and the
+     * matching guests are listed with their IDs before asking again.
+     */
+    private Long readGuestId(String prompt) {
         while (true) {
             System.out.print(prompt);
             String s = scanner.nextLine().trim();
             try {
                 return Long.parseLong(s);
             } catch (NumberFormatException e) {
-                System.out.println("Please enter a valid number.");
+                Map<Long, String> matches = notBlank(s) ? guestService.completeGuestNames(s) : Map.of();
+                if (matches.isEmpty()) {
+                    System.out.println("Please enter a guest ID, or the start of a guest name.");
+                } else {
+                    matches.forEach((id, name) -> System.out.println("  " + id + " = " + name));
+                }
             }
         }
     }
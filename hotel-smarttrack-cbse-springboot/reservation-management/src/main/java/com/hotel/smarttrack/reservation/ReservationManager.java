@@ -1,5 +1,6 @@
 package com.hotel.smarttrack.reservation;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Reservation;
 import com.hotel.smarttrack.entity.Guest;
 import com.hotel.smarttrack.entity.RoomType;
@@ -7,11 +8,13 @@ import com.hotel.smarttrack.entity.Room;
 import com.hotel.smarttrack.repository.ReservationRepository;
 import com.hotel.smarttrack.service.ReservationService;
 import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.HotelStatisticsService;
 import com.hotel.smarttrack.service.RoomService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,13 +28,19 @@ public class ReservationManager implements ReservationService {
     private final ReservationRepository reservationRepository;
     private final GuestService guestService;
     private final RoomService roomService;
+    private final HotelStatisticsService statisticsService;
+    private final ReferenceDataCache referenceDataCache;
 
     public ReservationManager(ReservationRepository reservationRepository,
             GuestService guestService,
-            RoomService roomService) {
+            RoomService roomService,
+            HotelStatisticsService statisticsService,
+            ReferenceDataCache referenceDataCache) {
         this.reservationRepository = reservationRepository;
         this.guestService = guestService;
         this.roomService = roomService;
+        this.statisticsService = statisticsService;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -45,10 +54,10 @@ public class ReservationManager implements ReservationService {
             throw new IllegalArgumentException("checkOut must be after checkIn.");
         }
 
-        Guest guest = guestService.getGuestById(guestId)
+        Guest guest = referenceDataCache.getGuest(guestId, guestService::getGuestById)
                 .orElseThrow(() -> new IllegalArgumentException("Guest not found: " + guestId));
 
-        RoomType roomType = roomService.getRoomTypeById(roomTypeId)
+        RoomType roomType = referenceDataCache.getRoomType(roomTypeId, roomService::getRoomTypeById)
                 .orElseThrow(() -> new IllegalArgumentException("RoomType not found: " + roomTypeId));
 
         Reservation reservation = new Reservation();
@@ -59,8 +68,10 @@ public class ReservationManager implements ReservationService {
         reservation.setNumberOfGuests(numberOfGuests);
         reservation.setSpecialRequests(specialRequests);
         reservation.setStatus("Reserved");
+        reservation.setBookedTime(LocalDateTime.now());
 
         Reservation saved = reservationRepository.save(reservation);
+        statisticsService.reservationChanged(saved);
         System.out.println("[ReservationManager] Created reservation ID=" + saved.getReservationId());
         return saved;
     }
@@ -79,7 +90,9 @@ public class ReservationManager implements ReservationService {
         if (numberOfGuests > 0)
             reservation.setNumberOfGuests(numberOfGuests);
 
-        return reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        statisticsService.reservationChanged(saved);
+        return saved;
     }
 
     @Override
@@ -89,7 +102,8 @@ public class ReservationManager implements ReservationService {
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
 
         reservation.setStatus("Cancelled");
-        reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        statisticsService.reservationChanged(saved);
         System.out.println("[ReservationManager] Cancelled reservation ID=" + reservationId);
     }
 
@@ -100,7 +114,8 @@ public class ReservationManager implements ReservationService {
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
 
         reservation.setStatus("Confirmed");
-        reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        statisticsService.reservationChanged(saved);
         System.out.println("[ReservationManager] Confirmed reservation ID=" + reservationId);
     }
 
@@ -172,7 +187,8 @@ public class ReservationManager implements ReservationService {
                 .orElseThrow(() -> new IllegalArgumentException("Reservation not found: " + reservationId));
 
         reservation.setStatus("No-Show");
-        reservationRepository.save(reservation);
+        Reservation saved = reservationRepository.save(reservation);
+        statisticsService.reservationChanged(saved);
     }
 
     @Override
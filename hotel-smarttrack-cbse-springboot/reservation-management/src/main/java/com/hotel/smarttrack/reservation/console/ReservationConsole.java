@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Scanner;
 
@@ -100,20 +101,7 @@ public class ReservationConsole {
 
     private void createReservation(Scanner scanner) {
         try {
-            // Show available guests if service is available
-            if (guestService != null) {
-                System.out.println("\n--- Available Guests ---");
-                List<Guest> guests = guestService.getAllGuests();
-                if (guests.isEmpty()) {
-                    System.out.println("⚠ No guests found. Please create a guest first.");
-                    return;
-                }
-                for (Guest g : guests) {
-                    System.out.printf("  ID=%d | %s | %s%n", g.getGuestId(), g.getName(), g.getEmail());
-                }
-            }
-            System.out.print("Guest ID: ");
-            Long guestId = Long.parseLong(scanner.nextLine().trim());
+            Long guestId = readGuestId(scanner);
 
             // Show available room types if service is available
             if (roomService != null) {
@@ -239,19 +227,7 @@ public class ReservationConsole {
             }
             printReservation(existing.get());
 
-            // Show available rooms if service is available
-            if (roomService != null) {
-                System.out.println("\n--- Available Rooms ---");
-                List<Room> rooms = roomService.getAllRooms();
-                for (Room room : rooms) {
-                    String typeInfo = room.getRoomType() != null ? room.getRoomType().getTypeName() : "N/A";
-                    System.out.printf("  ID=%d | Room# %s | Floor %d | Type: %s | Status: %s%n",
-                            room.getRoomId(), room.getRoomNumber(), room.getFloorNumber(), typeInfo, room.getStatus());
-                }
-            }
-
-            System.out.print("Room ID to assign: ");
-            Long roomId = Long.parseLong(scanner.nextLine().trim());
+            Long roomId = readRoomId(scanner);
 
             reservationService.assignRoom(reservationId, roomId);
             System.out.println("✅ Room assigned to reservation.");
@@ -293,16 +269,7 @@ public class ReservationConsole {
 
     private void viewGuestHistory(Scanner scanner) {
         try {
-            // Show guests if available
-            if (guestService != null) {
-                System.out.println("\n--- Guests ---");
-                List<Guest> guests = guestService.getAllGuests();
-                for (Guest g : guests) {
-                    System.out.printf("  ID=%d | %s%n", g.getGuestId(), g.getName());
-                }
-            }
-            System.out.print("Guest ID: ");
-            Long guestId = Long.parseLong(scanner.nextLine().trim());
+            Long guestId = readGuestId(scanner);
 
             List<Reservation> history = reservationService.getGuestReservationHistory(guestId);
             System.out.println("\n--- Reservation History for Guest " + guestId + " (" + history.size() + ") ---");
@@ -400,6 +367,56 @@ public class ReservationConsole {
         }
     }
 
+    // ==================== Input Helpers ====================
+
+    /**
+     * Read a guest ID. Anything else is taken as the start of a guest name:
+     * the matching guests are listed with their IDs and the prompt repeats.
+     */
+    private Long readGuestId(Scanner scanner) {
+        while (true) {
+            System.out.print("Guest ID (or start of name): ");
+            String input = scanner.nextLine().trim();
+            if (guestService == null || input.chars().allMatch(Character::isDigit)) {
+                return Long.parseLong(input);
+            }
+            Map<Long, String> matches = guestService.completeGuestNames(input);
+            if (matches.isEmpty()) {
+                System.out.println("⚠ No guest name starts with '" + input + "'.");
+            }
+            matches.forEach((id, name) -> System.out.printf("  ID=%d | %s%n", id, name));
+        }
+    }
+
+    /**
+     * Read a room number and return the room's ID. A partial number lists the
+     * room numbers it completes to and the prompt repeats; a blank line or a
+     * number no room starts with throws, back to the menu. Without
+     * RoomService the room ID itself is read.
+     */
+    private Long readRoomId(Scanner scanner) {
+        if (roomService == null) {
+            System.out.print("Room ID to assign: ");
+            return Long.parseLong(scanner.nextLine().trim());
+        }
+        while (true) {
+            System.out.print("Room number to assign (or its start): ");
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                throw new IllegalArgumentException("Room number is required.");
+            }
+            Optional<Room> room = roomService.getRoomByNumber(input);
+            if (room.isPresent()) {
+                return room.get().getRoomId();
+            }
+            List<String> matches = roomService.completeRoomNumbers(input);
+            if (matches.isEmpty()) {
+                throw new IllegalArgumentException("No room number starts with '" + input + "'.");
+            }
+            System.out.println("  Matching rooms: " + String.join(", ", matches));
+        }
+    }
+
     // ==================== Print Helpers ====================
 
     private void printReservation(Reservation r) {
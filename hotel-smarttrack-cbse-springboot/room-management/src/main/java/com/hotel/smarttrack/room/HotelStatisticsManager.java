@@ -0,0 +1,318 @@
+package com.hotel.smarttrack.room;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.hotel.smarttrack.entity.Reservation;
+import com.hotel.smarttrack.entity.Room;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.ReservationRepository;
+import com.hotel.smarttrack.repository.RoomRepository;
+import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.service.HotelStatisticsService;
+import com.hotel.smarttrack.transaction.TransactionHooks;
+
+/**
+ * HotelStatisticsManager - Implementation of HotelStatisticsService.
+ * Live occupancy counters for the front-desk dashboard.
+ * This class is private to the room-management component.
+ *
+ * Each room, stay and reservation remembers what it last contributed, so a
+ * change notification subtracts the old contribution and adds the new one
+ * under a per-entity lock (ConcurrentHashMap.compute). Counters are LongAdders
+ * so dashboard polling never contends with check-in/out traffic.
+ *
+ * Arrivals count Confirmed reservations by check-in date and departures
+ * Checked-In ones by check-out date, as findArrivingToday and
+ * findDepartingToday do; statuses compare ignoring case and '-' vs '_'.
+ *
+ * Notifications raised inside a transaction are applied after commit; the
+ * counters are rebuilt from the repositories when the context starts, which
+ * also picks up rows loaded by data.sql.
+ */
+@Service
+public class HotelStatisticsManager implements HotelStatisticsService {
+
+    private static final String STAY_CHECKED_IN = "CHECKED_IN";
+    private static final String RESERVATION_CONFIRMED = "CONFIRMED";
+    private static final String RESERVATION_CHECKED_IN = "CHECKED_IN";
+
+    private final RoomRepository roomRepository;
+    private final StayRepository stayRepository;
+    private final ReservationRepository reservationRepository;
+
+    // ============ Per-Entity Contributions ============
+
+    private final Map<Long, RoomSlot> roomSlots = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> activeStayGuests = new ConcurrentHashMap<>();
+    private final Map<Long, ReservationSlot> reservationSlots = new ConcurrentHashMap<>();
+
+    // ============ Counters ============
+
+    private final Map<String, LongAdder> roomsByStatus = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, LongAdder>> roomsByFloor = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, LongAdder>> roomsByType = new ConcurrentHashMap<>();
+    private final LongAdder inHouseGuests = new LongAdder();
+    private final Map<LocalDate, LongAdder> arrivals = new ConcurrentHashMap<>();
+    private final Map<LocalDate, LongAdder> departures = new ConcurrentHashMap<>();
+
+    public HotelStatisticsManager(RoomRepository roomRepository,
+            StayRepository stayRepository,
+            ReservationRepository reservationRepository) {
+        this.roomRepository = roomRepository;
+        this.stayRepository = stayRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Rebuild all counters from the repositories.
+     * Runs once the context is refreshed, before the console starts.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        roomSlots.clear();
+        activeStayGuests.clear();
+        reservationSlots.clear();
+        roomsByStatus.clear();
+        roomsByFloor.clear();
+        roomsByType.clear();
+        inHouseGuests.reset();
+        arrivals.clear();
+        departures.clear();
+
+        for (Room room : roomRepository.findAll()) {
+            applyRoom(room.getRoomId(), RoomSlot.of(room));
+        }
+        for (Stay stay : stayRepository.findAllActive()) {
+            applyStay(stay.getStayId(), guestsFor(stay));
+        }
+        for (Reservation reservation : reservationRepository.findAll()) {
+            applyReservation(reservation.getReservationId(), ReservationSlot.of(reservation));
+        }
+
+        System.out.println("[HotelStatisticsManager] Counters rebuilt: " + roomSlots.size() + " rooms, "
+                + activeStayGuests.size() + " active stays, " + reservationSlots.size() + " reservations");
+    }
+
+    // ============ Room Counters ============
+
+    @Override
+    public long getTotalRooms() {
+        return roomSlots.size();
+    }
+
+    @Override
+    public long countRoomsByStatus(String status) {
+        return sum(roomsByStatus, status);
+    }
+
+    @Override
+    public long countRoomsByFloorAndStatus(int floorNumber, String status) {
+        Map<String, LongAdder> byStatus = roomsByFloor.get(floorNumber);
+        return byStatus == null ? 0L : sum(byStatus, status);
+    }
+
+    @Override
+    public long countRoomsByTypeAndStatus(Long roomTypeId, String status) {
+        Map<String, LongAdder> byStatus = roomTypeId == null ? null : roomsByType.get(roomTypeId);
+        return byStatus == null ? 0L : sum(byStatus, status);
+    }
+
+    @Override
+    public Map<String, Long> getRoomStatusCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        roomsByStatus.forEach((status, counter) -> counts.put(status, counter.sum()));
+        return counts;
+    }
+
+    // ============ Stay / Reservation Counters ============
+
+    @Override
+    public long countActiveStays() {
+        return activeStayGuests.size();
+    }
+
+    @Override
+    public long countInHouseGuests() {
+        return inHouseGuests.sum();
+    }
+
+    @Override
+    public long countArrivals(LocalDate date) {
+        return sum(arrivals, date);
+    }
+
+    @Override
+    public long countDepartures(LocalDate date) {
+        return sum(departures, date);
+    }
+
+    // ============ Change Notifications ============
+
+    @Override
+    public void roomChanged(Room room) {
+        if (room == null || room.getRoomId() == null) {
+            return;
+        }
+        Long roomId = room.getRoomId();
+        RoomSlot slot = RoomSlot.of(room);
+        TransactionHooks.afterCommit(() -> applyRoom(roomId, slot));
+    }
+
+    @Override
+    public void roomRemoved(Long roomId) {
+        if (roomId == null) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> applyRoom(roomId, null));
+    }
+
+    @Override
+    public void stayChanged(Stay stay) {
+        if (stay == null || stay.getStayId() == null) {
+            return;
+        }
+        Long stayId = stay.getStayId();
+        Integer guests = STAY_CHECKED_IN.equals(stay.getStatus()) ? guestsFor(stay) : null;
+        TransactionHooks.afterCommit(() -> applyStay(stayId, guests));
+    }
+
+    @Override
+    public void reservationChanged(Reservation reservation) {
+        if (reservation == null || reservation.getReservationId() == null) {
+            return;
+        }
+        Long reservationId = reservation.getReservationId();
+        ReservationSlot slot = ReservationSlot.of(reservation);
+        TransactionHooks.afterCommit(() -> applyReservation(reservationId, slot));
+    }
+
+    // ============ Helper Methods ============
+
+    private void applyRoom(Long roomId, RoomSlot slot) {
+        roomSlots.compute(roomId, (id, previous) -> {
+            adjustRoom(previous, -1);
+            adjustRoom(slot, 1);
+            return slot;
+        });
+    }
+
+    private void adjustRoom(RoomSlot slot, int delta) {
+        if (slot == null || slot.status == null) {
+            return;
+        }
+        counter(roomsByStatus, slot.status).add(delta);
+        counter(roomsByFloor.computeIfAbsent(slot.floorNumber, k -> new ConcurrentHashMap<>()), slot.status)
+                .add(delta);
+        if (slot.roomTypeId != null) {
+            counter(roomsByType.computeIfAbsent(slot.roomTypeId, k -> new ConcurrentHashMap<>()), slot.status)
+                    .add(delta);
+        }
+    }
+
+    /**
+     * @param guests Party size if the stay is checked in, null otherwise
+     */
+    private void applyStay(Long stayId, Integer guests) {
+        activeStayGuests.compute(stayId, (id, previous) -> {
+            if (previous != null) {
+                inHouseGuests.add(-previous);
+            }
+            if (guests != null) {
+                inHouseGuests.add(guests);
+            }
+            return guests;
+        });
+    }
+
+    private void applyReservation(Long reservationId, ReservationSlot slot) {
+        reservationSlots.compute(reservationId, (id, previous) -> {
+            if (previous != null) {
+                adjustDate(arrivals, previous.arrivalDate(), -1);
+                adjustDate(departures, previous.departureDate(), -1);
+            }
+            adjustDate(arrivals, slot.arrivalDate(), 1);
+            adjustDate(departures, slot.departureDate(), 1);
+            return slot;
+        });
+    }
+
+    private static void adjustDate(Map<LocalDate, LongAdder> counters, LocalDate date, int delta) {
+        if (date != null) {
+            counter(counters, date).add(delta);
+        }
+    }
+
+    private static int guestsFor(Stay stay) {
+        Reservation reservation = stay.getReservation();
+        return reservation != null && reservation.getNumberOfGuests() > 0 ? reservation.getNumberOfGuests() : 1;
+    }
+
+    private static <K> LongAdder counter(Map<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> long sum(Map<K, LongAdder> counters, K key) {
+        LongAdder counter = key == null ? null : counters.get(key);
+        return counter == null ? 0L : counter.sum();
+    }
+
+    /**
+     * What a room contributes to the room counters.
+     */
+    private static final class RoomSlot {
+        private final String status;
+        private final int floorNumber;
+        private final Long roomTypeId;
+
+        private RoomSlot(String status, int floorNumber, Long roomTypeId) {
+            this.status = status;
+            this.floorNumber = floorNumber;
+            this.roomTypeId = roomTypeId;
+        }
+
+        static RoomSlot of(Room room) {
+            return new RoomSlot(room.getStatus(), room.getFloorNumber(),
+                    room.getRoomType() != null ? room.getRoomType().getRoomTypeId() : null);
+        }
+    }
+
+    /**
+     * What a reservation contributes to the arrival/departure counters.
+     */
+    private static final class ReservationSlot {
+        private final String status;
+        private final LocalDate checkInDate;
+        private final LocalDate checkOutDate;
+
+        private ReservationSlot(String status, LocalDate checkInDate, LocalDate checkOutDate) {
+            this.status = status;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+        }
+
+        static ReservationSlot of(Reservation reservation) {
+            String status = reservation.getStatus() == null ? null
+                    : reservation.getStatus().trim().toUpperCase(Locale.ROOT).replace('-', '_');
+            return new ReservationSlot(status, reservation.getCheckInDate(), reservation.getCheckOutDate());
+        }
+
+        LocalDate arrivalDate() {
+            return RESERVATION_CONFIRMED.equals(status) ? checkInDate : null;
+        }
+
+        LocalDate departureDate() {
+            return RESERVATION_CHECKED_IN.equals(status) ? checkOutDate : null;
+        }
+    }
+}
@@ -11,14 +11,21 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.hotel.smarttrack.cache.PrefixIndex;
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.Room;
 import com.hotel.smarttrack.entity.RoomType;
 import com.hotel.smarttrack.repository.RoomRepository;
 import com.hotel.smarttrack.repository.RoomTypeRepository;
+import com.hotel.smarttrack.service.HotelStatisticsService;
 import com.hotel.smarttrack.service.RoomService;
+import com.hotel.smarttrack.transaction.TransactionHooks;
 
 import jakarta.annotation.PostConstruct;
 
@@ -33,6 +40,8 @@ import jakarta.annotation.PostConstruct;
  * - Status value validation
  * - Enhanced availability checking with reservation integration
  * - JPA-based persistence
+ * - Room number completion from an in-memory PrefixIndex, loaded on startup
+ *   and updated once each room write commits
  */
 @Service
 @Transactional
@@ -48,8 +57,13 @@ public class RoomManager implements RoomService {
     private static final List<String> VALID_STATUSES = Arrays.asList(
             STATUS_AVAILABLE, STATUS_OCCUPIED, STATUS_UNDER_CLEANING, STATUS_OUT_OF_SERVICE);
 
+    private static final int MAX_COMPLETIONS = 10;
+
     private final RoomRepository roomRepository;
     private final RoomTypeRepository roomTypeRepository;
+    private final HotelStatisticsService statisticsService;
+    private final ReferenceDataCache referenceDataCache;
+    private final PrefixIndex roomNumbers = new PrefixIndex();
 
     // Mock reservation data for availability checking
     // In production, this would query the Reservation service
@@ -58,9 +72,13 @@ public class RoomManager implements RoomService {
 
     @Autowired
     public RoomManager(RoomRepository roomRepository,
-            RoomTypeRepository roomTypeRepository) {
+            RoomTypeRepository roomTypeRepository,
+            HotelStatisticsService statisticsService,
+            ReferenceDataCache referenceDataCache) {
         this.roomRepository = roomRepository;
         this.roomTypeRepository = roomTypeRepository;
+        this.statisticsService = statisticsService;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -78,6 +96,20 @@ public class RoomManager implements RoomService {
         }
     }
 
+    /**
+     * Load every room number into the completion index.
+     * Runs once the context is refreshed, before the console starts.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Transactional(readOnly = true)
+    public void loadRoomNumbers() {
+        roomNumbers.clear();
+        for (Room room : roomRepository.findAll()) {
+            roomNumbers.put(room.getRoomId(), room.getRoomNumber());
+        }
+        System.out.println("[RoomManager] Room number completions: " + roomNumbers.size() + " room(s)");
+    }
+
     // ============ Room Type Operations ============
 
     @Override
@@ -134,6 +166,7 @@ public class RoomManager implements RoomService {
         roomType.setTaxRate(newTaxRate);
 
         RoomType saved = roomTypeRepository.save(roomType);
+        referenceDataCache.invalidateRoomType(roomTypeId);
         System.out.println("[RoomManager] Updated pricing for: " + saved.getTypeName() +
                 " - New price: $" + newPrice + ", Tax: " +
                 newTaxRate.multiply(new BigDecimal("100")) + "%");
@@ -184,6 +217,8 @@ public class RoomManager implements RoomService {
         room.setStatus(STATUS_AVAILABLE);
 
         Room saved = roomRepository.save(room);
+        statisticsService.roomChanged(saved);
+        TransactionHooks.afterCommit(() -> roomNumbers.put(saved.getRoomId(), saved.getRoomNumber()));
         System.out.println("[RoomManager] Created room: " + roomNumber +
                 " (Type: " + roomType.getTypeName() + ", Floor: " + floorNumber + ")");
         return saved;
@@ -216,6 +251,8 @@ public class RoomManager implements RoomService {
         }
 
         Room saved = roomRepository.save(room);
+        statisticsService.roomChanged(saved);
+        TransactionHooks.afterCommit(() -> roomNumbers.put(saved.getRoomId(), saved.getRoomNumber()));
         System.out.println("[RoomManager] Updated room: " + room.getRoomNumber());
         return saved;
     }
@@ -238,6 +275,15 @@ public class RoomManager implements RoomService {
         return roomRepository.findAll();
     }
 
+    /**
+     * Served from memory; no transaction needed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<String> completeRoomNumbers(String prefix) {
+        return new ArrayList<>(roomNumbers.complete(prefix, MAX_COMPLETIONS).values());
+    }
+
     @Override
     public void deleteRoom(Long roomId) {
         // Input validation
@@ -255,6 +301,8 @@ public class RoomManager implements RoomService {
         }
 
         roomRepository.delete(room);
+        statisticsService.roomRemoved(roomId);
+        TransactionHooks.afterCommit(() -> roomNumbers.remove(roomId));
         System.out.println("[RoomManager] Deleted room: " + room.getRoomNumber() +
                 " (ID: " + roomId + ")");
     }
@@ -282,7 +330,7 @@ public class RoomManager implements RoomService {
 
         String oldStatus = room.getStatus();
         room.setStatus(status);
-        roomRepository.save(room);
+        statisticsService.roomChanged(roomRepository.save(room));
 
         System.out.println("[RoomManager] Updated room " + room.getRoomNumber() +
                 " status from '" + oldStatus + "' to '" + status + "'");
@@ -52,6 +52,7 @@ public class RoomManagementConsole {
                     case "8" -> viewRoomTypePricing();
                     case "9" -> updateRoomTypePricing();
                     case "10" -> displayRoomAvailability();
+                    case "11" -> findRoomByNumber();
                     case "0" -> running = false;
                     default -> System.out.println("⚠ Invalid option.");
                 }
@@ -73,6 +74,7 @@ public class RoomManagementConsole {
         System.out.println("  3. Create Room");
         System.out.println("  4. View All Room Types");
         System.out.println("  5. Create Room Type");
+        System.out.println(" 11. Find Room by Number");
         System.out.println("");
         System.out.println("UC6 - Manage Room Status:");
         System.out.println("  6. View Rooms by Status");
@@ -168,6 +170,37 @@ public class RoomManagementConsole {
         }
     }
 
+    /**
+     * Show a room by its number; a partial number lists the room numbers it
+     * completes to.
+     */
+    private void findRoomByNumber() {
+        System.out.print("\nRoom Number (or its start): ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            return;
+        }
+
+        Optional<Room> exact = roomService.getRoomByNumber(input);
+        List<String> matches = exact.isPresent() ? List.of() : roomService.completeRoomNumbers(input);
+        if (exact.isEmpty() && matches.size() == 1) {
+            exact = roomService.getRoomByNumber(matches.get(0));
+        }
+        if (exact.isPresent()) {
+            Room room = exact.get();
+            System.out.printf("ID=%d | Room %s | Floor %d | Type: %s | Status: %s\n",
+                    room.getRoomId(),
+                    room.getRoomNumber(),
+                    room.getFloorNumber(),
+                    room.getRoomType() != null ? room.getRoomType().getTypeName() : "N/A",
+                    room.getStatus());
+        } else if (matches.isEmpty()) {
+            System.out.println("⚠ No room number starts with '" + input + "'.");
+        } else {
+            System.out.println("Matching rooms: " + String.join(", ", matches));
+        }
+    }
+
     private void viewAllRoomTypes() {
         System.out.println("\n--- All Room Types ---");
         List<RoomType> types = roomService.getAllRoomTypes();
@@ -0,0 +1,200 @@
+package com.hotel.smarttrack.stay;
+
+import com.hotel.smarttrack.entity.Money;
+import com.hotel.smarttrack.entity.RoomNightCharge;
+import com.hotel.smarttrack.entity.RoomType;
+import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.repository.RoomNightChargeRepository;
+import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.service.TaxService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * NightAuditJob - posts one room-night charge per in-house stay each night.
+ *
+ * In-house stays are split into partitions and priced in parallel on a
+ * dedicated fork-join pool; each partition of at most BATCH_SIZE stays is
+ * committed in its own transaction. Stays already posted for the business
+ * date are skipped, so re-running the audit for a date is safe. If another
+ * run posts some stays of a batch first, the batch is rolled back, the
+ * stays posted in the meantime are re-read and the rest are committed in a
+ * new transaction.
+ *
+ * Posted lines carry the nightly rate, RoomType tax rate and the tax
+ * TaxService computed for that night (room tax, levies, guest exemptions);
+ * StayManager and BillingManager add them up instead of repricing the stay.
+ *
+ * @author Elvis Sawing
+ */
+@Component
+public class NightAuditJob {
+
+    // Defaults when the room type has no rate configured ($100.00, 10% tax)
+    private static final Money DEFAULT_RATE = Money.ofMinor(10_000L);
+    private static final BigDecimal DEFAULT_TAX_RATE = new BigDecimal("0.10");
+
+    private static final int BATCH_SIZE = 200;
+    private static final int PARALLELISM = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private final StayRepository stayRepository;
+    private final RoomNightChargeRepository nightChargeRepository;
+    private final TaxService taxService;
+    private final TransactionTemplate transactionTemplate;
+
+    public NightAuditJob(StayRepository stayRepository,
+            RoomNightChargeRepository nightChargeRepository,
+            TaxService taxService,
+            PlatformTransactionManager transactionManager) {
+        this.stayRepository = stayRepository;
+        this.nightChargeRepository = nightChargeRepository;
+        this.taxService = taxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Scheduled night audit: posts the business date that just ended.
+     */
+    @Scheduled(cron = "${hotel.night-audit.cron:0 0 2 * * *}")
+    public void runNightAudit() {
+        postRoomNights(RoomNightCharge.currentBusinessDate());
+    }
+
+    /**
+     * Post a room-night for every stay in-house on the given business date.
+     *
+     * @param businessDate Night being posted
+     * @return Number of room-night charges written
+     */
+    public int postRoomNights(LocalDate businessDate) {
+        if (businessDate == null) {
+            throw new IllegalArgumentException("Business date cannot be null");
+        }
+
+        Set<Long> alreadyPosted = new HashSet<>(nightChargeRepository.findPostedStayIds(businessDate));
+        List<Stay> toPost = new ArrayList<>();
+        for (Stay stay : stayRepository.findAllActive()) {
+            if (stay.getCheckInTime() != null
+                    && !stay.getCheckInTime().toLocalDate().isAfter(businessDate)
+                    && !alreadyPosted.contains(stay.getStayId())) {
+                toPost.add(stay);
+            }
+        }
+
+        if (toPost.isEmpty()) {
+            System.out.println("[NightAuditJob] Nothing to post for " + businessDate);
+            return 0;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            int posted = pool.invoke(new PostingTask(toPost, 0, toPost.size(), businessDate));
+            System.out.println("[NightAuditJob] Posted " + posted + " room-night(s) for " + businessDate
+                    + " (" + toPost.size() + " in-house stays)");
+            return posted;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Price a single room-night from the stay's current room type.
+     */
+    private RoomNightCharge buildCharge(Stay stay, LocalDate businessDate, LocalDateTime postedTime) {
+        RoomType roomType = stay.getRoom() != null ? stay.getRoom().getRoomType() : null;
+        Money rate = roomType != null && roomType.getBasePriceMoney() != null
+                ? roomType.getBasePriceMoney()
+                : DEFAULT_RATE;
+        BigDecimal taxRate = roomType != null && roomType.getTaxRate() != null
+                ? roomType.getTaxRate()
+                : DEFAULT_TAX_RATE;
+
+        RoomNightCharge charge = new RoomNightCharge();
+        charge.setStay(stay);
+        charge.setBusinessDate(businessDate);
+        charge.setRoomNumber(stay.getRoom() != null ? stay.getRoom().getRoomNumber() : null);
+        charge.setAmountMoney(rate);
+        charge.setTaxRate(taxRate);
+        charge.setTaxAmountMoney(Money.ofMinor(taxService.computeTaxMinor(TaxService.CHARGE_ROOM, roomType,
+                stay.getGuest(), rate.getMinorUnits(), 1L)));
+        charge.setPostedTime(postedTime);
+        return charge;
+    }
+
+    /**
+     * Splits the stay list until a partition fits in one batch, then prices
+     * and commits that batch.
+     */
+    private class PostingTask extends RecursiveTask<Integer> {
+
+        private final List<Stay> stays;
+        private final int from;
+        private final int to;
+        private final LocalDate businessDate;
+
+        PostingTask(List<Stay> stays, int from, int to, LocalDate businessDate) {
+            this.stays = stays;
+            this.from = from;
+            this.to = to;
+            this.businessDate = businessDate;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= BATCH_SIZE) {
+                return postBatch();
+            }
+            int mid = (from + to) >>> 1;
+            PostingTask left = new PostingTask(stays, from, mid, businessDate);
+            left.fork();
+            int right = new PostingTask(stays, mid, to, businessDate).compute();
+            return left.join() + right;
+        }
+
+        private int postBatch() {
+            List<Stay> pending = stays.subList(from, to);
+            while (!pending.isEmpty()) {
+                // Rebuilt on every attempt: a rolled-back save leaves IDs on the old entities
+                LocalDateTime postedTime = LocalDateTime.now();
+                List<RoomNightCharge> batch = new ArrayList<>(pending.size());
+                for (Stay stay : pending) {
+                    batch.add(buildCharge(stay, businessDate, postedTime));
+                }
+                try {
+                    transactionTemplate.executeWithoutResult(status -> nightChargeRepository.saveAll(batch));
+                    return batch.size();
+                } catch (DataIntegrityViolationException e) {
+                    // Another audit run posted some of these stays first; retry the rest
+                    Set<Long> posted = new HashSet<>(nightChargeRepository.findPostedStayIds(businessDate));
+                    List<Stay> remaining = new ArrayList<>(pending.size());
+                    for (Stay stay : pending) {
+                        if (!posted.contains(stay.getStayId())) {
+                            remaining.add(stay);
+                        }
+                    }
+                    if (remaining.size() == pending.size()) {
+                        throw e; // not a duplicate posting
+                    }
+                    System.out.println("[NightAuditJob] " + (pending.size() - remaining.size())
+                            + " stay(s) of a batch already posted for " + businessDate + " - posting the other "
+                            + remaining.size());
+                    pending = remaining;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.hotel.smarttrack.stay;
 
+import com.hotel.smarttrack.cache.ReferenceDataCache;
 import com.hotel.smarttrack.entity.*;
 import com.hotel.smarttrack.repository.IncidentalChargeRepository;
+import com.hotel.smarttrack.repository.RoomNightChargeRepository;
 import com.hotel.smarttrack.repository.StayRepository;
+import com.hotel.smarttrack.service.GuestProfileService;
 import com.hotel.smarttrack.service.GuestService;
+import com.hotel.smarttrack.service.HotelStatisticsService;
 import com.hotel.smarttrack.service.ReservationService;
 import com.hotel.smarttrack.service.RoomService;
 import com.hotel.smarttrack.service.StayService;
 import com.hotel.smarttrack.service.BillingService;
+import com.hotel.smarttrack.service.TaxService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +35,7 @@ import java.util.Optional;
  * - RoomService: Update room status during check-in/out
  * - ReservationService: Verify and update reservation status
  * - GuestService: Validate walk-in guests
+ * - GuestProfileService: VIP flag at check-in, completed stays at check-out
  * - BillingService: Generate invoice at checkout (TODO: future integration)
  * 
  * @author Elvis Sawing
@@ -47,28 +52,46 @@ public class StayManager implements StayService {
     private static final String ROOM_AVAILABLE = "Available";
     private static final String ROOM_CLEANING = "Under Cleaning";
 
+    // Billing constants ($100.00 default nightly rate)
+    private static final Money DEFAULT_RATE = Money.ofMinor(10_000L);
+
     // Own repositories
     private final StayRepository stayRepository;
     private final IncidentalChargeRepository chargeRepository;
+    private final RoomNightChargeRepository nightChargeRepository;
 
     // Cross-module service dependencies
     private final RoomService roomService;
     private final ReservationService reservationService;
     private final GuestService guestService;
     private final BillingService billingService;
+    private final HotelStatisticsService statisticsService;
+    private final GuestProfileService guestProfileService;
+    private final TaxService taxService;
+    private final ReferenceDataCache referenceDataCache;
 
     public StayManager(StayRepository stayRepository,
             IncidentalChargeRepository chargeRepository,
+            RoomNightChargeRepository nightChargeRepository,
             RoomService roomService,
             ReservationService reservationService,
             GuestService guestService,
-            BillingService billingService) {
+            BillingService billingService,
+            HotelStatisticsService statisticsService,
+            GuestProfileService guestProfileService,
+            TaxService taxService,
+            ReferenceDataCache referenceDataCache) {
         this.stayRepository = stayRepository;
         this.chargeRepository = chargeRepository;
+        this.nightChargeRepository = nightChargeRepository;
         this.roomService = roomService;
         this.reservationService = reservationService;
         this.guestService = guestService;
         this.billingService = billingService;
+        this.statisticsService = statisticsService;
+        this.guestProfileService = guestProfileService;
+        this.taxService = taxService;
+        this.referenceDataCache = referenceDataCache;
     }
 
     // ============ UC13: Check-In Operations ============
@@ -108,11 +131,12 @@ public class StayManager implements StayService {
         // For now, we'll update directly but this should be changed when
         // ReservationService is implemented
         reservation.setStatus("Checked-In");
-        reservationService.confirmReservation(reservationId); // Using existing method as proxy
+        statisticsService.reservationChanged(reservation);
 
         Stay saved = stayRepository.save(stay);
+        statisticsService.stayChanged(saved);
         System.out.println("[StayManager] Checked in guest " + reservation.getGuest().getName()
-                + " to room " + room.getRoomNumber());
+                + vipMarker(reservation.getGuest()) + " to room " + room.getRoomNumber());
         return saved;
     }
 
@@ -120,7 +144,7 @@ public class StayManager implements StayService {
     @Transactional
     public Stay checkInWalkIn(Long guestId, Long roomId) {
         // Get guest via GuestService
-        Guest guest = guestService.getGuestById(guestId)
+        Guest guest = referenceDataCache.getGuest(guestId, guestService::getGuestById)
                 .orElseThrow(() -> new IllegalArgumentException("Guest not found: " + guestId));
 
         // Get room via RoomService
@@ -143,7 +167,8 @@ public class StayManager implements StayService {
         roomService.updateRoomStatus(roomId, ROOM_OCCUPIED);
 
         Stay saved = stayRepository.save(stay);
-        System.out.println("[StayManager] Walk-in check-in: " + guest.getName()
+        statisticsService.stayChanged(saved);
+        System.out.println("[StayManager] Walk-in check-in: " + guest.getName() + vipMarker(guest)
                 + " to room " + room.getRoomNumber());
         return saved;
     }
@@ -244,9 +269,12 @@ public class StayManager implements StayService {
         if (reservation != null) {
             // TODO: Use reservationService.updateReservationStatus() when available
             reservation.setStatus("Checked-Out");
+            statisticsService.reservationChanged(reservation);
         }
 
-        stayRepository.save(stay);
+        Stay saved = stayRepository.save(stay);
+        statisticsService.stayChanged(saved);
+        guestProfileService.stayChanged(saved);
 
         // Generate invoice via BillingService (UC16)
         billingService.generateInvoice(stayId);
@@ -262,49 +290,85 @@ public class StayManager implements StayService {
             return BigDecimal.ZERO;
         }
 
-        // Calculate room charges
-        BigDecimal roomCharges = calculateRoomCharges(stay);
+        // Calculate room charges (posted room-nights + nights not yet audited)
+        List<RoomNightCharge> postedNights = nightChargeRepository.findByStayId(stayId);
+        Money roomCharges = calculateRoomCharges(stay, postedNights);
 
         // Get incidental charges total
-        BigDecimal incidentalTotal = chargeRepository.getTotalChargesForStay(stayId);
-        if (incidentalTotal == null) {
-            incidentalTotal = BigDecimal.ZERO;
+        List<IncidentalCharge> incidentals = chargeRepository.findByStayId(stayId);
+        Money incidentalTotal = Money.ZERO;
+        for (IncidentalCharge charge : incidentals) {
+            if (charge.getAmountMoney() != null) {
+                incidentalTotal = incidentalTotal.plus(charge.getAmountMoney());
+            }
         }
 
-        // Apply 10% tax
-        BigDecimal subtotal = roomCharges.add(incidentalTotal);
-        BigDecimal tax = subtotal.multiply(BigDecimal.valueOf(0.10));
+        // Posted nights carry their own tax; TaxService taxes the rest
+        Money subtotal = roomCharges.plus(incidentalTotal);
+        Money tax = calculateTax(stay, postedNights, incidentals);
 
-        BigDecimal total = subtotal.add(tax);
-        System.out.println("[StayManager] Outstanding balance for stay " + stayId + ": $" + total
-                + " (Room: $" + roomCharges + ", Incidentals: $" + incidentalTotal + ", Tax: $" + tax + ")");
-        return total;
+        Money total = subtotal.plus(tax);
+        System.out.println("[StayManager] Outstanding balance for stay " + stayId + ": $" + total.toBigDecimal()
+                + " (Room: $" + roomCharges.toBigDecimal() + ", Incidentals: $" + incidentalTotal.toBigDecimal()
+                + ", Tax: $" + tax.toBigDecimal() + ")");
+        return total.toBigDecimal();
     }
 
     /**
-     * Calculate room charges based on nights stayed and room rate.
+     * Calculate room charges: room-nights posted by the night audit, plus any
+     * nights through the current business date not yet posted, at the
+     * current room rate.
      */
-    private BigDecimal calculateRoomCharges(Stay stay) {
+    private Money calculateRoomCharges(Stay stay, List<RoomNightCharge> postedNights) {
+        Money posted = Money.ZERO;
+        for (RoomNightCharge night : postedNights) {
+            posted = posted.plus(night.getAmountMoney());
+        }
         if (stay.getRoom() == null || stay.getRoom().getRoomType() == null) {
-            return BigDecimal.ZERO;
+            return posted;
         }
 
-        LocalDateTime checkIn = stay.getCheckInTime();
-        LocalDateTime checkOut = stay.getCheckOutTime() != null
-                ? stay.getCheckOutTime()
-                : LocalDateTime.now();
+        long unposted = stay.unpostedNights(postedNights.size(), RoomNightCharge.currentBusinessDate());
+        return posted.plus(nightlyRate(stay).times(unposted));
+    }
 
-        long nights = ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut.toLocalDate());
-        if (nights < 1) {
-            nights = 1; // Minimum 1 night charge
-        }
+    /**
+     * " (VIP)" for a guest meeting the VIP thresholds - a map lookup, not a
+     * scan of their history.
+     */
+    private String vipMarker(Guest guest) {
+        return guest != null && guestProfileService.isVip(guest.getGuestId()) ? " (VIP)" : "";
+    }
 
-        BigDecimal rate = stay.getRoom().getRoomType().getBasePrice();
-        if (rate == null) {
-            rate = BigDecimal.valueOf(100.00); // Default rate
-        }
+    private static Money nightlyRate(Stay stay) {
+        Money rate = stay.getRoom().getRoomType().getBasePriceMoney();
+        return rate != null ? rate : DEFAULT_RATE;
+    }
 
-        return rate.multiply(BigDecimal.valueOf(nights));
+    /**
+     * Tax for a folio: the tax already posted with each room-night, plus
+     * TaxService on the unposted nights and on each incidental.
+     */
+    private Money calculateTax(Stay stay, List<RoomNightCharge> postedNights, List<IncidentalCharge> incidentals) {
+        RoomType roomType = stay.getRoom() != null ? stay.getRoom().getRoomType() : null;
+        Guest guest = stay.getGuest();
+
+        long tax = 0L;
+        for (RoomNightCharge night : postedNights) {
+            tax += night.getTaxAmountMoney().getMinorUnits();
+        }
+        if (roomType != null) {
+            long unposted = stay.unpostedNights(postedNights.size(), RoomNightCharge.currentBusinessDate());
+            tax += taxService.computeTaxMinor(TaxService.CHARGE_ROOM, roomType, guest,
+                    nightlyRate(stay).times(unposted).getMinorUnits(), unposted);
+        }
+        for (IncidentalCharge charge : incidentals) {
+            if (charge.getAmountMoney() != null) {
+                tax += taxService.computeTaxMinor(charge.getServiceType(), roomType, guest,
+                        charge.getAmountMoney().getMinorUnits(), 0L);
+            }
+        }
+        return Money.ofMinor(tax);
     }
 
     // ============ Query Operations ============
@@ -2,6 +2,7 @@ package com.hotel.smarttrack.stay.console;
 
 import com.hotel.smarttrack.entity.IncidentalCharge;
 import com.hotel.smarttrack.entity.Stay;
+import com.hotel.smarttrack.service.GuestProfileService;
 import com.hotel.smarttrack.service.StayService;
 import org.springframework.stereotype.Component;
 
@@ -21,10 +22,12 @@ import java.util.Scanner;
 public class StayManagementConsole {
 
     private final StayService stayService;
+    private final GuestProfileService guestProfileService;
     private Scanner scanner;
 
-    public StayManagementConsole(StayService stayService) {
+    public StayManagementConsole(StayService stayService, GuestProfileService guestProfileService) {
         this.stayService = stayService;
+        this.guestProfileService = guestProfileService;
     }
 
     /**
@@ -333,6 +336,9 @@ public class StayManagementConsole {
         }
         if (stay.getGuest() != null) {
             System.out.printf("│  Guest:        %-24s │%n", stay.getGuest().getName());
+            if (guestProfileService.isVip(stay.getGuest().getGuestId())) {
+                System.out.printf("│  VIP:          %-24s │%n", "Yes");
+            }
         }
         if (stay.getCheckInTime() != null) {
             System.out.printf("│  Check-In:     %-24s │%n", formatDateTime(stay.getCheckInTime()));